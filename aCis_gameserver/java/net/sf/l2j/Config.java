@@ -233,11 +233,14 @@ public final class Config
 	public static int GEODATA;
 	public static String GEODATA_PATH;
 	public static GeoFormat GEODATA_FORMAT;
+	public static boolean GEODATA_MAPPED;
 	public static int COORD_SYNCHRONIZE;
 	
 	/** Path checking */
 	public static int PART_OF_CHARACTER_HEIGHT;
 	public static int MAX_OBSTACLE_HEIGHT;
+	public static int CHECK_CACHE_SIZE;
+	public static int CHECK_CACHE_TIME;
 	
 	/** Path finding */
 	public static String PATHFIND_BUFFERS;
@@ -246,6 +249,10 @@ public final class Config
 	public static int HEURISTIC_WEIGHT;
 	public static int OBSTACLE_MULTIPLIER;
 	public static int MAX_ITERATIONS;
+	public static boolean PATHFIND_CLUSTERS;
+	public static boolean PATHFIND_ASYNC;
+	public static int PATHFIND_THREADS;
+	public static int PATHFIND_TIMEOUT;
 	public static boolean DEBUG_PATH;
 	
 	// --------------------------------------------------
@@ -530,6 +537,15 @@ public final class Config
 	public static String DATABASE_PASSWORD;
 	public static int DATABASE_MAX_CONNECTIONS;
 	public static int DATABASE_MAX_IDLE_TIME;
+	public static int DATABASE_THREADS;
+	public static int DATABASE_QUEUE_SIZE;
+	public static int DATABASE_SLOW_QUERY_TIME;
+	public static int ITEMS_WRITE_DELAY;
+	public static int ITEMS_WRITE_QUEUE_SIZE;
+	public static int QUESTS_WRITE_DELAY;
+	public static int STARTUP_THREADS;
+	public static boolean XML_SNAPSHOTS;
+	public static boolean SCRIPT_BUNDLE;
 	
 	/** serverList & Test */
 	public static boolean SERVER_LIST_BRACKET;
@@ -663,10 +679,11 @@ public final class Config
 	public static boolean RESERVE_HOST_ON_LOGIN = false; // default false
 	
 	/** MMO settings */
-	public static int MMO_SELECTOR_SLEEP_TIME = 20; // default 20
-	public static int MMO_MAX_SEND_PER_PASS = 12; // default 12
+	public static boolean MMO_BLOCKING_SELECT = true; // default true
+	public static int MMO_SELECTOR_SLEEP_TIME = 20; // default 20, unused with MMO_BLOCKING_SELECT
 	public static int MMO_MAX_READ_PER_PASS = 12; // default 12
 	public static int MMO_HELPER_BUFFER_COUNT = 20; // default 20
+	public static int MMO_SELECTOR_THREAD_COUNT = 1; // default 1
 	
 	/** Client Packets Queue settings */
 	public static int CLIENT_PACKET_QUEUE_SIZE = 14; // default MMO_MAX_READ_PER_PASS + 2
@@ -877,10 +894,13 @@ public final class Config
 			GEODATA = geoengine.getProperty("GeoData", 0);
 			GEODATA_PATH = geoengine.getProperty("GeoDataPath", "./data/geodata/");
 			GEODATA_FORMAT = Enum.valueOf(GeoFormat.class, geoengine.getProperty("GeoDataFormat", GeoFormat.L2J.toString()));
+			GEODATA_MAPPED = geoengine.getProperty("GeoDataMapped", false);
 			COORD_SYNCHRONIZE = geoengine.getProperty("CoordSynchronize", -1);
 			
 			PART_OF_CHARACTER_HEIGHT = geoengine.getProperty("PartOfCharacterHeight", 75);
 			MAX_OBSTACLE_HEIGHT = geoengine.getProperty("MaxObstacleHeight", 32);
+			CHECK_CACHE_SIZE = geoengine.getProperty("CheckCacheSize", 65536);
+			CHECK_CACHE_TIME = geoengine.getProperty("CheckCacheTime", 10000);
 			
 			PATHFIND_BUFFERS = geoengine.getProperty("PathFindBuffers", "100x6;128x6;192x6;256x4;320x4;384x4;500x2");
 			BASE_WEIGHT = geoengine.getProperty("BaseWeight", 10);
@@ -888,6 +908,10 @@ public final class Config
 			OBSTACLE_MULTIPLIER = geoengine.getProperty("ObstacleMultiplier", 10);
 			HEURISTIC_WEIGHT = geoengine.getProperty("HeuristicWeight", 20);
 			MAX_ITERATIONS = geoengine.getProperty("MaxIterations", 3500);
+			PATHFIND_CLUSTERS = geoengine.getProperty("PathFindClusters", false);
+			PATHFIND_ASYNC = geoengine.getProperty("PathFindAsync", false);
+			PATHFIND_THREADS = geoengine.getProperty("PathFindThreads", 2);
+			PATHFIND_TIMEOUT = geoengine.getProperty("PathFindTimeout", 1000);
 			DEBUG_PATH = geoengine.getProperty("DebugPath", false);
 			
 			// HexID
@@ -1130,6 +1154,17 @@ public final class Config
 			DATABASE_PASSWORD = server.getProperty("Password", "");
 			DATABASE_MAX_CONNECTIONS = server.getProperty("MaximumDbConnections", 10);
 			DATABASE_MAX_IDLE_TIME = server.getProperty("MaximumDbIdleTime", 0);
+			DATABASE_THREADS = server.getProperty("DatabaseThreads", 4);
+			DATABASE_QUEUE_SIZE = server.getProperty("DatabaseQueueSize", 10000);
+			DATABASE_SLOW_QUERY_TIME = server.getProperty("DatabaseSlowQueryTime", 100);
+			ITEMS_WRITE_DELAY = server.getProperty("ItemsWriteDelay", 1000);
+			ITEMS_WRITE_QUEUE_SIZE = server.getProperty("ItemsWriteQueueSize", 1000);
+			QUESTS_WRITE_DELAY = server.getProperty("QuestsWriteDelay", 10000);
+			STARTUP_THREADS = server.getProperty("StartupThreads", 0);
+			if (STARTUP_THREADS <= 0)
+				STARTUP_THREADS = Runtime.getRuntime().availableProcessors();
+			XML_SNAPSHOTS = server.getProperty("XmlSnapshots", true);
+			SCRIPT_BUNDLE = server.getProperty("ScriptBundle", true);
 			
 			SERVER_LIST_BRACKET = server.getProperty("ServerListBrackets", false);
 			SERVER_LIST_CLOCK = server.getProperty("ServerListClock", false);
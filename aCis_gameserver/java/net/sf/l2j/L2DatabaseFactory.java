@@ -18,15 +18,36 @@ import com.mchange.v2.c3p0.ComboPooledDataSource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Connection pool, and database execution service.<br>
+ * <br>
+ * Jobs given to {@link #execute(String, int, Update)} or {@link #submit(String, int, Query)} are run by a bounded set of lanes, each one a single thread with its own queue. The lane is picked from a key (player, clan...), so jobs sharing a key are run in the order they were given. Callers never wait : a lane queue holding more than {@link Config#DATABASE_QUEUE_SIZE} jobs keeps growing, and is logged and counted as an overflow.<br>
+ * <br>
+ * Each job is timed by name. A job running longer than {@link Config#DATABASE_SLOW_QUERY_TIME} ms is logged, along with the time it waited in queue.
+ */
 public class L2DatabaseFactory
 {
 	protected static Logger _log = Logger.getLogger(L2DatabaseFactory.class.getName());
 	
 	private ComboPooledDataSource _source;
 	
+	private volatile ThreadPoolExecutor[] _lanes;
+	private final Map<String, QueryStats> _stats = new ConcurrentHashMap<>();
+	private final AtomicLong _overflows = new AtomicLong();
+	
 	public static L2DatabaseFactory getInstance()
 	{
 		return SingletonHolder._instance;
@@ -92,6 +113,24 @@ public class L2DatabaseFactory
 	
 	public void shutdown()
 	{
+		// Pending jobs are run before the pool is closed.
+		final ThreadPoolExecutor[] lanes = _lanes;
+		if (lanes != null)
+		{
+			for (ThreadPoolExecutor lane : lanes)
+				lane.shutdown();
+			
+			try
+			{
+				for (ThreadPoolExecutor lane : lanes)
+					lane.awaitTermination(60, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				_log.log(Level.INFO, "", e);
+			}
+		}
+		
 		try
 		{
 			_source.close();
@@ -152,6 +191,210 @@ public class L2DatabaseFactory
 		return con;
 	}
 	
+	/**
+	 * Runs the job on the lane of the key, and forgets it. A failure is logged.
+	 * @param name : The name of the job, used for statistics and logs.
+	 * @param key : The key, jobs of same key being run in order.
+	 * @param update : The job to run.
+	 */
+	public void execute(String name, int key, Update update)
+	{
+		submit(name, key, con ->
+		{
+			update.execute(con);
+			return null;
+		});
+	}
+	
+	/**
+	 * Runs the job on the lane of the key. A failure is logged, and completes the future exceptionally.<br>
+	 * <br>
+	 * Callbacks set on the future are run by the lane thread : they must be short, and not touch the database synchronously.
+	 * @param <T> : The type of the result.
+	 * @param name : The name of the job, used for statistics and logs.
+	 * @param key : The key, jobs of same key being run in order.
+	 * @param query : The job to run.
+	 * @return CompletableFuture : The future result of the job.
+	 */
+	public <T> CompletableFuture<T> submit(String name, int key, Query<T> query)
+	{
+		final Job<T> job = new Job<>(name, query);
+		
+		final ThreadPoolExecutor lane = getLane(key);
+		lane.execute(job);
+		
+		// Lane is late : keep the job, rather than making the caller wait.
+		final int queued = lane.getQueue().size();
+		if (queued > Config.DATABASE_QUEUE_SIZE)
+		{
+			// Log the first overflow, then once each DATABASE_QUEUE_SIZE overflows.
+			if (_overflows.getAndIncrement() % Math.max(1, Config.DATABASE_QUEUE_SIZE) == 0)
+				_log.warning("L2DatabaseFactory: " + queued + " jobs queued on the lane of " + name + ", database is late.");
+		}
+		return job._future;
+	}
+	
+	/**
+	 * Waits until the jobs given so far for the key are done. Used before reading data written through the lanes ; never call it from a lane thread.
+	 * @param key : The key.
+	 */
+	public void await(int key)
+	{
+		final CompletableFuture<Void> done = new CompletableFuture<>();
+		getLane(key).execute(() -> done.complete(null));
+		
+		try
+		{
+			done.get();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "L2DatabaseFactory: couldn't wait jobs of key " + key + ": " + e.getMessage(), e);
+		}
+	}
+	
+	private ThreadPoolExecutor getLane(int key)
+	{
+		ThreadPoolExecutor[] lanes = _lanes;
+		if (lanes == null)
+		{
+			synchronized (this)
+			{
+				lanes = _lanes;
+				if (lanes == null)
+				{
+					lanes = new ThreadPoolExecutor[Math.max(1, Config.DATABASE_THREADS)];
+					for (int i = 0; i < lanes.length; i++)
+						lanes[i] = createLane(i);
+					
+					_lanes = lanes;
+				}
+			}
+		}
+		return lanes[Math.abs(key % lanes.length)];
+	}
+	
+	private static ThreadPoolExecutor createLane(int id)
+	{
+		final ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r ->
+		{
+			final Thread thread = new Thread(r, "DatabaseLane-" + id);
+			thread.setDaemon(true);
+			return thread;
+		}, (r, executor) ->
+		{
+			// Lane is stopped : run the job on the caller thread.
+			r.run();
+		});
+		lane.prestartCoreThread();
+		return lane;
+	}
+	
+	/**
+	 * @return String : The queued jobs, and the count and timings of each job name.
+	 */
+	public String getStats()
+	{
+		final StringBuilder sb = new StringBuilder(1000);
+		
+		int queued = 0;
+		final ThreadPoolExecutor[] lanes = _lanes;
+		if (lanes != null)
+		{
+			for (ThreadPoolExecutor lane : lanes)
+				queued += lane.getQueue().size();
+		}
+		StringUtil.append(sb, "Database:\r\n" + "Lanes: ", String.valueOf(lanes == null ? 0 : lanes.length), ", queued jobs: ", String.valueOf(queued), ", overflows: ", String.valueOf(_overflows.get()), "\r\n");
+		
+		for (Map.Entry<String, QueryStats> entry : _stats.entrySet())
+		{
+			final QueryStats stats = entry.getValue();
+			final long count = stats._count.get();
+			StringUtil.append(sb, entry.getKey(), ": ", String.valueOf(count), " runs, avg: ", String.valueOf(count == 0 ? 0 : stats._totalTime.get() / count), " ms, max: ", String.valueOf(stats._maxTime.get()), " ms, slow: ", String.valueOf(stats._slowCount.get()), "\r\n");
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * A database job, run on a connection of the pool, and giving a result.
+	 * @param <T> : The type of the result.
+	 */
+	@FunctionalInterface
+	public interface Query<T>
+	{
+		public T execute(Connection con) throws Exception;
+	}
+	
+	/**
+	 * A database job, run on a connection of the pool.
+	 */
+	@FunctionalInterface
+	public interface Update
+	{
+		public void execute(Connection con) throws Exception;
+	}
+	
+	private final class Job<T> implements Runnable
+	{
+		private final String _name;
+		private final Query<T> _query;
+		private final CompletableFuture<T> _future = new CompletableFuture<>();
+		private final long _queueTime = System.currentTimeMillis();
+		
+		protected Job(String name, Query<T> query)
+		{
+			_name = name;
+			_query = query;
+		}
+		
+		@Override
+		public void run()
+		{
+			final long startTime = System.currentTimeMillis();
+			
+			T result = null;
+			Exception error = null;
+			try (Connection con = getConnection())
+			{
+				result = _query.execute(con);
+			}
+			catch (Exception e)
+			{
+				error = e;
+				_log.log(Level.WARNING, "L2DatabaseFactory: " + _name + " failed: " + e.getMessage(), e);
+			}
+			
+			final long time = System.currentTimeMillis() - startTime;
+			final boolean slow = Config.DATABASE_SLOW_QUERY_TIME > 0 && time >= Config.DATABASE_SLOW_QUERY_TIME;
+			if (slow)
+				_log.warning("L2DatabaseFactory: slow query " + _name + ": " + time + " ms, after " + (startTime - _queueTime) + " ms in queue.");
+			
+			_stats.computeIfAbsent(_name, k -> new QueryStats()).add(time, slow);
+			
+			if (error == null)
+				_future.complete(result);
+			else
+				_future.completeExceptionally(error);
+		}
+	}
+	
+	private static final class QueryStats
+	{
+		private final AtomicLong _count = new AtomicLong();
+		private final AtomicLong _totalTime = new AtomicLong();
+		private final AtomicLong _maxTime = new AtomicLong();
+		private final AtomicInteger _slowCount = new AtomicInteger();
+		
+		protected void add(long time, boolean slow)
+		{
+			_count.incrementAndGet();
+			_totalTime.addAndGet(time);
+			_maxTime.accumulateAndGet(time, Math::max);
+			if (slow)
+				_slowCount.incrementAndGet();
+		}
+	}
+	
 	private static class SingletonHolder
 	{
 		protected static final L2DatabaseFactory _instance;
@@ -0,0 +1,113 @@
+/* This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2, or (at your option)
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place - Suite 330, Boston, MA
+ * 02111-1307, USA.
+ *
+ * http://www.gnu.org/copyleft/gpl.html
+ */
+package net.sf.l2j.commons.mmocore;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A lock-free pool of direct ByteBuffers, sorted by size classes. Each class is twice as large as the previous one, from MIN_SIZE up to the given maximum size.<br>
+ * Buffers are shared between all selectors ; a buffer can be taken by one thread and recycled by another.
+ */
+public final class DirectBufferPool
+{
+	private static final int MIN_SIZE = 8 * 1024;
+	
+	private final ByteOrder _order;
+	private final int _maxCountPerClass;
+	
+	private final int[] _sizes;
+	private final ConcurrentLinkedQueue<ByteBuffer>[] _buffers;
+	private final AtomicInteger[] _counts;
+	
+	@SuppressWarnings(
+	{
+		"rawtypes",
+		"unchecked"
+	})
+	public DirectBufferPool(final ByteOrder order, final int maxSize, final int maxCountPerClass)
+	{
+		_order = order;
+		_maxCountPerClass = maxCountPerClass;
+		
+		int classes = 1;
+		for (int size = MIN_SIZE; size < maxSize; size <<= 1)
+			classes++;
+		
+		_sizes = new int[classes];
+		_buffers = new ConcurrentLinkedQueue[classes];
+		_counts = new AtomicInteger[classes];
+		
+		for (int i = 0; i < classes; i++)
+		{
+			_sizes[i] = Math.min(MIN_SIZE << i, Math.max(maxSize, MIN_SIZE));
+			_buffers[i] = new ConcurrentLinkedQueue<>();
+			_counts[i] = new AtomicInteger();
+		}
+	}
+	
+	/**
+	 * @param minSize : the minimum capacity of the buffer.
+	 * @return a cleared direct buffer from the smallest size class able to hold minSize bytes. Sizes higher than the biggest class are allocated without being pooled.
+	 */
+	public ByteBuffer get(final int minSize)
+	{
+		final int index = getClassIndex(minSize);
+		if (index < 0)
+			return ByteBuffer.allocateDirect(minSize).order(_order);
+		
+		final ByteBuffer buf = _buffers[index].poll();
+		if (buf == null)
+			return ByteBuffer.allocateDirect(_sizes[index]).order(_order);
+		
+		_counts[index].decrementAndGet();
+		return buf;
+	}
+	
+	/**
+	 * Give a buffer back to the pool. It is dropped if its size class is already full, or if it doesn't come from this pool.
+	 * @param buf : the buffer to recycle.
+	 */
+	public void recycle(final ByteBuffer buf)
+	{
+		final int index = getClassIndex(buf.capacity());
+		if (index < 0 || _sizes[index] != buf.capacity())
+			return;
+		
+		if (_counts[index].incrementAndGet() > _maxCountPerClass)
+		{
+			_counts[index].decrementAndGet();
+			return;
+		}
+		
+		buf.clear();
+		_buffers[index].offer(buf);
+	}
+	
+	private int getClassIndex(final int size)
+	{
+		for (int i = 0; i < _sizes.length; i++)
+		{
+			if (_sizes[i] >= size)
+				return i;
+		}
+		return -1;
+	}
+}
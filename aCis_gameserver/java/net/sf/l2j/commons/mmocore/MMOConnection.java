@@ -22,9 +22,10 @@ import java.net.InetAddress;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.CancelledKeyException;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectionKey;
-import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
 
 /**
  * @author KenM
@@ -37,7 +38,7 @@ public class MMOConnection<T extends MMOClient<?>>
 	private final InetAddress _address;
 	
 	private final ReadableByteChannel _readableByteChannel;
-	private final WritableByteChannel _writableByteChannel;
+	private final GatheringByteChannel _writableByteChannel;
 	
 	private final int _port;
 	
@@ -46,8 +47,9 @@ public class MMOConnection<T extends MMOClient<?>>
 	private final SelectionKey _selectionKey;
 	
 	private ByteBuffer _readBuffer;
-	private ByteBuffer _primaryWriteBuffer;
-	private ByteBuffer _secondaryWriteBuffer;
+	
+	// Encrypted frames waiting to be written, in read mode
+	private final ArrayDeque<ByteBuffer> _pendingFrames = new ArrayDeque<>();
 	
 	private volatile boolean _pendingClose;
 	
@@ -100,6 +102,7 @@ public class MMOConnection<T extends MMOClient<?>>
 			{
 				// ignore
 			}
+			_selectorThread.wakeup();
 		}
 	}
 	
@@ -128,57 +131,46 @@ public class MMOConnection<T extends MMOClient<?>>
 		return _readableByteChannel.read(buf);
 	}
 	
-	final int write(final ByteBuffer buf) throws IOException
+	final long write(final ByteBuffer[] frames, final int offset, final int length) throws IOException
 	{
-		return _writableByteChannel.write(buf);
+		return _writableByteChannel.write(frames, offset, length);
 	}
 	
-	final void createWriteBuffer(final ByteBuffer buf)
+	final void addPendingFrame(final ByteBuffer frame)
 	{
-		if (_primaryWriteBuffer == null)
-		{
-			_primaryWriteBuffer = _selectorThread.getPooledBuffer();
-			_primaryWriteBuffer.put(buf);
-		}
-		else
-		{
-			final ByteBuffer temp = _selectorThread.getPooledBuffer();
-			temp.put(buf);
-			
-			final int remaining = temp.remaining();
-			_primaryWriteBuffer.flip();
-			final int limit = _primaryWriteBuffer.limit();
-			
-			if (remaining >= _primaryWriteBuffer.remaining())
-			{
-				temp.put(_primaryWriteBuffer);
-				_selectorThread.recycleBuffer(_primaryWriteBuffer);
-				_primaryWriteBuffer = temp;
-			}
-			else
-			{
-				_primaryWriteBuffer.limit(remaining);
-				temp.put(_primaryWriteBuffer);
-				_primaryWriteBuffer.limit(limit);
-				_primaryWriteBuffer.compact();
-				_secondaryWriteBuffer = _primaryWriteBuffer;
-				_primaryWriteBuffer = temp;
-			}
-		}
+		_pendingFrames.addLast(frame);
 	}
 	
-	final boolean hasPendingWriteBuffer()
+	final ArrayDeque<ByteBuffer> getPendingFrames()
+	{
+		return _pendingFrames;
+	}
+	
+	/**
+	 * @return the amount of encrypted bytes waiting to be written.
+	 */
+	final int getPendingWriteSize()
 	{
-		return _primaryWriteBuffer != null;
+		int size = 0;
+		for (ByteBuffer frame : _pendingFrames)
+			size += frame.remaining();
+		
+		return size;
 	}
 	
-	final void movePendingWriteBufferTo(final ByteBuffer dest)
+	/**
+	 * Recycle the leading frames which have been fully written.
+	 */
+	final void releaseWrittenFrames()
 	{
-		_primaryWriteBuffer.flip();
-		dest.put(_primaryWriteBuffer);
-		_selectorThread.recycleBuffer(_primaryWriteBuffer);
-		_primaryWriteBuffer = _secondaryWriteBuffer;
-		_secondaryWriteBuffer = null;
+		ByteBuffer frame;
+		while ((frame = _pendingFrames.peekFirst()) != null && !frame.hasRemaining())
+			_selectorThread.recycleFrame(_pendingFrames.pollFirst());
+	}
+	
+	final boolean hasPendingWriteBuffer()
+	{
+		return !_pendingFrames.isEmpty();
 	}
 	
 	final void setReadBuffer(final ByteBuffer buf)
@@ -240,17 +232,9 @@ public class MMOConnection<T extends MMOClient<?>>
 	
 	final void releaseBuffers()
 	{
-		if (_primaryWriteBuffer != null)
-		{
-			_selectorThread.recycleBuffer(_primaryWriteBuffer);
-			_primaryWriteBuffer = null;
-			
-			if (_secondaryWriteBuffer != null)
-			{
-				_selectorThread.recycleBuffer(_secondaryWriteBuffer);
-				_secondaryWriteBuffer = null;
-			}
-		}
+		ByteBuffer frame;
+		while ((frame = _pendingFrames.pollFirst()) != null)
+			_selectorThread.recycleFrame(frame);
 		
 		if (_readBuffer != null)
 		{
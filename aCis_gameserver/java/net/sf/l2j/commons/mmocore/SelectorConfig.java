@@ -29,10 +29,10 @@ public final class SelectorConfig
 	public int HELPER_BUFFER_SIZE = 64 * 1024;
 	
 	/**
-	 * Server will try to send MAX_SEND_PER_PASS packets per socket write call<br>
-	 * however it may send less if the write buffer was filled before achieving this value.
+	 * Maximum amount of direct buffers kept per size class, to hold the encrypted packets waiting to be written.<br>
+	 * Each connection encrypts its queued packets into those buffers until WRITE_BUFFER_SIZE bytes are pending, then writes them all with one socket call.
 	 */
-	public int MAX_SEND_PER_PASS = 10;
+	public int DIRECT_BUFFER_COUNT = 100;
 	
 	/**
 	 * Server will try to read MAX_READ_PER_PASS packets per socket read call<br>
@@ -49,4 +49,21 @@ public final class SelectorConfig
 	 * 10-30 for an latency/troughput trade-off based on your needs.<BR>
 	 */
 	public int SLEEP_TIME = 10;
+	
+	/**
+	 * If true, the selector blocks on select() and is woken up as soon as a packet is queued, a connection is accepted or a close is requested ; SLEEP_TIME is then ignored.<BR>
+	 * Wakeups are coalesced, a packet burst only unblocks the selector once per pass.<BR>
+	 * If false, the selector polls with selectNow() and sleeps SLEEP_TIME between each pass.
+	 */
+	public boolean BLOCKING_SELECT = false;
+	
+	/**
+	 * Defines how many selector threads handle the connections.<BR>
+	 * With 1, the same thread accepts, reads and writes every connection. With an higher value, the thread only accepts connections and hands them to SELECTOR_THREAD_COUNT workers, picking the less loaded one.<BR>
+	 * <BR>
+	 * Recommended values:<BR>
+	 * 1 for small servers.<BR>
+	 * the number of available cores (minus 1 or 2) for crowded servers.<BR>
+	 */
+	public int SELECTOR_THREAD_COUNT = 1;
 }
\ No newline at end of file
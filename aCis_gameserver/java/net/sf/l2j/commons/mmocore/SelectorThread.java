@@ -27,8 +27,11 @@ import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Parts of design based on networkcore from WoodenGil
@@ -55,45 +58,76 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 	// Configurations
 	private final int HELPER_BUFFER_SIZE;
 	private final int HELPER_BUFFER_COUNT;
-	private final int MAX_SEND_PER_PASS;
+	private final int MAX_PENDING_WRITE_SIZE;
 	private final int MAX_READ_PER_PASS;
 	private final long SLEEP_TIME;
+	private final boolean BLOCKING_SELECT;
 	
 	// Main Buffers
-	private final ByteBuffer DIRECT_WRITE_BUFFER;
 	private final ByteBuffer WRITE_BUFFER;
 	private final ByteBuffer READ_BUFFER;
 	
+	// Frames handed to a single gathering write
+	private final ByteBuffer[] WRITE_FRAMES = new ByteBuffer[16];
+	
 	// String Buffer
 	private final NioNetStringBuffer STRING_BUFFER;
 	
-	// ByteBuffers General Purpose Pool
+	// ByteBuffers General Purpose Pool, used by the read path
 	private final LinkedList<ByteBuffer> _bufferPool;
 	
+	// Direct buffers holding encrypted frames, shared with the workers
+	private final DirectBufferPool _directPool;
+	
 	// Pending Close
 	private final NioNetStackList<MMOConnection<T>> _pendingClose;
 	
-	private boolean _shutdown;
+	// Accepted channels waiting to be registered on this selector
+	private final NioNetStackList<SocketChannel> _pendingRegister;
+	
+	// Connections owned by this selector, used to balance the load between workers
+	private final AtomicInteger _connectionCount = new AtomicInteger();
+	
+	// Worker selectors, empty if this thread handles its connections itself
+	private final SelectorThread<T>[] _workers;
+	private int _nextWorker;
+	
+	// Set once a wakeup has been requested for the current pass, so a burst of packets only triggers one Selector.wakeup()
+	private final AtomicBoolean _wakeupPending = new AtomicBoolean();
+	
+	private volatile boolean _shutdown;
 	
 	public SelectorThread(final SelectorConfig sc, final IMMOExecutor<T> executor, final IPacketHandler<T> packetHandler, final IClientFactory<T> clientFactory, final IAcceptFilter acceptFilter) throws IOException
+	{
+		this(sc, executor, packetHandler, clientFactory, acceptFilter, new DirectBufferPool(BYTE_ORDER, sc.WRITE_BUFFER_SIZE, sc.DIRECT_BUFFER_COUNT), (sc.SELECTOR_THREAD_COUNT > 1) ? sc.SELECTOR_THREAD_COUNT : 0);
+	}
+	
+	@SuppressWarnings(
+	{
+		"rawtypes",
+		"unchecked"
+	})
+	private SelectorThread(final SelectorConfig sc, final IMMOExecutor<T> executor, final IPacketHandler<T> packetHandler, final IClientFactory<T> clientFactory, final IAcceptFilter acceptFilter, final DirectBufferPool directPool, final int workerCount) throws IOException
 	{
 		super.setName("SelectorThread-" + super.getId());
 		
 		HELPER_BUFFER_SIZE = sc.HELPER_BUFFER_SIZE;
 		HELPER_BUFFER_COUNT = sc.HELPER_BUFFER_COUNT;
-		MAX_SEND_PER_PASS = sc.MAX_SEND_PER_PASS;
+		MAX_PENDING_WRITE_SIZE = sc.WRITE_BUFFER_SIZE;
 		MAX_READ_PER_PASS = sc.MAX_READ_PER_PASS;
 		
 		SLEEP_TIME = sc.SLEEP_TIME;
+		BLOCKING_SELECT = sc.BLOCKING_SELECT;
 		
-		DIRECT_WRITE_BUFFER = ByteBuffer.allocateDirect(sc.WRITE_BUFFER_SIZE).order(BYTE_ORDER);
 		WRITE_BUFFER = ByteBuffer.wrap(new byte[sc.WRITE_BUFFER_SIZE]).order(BYTE_ORDER);
 		READ_BUFFER = ByteBuffer.wrap(new byte[sc.READ_BUFFER_SIZE]).order(BYTE_ORDER);
 		
 		STRING_BUFFER = new NioNetStringBuffer(64 * 1024);
 		
 		_pendingClose = new NioNetStackList<>();
+		_pendingRegister = new NioNetStackList<>();
 		_bufferPool = new LinkedList<>();
+		_directPool = directPool;
 		
 		for (int i = 0; i < HELPER_BUFFER_COUNT; i++)
 		{
@@ -105,6 +139,10 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		_clientFactory = clientFactory;
 		_executor = executor;
 		_selector = Selector.open();
+		
+		_workers = new SelectorThread[workerCount];
+		for (int i = 0; i < workerCount; i++)
+			_workers[i] = new SelectorThread<>(sc, executor, packetHandler, clientFactory, acceptFilter, directPool, 0);
 	}
 	
 	public final void openServerSocket(InetAddress address, int tcpPort) throws IOException
@@ -139,6 +177,11 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		}
 	}
 	
+	final void recycleFrame(final ByteBuffer frame)
+	{
+		_directPool.recycle(frame);
+	}
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	public final void run()
@@ -150,11 +193,30 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		
 		Iterator<SelectionKey> selectedKeys;
 		
+		for (SelectorThread<T> worker : _workers)
+			worker.start();
+		
 		while (!_shutdown)
 		{
+			// Any wakeup requested from now on concerns the next select() call.
+			if (BLOCKING_SELECT)
+				_wakeupPending.set(false);
+			
+			registerPendingConnections();
+			
+			synchronized (_pendingClose)
+			{
+				while (!_pendingClose.isEmpty())
+				{
+					con = _pendingClose.removeFirst();
+					writeClosePacket(con);
+					closeConnectionImpl(con.getSelectionKey(), con);
+				}
+			}
+			
 			try
 			{
-				selectedKeysCount = _selector.selectNow();
+				selectedKeysCount = (BLOCKING_SELECT) ? _selector.select() : _selector.selectNow();
 			}
 			catch (IOException e)
 			{
@@ -199,15 +261,8 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 				}
 			}
 			
-			synchronized (_pendingClose)
-			{
-				while (!_pendingClose.isEmpty())
-				{
-					con = _pendingClose.removeFirst();
-					writeClosePacket(con);
-					closeConnectionImpl(con.getSelectionKey(), con);
-				}
-			}
+			if (BLOCKING_SELECT)
+				continue;
 			
 			try
 			{
@@ -253,10 +308,14 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 				if (_acceptFilter == null || _acceptFilter.accept(sc))
 				{
 					sc.configureBlocking(false);
-					SelectionKey clientKey = sc.register(_selector, SelectionKey.OP_READ);
-					con = new MMOConnection<>(this, sc.socket(), clientKey);
-					con.setClient(_clientFactory.create(con));
-					clientKey.attach(con);
+					
+					if (_workers.length == 0)
+					{
+						_connectionCount.incrementAndGet();
+						registerConnection(sc);
+					}
+					else
+						selectWorker().queueConnection(sc);
 				}
 				else
 					sc.socket().close();
@@ -268,6 +327,83 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		}
 	}
 	
+	/**
+	 * Pick the worker owning the fewest connections. The search starts from a rotating index, so workers with equal load are fed in round-robin.
+	 * @return the worker which will own the next accepted connection.
+	 */
+	private final SelectorThread<T> selectWorker()
+	{
+		if (++_nextWorker >= _workers.length)
+			_nextWorker = 0;
+		
+		SelectorThread<T> target = _workers[_nextWorker];
+		for (int i = 1; i < _workers.length; i++)
+		{
+			final SelectorThread<T> worker = _workers[(_nextWorker + i) % _workers.length];
+			if (worker._connectionCount.get() < target._connectionCount.get())
+				target = worker;
+		}
+		return target;
+	}
+	
+	/**
+	 * Hand an accepted channel over to this selector. The registration itself is done by the selector's own thread.
+	 * @param sc : the accepted channel, already set as non-blocking.
+	 */
+	final void queueConnection(final SocketChannel sc)
+	{
+		_connectionCount.incrementAndGet();
+		
+		synchronized (_pendingRegister)
+		{
+			_pendingRegister.addLast(sc);
+		}
+		wakeup();
+	}
+	
+	/**
+	 * Unblock the select() call, so pending writes, registrations and closes are handled without delay. Requests are coalesced : only the first one of a selector pass calls {@link Selector#wakeup()}.<br>
+	 * Does nothing if the selector polls with a fixed sleep.
+	 */
+	final void wakeup()
+	{
+		if (BLOCKING_SELECT && _wakeupPending.compareAndSet(false, true))
+			_selector.wakeup();
+	}
+	
+	private final void registerPendingConnections()
+	{
+		synchronized (_pendingRegister)
+		{
+			while (!_pendingRegister.isEmpty())
+				registerConnection(_pendingRegister.removeFirst());
+		}
+	}
+	
+	private final void registerConnection(final SocketChannel sc)
+	{
+		try
+		{
+			final SelectionKey clientKey = sc.register(_selector, SelectionKey.OP_READ);
+			final MMOConnection<T> con = new MMOConnection<>(this, sc.socket(), clientKey);
+			con.setClient(_clientFactory.create(con));
+			clientKey.attach(con);
+		}
+		catch (IOException e)
+		{
+			_connectionCount.decrementAndGet();
+			
+			try
+			{
+				sc.close();
+			}
+			catch (IOException ioe)
+			{
+				// ignore
+			}
+		}
+	}
+	
 	private final void readPacket(final SelectionKey key, final MMOConnection<T> con)
 	{
 		if (!con.isClosed())
@@ -443,29 +579,16 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 	
 	private final void writeClosePacket(final MMOConnection<T> con)
 	{
-		SendablePacket<T> sp;
-		synchronized (con.getSendQueue())
+		if (!prepareWriteBuffer(con))
+			return;
+		
+		try
 		{
-			if (con.getSendQueue().isEmpty())
-				return;
-			
-			while ((sp = con.getSendQueue().removeFirst()) != null)
-			{
-				WRITE_BUFFER.clear();
-				
-				putPacketIntoWriteBuffer(con.getClient(), sp);
-				
-				WRITE_BUFFER.flip();
-				
-				try
-				{
-					con.write(WRITE_BUFFER);
-				}
-				catch (IOException e)
-				{
-					// error handling goes on the if bellow
-				}
-			}
+			flushPendingFrames(con);
+		}
+		catch (IOException e)
+		{
+			// ignore, we are closing anyway
 		}
 	}
 	
@@ -477,95 +600,108 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 			return;
 		}
 		
-		DIRECT_WRITE_BUFFER.flip();
-		
-		final int size = DIRECT_WRITE_BUFFER.remaining();
-		
-		int result = -1;
-		
 		try
 		{
-			result = con.write(DIRECT_WRITE_BUFFER);
+			flushPendingFrames(con);
 		}
 		catch (IOException e)
 		{
-			// error handling goes on the if bellow
+			con.getClient().onForcedDisconnection();
+			closeConnectionImpl(key, con);
+			return;
 		}
 		
-		// check if no error happened
-		if (result >= 0)
+		// check if we written everything
+		synchronized (con.getSendQueue())
 		{
-			// check if we written everything
-			if (result == size)
-			{
-				// complete write
-				synchronized (con.getSendQueue())
-				{
-					if (con.getSendQueue().isEmpty() && !con.hasPendingWriteBuffer())
-					{
-						key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
-					}
-				}
-			}
-			else
-				// incomplete write
-				con.createWriteBuffer(DIRECT_WRITE_BUFFER);
+			if (con.getSendQueue().isEmpty() && !con.hasPendingWriteBuffer())
+				key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
 		}
-		else
+	}
+	
+	/**
+	 * Write the pending frames of the connection using a single gathering write, then recycle the frames fully written. Partially written frames are kept for the next pass.
+	 * @param con : the connection to flush.
+	 * @throws IOException if the write failed.
+	 */
+	private final void flushPendingFrames(final MMOConnection<T> con) throws IOException
+	{
+		int count = 0;
+		for (ByteBuffer frame : con.getPendingFrames())
 		{
-			con.getClient().onForcedDisconnection();
-			closeConnectionImpl(key, con);
+			if (count == WRITE_FRAMES.length)
+				break;
+			
+			WRITE_FRAMES[count++] = frame;
+		}
+		
+		try
+		{
+			con.write(WRITE_FRAMES, 0, count);
+		}
+		finally
+		{
+			Arrays.fill(WRITE_FRAMES, 0, count, null);
 		}
+		
+		con.releaseWrittenFrames();
 	}
 	
+	/**
+	 * Encrypt the queued packets of the connection into direct frames, until the queue is empty or MAX_PENDING_WRITE_SIZE bytes are waiting to be written.
+	 * @param con : the connection to prepare.
+	 * @return true if the connection has something to write.
+	 */
 	private final boolean prepareWriteBuffer(final MMOConnection<T> con)
 	{
-		boolean hasPending = false;
-		DIRECT_WRITE_BUFFER.clear();
+		final NioNetStackList<SendablePacket<T>> sendQueue = con.getSendQueue();
+		final T client = con.getClient();
 		
-		// if there is pending content add it
-		if (con.hasPendingWriteBuffer())
-		{
-			con.movePendingWriteBufferTo(DIRECT_WRITE_BUFFER);
-			hasPending = true;
-		}
+		ByteBuffer frame = null;
+		SendablePacket<T> sp;
 		
-		if (DIRECT_WRITE_BUFFER.remaining() > 1 && !con.hasPendingWriteBuffer())
+		int pendingSize = con.getPendingWriteSize();
+		while (pendingSize < MAX_PENDING_WRITE_SIZE)
 		{
-			final NioNetStackList<SendablePacket<T>> sendQueue = con.getSendQueue();
-			final T client = con.getClient();
-			SendablePacket<T> sp;
-			
-			for (int i = 0; i < MAX_SEND_PER_PASS; i++)
+			synchronized (sendQueue)
 			{
-				synchronized (con.getSendQueue())
-				{
-					if (sendQueue.isEmpty())
-						sp = null;
-					else
-						sp = sendQueue.removeFirst();
-				}
-				
-				if (sp == null)
-					break;
-				
-				hasPending = true;
-				
-				// put into WriteBuffer
-				putPacketIntoWriteBuffer(client, sp);
-				
-				WRITE_BUFFER.flip();
-				
-				if (DIRECT_WRITE_BUFFER.remaining() >= WRITE_BUFFER.limit())
-					DIRECT_WRITE_BUFFER.put(WRITE_BUFFER);
+				if (sendQueue.isEmpty())
+					sp = null;
 				else
-				{
-					con.createWriteBuffer(WRITE_BUFFER);
-					break;
-				}
+					sp = sendQueue.removeFirst();
+			}
+			
+			if (sp == null)
+				break;
+			
+			// put into WriteBuffer
+			putPacketIntoWriteBuffer(client, sp);
+			
+			WRITE_BUFFER.flip();
+			
+			final int size = WRITE_BUFFER.remaining();
+			
+			// current frame is full, queue it and take a new one
+			if (frame != null && frame.remaining() < size)
+			{
+				frame.flip();
+				con.addPendingFrame(frame);
+				frame = null;
 			}
+			
+			if (frame == null)
+				frame = _directPool.get(size);
+			
+			frame.put(WRITE_BUFFER);
+			pendingSize += size;
 		}
-		return hasPending;
+		
+		if (frame != null)
+		{
+			frame.flip();
+			con.addPendingFrame(frame);
+		}
+		return con.hasPendingWriteBuffer();
 	}
 	
 	private final void putPacketIntoWriteBuffer(final T client, final SendablePacket<T> sp)
@@ -577,12 +713,24 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		final int dataPos = headerPos + HEADER_SIZE;
 		WRITE_BUFFER.position(dataPos);
 		
-		// set the write buffer
-		sp._buf = WRITE_BUFFER;
-		// write content to buffer
-		sp.write();
-		// delete the write buffer
-		sp._buf = null;
+		final byte[] data = sp.getSerializedData();
+		if (data != null)
+			// content has already been written once for all recipients
+			WRITE_BUFFER.put(data);
+		else
+		{
+			// the same packet can be written by several selectors at once
+			synchronized (sp)
+			{
+				// set the client and the write buffer
+				sp._client = client;
+				sp._buf = WRITE_BUFFER;
+				// write content to buffer
+				sp.write();
+				// delete the write buffer
+				sp._buf = null;
+			}
+		}
 		
 		// size (inclusive header)
 		int dataSize = WRITE_BUFFER.position() - dataPos;
@@ -604,10 +752,13 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		{
 			_pendingClose.addLast(con);
 		}
+		wakeup();
 	}
 	
 	private final void closeConnectionImpl(final SelectionKey key, final MMOConnection<T> con)
 	{
+		_connectionCount.decrementAndGet();
+		
 		try
 		{
 			// notify connection
@@ -635,9 +786,25 @@ public final class SelectorThread<T extends MMOClient<?>> extends Thread
 		}
 	}
 	
+	/**
+	 * @return the amount of connections handled by this selector and its workers.
+	 */
+	public final int getConnectionCount()
+	{
+		int count = _connectionCount.get();
+		for (SelectorThread<T> worker : _workers)
+			count += worker.getConnectionCount();
+		
+		return count;
+	}
+	
 	public final void shutdown()
 	{
 		_shutdown = true;
+		_selector.wakeup();
+		
+		for (SelectorThread<T> worker : _workers)
+			worker.shutdown();
 	}
 	
 	protected void closeSelectorThread()
@@ -17,12 +17,45 @@
  */
 package net.sf.l2j.commons.mmocore;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author KenM
  * @param <T>
  */
 public abstract class SendablePacket<T extends MMOClient<?>> extends AbstractPacket<T>
 {
+	// Content written once and shared by all connections sending this packet, see serialize()
+	private volatile byte[] _data;
+	
+	/**
+	 * Write the packet content once into an immutable byte array. Connections sending this packet then copy that content instead of calling {@link #write()} again, only the encryption stays per connection.<br>
+	 * Must be called before the packet is sent, and only on packets whose content doesn't depend on the recipient.
+	 * @param buf : a scratch buffer, large enough to hold the packet.
+	 */
+	public final synchronized void serialize(final ByteBuffer buf)
+	{
+		if (_data != null)
+			return;
+		
+		buf.clear();
+		
+		_buf = buf;
+		write();
+		_buf = null;
+		
+		buf.flip();
+		
+		final byte[] data = new byte[buf.remaining()];
+		buf.get(data);
+		_data = data;
+	}
+	
+	final byte[] getSerializedData()
+	{
+		return _data;
+	}
+	
 	protected final void putInt(final int value)
 	{
 		_buf.putInt(value);
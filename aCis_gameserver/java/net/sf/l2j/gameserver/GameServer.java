@@ -111,11 +111,14 @@ import net.sf.l2j.gameserver.taskmanager.AttackStanceTaskManager;
 import net.sf.l2j.gameserver.taskmanager.DecayTaskManager;
 import net.sf.l2j.gameserver.taskmanager.GameTimeTaskManager;
 import net.sf.l2j.gameserver.taskmanager.ItemsOnGroundTaskManager;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.taskmanager.KnownListUpdateTaskManager;
 import net.sf.l2j.gameserver.taskmanager.MovementTaskManager;
 import net.sf.l2j.gameserver.taskmanager.PvpFlagTaskManager;
+import net.sf.l2j.gameserver.taskmanager.QuestStatesUpdateTaskManager;
 import net.sf.l2j.gameserver.taskmanager.ShadowItemTaskManager;
 import net.sf.l2j.gameserver.taskmanager.TaskManager;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager;
 import net.sf.l2j.gameserver.taskmanager.WaterTaskManager;
 import net.sf.l2j.gameserver.xmlfactory.XMLDocumentFactory;
 import net.sf.l2j.util.DeadLockDetector;
@@ -152,154 +155,161 @@ public class GameServer
 		
 		new File("./data/crests").mkdirs();
 		
+		final StartupLoader loader = new StartupLoader(Config.STARTUP_THREADS);
+		
+		// Data tables, loaded in parallel following their dependencies.
+		Util.printSection("Data");
+		loader.add("L2World", L2World::getInstance);
+		loader.add("MapRegionTable", MapRegionTable::getInstance);
+		loader.add("AnnouncementTable", AnnouncementTable::getInstance);
+		
+		loader.add("SkillTable", SkillTable::getInstance);
+		loader.add("SkillTreeTable", SkillTreeTable::getInstance, "SkillTable");
+		
+		loader.add("ItemTable", ItemTable::getInstance, "SkillTable", "L2World");
+		loader.add("SummonItemsData", SummonItemsData::getInstance, "ItemTable");
+		loader.add("BuyListTable", BuyListTable::getInstance, "ItemTable");
+		loader.add("MultisellData", MultisellData::getInstance, "ItemTable");
+		loader.add("RecipeTable", RecipeTable::getInstance, "ItemTable");
+		loader.add("ArmorSetsTable", ArmorSetsTable::getInstance, "ItemTable");
+		loader.add("FishTable", FishTable::getInstance, "ItemTable");
+		loader.add("SpellbookTable", SpellbookTable::getInstance, "ItemTable");
+		loader.add("SoulCrystalsTable", SoulCrystalsTable::load, "ItemTable");
+		loader.add("AugmentationData", AugmentationData::getInstance, "ItemTable");
+		loader.add("CursedWeaponsManager", CursedWeaponsManager::getInstance, "ItemTable");
+		
+		loader.add("AccessLevels", AccessLevels::getInstance);
+		loader.add("AdminCommandAccessRights", AdminCommandAccessRights::getInstance, "AccessLevels");
+		loader.add("BookmarkTable", BookmarkTable::getInstance);
+		loader.add("GmListTable", GmListTable::getInstance, "AccessLevels");
+		loader.add("MovieMakerManager", MovieMakerManager::getInstance);
+		loader.add("PetitionManager", PetitionManager::getInstance);
+		
+		loader.add("CharTemplateTable", CharTemplateTable::getInstance, "SkillTreeTable", "ItemTable");
+		loader.add("CharNameTable", CharNameTable::getInstance);
+		loader.add("HennaTable", HennaTable::getInstance, "ItemTable");
+		loader.add("HelperBuffTable", HelperBuffTable::getInstance, "SkillTable");
+		loader.add("TeleportLocationTable", TeleportLocationTable::getInstance);
+		loader.add("HtmCache", HtmCache::getInstance);
+		loader.add("PartyMatchWaitingList", PartyMatchWaitingList::getInstance);
+		loader.add("PartyMatchRoomList", PartyMatchRoomList::getInstance);
+		loader.add("RaidBossPointsManager", RaidBossPointsManager::getInstance);
+		
+		// Forums has to be loaded before clan data.
+		loader.add("ForumsBBSManager", () ->
+		{
+			if (Config.ENABLE_COMMUNITY_BOARD)
+				ForumsBBSManager.getInstance().initRoot();
+			else
+				_log.config("Community server is disabled.");
+		});
+		loader.add("CrestCache", CrestCache::getInstance);
+		loader.add("ClanTable", ClanTable::getInstance, "ForumsBBSManager", "CrestCache", "SkillTable", "ItemTable", "CharNameTable");
+		loader.then("AuctionManager", AuctionManager::getInstance);
+		loader.then("ClanHallManager", ClanHallManager::getInstance);
+		
+		loader.add("GeoData", GeoData::initialize);
+		loader.then("PathFinding", PathFinding::initialize);
+		
+		loader.add("NpcTable", NpcTable::getInstance, "SkillTable", "ItemTable");
+		loader.load();
+		
+		// World content, loaded one after the other, in this order.
 		Util.printSection("World");
-		L2World.getInstance();
-		MapRegionTable.getInstance();
-		AnnouncementTable.getInstance();
-		
-		Util.printSection("Skills");
-		SkillTable.getInstance();
-		SkillTreeTable.getInstance();
-		
-		Util.printSection("Items");
-		ItemTable.getInstance();
-		SummonItemsData.getInstance();
-		BuyListTable.getInstance();
-		MultisellData.getInstance();
-		RecipeTable.getInstance();
-		ArmorSetsTable.getInstance();
-		FishTable.getInstance();
-		SpellbookTable.getInstance();
-		SoulCrystalsTable.load();
-		AugmentationData.getInstance();
-		CursedWeaponsManager.getInstance();
-		
-		Util.printSection("Admins");
-		AccessLevels.getInstance();
-		AdminCommandAccessRights.getInstance();
-		BookmarkTable.getInstance();
-		GmListTable.getInstance();
-		MovieMakerManager.getInstance();
-		PetitionManager.getInstance();
-		
-		Util.printSection("Characters");
-		CharTemplateTable.getInstance();
-		CharNameTable.getInstance();
-		HennaTable.getInstance();
-		HelperBuffTable.getInstance();
-		TeleportLocationTable.getInstance();
-		HtmCache.getInstance();
-		PartyMatchWaitingList.getInstance();
-		PartyMatchRoomList.getInstance();
-		RaidBossPointsManager.getInstance();
-		
-		Util.printSection("Community server");
-		if (Config.ENABLE_COMMUNITY_BOARD) // Forums has to be loaded before clan data
-			ForumsBBSManager.getInstance().initRoot();
-		else
-			_log.config("Community server is disabled.");
-		
-		Util.printSection("Clans");
-		CrestCache.getInstance();
-		ClanTable.getInstance();
-		AuctionManager.getInstance();
-		ClanHallManager.getInstance();
-		
-		Util.printSection("Geodata & Pathfinding");
-		GeoData.initialize();
-		PathFinding.initialize();
-		
-		Util.printSection("World Bosses");
-		GrandBossManager.getInstance();
-		
-		Util.printSection("Zones");
-		ZoneManager.getInstance();
-		GrandBossManager.getInstance().initZones();
-		
-		Util.printSection("Task Managers");
-		AttackStanceTaskManager.getInstance();
-		DecayTaskManager.getInstance();
-		GameTimeTaskManager.getInstance();
-		ItemsOnGroundTaskManager.getInstance();
-		KnownListUpdateTaskManager.getInstance();
-		MovementTaskManager.getInstance();
-		PvpFlagTaskManager.getInstance();
-		ShadowItemTaskManager.getInstance();
-		WaterTaskManager.getInstance();
-		
-		Util.printSection("Castles");
-		CastleManager.getInstance().load();
-		
-		Util.printSection("Seven Signs");
-		SevenSigns.getInstance().spawnSevenSignsNPC();
-		SevenSignsFestival.getInstance();
-		
-		Util.printSection("Sieges");
-		SiegeManager.getInstance();
-		SiegeManager.getSieges();
-		MercTicketManager.getInstance();
-		
-		Util.printSection("Manor Manager");
-		CastleManorManager.getInstance();
-		L2Manor.getInstance();
-		
-		Util.printSection("NPCs");
-		BufferTable.getInstance();
-		HerbDropTable.getInstance();
-		PetDataTable.getInstance();
-		NpcTable.getInstance();
-		NpcWalkerRoutesTable.getInstance();
-		DoorTable.getInstance();
-		StaticObjects.load();
-		SpawnTable.getInstance();
-		RaidBossSpawnManager.getInstance();
-		DayNightSpawnManager.getInstance();
-		DimensionalRiftManager.getInstance();
-		
-		Util.printSection("Olympiads & Heroes");
-		OlympiadGameManager.getInstance();
-		Olympiad.getInstance();
-		Hero.getInstance();
-		
-		Util.printSection("Four Sepulchers");
-		FourSepulchersManager.getInstance().init();
-		
-		Util.printSection("Quests & Scripts");
-		QuestManager.getInstance();
-		BoatManager.getInstance();
-		
-		if (!Config.ALT_DEV_NO_SCRIPTS)
+		loader.then("GrandBossManager", GrandBossManager::getInstance);
+		loader.then("ZoneManager", () ->
 		{
-			try
-			{
-				File scripts = new File("./data/scripts.cfg");
-				L2ScriptEngineManager.getInstance().executeScriptList(scripts);
-			}
-			catch (IOException ioe)
+			ZoneManager.getInstance();
+			GrandBossManager.getInstance().initZones();
+		});
+		loader.then("Task Managers", () ->
+		{
+			AttackStanceTaskManager.getInstance();
+			DecayTaskManager.getInstance();
+			GameTimeTaskManager.getInstance();
+			ItemsOnGroundTaskManager.getInstance();
+			ItemsUpdateTaskManager.getInstance();
+			KnownListUpdateTaskManager.getInstance();
+			MovementTaskManager.getInstance();
+			PvpFlagTaskManager.getInstance();
+			QuestStatesUpdateTaskManager.getInstance();
+			ShadowItemTaskManager.getInstance();
+			TimingWheelTaskManager.getInstance();
+			WaterTaskManager.getInstance();
+		});
+		loader.then("CastleManager", () -> CastleManager.getInstance().load());
+		loader.then("SevenSigns", () ->
+		{
+			SevenSigns.getInstance().spawnSevenSignsNPC();
+			SevenSignsFestival.getInstance();
+		});
+		loader.then("SiegeManager", () ->
+		{
+			SiegeManager.getInstance();
+			SiegeManager.getSieges();
+			MercTicketManager.getInstance();
+		});
+		loader.then("CastleManorManager", () ->
+		{
+			CastleManorManager.getInstance();
+			L2Manor.getInstance();
+		});
+		loader.then("BufferTable", BufferTable::getInstance);
+		loader.then("HerbDropTable", HerbDropTable::getInstance);
+		loader.then("PetDataTable", PetDataTable::getInstance);
+		loader.then("NpcWalkerRoutesTable", NpcWalkerRoutesTable::getInstance);
+		loader.then("DoorTable", DoorTable::getInstance);
+		loader.then("StaticObjects", StaticObjects::load);
+		loader.then("SpawnTable", SpawnTable::getInstance);
+		loader.then("RaidBossSpawnManager", RaidBossSpawnManager::getInstance);
+		loader.then("DayNightSpawnManager", DayNightSpawnManager::getInstance);
+		loader.then("DimensionalRiftManager", DimensionalRiftManager::getInstance);
+		loader.then("Olympiad", () ->
+		{
+			OlympiadGameManager.getInstance();
+			Olympiad.getInstance();
+			Hero.getInstance();
+		});
+		loader.then("FourSepulchersManager", () -> FourSepulchersManager.getInstance().init());
+		loader.then("Scripts", () ->
+		{
+			QuestManager.getInstance();
+			BoatManager.getInstance();
+			
+			if (!Config.ALT_DEV_NO_SCRIPTS)
 			{
-				_log.severe("Failed loading scripts.cfg, no script going to be loaded");
+				try
+				{
+					File scripts = new File("./data/scripts.cfg");
+					L2ScriptEngineManager.getInstance().executeScriptList(scripts);
+				}
+				catch (IOException ioe)
+				{
+					_log.severe("Failed loading scripts.cfg, no script going to be loaded");
+				}
+				QuestManager.getInstance().report();
 			}
-			QuestManager.getInstance().report();
-		}
-		else
-			_log.config("QuestManager: Skipping scripts.");
-		
-		Util.printSection("Monster Derby Track");
-		MonsterRace.getInstance();
-		
-		Util.printSection("Handlers");
-		_log.config("AutoSpawnHandler: Loaded " + AutoSpawnManager.getInstance().size() + " handlers.");
-		_log.config("AdminCommandHandler: Loaded " + AdminCommandHandler.getInstance().size() + " handlers.");
-		_log.config("ChatHandler: Loaded " + ChatHandler.getInstance().size() + " handlers.");
-		_log.config("ItemHandler: Loaded " + ItemHandler.getInstance().size() + " handlers.");
-		_log.config("SkillHandler: Loaded " + SkillHandler.getInstance().size() + " handlers.");
-		_log.config("UserCommandHandler: Loaded " + UserCommandHandler.getInstance().size() + " handlers.");
-		
-		if (Config.ALLOW_WEDDING)
-			CoupleManager.getInstance();
-		
-		if (Config.ALT_FISH_CHAMPIONSHIP_ENABLED)
-			FishingChampionshipManager.getInstance();
+			else
+				_log.config("QuestManager: Skipping scripts.");
+		});
+		loader.then("MonsterRace", MonsterRace::getInstance);
+		loader.then("Handlers", () ->
+		{
+			_log.config("AutoSpawnHandler: Loaded " + AutoSpawnManager.getInstance().size() + " handlers.");
+			_log.config("AdminCommandHandler: Loaded " + AdminCommandHandler.getInstance().size() + " handlers.");
+			_log.config("ChatHandler: Loaded " + ChatHandler.getInstance().size() + " handlers.");
+			_log.config("ItemHandler: Loaded " + ItemHandler.getInstance().size() + " handlers.");
+			_log.config("SkillHandler: Loaded " + SkillHandler.getInstance().size() + " handlers.");
+			_log.config("UserCommandHandler: Loaded " + UserCommandHandler.getInstance().size() + " handlers.");
+			
+			if (Config.ALLOW_WEDDING)
+				CoupleManager.getInstance();
+			
+			if (Config.ALT_FISH_CHAMPIONSHIP_ENABLED)
+				FishingChampionshipManager.getInstance();
+		});
+		loader.load();
+		loader.finish();
 		
 		Util.printSection("System");
 		TaskManager.getInstance();
@@ -334,9 +344,10 @@ public class GameServer
 		
 		final SelectorConfig sc = new SelectorConfig();
 		sc.MAX_READ_PER_PASS = Config.MMO_MAX_READ_PER_PASS;
-		sc.MAX_SEND_PER_PASS = Config.MMO_MAX_SEND_PER_PASS;
 		sc.SLEEP_TIME = Config.MMO_SELECTOR_SLEEP_TIME;
+		sc.BLOCKING_SELECT = Config.MMO_BLOCKING_SELECT;
 		sc.HELPER_BUFFER_COUNT = Config.MMO_HELPER_BUFFER_COUNT;
+		sc.SELECTOR_THREAD_COUNT = Config.MMO_SELECTOR_THREAD_COUNT;
 		
 		_gamePacketHandler = new L2GamePacketHandler();
 		_selectorThread = new SelectorThread<>(sc, _gamePacketHandler, _gamePacketHandler, _gamePacketHandler, new IPv4Filter());
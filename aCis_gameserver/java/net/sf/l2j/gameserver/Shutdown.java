@@ -38,7 +38,9 @@ import net.sf.l2j.gameserver.network.gameserverpackets.ServerStatus;
 import net.sf.l2j.gameserver.network.serverpackets.ServerClose;
 import net.sf.l2j.gameserver.network.serverpackets.SystemMessage;
 import net.sf.l2j.gameserver.taskmanager.ItemsOnGroundTaskManager;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.taskmanager.MovementTaskManager;
+import net.sf.l2j.gameserver.taskmanager.QuestStatesUpdateTaskManager;
 import net.sf.l2j.gameserver.util.Broadcast;
 import net.sf.l2j.util.Util;
 
@@ -129,6 +131,14 @@ public class Shutdown extends Thread
 			{
 			}
 			
+			// Write pending item changes ; later changes are written at once.
+			ItemsUpdateTaskManager.getInstance().shutdown();
+			_log.info("Items data has been saved.");
+			
+			// Write pending quest changes ; later changes are written at once.
+			QuestStatesUpdateTaskManager.getInstance().shutdown();
+			_log.info("Quests data has been saved.");
+			
 			// ensure all services are stopped
 			try
 			{
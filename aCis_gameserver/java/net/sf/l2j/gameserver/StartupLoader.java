@@ -0,0 +1,196 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Runs the startup loaders of {@link GameServer}.<br>
+ * <br>
+ * Each loader declares the loaders it depends on, which must be added before it. A loader is run on a fork-join pool once all its dependencies are done, so independent loaders are run in parallel. {@link #then(String, Runnable)} adds a loader depending on the previous one, for parts which must stay sequential.<br>
+ * <br>
+ * The time spent by each loader is reported by {@link #finish()}.
+ */
+public final class StartupLoader
+{
+	private static final Logger _log = Logger.getLogger(StartupLoader.class.getName());
+	
+	private final ForkJoinPool _pool;
+	private final long _startTime = System.currentTimeMillis();
+	
+	private final Map<String, Loader> _loaders = new LinkedHashMap<>();
+	private final List<Loader> _pending = new ArrayList<>();
+	private Loader _last;
+	
+	public StartupLoader(int threads)
+	{
+		final AtomicInteger count = new AtomicInteger();
+		_pool = new ForkJoinPool(Math.max(1, threads), pool ->
+		{
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("StartupLoader-" + count.incrementAndGet());
+			return thread;
+		}, null, true);
+	}
+	
+	/**
+	 * Adds a loader, run by next {@link #load()}.
+	 * @param name : The name of the loader, used by dependencies and report.
+	 * @param task : The task loading data.
+	 * @param dependencies : The names of loaders which must be done before this one.
+	 * @return StartupLoader : This loader, for chaining.
+	 */
+	public StartupLoader add(String name, Runnable task, String... dependencies)
+	{
+		if (_loaders.containsKey(name))
+			throw new IllegalArgumentException("StartupLoader: " + name + " is already added.");
+		
+		final Loader[] loaders = new Loader[dependencies.length];
+		for (int i = 0; i < dependencies.length; i++)
+		{
+			loaders[i] = _loaders.get(dependencies[i]);
+			if (loaders[i] == null)
+				throw new IllegalArgumentException("StartupLoader: " + name + " depends on " + dependencies[i] + ", which isn't added before it.");
+		}
+		
+		final Loader loader = new Loader(name, task, loaders);
+		_loaders.put(name, loader);
+		_pending.add(loader);
+		_last = loader;
+		return this;
+	}
+	
+	/**
+	 * Adds a loader depending on the last added one.
+	 * @param name : The name of the loader, used by dependencies and report.
+	 * @param task : The task loading data.
+	 * @return StartupLoader : This loader, for chaining.
+	 */
+	public StartupLoader then(String name, Runnable task)
+	{
+		return (_last == null) ? add(name, task) : add(name, task, _last._name);
+	}
+	
+	/**
+	 * Runs the loaders added since last call, and returns once they are all done.
+	 * @throws Exception : The first error thrown by a loader. Loaders depending on it aren't run.
+	 */
+	public void load() throws Exception
+	{
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[_pending.size()];
+		for (int i = 0; i < futures.length; i++)
+		{
+			final Loader loader = _pending.get(i);
+			
+			final CompletableFuture<?>[] dependencies = new CompletableFuture<?>[loader._dependencies.length];
+			for (int j = 0; j < dependencies.length; j++)
+				dependencies[j] = loader._dependencies[j]._future;
+			
+			loader._future = CompletableFuture.allOf(dependencies).thenRunAsync(loader, _pool);
+			futures[i] = loader._future;
+		}
+		_pending.clear();
+		
+		try
+		{
+			CompletableFuture.allOf(futures).join();
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			
+			throw e;
+		}
+	}
+	
+	/**
+	 * Stops the pool, and logs the time spent by each loader.
+	 */
+	public void finish()
+	{
+		_pool.shutdown();
+		
+		final long wallTime = System.currentTimeMillis() - _startTime;
+		
+		long totalTime = 0;
+		final StringBuilder sb = new StringBuilder(4000);
+		StringUtil.append(sb, "StartupLoader: ", String.valueOf(_loaders.size()), " loaders on ", String.valueOf(_pool.getParallelism()), " threads:\r\n");
+		for (Loader loader : _loaders.values())
+		{
+			// A dependency failed.
+			if (loader._start == 0)
+			{
+				StringUtil.append(sb, String.format("%-32s", loader._name), " not run\r\n");
+				continue;
+			}
+			
+			totalTime += loader._time;
+			StringUtil.append(sb, String.format("%-32s", loader._name), " started at ", String.format("%6d", loader._start - _startTime), " ms, took ", String.format("%6d", loader._time), " ms\r\n");
+		}
+		StringUtil.append(sb, "Startup took ", String.valueOf(wallTime), " ms, for ", String.valueOf(totalTime), " ms of loading.");
+		
+		_log.info(sb.toString());
+	}
+	
+	private static final class Loader implements Runnable
+	{
+		private final String _name;
+		private final Runnable _task;
+		private final Loader[] _dependencies;
+		
+		private CompletableFuture<?> _future;
+		private volatile long _start;
+		private volatile long _time;
+		
+		protected Loader(String name, Runnable task, Loader[] dependencies)
+		{
+			_name = name;
+			_task = task;
+			_dependencies = dependencies;
+		}
+		
+		@Override
+		public void run()
+		{
+			_start = System.currentTimeMillis();
+			try
+			{
+				_task.run();
+			}
+			catch (RuntimeException | Error e)
+			{
+				_log.log(Level.SEVERE, "StartupLoader: " + _name + " failed: " + e.getMessage(), e);
+				throw e;
+			}
+			finally
+			{
+				_time = System.currentTimeMillis() - _start;
+			}
+		}
+	}
+}
\ No newline at end of file
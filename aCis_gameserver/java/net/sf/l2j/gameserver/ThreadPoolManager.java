@@ -100,6 +100,7 @@ public class ThreadPoolManager
 	private final ThreadPoolExecutor _generalPacketsThreadPool;
 	private final ThreadPoolExecutor _ioPacketsThreadPool;
 	private final ThreadPoolExecutor _generalThreadPool;
+	private final ThreadPoolExecutor _pathfindingThreadPool;
 	
 	/** temp workaround for VM issue */
 	private static final long MAX_DELAY = Long.MAX_VALUE / 1000000 / 2;
@@ -119,6 +120,7 @@ public class ThreadPoolManager
 		_generalPacketsThreadPool = new ThreadPoolExecutor(Config.GENERAL_PACKET_THREAD_CORE_SIZE, Config.GENERAL_PACKET_THREAD_CORE_SIZE + 2, 15L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new PriorityThreadFactory("Normal Packet Pool", Thread.NORM_PRIORITY + 1));
 		_generalThreadPool = new ThreadPoolExecutor(Config.GENERAL_THREAD_CORE_SIZE, Config.GENERAL_THREAD_CORE_SIZE + 2, 5L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new PriorityThreadFactory("General Pool", Thread.NORM_PRIORITY));
 		_aiScheduledThreadPool = new ScheduledThreadPoolExecutor(Config.AI_MAX_THREAD, new PriorityThreadFactory("AISTPool", Thread.NORM_PRIORITY));
+		_pathfindingThreadPool = new ThreadPoolExecutor(Math.max(1, Config.PATHFIND_THREADS), Math.max(1, Config.PATHFIND_THREADS), 15L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new PriorityThreadFactory("Pathfinding Pool", Thread.NORM_PRIORITY));
 		
 		scheduleGeneralAtFixedRate(new PurgeTask(), 10 * 60 * 1000l, 5 * 60 * 1000l);
 	}
@@ -250,6 +252,11 @@ public class ThreadPoolManager
 		_aiScheduledThreadPool.execute(new RunnableWrapper(r));
 	}
 	
+	public void executePathfinding(Runnable r)
+	{
+		_pathfindingThreadPool.execute(new RunnableWrapper(r));
+	}
+	
 	private static class PriorityThreadFactory implements ThreadFactory
 	{
 		private final int _prio;
@@ -288,6 +295,7 @@ public class ThreadPoolManager
 		_generalPacketsThreadPool.shutdown();
 		_ioPacketsThreadPool.shutdown();
 		_generalThreadPool.shutdown();
+		_pathfindingThreadPool.shutdown();
 		
 		_log.info("All ThreadPools are now stopped.");
 	}
@@ -305,6 +313,7 @@ public class ThreadPoolManager
 		_ioPacketsThreadPool.purge();
 		_generalPacketsThreadPool.purge();
 		_generalThreadPool.purge();
+		_pathfindingThreadPool.purge();
 	}
 	
 	public String getPacketStats()
@@ -251,7 +251,7 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 			if (!npc.isAlikeDead())
 			{
 				// If its _knownPlayer isn't empty set the Intention to ACTIVE
-				if (!npc.getKnownList().getKnownType(L2PcInstance.class).isEmpty())
+				if (!npc.getKnownList().getKnownPlayers().isEmpty())
 					intention = CtrlIntention.ACTIVE;
 				else
 				{
@@ -365,7 +365,7 @@ public class L2AttackableAI extends L2CharacterAI implements Runnable
 		if (_globalAggro >= 0)
 		{
 			// Get all visible objects inside its Aggro Range
-			for (L2Character target : npc.getKnownList().getKnownType(L2Character.class))
+			for (L2Character target : npc.getKnownList().getKnownCharacters())
 			{
 				// Check to see if this is a festival mob spawn. If it is, then check to see if the aggro trigger is a festival participant...if so, move to attack it.
 				if (npc instanceof L2FestivalMonsterInstance && target instanceof L2PcInstance)
@@ -96,7 +96,7 @@ public class L2SiegeGuardAI extends L2AttackableAI
 			if (!_actor.isAlikeDead())
 			{
 				// If its _knownPlayer isn't empty, set the Intention to ACTIVE
-				if (!getActiveChar().getKnownList().getKnownType(L2PcInstance.class).isEmpty())
+				if (!getActiveChar().getKnownList().getKnownPlayers().isEmpty())
 					intention = CtrlIntention.ACTIVE;
 			}
 			
@@ -489,7 +489,7 @@ public class MailBBSManager extends BaseBBSManager
 		if (subject == null || subject.isEmpty())
 			subject = "(no subject)";
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		try
 		{
 			Set<String> recipts = new HashSet<>(5);
 			String[] recipAr = recipients.split(";");
@@ -501,8 +501,9 @@ public class MailBBSManager extends BaseBBSManager
 			boolean sent = false;
 			int countRecips = 0;
 			
-			Timestamp time = new Timestamp(date);
-			PreparedStatement statement = null;
+			final Timestamp time = new Timestamp(date);
+			final String storedSubject = abbreviate(subject, 128);
+			final String storedMessage = message;
 			
 			for (String recipient : recipts)
 			{
@@ -527,20 +528,7 @@ public class MailBBSManager extends BaseBBSManager
 				else if (countRecips < 5 && !activeChar.isGM() || activeChar.isGM())
 				{
 					int id = getNewMailId();
-					if (statement == null)
-					{
-						statement = con.prepareStatement(INSERT_NEW_MAIL);
-						statement.setInt(3, activeChar.getObjectId());
-						statement.setString(4, "inbox");
-						statement.setString(5, recipients);
-						statement.setString(6, abbreviate(subject, 128));
-						statement.setString(7, message);
-						statement.setTimestamp(8, time);
-						statement.setInt(9, 1);
-					}
-					statement.setInt(1, recipId);
-					statement.setInt(2, id);
-					statement.execute();
+					storeLetter(recipId, id, activeChar.getObjectId(), "inbox", recipients, storedSubject, storedMessage, time, true);
 					sent = true;
 					
 					Mail letter = new Mail();
@@ -549,8 +537,8 @@ public class MailBBSManager extends BaseBBSManager
 					letter.senderId = activeChar.getObjectId();
 					letter.location = "inbox";
 					letter.recipientNames = recipients;
-					letter.subject = abbreviate(subject, 128);
-					letter.message = message;
+					letter.subject = storedSubject;
+					letter.message = storedMessage;
 					letter.sentDate = time;
 					letter.sentDateString = Util.formatDate(letter.sentDate, "yyyy-MM-dd HH:mm");
 					letter.unread = true;
@@ -569,16 +557,10 @@ public class MailBBSManager extends BaseBBSManager
 			}
 			
 			// Create a copy into activeChar's sent box
-			if (statement != null)
+			if (sent)
 			{
 				int id = getNewMailId();
-				
-				statement.setInt(1, activeChar.getObjectId());
-				statement.setInt(2, id);
-				statement.setString(4, "sentbox");
-				statement.setInt(9, 0);
-				statement.execute();
-				statement.close();
+				storeLetter(activeChar.getObjectId(), id, activeChar.getObjectId(), "sentbox", recipients, storedSubject, storedMessage, time, false);
 				
 				Mail letter = new Mail();
 				letter.charId = activeChar.getObjectId();
@@ -586,8 +568,8 @@ public class MailBBSManager extends BaseBBSManager
 				letter.senderId = activeChar.getObjectId();
 				letter.location = "sentbox";
 				letter.recipientNames = recipients;
-				letter.subject = abbreviate(subject, 128);
-				letter.message = message;
+				letter.subject = storedSubject;
+				letter.message = storedMessage;
 				letter.sentDate = time;
 				letter.sentDateString = Util.formatDate(letter.sentDate, "yyyy-MM-dd HH:mm");
 				letter.unread = false;
@@ -606,6 +588,37 @@ public class MailBBSManager extends BaseBBSManager
 		}
 	}
 	
+	/**
+	 * Inserts a letter in database, in background.
+	 * @param charId : The owner of the letter.
+	 * @param letterId : The letter id.
+	 * @param senderId : The sender of the letter.
+	 * @param location : The mailbox of the letter.
+	 * @param recipients : The names of recipients.
+	 * @param subject : The subject.
+	 * @param message : The message.
+	 * @param time : The sending date.
+	 * @param unread : True if the letter is new.
+	 */
+	private static void storeLetter(int charId, int letterId, int senderId, String location, String recipients, String subject, String message, Timestamp time, boolean unread)
+	{
+		L2DatabaseFactory.getInstance().execute("MailBBSManager.storeLetter", charId, con ->
+		{
+			PreparedStatement statement = con.prepareStatement(INSERT_NEW_MAIL);
+			statement.setInt(1, charId);
+			statement.setInt(2, letterId);
+			statement.setInt(3, senderId);
+			statement.setString(4, location);
+			statement.setString(5, recipients);
+			statement.setString(6, subject);
+			statement.setString(7, message);
+			statement.setTimestamp(8, time);
+			statement.setInt(9, (unread) ? 1 : 0);
+			statement.execute();
+			statement.close();
+		});
+	}
+	
 	private int getCountLetters(int objId, String location, String sType, String search)
 	{
 		int count = 0;
@@ -664,53 +677,41 @@ public class MailBBSManager extends BaseBBSManager
 			}
 		}
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("MailBBSManager.deleteLetter", activeChar.getObjectId(), con ->
 		{
 			PreparedStatement statement = con.prepareStatement(DELETE_MAIL);
 			statement.setInt(1, letterId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.warning("couldnt delete letter " + letterId + " " + e);
-		}
+		});
 	}
 	
 	private void setLetterToRead(L2PcInstance activeChar, int letterId)
 	{
 		getLetter(activeChar, letterId).unread = false;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("MailBBSManager.setLetterToRead", activeChar.getObjectId(), con ->
 		{
 			PreparedStatement statement = con.prepareStatement(MARK_MAIL_READ);
 			statement.setInt(1, 0);
 			statement.setInt(2, letterId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.warning("couldnt set unread to false for " + letterId + " " + e);
-		}
+		});
 	}
 	
 	private void setLetterLocation(L2PcInstance activeChar, int letterId, String location)
 	{
 		getLetter(activeChar, letterId).location = location;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("MailBBSManager.setLetterLocation", activeChar.getObjectId(), con ->
 		{
 			PreparedStatement statement = con.prepareStatement(SET_LETTER_LOC);
 			statement.setString(1, location);
 			statement.setInt(2, letterId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.warning("couldnt set location to false for " + letterId + " " + e);
-		}
+		});
 	}
 	
 	private static String getCharName(int charId)
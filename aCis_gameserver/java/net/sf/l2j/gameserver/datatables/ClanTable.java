@@ -233,6 +233,9 @@ public class ClanTable
 		_clans.remove(clanId);
 		IdFactory.getInstance().releaseId(clanId);
 		
+		// Background writes of that clan must be written first.
+		L2DatabaseFactory.getInstance().await(clanId);
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement("DELETE FROM clan_data WHERE clan_id=?");
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import net.sf.l2j.Config;
 import net.sf.l2j.gameserver.model.L2MinionData;
 import net.sf.l2j.gameserver.model.L2NpcAIData;
 import net.sf.l2j.gameserver.model.L2Skill;
@@ -32,7 +33,6 @@ import net.sf.l2j.gameserver.model.item.DropData;
 import net.sf.l2j.gameserver.templates.StatsSet;
 import net.sf.l2j.gameserver.xmlfactory.XMLDocumentFactory;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
@@ -59,12 +59,7 @@ public class NpcTable
 	}
 	
 	/**
-	 * Load NPCs templates.<br>
-	 * As some categories need an existing template in order to write infos, there are 2 loops :
-	 * <ul>
-	 * <li>The first loop creates the L2NpcTemplate with stats coming from "set" category.</li>
-	 * <li>The second loop considers categories : skills, drops, teach, minions, ai.</li>
-	 * </ul>
+	 * Load NPCs templates. Files are streamed, each npc element being parsed alone. In developer mode, streamed npcs are checked against the parsed files.
 	 */
 	private void load()
 	{
@@ -74,175 +69,184 @@ public class NpcTable
 			
 			for (File file : dir.listFiles())
 			{
-				final Document doc = XMLDocumentFactory.getInstance().loadDocument(file);
+				XMLDocumentFactory.getInstance().streamDocument(file, "npc", this::parseNpc);
+				
+				// Developer mode : check streamed npcs are the same as the ones of the parsed file.
+				if (Config.DEVELOPER && !XMLDocumentFactory.getInstance().checkStreaming(file, "npc"))
+					_log.warning("NpcTable: streamed npcs of " + file.getName() + " differ from the parsed file.");
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.SEVERE, "NpcTable: Error parsing NPC templates : ", e);
+		}
+		_log.info("NpcTable: Loaded " + _npcs.size() + " NPC templates.");
+	}
+	
+	/**
+	 * Load a NPC template.<br>
+	 * As some categories need an existing template in order to write infos, there are 2 loops :
+	 * <ul>
+	 * <li>The first loop creates the L2NpcTemplate with stats coming from "set" category.</li>
+	 * <li>The second loop considers categories : skills, drops, teach, minions, ai.</li>
+	 * </ul>
+	 * @param npc : The npc element.
+	 */
+	private void parseNpc(Node npc)
+	{
+		NamedNodeMap attrs = npc.getAttributes();
+		
+		int npcId = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
+		int templateId = attrs.getNamedItem("idTemplate") == null ? npcId : Integer.parseInt(attrs.getNamedItem("idTemplate").getNodeValue());
+		
+		StatsSet set = new StatsSet();
+		set.set("id", npcId);
+		set.set("idTemplate", templateId);
+		set.set("name", attrs.getNamedItem("name").getNodeValue());
+		set.set("title", attrs.getNamedItem("title").getNodeValue());
+		
+		// Categories : only "set" is read and stored. Others categories will come in second loop.
+		for (Node cat = npc.getFirstChild(); cat != null; cat = cat.getNextSibling())
+		{
+			if ("set".equalsIgnoreCase(cat.getNodeName()))
+			{
+				attrs = cat.getAttributes();
+				set.set(attrs.getNamedItem("name").getNodeValue(), attrs.getNamedItem("val").getNodeValue());
+			}
+		}
+		
+		// Create the template with basic infos.
+		NpcTemplate template = new NpcTemplate(set);
+		
+		// Categories : add missing categories.
+		for (Node cat = npc.getFirstChild(); cat != null; cat = cat.getNextSibling())
+		{
+			if ("ai".equalsIgnoreCase(cat.getNodeName()))
+			{
+				attrs = cat.getAttributes();
+				
+				L2NpcAIData npcAIDat = new L2NpcAIData();
+				npcAIDat.setAi(attrs.getNamedItem("type").getNodeValue());
+				npcAIDat.setSsCount(Integer.parseInt(attrs.getNamedItem("ssCount").getNodeValue()));
+				npcAIDat.setSsRate(Integer.parseInt(attrs.getNamedItem("ssRate").getNodeValue()));
+				npcAIDat.setSpsCount(Integer.parseInt(attrs.getNamedItem("spsCount").getNodeValue()));
+				npcAIDat.setSpsRate(Integer.parseInt(attrs.getNamedItem("spsRate").getNodeValue()));
+				npcAIDat.setAggro(Integer.parseInt(attrs.getNamedItem("aggro").getNodeValue()));
 				
-				Node list = doc.getFirstChild();
-				for (Node npc = list.getFirstChild(); npc != null; npc = npc.getNextSibling())
+				// Verify if the parameter exists.
+				if (attrs.getNamedItem("clan") != null)
 				{
-					if ("npc".equalsIgnoreCase(npc.getNodeName()))
+					npcAIDat.setClans(attrs.getNamedItem("clan").getNodeValue().split(";"));
+					npcAIDat.setClanRange(Integer.parseInt(attrs.getNamedItem("clanRange").getNodeValue()));
+					
+					// Verify if the parameter exists.
+					if (attrs.getNamedItem("ignoredIds") != null)
 					{
-						NamedNodeMap attrs = npc.getAttributes();
-						
-						int npcId = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
-						int templateId = attrs.getNamedItem("idTemplate") == null ? npcId : Integer.parseInt(attrs.getNamedItem("idTemplate").getNodeValue());
+						// Parse it under String array.
+						String[] idsToIgnore = attrs.getNamedItem("ignoredIds").getNodeValue().split(";");
+						if (idsToIgnore.length != 0)
+						{
+							// Parse it under int array, and then fill L2NpcAIData's _clanIgnore.
+							int[] values = new int[idsToIgnore.length];
+							for (int i = 0; i < idsToIgnore.length; i++)
+								values[i] = Integer.parseInt(idsToIgnore[i]);
+							
+							npcAIDat.setIgnoredIds(values);
+						}
+					}
+				}
+				
+				npcAIDat.setCanMove(Boolean.parseBoolean(attrs.getNamedItem("canMove").getNodeValue()));
+				npcAIDat.setSeedable(Boolean.parseBoolean(attrs.getNamedItem("seedable").getNodeValue()));
+				
+				template.setAIData(npcAIDat);
+			}
+			else if ("skills".equalsIgnoreCase(cat.getNodeName()))
+			{
+				for (Node skillCat = cat.getFirstChild(); skillCat != null; skillCat = skillCat.getNextSibling())
+				{
+					if ("skill".equalsIgnoreCase(skillCat.getNodeName()))
+					{
+						attrs = skillCat.getAttributes();
 						
-						StatsSet set = new StatsSet();
-						set.set("id", npcId);
-						set.set("idTemplate", templateId);
-						set.set("name", attrs.getNamedItem("name").getNodeValue());
-						set.set("title", attrs.getNamedItem("title").getNodeValue());
+						int skillId = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
+						int level = Integer.parseInt(attrs.getNamedItem("level").getNodeValue());
 						
-						// Categories : only "set" is read and stored. Others categories will come in second loop.
-						for (Node cat = npc.getFirstChild(); cat != null; cat = cat.getNextSibling())
+						// Setup the npc's race. Don't register the skill.
+						if (skillId == L2Skill.SKILL_NPC_RACE)
 						{
-							if ("set".equalsIgnoreCase(cat.getNodeName()))
-							{
-								attrs = cat.getAttributes();
-								set.set(attrs.getNamedItem("name").getNodeValue(), attrs.getNamedItem("val").getNodeValue());
-							}
+							template.setRace(level);
+							continue;
 						}
 						
-						// Create the template with basic infos.
-						NpcTemplate template = new NpcTemplate(set);
+						L2Skill npcSkill = SkillTable.getInstance().getInfo(skillId, level);
+						if (npcSkill == null)
+							continue;
 						
-						// Categories : add missing categories.
-						for (Node cat = npc.getFirstChild(); cat != null; cat = cat.getNextSibling())
+						template.addSkill(npcSkill);
+					}
+				}
+			}
+			else if ("drops".equalsIgnoreCase(cat.getNodeName()))
+			{
+				for (Node dropCat = cat.getFirstChild(); dropCat != null; dropCat = dropCat.getNextSibling())
+				{
+					if ("category".equalsIgnoreCase(dropCat.getNodeName()))
+					{
+						attrs = dropCat.getAttributes();
+						
+						int category = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
+						
+						for (Node item = dropCat.getFirstChild(); item != null; item = item.getNextSibling())
 						{
-							if ("ai".equalsIgnoreCase(cat.getNodeName()))
+							if ("drop".equalsIgnoreCase(item.getNodeName()))
 							{
-								attrs = cat.getAttributes();
+								attrs = item.getAttributes();
 								
-								L2NpcAIData npcAIDat = new L2NpcAIData();
-								npcAIDat.setAi(attrs.getNamedItem("type").getNodeValue());
-								npcAIDat.setSsCount(Integer.parseInt(attrs.getNamedItem("ssCount").getNodeValue()));
-								npcAIDat.setSsRate(Integer.parseInt(attrs.getNamedItem("ssRate").getNodeValue()));
-								npcAIDat.setSpsCount(Integer.parseInt(attrs.getNamedItem("spsCount").getNodeValue()));
-								npcAIDat.setSpsRate(Integer.parseInt(attrs.getNamedItem("spsRate").getNodeValue()));
-								npcAIDat.setAggro(Integer.parseInt(attrs.getNamedItem("aggro").getNodeValue()));
+								DropData dropDat = new DropData();
+								dropDat.setItemId(Integer.parseInt(attrs.getNamedItem("itemid").getNodeValue()));
+								dropDat.setMinDrop(Integer.parseInt(attrs.getNamedItem("min").getNodeValue()));
+								dropDat.setMaxDrop(Integer.parseInt(attrs.getNamedItem("max").getNodeValue()));
+								dropDat.setChance(Integer.parseInt(attrs.getNamedItem("chance").getNodeValue()));
 								
-								// Verify if the parameter exists.
-								if (attrs.getNamedItem("clan") != null)
+								if (ItemTable.getInstance().getTemplate(dropDat.getItemId()) == null)
 								{
-									npcAIDat.setClans(attrs.getNamedItem("clan").getNodeValue().split(";"));
-									npcAIDat.setClanRange(Integer.parseInt(attrs.getNamedItem("clanRange").getNodeValue()));
-									
-									// Verify if the parameter exists.
-									if (attrs.getNamedItem("ignoredIds") != null)
-									{
-										// Parse it under String array.
-										String[] idsToIgnore = attrs.getNamedItem("ignoredIds").getNodeValue().split(";");
-										if (idsToIgnore.length != 0)
-										{
-											// Parse it under int array, and then fill L2NpcAIData's _clanIgnore.
-											int[] values = new int[idsToIgnore.length];
-											for (int i = 0; i < idsToIgnore.length; i++)
-												values[i] = Integer.parseInt(idsToIgnore[i]);
-											
-											npcAIDat.setIgnoredIds(values);
-										}
-									}
+									_log.warning("Droplist data for undefined itemId: " + dropDat.getItemId());
+									continue;
 								}
-								
-								npcAIDat.setCanMove(Boolean.parseBoolean(attrs.getNamedItem("canMove").getNodeValue()));
-								npcAIDat.setSeedable(Boolean.parseBoolean(attrs.getNamedItem("seedable").getNodeValue()));
-								
-								template.setAIData(npcAIDat);
-							}
-							else if ("skills".equalsIgnoreCase(cat.getNodeName()))
-							{
-								for (Node skillCat = cat.getFirstChild(); skillCat != null; skillCat = skillCat.getNextSibling())
-								{
-									if ("skill".equalsIgnoreCase(skillCat.getNodeName()))
-									{
-										attrs = skillCat.getAttributes();
-										
-										int skillId = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
-										int level = Integer.parseInt(attrs.getNamedItem("level").getNodeValue());
-										
-										// Setup the npc's race. Don't register the skill.
-										if (skillId == L2Skill.SKILL_NPC_RACE)
-										{
-											template.setRace(level);
-											continue;
-										}
-										
-										L2Skill npcSkill = SkillTable.getInstance().getInfo(skillId, level);
-										if (npcSkill == null)
-											continue;
-										
-										template.addSkill(npcSkill);
-									}
-								}
-							}
-							else if ("drops".equalsIgnoreCase(cat.getNodeName()))
-							{
-								for (Node dropCat = cat.getFirstChild(); dropCat != null; dropCat = dropCat.getNextSibling())
-								{
-									if ("category".equalsIgnoreCase(dropCat.getNodeName()))
-									{
-										attrs = dropCat.getAttributes();
-										
-										int category = Integer.parseInt(attrs.getNamedItem("id").getNodeValue());
-										
-										for (Node item = dropCat.getFirstChild(); item != null; item = item.getNextSibling())
-										{
-											if ("drop".equalsIgnoreCase(item.getNodeName()))
-											{
-												attrs = item.getAttributes();
-												
-												DropData dropDat = new DropData();
-												dropDat.setItemId(Integer.parseInt(attrs.getNamedItem("itemid").getNodeValue()));
-												dropDat.setMinDrop(Integer.parseInt(attrs.getNamedItem("min").getNodeValue()));
-												dropDat.setMaxDrop(Integer.parseInt(attrs.getNamedItem("max").getNodeValue()));
-												dropDat.setChance(Integer.parseInt(attrs.getNamedItem("chance").getNodeValue()));
-												
-												if (ItemTable.getInstance().getTemplate(dropDat.getItemId()) == null)
-												{
-													_log.warning("Droplist data for undefined itemId: " + dropDat.getItemId());
-													continue;
-												}
-												template.addDropData(dropDat, category);
-											}
-										}
-									}
-								}
-							}
-							else if ("minions".equalsIgnoreCase(cat.getNodeName()))
-							{
-								for (Node minion = cat.getFirstChild(); minion != null; minion = minion.getNextSibling())
-								{
-									if ("minion".equalsIgnoreCase(minion.getNodeName()))
-									{
-										attrs = minion.getAttributes();
-										
-										L2MinionData minionDat = new L2MinionData();
-										minionDat.setMinionId(Integer.parseInt(attrs.getNamedItem("id").getNodeValue()));
-										minionDat.setAmountMin(Integer.parseInt(attrs.getNamedItem("min").getNodeValue()));
-										minionDat.setAmountMax(Integer.parseInt(attrs.getNamedItem("max").getNodeValue()));
-										
-										template.addRaidData(minionDat);
-									}
-								}
-							}
-							else if ("teachTo".equalsIgnoreCase(cat.getNodeName()))
-							{
-								String[] classIds = cat.getAttributes().getNamedItem("classes").getNodeValue().split(";");
-								
-								for (String classId : classIds)
-									template.addTeachInfo(ClassId.values()[Integer.parseInt(classId)]);
+								template.addDropData(dropDat, category);
 							}
 						}
+					}
+				}
+			}
+			else if ("minions".equalsIgnoreCase(cat.getNodeName()))
+			{
+				for (Node minion = cat.getFirstChild(); minion != null; minion = minion.getNextSibling())
+				{
+					if ("minion".equalsIgnoreCase(minion.getNodeName()))
+					{
+						attrs = minion.getAttributes();
+						
+						L2MinionData minionDat = new L2MinionData();
+						minionDat.setMinionId(Integer.parseInt(attrs.getNamedItem("id").getNodeValue()));
+						minionDat.setAmountMin(Integer.parseInt(attrs.getNamedItem("min").getNodeValue()));
+						minionDat.setAmountMax(Integer.parseInt(attrs.getNamedItem("max").getNodeValue()));
 						
-						_npcs.put(npcId, template);
+						template.addRaidData(minionDat);
 					}
 				}
 			}
+			else if ("teachTo".equalsIgnoreCase(cat.getNodeName()))
+			{
+				String[] classIds = cat.getAttributes().getNamedItem("classes").getNodeValue().split(";");
+				
+				for (String classId : classIds)
+					template.addTeachInfo(ClassId.values()[Integer.parseInt(classId)]);
+			}
 		}
-		catch (Exception e)
-		{
-			_log.log(Level.SEVERE, "NpcTable: Error parsing NPC templates : ", e);
-		}
-		_log.info("NpcTable: Loaded " + _npcs.size() + " NPC templates.");
+		
+		_npcs.put(npcId, template);
 	}
 	
 	public NpcTemplate getTemplate(int id)
@@ -22,6 +22,8 @@ import java.util.logging.Logger;
 
 import net.sf.l2j.Config;
 import net.sf.l2j.gameserver.geoengine.geodata.GeoDriverArray;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoDriverMapped;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoFormat;
 import net.sf.l2j.gameserver.geoengine.geodata.GeoStructure;
 import net.sf.l2j.gameserver.geoengine.geodata.NullDriver;
 import net.sf.l2j.gameserver.model.L2World;
@@ -48,6 +50,8 @@ public abstract class GeoData
 		// load geodata driver
 		if (Config.GEODATA <= 0)
 			_driver = new NullDriver();
+		else if (Config.GEODATA_MAPPED && Config.GEODATA_FORMAT == GeoFormat.L2D)
+			_driver = new GeoDriverMapped();
 		else
 			_driver = new GeoDriverArray();
 		// _driver = new GeoDriverBlock();
@@ -140,6 +144,14 @@ public abstract class GeoData
 	 */
 	public abstract byte getNsweNearest(int geoX, int geoY, int worldZ);
 	
+	/**
+	 * Returns the heights of all layers of cell.
+	 * @param geoX : Cell geodata X coordinate.
+	 * @param geoY : Cell geodata Y coordinate.
+	 * @return short[] : Cell geodata Z coordinates of all layers, none for cell without geodata.
+	 */
+	public abstract short[] getHeights(int geoX, int geoY);
+	
 	/**
 	 * Record a geodata bug.
 	 * @param loc : Location of the geodata bug.
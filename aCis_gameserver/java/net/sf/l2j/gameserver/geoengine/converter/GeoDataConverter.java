@@ -15,12 +15,14 @@
 package net.sf.l2j.gameserver.geoengine.converter;
 
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
@@ -35,6 +37,7 @@ import net.sf.l2j.gameserver.geoengine.converter.blocks.ComplexBlock;
 import net.sf.l2j.gameserver.geoengine.converter.blocks.FlatBlock;
 import net.sf.l2j.gameserver.geoengine.converter.blocks.MultilayerBlock;
 import net.sf.l2j.gameserver.geoengine.converter.blocks.MultilayerCell;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoDriverMapped;
 import net.sf.l2j.gameserver.geoengine.geodata.GeoFormat;
 import net.sf.l2j.gameserver.geoengine.geodata.GeoStructure;
 import net.sf.l2j.gameserver.model.L2World;
@@ -51,6 +54,8 @@ public final class GeoDataConverter extends Server
 	
 	private Block[][] _blocks;
 	
+	private boolean _mapped;
+	
 	public GeoDataConverter() throws Exception
 	{
 		Server.serverMode = Server.MODE_GAMESERVER;
@@ -79,7 +84,7 @@ public final class GeoDataConverter extends Server
 	}
 	
 	/**
-	 * Load region geodata file, perform conversion to diagonal geodata type and store as diagonal geodata file.
+	 * Load region geodata file, perform conversion to diagonal geodata type and store as diagonal geodata file, or as memory-mapped diagonal geodata file.
 	 * @throws IOException
 	 */
 	public final void loadConvertAndSave() throws IOException
@@ -98,6 +103,18 @@ public final class GeoDataConverter extends Server
 		while (c != 'J' && c != 'O');
 		Config.GEODATA_FORMAT = c == 'J' ? GeoFormat.L2J : GeoFormat.L2OFF;
 		
+		// get output type
+		do
+		{
+			System.out.print("Select geodata type to create [D..L2D (*.l2d), M..L2D memory-mapped (*.l2m)]: ");
+			c = System.in.read();
+			while (System.in.read() != '\n');
+		}
+		while (c != 'D' && c != 'M');
+		_mapped = c == 'M';
+		
+		final String output = _mapped ? GeoDriverMapped.FILENAME : GeoFormat.L2D.getFilename();
+		
 		_log.info("GeoDataConverter: Converting all " + Config.GEODATA_FORMAT.toString() + " according to listing in \"geoengine.properties\" config file.");
 		
 		// load geo files according to geoengine config setup
@@ -124,19 +141,19 @@ public final class GeoDataConverter extends Server
 					}
 					
 					// save geodata
-					if (!saveGeoBlocks(rx, ry))
+					if (!(_mapped ? saveMappedBlocks(rx, ry) : saveGeoBlocks(rx, ry)))
 					{
-						_log.warning("GeoDataConverter: Unable to save " + String.format(GeoFormat.L2D.getFilename(), rx, ry) + " region file.");
+						_log.warning("GeoDataConverter: Unable to save " + String.format(output, rx, ry) + " region file.");
 						continue;
 					}
 					
 					converted++;
-					_log.info("GeoDataConverter: Created " + String.format(GeoFormat.L2D.getFilename(), rx, ry) + " region file.");
+					_log.info("GeoDataConverter: Created " + String.format(output, rx, ry) + " region file.");
 				}
 			}
 		}
 		
-		_log.info("GeoDataConverter: Converted " + converted + " " + Config.GEODATA_FORMAT.toString() + " to L2D region file(s).");
+		_log.info("GeoDataConverter: Converted " + converted + " " + Config.GEODATA_FORMAT.toString() + " to " + (_mapped ? "memory-mapped L2D" : "L2D") + " region file(s).");
 	}
 	
 	/**
@@ -398,6 +415,50 @@ public final class GeoDataConverter extends Server
 		}
 	}
 	
+	/**
+	 * Save region to memory-mapped region file : header, offsets of blocks, then blocks in L2D format.
+	 * @param rx : First block of the region X coordinate.
+	 * @param ry : First block of the region Y coordinate.
+	 * @return boolean : True when successful.
+	 * @see GeoDriverMapped
+	 */
+	private final boolean saveMappedBlocks(int rx, int ry)
+	{
+		final String filename = String.format(GeoDriverMapped.FILENAME, rx, ry);
+		
+		try (BufferedOutputStream bos = new BufferedOutputStream(new FileOutputStream(Config.GEODATA_PATH + filename)))
+		{
+			// header
+			final ByteBuffer header = ByteBuffer.allocate(GeoDriverMapped.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(GeoDriverMapped.MAGIC);
+			header.putInt(GeoDriverMapped.VERSION);
+			
+			// blocks, their offsets go to the header
+			final ByteArrayOutputStream data = new ByteArrayOutputStream();
+			final BufferedOutputStream blocks = new BufferedOutputStream(data);
+			for (int ix = 0; ix < GeoStructure.REGION_BLOCKS_X; ix++)
+			{
+				for (int iy = 0; iy < GeoStructure.REGION_BLOCKS_Y; iy++)
+				{
+					header.putInt(GeoDriverMapped.HEADER_SIZE + data.size());
+					
+					_blocks[ix][iy].saveBlock(blocks);
+					blocks.flush();
+				}
+			}
+			
+			bos.write(header.array());
+			data.writeTo(bos);
+			
+			return true;
+		}
+		catch (Exception e)
+		{
+			e.printStackTrace();
+			return false;
+		}
+	}
+	
 	public static void main(String[] args) throws Exception
 	{
 		new GeoDataConverter();
@@ -518,6 +518,54 @@ public final class GeoDriverArray extends GeoData
 		}
 	}
 	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		// get block
+		final byte[] block = _blocks[geoX / GeoStructure.BLOCK_CELLS_X][geoY / GeoStructure.BLOCK_CELLS_Y];
+		
+		int index;
+		
+		// process block
+		switch (block[0])
+		{
+			case GeoStructure.NULL:
+				return new short[0];
+			
+			case GeoStructure.FLAT:
+				index = 1;
+				break;
+			
+			case GeoStructure.COMPLEX:
+				index = ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 2;
+				break;
+			
+			case GeoStructure.MULTILAYER:
+				// move buffer index to cell
+				index = 1;
+				for (int i = 0; i < (geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y); i++)
+					index += block[index] * 3 + 1;
+				
+				// loop though all cell layers
+				final short[] heights = new short[block[index++]];
+				for (int layer = 0; layer < heights.length; layer++)
+				{
+					heights[layer] = (short) (block[index + 1] & 0x00FF | block[index + 2] << 8);
+					index += 3;
+				}
+				return heights;
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+		
+		// return Z
+		return new short[]
+		{
+			(short) (block[index] & 0x00FF | block[index + 1] << 8)
+		};
+	}
+	
 	/**
 	 * Returns cell data of the cell in closes layer to given coordinates.
 	 * @param geoX : Geo X.
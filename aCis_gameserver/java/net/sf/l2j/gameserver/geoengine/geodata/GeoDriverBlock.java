@@ -262,6 +262,12 @@ public final class GeoDriverBlock extends GeoData
 		return getBlock(geoX, geoY).getNsweNearest(geoX, geoY, worldZ);
 	}
 	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		return getBlock(geoX, geoY).getHeights(geoX, geoY);
+	}
+	
 	public final Block getBlock(int geoX, int geoY)
 	{
 		return _blocks[geoX / GeoStructure.BLOCK_CELLS_X][geoY / GeoStructure.BLOCK_CELLS_Y];
@@ -0,0 +1,500 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.geoengine.geodata;
+
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.commons.config.ExProperties;
+import net.sf.l2j.gameserver.geoengine.GeoData;
+import net.sf.l2j.gameserver.model.L2World;
+
+/**
+ * Geodata driver reading cells straight from memory-mapped region files, created by the GeoDataConverter.<br>
+ * <br>
+ * Region files are mapped read-only and never copied to the java heap : the system loads pages of the files on first use and keeps them in its cache. A region file is made of :
+ * <ul>
+ * <li>the header : {@link #MAGIC} and {@link #VERSION}, both int,</li>
+ * <li>the offset of each block from the start of the file, int, blocks ordered by X, then by Y,</li>
+ * <li>the blocks in L2D format : block type byte, followed by block data.</li>
+ * </ul>
+ * All values are little-endian. Reads use absolute positions, so buffers are shared by all threads.
+ */
+public final class GeoDriverMapped extends GeoData
+{
+	public static final String FILENAME = "%d_%d.l2m";
+	
+	public static final int MAGIC = 0x4D32_4C47; // "GL2M"
+	public static final int VERSION = 1;
+	
+	public static final int OFFSETS = 8;
+	public static final int HEADER_SIZE = OFFSETS + GeoStructure.REGION_BLOCKS * 4;
+	
+	private final ByteBuffer[][] _regions;
+	
+	public GeoDriverMapped()
+	{
+		// map region files
+		_regions = new ByteBuffer[GeoStructure.GEO_REGIONS_X][GeoStructure.GEO_REGIONS_Y];
+		
+		// map geo files according to geoengine config setup
+		final ExProperties props = Config.load(Config.GEOENGINE_FILE);
+		int loaded = 0;
+		long size = 0;
+		for (int rx = L2World.TILE_X_MIN; rx <= L2World.TILE_X_MAX; rx++)
+		{
+			for (int ry = L2World.TILE_Y_MIN; ry <= L2World.TILE_Y_MAX; ry++)
+			{
+				// region file is not load-able, leave null region
+				if (!props.containsKey(String.valueOf(rx) + "_" + String.valueOf(ry)))
+					continue;
+				
+				// region file is load-able, try to map it
+				final ByteBuffer region = mapRegion(rx, ry);
+				if (region == null)
+					continue;
+				
+				_regions[rx - L2World.TILE_X_MIN][ry - L2World.TILE_Y_MIN] = region;
+				loaded++;
+				size += region.capacity();
+			}
+		}
+		_log.info("GeoDriverMapped: Mapped " + loaded + " " + Config.GEODATA_FORMAT.toString() + " region files (" + (size >> 20) + " MB).");
+	}
+	
+	/**
+	 * Maps geodata region file and checks its header and block offsets. When file does not exist, is corrupted or not consistent, region has none geodata.
+	 * @param regionX : Geodata file region X coordinate.
+	 * @param regionY : Geodata file region Y coordinate.
+	 * @return ByteBuffer : Region file buffer, null when mapping failed.
+	 */
+	private static final ByteBuffer mapRegion(int regionX, int regionY)
+	{
+		final String filename = String.format(FILENAME, regionX, regionY);
+		
+		// the mapping stays valid after the channel is closed
+		try (FileChannel fc = new RandomAccessFile(Config.GEODATA_PATH + filename, "r").getChannel())
+		{
+			final ByteBuffer buffer = fc.map(FileChannel.MapMode.READ_ONLY, 0, fc.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			
+			// check header
+			if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+				throw new IllegalArgumentException("Unknown region file format, convert it again.");
+			
+			// check block offsets
+			for (int i = 0; i < GeoStructure.REGION_BLOCKS; i++)
+			{
+				final int offset = buffer.getInt(OFFSETS + i * 4);
+				if (offset < HEADER_SIZE || offset >= buffer.capacity())
+					throw new IllegalArgumentException("Invalid offset of block " + i + ".");
+			}
+			
+			return buffer;
+		}
+		catch (Exception e)
+		{
+			// an error occured while mapping, region has none geodata
+			_log.warning("GeoDriverMapped: Error while mapping " + filename + " region file.");
+			_log.warning(e.getMessage());
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * @param region : Region file buffer.
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @return int : Index of the block type in the region file buffer.
+	 */
+	private static final int getBlockIndex(ByteBuffer region, int geoX, int geoY)
+	{
+		final int bx = (geoX / GeoStructure.BLOCK_CELLS_X) % GeoStructure.REGION_BLOCKS_X;
+		final int by = (geoY / GeoStructure.BLOCK_CELLS_Y) % GeoStructure.REGION_BLOCKS_Y;
+		
+		return region.getInt(OFFSETS + (bx * GeoStructure.REGION_BLOCKS_Y + by) * 4);
+	}
+	
+	/**
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @return ByteBuffer : Region file buffer, null when region has none geodata.
+	 */
+	private final ByteBuffer getRegion(int geoX, int geoY)
+	{
+		return _regions[geoX / GeoStructure.REGION_CELLS_X][geoY / GeoStructure.REGION_CELLS_Y];
+	}
+	
+	@Override
+	public int getGeoX(int worldX)
+	{
+		if (worldX < L2World.WORLD_X_MIN || worldX > L2World.WORLD_X_MAX)
+			throw new IllegalArgumentException();
+		
+		return (worldX - L2World.WORLD_X_MIN) >> 4;
+	}
+	
+	@Override
+	public int getGeoY(int worldY)
+	{
+		if (worldY < L2World.WORLD_Y_MIN || worldY > L2World.WORLD_Y_MAX)
+			throw new IllegalArgumentException();
+		
+		return (worldY - L2World.WORLD_Y_MIN) >> 4;
+	}
+	
+	@Override
+	public int getWorldX(int geoX)
+	{
+		if (geoX < 0 || geoX >= GeoStructure.GEO_CELLS_X)
+			throw new IllegalArgumentException();
+		
+		return (geoX << 4) + L2World.WORLD_X_MIN + 8;
+	}
+	
+	@Override
+	public int getWorldY(int geoY)
+	{
+		if (geoY < 0 || geoY >= GeoStructure.GEO_CELLS_Y)
+			throw new IllegalArgumentException();
+		
+		return (geoY << 4) + L2World.WORLD_Y_MIN + 8;
+	}
+	
+	@Override
+	public boolean hasGeoPos(int geoX, int geoY)
+	{
+		return getRegion(geoX, geoY) != null;
+	}
+	
+	@Override
+	public short getHeightNearest(int geoX, int geoY, int worldZ)
+	{
+		// get region
+		final ByteBuffer region = getRegion(geoX, geoY);
+		if (region == null)
+			return (short) worldZ;
+		
+		// get block
+		int index = getBlockIndex(region, geoX, geoY);
+		
+		// process block
+		switch (region.get(index))
+		{
+			case GeoStructure.TYPE_FLAT_L2D:
+				index += 1;
+				break;
+			
+			case GeoStructure.TYPE_COMPLEX_L2D:
+				index += ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 2;
+				break;
+			
+			case GeoStructure.TYPE_MULTILAYER_L2D:
+				index = getCellIndexNearest(geoX, geoY, worldZ, region, index) + 1;
+				break;
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+		
+		// return Z
+		return region.getShort(index);
+	}
+	
+	@Override
+	public short getHeightAbove(int geoX, int geoY, int worldZ)
+	{
+		// get region
+		final ByteBuffer region = getRegion(geoX, geoY);
+		if (region == null)
+			return (short) worldZ;
+		
+		// get block
+		int index = getBlockIndex(region, geoX, geoY);
+		
+		// process block
+		switch (region.get(index))
+		{
+			case GeoStructure.TYPE_FLAT_L2D:
+				index += 1;
+				break;
+			
+			case GeoStructure.TYPE_COMPLEX_L2D:
+				index += ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 2;
+				break;
+			
+			case GeoStructure.TYPE_MULTILAYER_L2D:
+				index = getCellIndexAbove(geoX, geoY, worldZ, region, index) + 1;
+				break;
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+		
+		// return Z
+		return region.getShort(index);
+	}
+	
+	@Override
+	public short getHeightBelow(int geoX, int geoY, int worldZ)
+	{
+		// get region
+		final ByteBuffer region = getRegion(geoX, geoY);
+		if (region == null)
+			return (short) worldZ;
+		
+		// get block
+		int index = getBlockIndex(region, geoX, geoY);
+		
+		// process block
+		switch (region.get(index))
+		{
+			case GeoStructure.TYPE_FLAT_L2D:
+				index += 1;
+				break;
+			
+			case GeoStructure.TYPE_COMPLEX_L2D:
+				index += ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 2;
+				break;
+			
+			case GeoStructure.TYPE_MULTILAYER_L2D:
+				index = getCellIndexBelow(geoX, geoY, worldZ, region, index) + 1;
+				break;
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+		
+		// return Z
+		return region.getShort(index);
+	}
+	
+	@Override
+	public byte getNsweNearest(int geoX, int geoY, int worldZ)
+	{
+		// get region
+		final ByteBuffer region = getRegion(geoX, geoY);
+		if (region == null)
+			return (byte) 0xFF;
+		
+		// get block
+		final int index = getBlockIndex(region, geoX, geoY);
+		
+		// process block
+		switch (region.get(index))
+		{
+			case GeoStructure.TYPE_FLAT_L2D:
+				return (byte) 0xFF;
+			
+			case GeoStructure.TYPE_COMPLEX_L2D:
+				return region.get(index + ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 1);
+			
+			case GeoStructure.TYPE_MULTILAYER_L2D:
+				return region.get(getCellIndexNearest(geoX, geoY, worldZ, region, index));
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+	}
+	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		// get region
+		final ByteBuffer region = getRegion(geoX, geoY);
+		if (region == null)
+			return new short[0];
+		
+		// get block
+		int index = getBlockIndex(region, geoX, geoY);
+		
+		// process block
+		switch (region.get(index))
+		{
+			case GeoStructure.TYPE_FLAT_L2D:
+				index += 1;
+				break;
+			
+			case GeoStructure.TYPE_COMPLEX_L2D:
+				index += ((geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y)) * 3 + 2;
+				break;
+			
+			case GeoStructure.TYPE_MULTILAYER_L2D:
+				// move buffer index to cell
+				index = getCellIndex(geoX, geoY, region, index);
+				
+				// loop though all cell layers
+				final short[] heights = new short[region.get(index++)];
+				for (int layer = 0; layer < heights.length; layer++)
+				{
+					heights[layer] = region.getShort(index + 1);
+					index += 3;
+				}
+				return heights;
+			
+			default:
+				throw new IllegalArgumentException("Unknown geodata block type.");
+		}
+		
+		// return Z
+		return new short[]
+		{
+			region.getShort(index)
+		};
+	}
+	
+	/**
+	 * Returns index of the cell of multilayer block.
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @param region : Region file buffer.
+	 * @param block : Index of the multilayer block.
+	 * @return int : Index of the cell layers count.
+	 */
+	private final static int getCellIndex(int geoX, int geoY, ByteBuffer region, int block)
+	{
+		// move buffer index to cell
+		int index = block + 1;
+		for (int i = 0; i < (geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y); i++)
+		{
+			// move index by amount of layers for this cell
+			index += region.get(index) * 3 + 1;
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Returns cell data of the cell in closes layer to given coordinates.
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @param worldZ : World Z.
+	 * @param region : Region file buffer.
+	 * @param block : Index of the multilayer block.
+	 * @return int : Cell index.
+	 */
+	private final static int getCellIndexNearest(int geoX, int geoY, int worldZ, ByteBuffer region, int block)
+	{
+		// move buffer index to cell
+		int index = getCellIndex(geoX, geoY, region, block);
+		
+		// get layers count
+		byte layers = region.get(index++);
+		
+		// loop though all cell layers, find closest layer and return cell index
+		int limit = Integer.MAX_VALUE;
+		while (layers-- > 0)
+		{
+			// get layer height
+			final int height = region.getShort(index + 1);
+			
+			// get Z distance and compare with limit
+			final int distance = Math.abs(height - worldZ);
+			if (distance >= limit)
+				break;
+			
+			// update distance
+			limit = distance;
+			
+			// move index to next layer
+			index += 3;
+		}
+		
+		// last layer
+		return index - 3;
+	}
+	
+	/**
+	 * Returns cell data of the cell in closes layer to given coordinates.
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @param worldZ : World Z.
+	 * @param region : Region file buffer.
+	 * @param block : Index of the multilayer block.
+	 * @return int : Cell index.
+	 * @throws IndexOutOfBoundsException : When cell is above given Z coordinate.
+	 */
+	private final static int getCellIndexAbove(int geoX, int geoY, int worldZ, ByteBuffer region, int block)
+	{
+		// move buffer index to cell
+		int index = getCellIndex(geoX, geoY, region, block);
+		
+		// get layers count and shift to first layer data
+		short layers = region.get(index++);
+		
+		// loop though all cell layers, find closest layer above worldZ
+		while (layers-- > 0)
+		{
+			// get layer height and compare height with worldZ
+			final short height = region.getShort(index + 1);
+			if (height > worldZ)
+				break;
+			
+			// set index and move to next layer
+			index += 3;
+		}
+		
+		// none layer found
+		if (layers < 0)
+			throw new IndexOutOfBoundsException();
+		
+		// return index (it is first, which is above given worldZ)
+		return index;
+	}
+	
+	/**
+	 * Returns cell data of the cell in closes layer to given coordinates.
+	 * @param geoX : Geo X.
+	 * @param geoY : Geo Y.
+	 * @param worldZ : World Z.
+	 * @param region : Region file buffer.
+	 * @param block : Index of the multilayer block.
+	 * @return int : Cell index.
+	 * @throws IndexOutOfBoundsException : When cell is above given Z coordinate.
+	 */
+	private final static int getCellIndexBelow(int geoX, int geoY, int worldZ, ByteBuffer region, int block)
+	{
+		// move buffer index to cell
+		int index = getCellIndex(geoX, geoY, region, block);
+		
+		// get layers count and shift to first layer data
+		short layers = region.get(index++);
+		
+		// loop though all cell layers, find closest layer above worldZ
+		int result = -1;
+		while (layers-- > 0)
+		{
+			// get layer height and compare height with worldZ
+			final short height = region.getShort(index + 1);
+			if (height >= worldZ)
+				break;
+			
+			// set index and move to next layer
+			result = index;
+			index += 3;
+		}
+		
+		// none layer found
+		if (result < 0)
+			throw new IndexOutOfBoundsException();
+		
+		// return index (it is first, which is below given worldZ)
+		return result;
+	}
+}
\ No newline at end of file
@@ -84,4 +84,10 @@ public final class NullDriver extends GeoData
 	{
 		return 0x0F;
 	}
+	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		return new short[0];
+	}
 }
\ No newline at end of file
@@ -60,4 +60,12 @@ public abstract class Block
 	 * @return short : Cell NSWE flag byte, nearest to given coordinates.
 	 */
 	public abstract byte getNsweNearest(int geoX, int geoY, int worldZ);
+	
+	/**
+	 * Returns the heights of all layers of cell.
+	 * @param geoX : Cell geodata X coordinate.
+	 * @param geoY : Cell geodata Y coordinate.
+	 * @return short[] : Cell geodata Z coordinates of all layers, none for cell without geodata.
+	 */
+	public abstract short[] getHeights(int geoX, int geoY);
 }
\ No newline at end of file
@@ -110,4 +110,13 @@ public final class ComplexBlock extends Block
 		// get nswe
 		return _buffer[index];
 	}
+	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		return new short[]
+		{
+			getHeightNearest(geoX, geoY, 0)
+		};
+	}
 }
\ No newline at end of file
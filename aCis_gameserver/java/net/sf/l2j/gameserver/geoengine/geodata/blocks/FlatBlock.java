@@ -69,4 +69,13 @@ public class FlatBlock extends Block
 	{
 		return _nswe;
 	}
+	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		return new short[]
+		{
+			_height
+		};
+	}
 }
\ No newline at end of file
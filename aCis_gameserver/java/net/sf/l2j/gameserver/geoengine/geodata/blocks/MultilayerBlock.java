@@ -186,6 +186,30 @@ public class MultilayerBlock extends Block
 		return _buffer[index];
 	}
 	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		// move buffer index to cell
+		int index = 0;
+		for (int i = 0; i < (geoX % GeoStructure.BLOCK_CELLS_X) * GeoStructure.BLOCK_CELLS_Y + (geoY % GeoStructure.BLOCK_CELLS_Y); i++)
+		{
+			// move index by amount of layers for this cell
+			index += _buffer[index] * 3 + 1;
+		}
+		
+		// get layers count and shift to first layer data
+		final short[] heights = new short[_buffer[index++]];
+		
+		// loop though all cell layers
+		for (int layer = 0; layer < heights.length; layer++)
+		{
+			heights[layer] = (short) (_buffer[index + 1] & 0x00FF | _buffer[index + 2] << 8);
+			index += 3;
+		}
+		
+		return heights;
+	}
+	
 	/**
 	 * Returns cell data of the cell in closes layer to given coordinates.
 	 * @param geoX : Geo X.
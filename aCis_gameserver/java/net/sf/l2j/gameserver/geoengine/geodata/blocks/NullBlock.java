@@ -58,4 +58,10 @@ public class NullBlock extends Block
 	{
 		return _nswe;
 	}
+	
+	@Override
+	public short[] getHeights(int geoX, int geoY)
+	{
+		return new short[0];
+	}
 }
\ No newline at end of file
@@ -15,9 +15,8 @@
 package net.sf.l2j.gameserver.geoengine.pathfinding;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.logging.Level;
 
 import net.sf.l2j.Config;
@@ -25,6 +24,7 @@ import net.sf.l2j.gameserver.geoengine.GeoData;
 import net.sf.l2j.gameserver.geoengine.PathFinding;
 import net.sf.l2j.gameserver.geoengine.pathfinding.nodes.GeoLocation;
 import net.sf.l2j.gameserver.geoengine.pathfinding.nodes.Node;
+import net.sf.l2j.gameserver.geoengine.pathfinding.nodes.NodeBuffer;
 import net.sf.l2j.gameserver.geoengine.pathfinding.nodes.NodeBufferStd;
 import net.sf.l2j.gameserver.model.Location;
 import net.sf.l2j.util.StringUtil;
@@ -37,12 +37,17 @@ public class CellPathFindingStd extends PathCheckerStd
 	// pre-allocated buffers
 	private BufferHolder[] _buffers;
 	
+	// graph of geodata clusters, used to find long paths
+	private final ClusterGraph _clusters;
+	
 	// pathfinding statistics
 	private int _findSuccess = 0;
 	private int _findFails = 0;
 	private int _postFilterPlayableUses = 0;
 	private int _postFilterUses = 0;
 	private long _postFilterElapsed = 0;
+	private int _clusterSuccess = 0;
+	private int _clusterFails = 0;
 	
 	public CellPathFindingStd()
 	{
@@ -68,6 +73,9 @@ public class CellPathFindingStd extends PathCheckerStd
 		}
 		
 		_log.log(Level.INFO, "CellPathFindingStd: Loaded " + count + " node buffers.");
+		
+		// load graph of geodata clusters
+		_clusters = Config.PATHFIND_CLUSTERS ? new ClusterGraph(NodeBufferStd::new) : null;
 	}
 	
 	@Override
@@ -89,55 +97,28 @@ public class CellPathFindingStd extends PathCheckerStd
 		
 		short gtz = GeoData.getInstance().getHeightNearest(gtx, gty, tz);
 		
-		// Prepare buffer for pathfinding calculations
-		NodeBufferStd buffer = getBuffer(64 + (2 * Math.max(Math.abs(gox - gtx), Math.abs(goy - gty))), playable);
-		if (buffer == null)
-			return null;
-		
 		// clean debug path
 		boolean debug = playable && Config.DEBUG_PATH;
 		if (debug)
 			clearDebugItems();
 		
-		// find path
+		// find long path over the cluster graph, then over the cells
 		List<Location> path = null;
-		try
-		{
-			Node result = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
-			
-			if (result == null)
-			{
-				_findFails++;
-				return null;
-			}
-			
-			if (debug)
-			{
-				// path origin
-				dropDebugItem(728, 0, new GeoLocation(gox, goy, goz)); // blue potion
-				
-				// path
-				for (Node n : buffer.debugPath())
-				{
-					if (n.getCost() < 0)
-						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc()); // antidote
-					else
-						dropDebugItem(57, (int) (n.getCost() * 10), n.getLoc()); // adena
-				}
-			}
-			
-			path = constructPath(result);
-		}
-		catch (Exception e)
+		if (_clusters != null && Math.max(Math.abs(gox - gtx), Math.abs(goy - gty)) > ClusterGraph.CLUSTER_CELLS)
 		{
-			_log.log(Level.WARNING, "", e);
-			_findFails++;
-			return null;
+			path = _clusters.findPath(gox, goy, goz, gtx, gty, gtz);
+			if (path != null)
+				_clusterSuccess++;
+			else
+				_clusterFails++;
 		}
-		finally
+		
+		// find path over the cells
+		if (path == null)
 		{
-			buffer.free();
-			_findSuccess++;
+			path = findCellPath(gox, goy, goz, gtx, gty, gtz, playable, debug);
+			if (path == null)
+				return null;
 		}
 		
 		// check path
@@ -150,31 +131,26 @@ public class CellPathFindingStd extends PathCheckerStd
 		if (playable)
 			_postFilterPlayableUses++;
 		
-		// get path list iterator
-		ListIterator<Location> point = path.listIterator();
-		
 		// get node A (origin)
 		int nodeAx = gox;
 		int nodeAy = goy;
 		short nodeAz = goz;
 		
 		// get node B
-		GeoLocation nodeB = (GeoLocation) point.next();
+		GeoLocation nodeB = (GeoLocation) path.get(0);
 		
-		// iterate thought the path to optimize it
-		while (point.hasNext())
+		// iterate thought the path to optimize it, kept nodes are moved to the beginning of the list
+		int size = 0;
+		for (int i = 1; i < path.size(); i++)
 		{
 			// get node C
-			GeoLocation nodeC = (GeoLocation) path.get(point.nextIndex());
+			GeoLocation nodeC = (GeoLocation) path.get(i);
 			
 			// check movement from node A to node C
 			GeoLocation loc = checkMove(nodeAx, nodeAy, nodeAz, nodeC.getGeoX(), nodeC.getGeoY(), nodeC.getZ());
 			if (loc.getGeoX() == nodeC.getGeoX() && loc.getGeoY() == nodeC.getGeoY())
 			{
-				// can move from node A to node C
-				
-				// remove node B
-				point.remove();
+				// can move from node A to node C, node B is skipped
 				
 				// show skipped nodes
 				if (debug)
@@ -184,6 +160,9 @@ public class CellPathFindingStd extends PathCheckerStd
 			{
 				// can not move from node A to node C
 				
+				// keep node B
+				path.set(size++, nodeB);
+				
 				// set node A (node B is part of path, update A coordinates)
 				nodeAx = nodeB.getGeoX();
 				nodeAy = nodeB.getGeoY();
@@ -191,9 +170,13 @@ public class CellPathFindingStd extends PathCheckerStd
 			}
 			
 			// set node B
-			nodeB = (GeoLocation) point.next();
+			nodeB = nodeC;
 		}
 		
+		// keep last node, remove skipped nodes
+		path.set(size++, nodeB);
+		path.subList(size, path.size()).clear();
+		
 		// show final path
 		if (debug)
 		{
@@ -208,34 +191,95 @@ public class CellPathFindingStd extends PathCheckerStd
 	}
 	
 	/**
-	 * Create list of node locations as result of calculated buffer node tree.
+	 * Find path over the cells, using one node buffer.
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @param playable : moving object is playable?
+	 * @param debug : show debug path?
+	 * @return List<Location> : list of node location, or null if no path was found
+	 */
+	private final List<Location> findCellPath(int gox, int goy, short goz, int gtx, int gty, short gtz, boolean playable, boolean debug)
+	{
+		// Prepare buffer for pathfinding calculations
+		NodeBufferStd buffer = getBuffer(64 + (2 * Math.max(Math.abs(gox - gtx), Math.abs(goy - gty))), playable);
+		if (buffer == null)
+			return null;
+		
+		// find path
+		try
+		{
+			int result = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
+			
+			if (result < 0)
+			{
+				_findFails++;
+				return null;
+			}
+			
+			if (debug)
+			{
+				// path origin
+				dropDebugItem(728, 0, new GeoLocation(gox, goy, goz)); // blue potion
+				
+				// path
+				for (Node n : buffer.debugPath(result))
+				{
+					if (n.getCost() < 0)
+						dropDebugItem(1831, (int) (-n.getCost() * 10), n.getLoc()); // antidote
+					else
+						dropDebugItem(57, (int) (n.getCost() * 10), n.getLoc()); // adena
+				}
+			}
+			
+			return constructPath(buffer, result);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "", e);
+			_findFails++;
+			return null;
+		}
+		finally
+		{
+			buffer.free();
+			_findSuccess++;
+		}
+	}
+	
+	/**
+	 * Create list of node locations as result of calculated buffer node tree. Only nodes changing the direction of the path are kept.
+	 * @param buffer : the buffer of the calculated path
 	 * @param target : the entry point
 	 * @return List<NodeLoc> : list of node location
 	 */
-	private static final List<Location> constructPath(Node target)
+	private static final List<Location> constructPath(NodeBuffer buffer, int target)
 	{
 		// create empty list
-		LinkedList<Location> list = new LinkedList<>();
+		ArrayList<Location> list = new ArrayList<>();
 		
 		// set direction X/Y
 		int dx = 0;
 		int dy = 0;
 		
 		// get target parent
-		Node parent = target.getParent();
+		int parent = buffer.getParent(target);
 		
 		// while parent exists
-		while (parent != null)
+		while (parent >= 0)
 		{
 			// get parent <> target direction X/Y
-			final int nx = parent.getLoc().getGeoX() - target.getLoc().getGeoX();
-			final int ny = parent.getLoc().getGeoY() - target.getLoc().getGeoY();
+			final int nx = buffer.getGeoX(parent) - buffer.getGeoX(target);
+			final int ny = buffer.getGeoY(parent) - buffer.getGeoY(target);
 			
 			// direction has changed?
 			if (dx != nx || dy != ny)
 			{
-				// add node to the beginning of the list
-				list.addFirst(target.getLoc());
+				// add node to the list, from the target to the origin
+				list.add(buffer.getLoc(target));
 				
 				// update direction X/Y
 				dx = nx;
@@ -244,10 +288,11 @@ public class CellPathFindingStd extends PathCheckerStd
 			
 			// move to next node, set target and get its parent
 			target = parent;
-			parent = target.getParent();
+			parent = buffer.getParent(target);
 		}
 		
-		// return list
+		// return list, from the origin to the target
+		Collections.reverse(list);
 		return list;
 	}
 	
@@ -269,7 +314,7 @@ public class CellPathFindingStd extends PathCheckerStd
 			// Find unlocked NodeBuffer
 			for (NodeBufferStd buffer : holder._buffer)
 			{
-				if (!buffer.isLocked())
+				if (!buffer.tryLock())
 					continue;
 				
 				holder._uses++;
@@ -282,7 +327,7 @@ public class CellPathFindingStd extends PathCheckerStd
 			
 			// NodeBuffer not found, allocate temporary buffer
 			current = new NodeBufferStd(holder._size);
-			current.isLocked();
+			current.lock();
 			
 			holder._overflows++;
 			if (playable)
@@ -349,6 +394,15 @@ public class CellPathFindingStd extends PathCheckerStd
 		
 		list.add("Pathfind: success=" + String.valueOf(_findSuccess) + ", fail=" + String.valueOf(_findFails));
 		
+		if (_clusters != null)
+		{
+			list.add("Clusters pathfind: success=" + String.valueOf(_clusterSuccess) + ", fail=" + String.valueOf(_clusterFails));
+			list.addAll(_clusters.getStat());
+		}
+		
+		if (_cache != null)
+			list.add(_cache.toString());
+		
 		return list;
 	}
 }
\ No newline at end of file
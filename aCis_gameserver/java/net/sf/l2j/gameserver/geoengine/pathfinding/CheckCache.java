@@ -0,0 +1,132 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.geoengine.pathfinding;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Cache of line of sight and movement check results.<br>
+ * <br>
+ * A check is given by its origin and target, each one being a geodata cell, its height and the height of the character. Results are kept in a fixed table : a check only takes the slot given by its hash, replacing the result there. The table never grows, nothing is locked, and each result is dropped after a given time.
+ */
+public final class CheckCache
+{
+	// character height of a movement check, line of sight checks use real heights
+	public static final int MOVE = 0xFFFF;
+	
+	private final Entry[] _entries;
+	private final int _mask;
+	private final long _time;
+	
+	// statistics
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	
+	/**
+	 * @param size : maximum count of results, rounded up to a power of 2
+	 * @param time : time (in ms) a result is kept
+	 */
+	public CheckCache(int size, int time)
+	{
+		final int capacity = Integer.highestOneBit(Math.max(1, size - 1)) << 1;
+		_entries = new Entry[capacity];
+		_mask = capacity - 1;
+		_time = time;
+	}
+	
+	/**
+	 * @param geoX : geo X coord
+	 * @param geoY : geo Y coord
+	 * @param geoZ : geo Z coord
+	 * @param height : character height, {@link #MOVE} for movement checks
+	 * @return long : key of the origin or target of a check
+	 */
+	public static final long getKey(int geoX, int geoY, int geoZ, int height)
+	{
+		return ((long) geoX << 48) | ((long) (geoY & 0xFFFF) << 32) | ((long) (geoZ & 0xFFFF) << 16) | (height & 0xFFFF);
+	}
+	
+	/**
+	 * @param origin : key of check origin
+	 * @param target : key of check target
+	 * @return Boolean : cached result of the check, null if not cached
+	 */
+	public final Boolean get(long origin, long target)
+	{
+		final Entry entry = _entries[getIndex(origin, target)];
+		if (entry == null || entry._origin != origin || entry._target != target || entry._expire < System.currentTimeMillis())
+		{
+			_misses.increment();
+			return null;
+		}
+		
+		_hits.increment();
+		return entry._result;
+	}
+	
+	/**
+	 * @param origin : key of check origin
+	 * @param target : key of check target
+	 * @param result : result of the check
+	 */
+	public final void put(long origin, long target, boolean result)
+	{
+		_entries[getIndex(origin, target)] = new Entry(origin, target, result, System.currentTimeMillis() + _time);
+	}
+	
+	private final int getIndex(long origin, long target)
+	{
+		long hash = origin * 0x9E3779B97F4A7C15L + target;
+		hash ^= hash >>> 29;
+		hash *= 0xBF58476D1CE4E5B9L;
+		hash ^= hash >>> 32;
+		return (int) hash & _mask;
+	}
+	
+	@Override
+	public String toString()
+	{
+		final long hits = _hits.sum();
+		final long misses = _misses.sum();
+		
+		final StringBuilder stat = new StringBuilder(100);
+		StringUtil.append(stat, "Check cache: size=", String.valueOf(_entries.length), " hits=", String.valueOf(hits), " misses=", String.valueOf(misses));
+		if (hits + misses > 0)
+			StringUtil.append(stat, " ratio=", String.format("%1.2f", (double) hits / (hits + misses)));
+		
+		return stat.toString();
+	}
+	
+	/**
+	 * Result of a check. Entries are never changed, so they can be shared between threads without lock.
+	 */
+	private static final class Entry
+	{
+		final long _origin;
+		final long _target;
+		final boolean _result;
+		final long _expire;
+		
+		Entry(long origin, long target, boolean result, long expire)
+		{
+			_origin = origin;
+			_target = target;
+			_result = result;
+			_expire = expire;
+		}
+	}
+}
\ No newline at end of file
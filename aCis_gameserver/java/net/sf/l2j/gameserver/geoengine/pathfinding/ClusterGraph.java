@@ -0,0 +1,1011 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.geoengine.pathfinding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.gameserver.geoengine.GeoData;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoDriverMapped;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoFormat;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoStructure;
+import net.sf.l2j.gameserver.geoengine.pathfinding.nodes.NodeBuffer;
+import net.sf.l2j.gameserver.model.L2World;
+import net.sf.l2j.gameserver.model.Location;
+
+/**
+ * Hierarchical graph of geodata, used to find long paths (HPA*).<br>
+ * <br>
+ * Geodata are cut into clusters of {@link #CLUSTER_CELLS} x {@link #CLUSTER_CELLS} cells. Where cells can be passed on both sides of a cluster border, the border has an entrance, and each side of the entrance is a node of the graph. Nodes of the same cluster are linked by edges, weighted by the length of the path found between them by node buffers.<br>
+ * <br>
+ * The graph of each region is kept in a file next to its geodata file, and built again when geodata or pathfinding settings change.<br>
+ * <br>
+ * A path is first searched over the graph, then each part of it is searched again over the cells : a part never leaves a cluster, so small node buffers are enough.
+ */
+public final class ClusterGraph
+{
+	private static final Logger _log = Logger.getLogger(ClusterGraph.class.getName());
+	
+	public static final int CLUSTER_CELLS = 64;
+	
+	private static final int REGION_CLUSTERS_X = GeoStructure.REGION_CELLS_X / CLUSTER_CELLS;
+	private static final int REGION_CLUSTERS_Y = GeoStructure.REGION_CELLS_Y / CLUSTER_CELLS;
+	private static final int CLUSTERS_X = GeoStructure.GEO_CELLS_X / CLUSTER_CELLS;
+	private static final int CLUSTERS_Y = GeoStructure.GEO_CELLS_Y / CLUSTER_CELLS;
+	
+	// size of node buffers, enough for any path inside a cluster
+	private static final int BUFFER_SIZE = 64 + 2 * CLUSTER_CELLS;
+	
+	// longer entrances get two nodes
+	private static final int LONG_ENTRANCE = 16;
+	
+	// searches over the graph, each one after a node near origin or target was found unreachable
+	private static final int MAX_ATTEMPTS = 4;
+	
+	private static final int MAGIC = 0x4C324347; // "L2CG"
+	private static final int VERSION = 1;
+	private static final String FILENAME = "%d_%d.cg";
+	
+	// exit directions of nodes
+	private static final int NORTH = 0;
+	private static final int SOUTH = 1;
+	private static final int WEST = 2;
+	private static final int EAST = 3;
+	
+	private final IntFunction<NodeBuffer> _bufferFactory;
+	private final ConcurrentLinkedQueue<NodeBuffer> _buffers = new ConcurrentLinkedQueue<>();
+	
+	// first node of each cluster, nodes of a cluster end at first node of next cluster
+	private final int[] _clusterStart = new int[CLUSTERS_X * CLUSTERS_Y + 1];
+	
+	// nodes : coordinates, node on the other side of the border
+	private int[] _x;
+	private int[] _y;
+	private short[] _z;
+	private int[] _exit;
+	
+	// edges of each node : target index inside the cluster, cost
+	private int[] _edgeStart;
+	private short[] _edgeTarget;
+	private char[] _edgeCost;
+	
+	/**
+	 * Loads the graph of all regions with geodata, regions without valid file are built and saved.
+	 * @param bufferFactory : Creates node buffers of given size, used to find paths over cells.
+	 */
+	public ClusterGraph(IntFunction<NodeBuffer> bufferFactory)
+	{
+		_bufferFactory = bufferFactory;
+		
+		final long time = System.currentTimeMillis();
+		
+		final List<Region> regions = new ArrayList<>();
+		final ExecutorService executor = Executors.newFixedThreadPool(Config.STARTUP_THREADS);
+		try
+		{
+			final List<Future<Region>> futures = new ArrayList<>();
+			for (int rx = L2World.TILE_X_MIN; rx <= L2World.TILE_X_MAX; rx++)
+			{
+				for (int ry = L2World.TILE_Y_MIN; ry <= L2World.TILE_Y_MAX; ry++)
+				{
+					if (!hasRegion(rx, ry))
+						continue;
+					
+					final int regionX = rx;
+					final int regionY = ry;
+					futures.add(executor.submit(() -> loadRegion(regionX, regionY)));
+				}
+			}
+			
+			for (Future<Region> future : futures)
+			{
+				try
+				{
+					regions.add(future.get());
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.WARNING, "ClusterGraph: Could not load a region: " + e.getMessage(), e);
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		
+		int built = 0;
+		for (Region region : regions)
+		{
+			if (region._built)
+				built++;
+		}
+		
+		merge(regions);
+		
+		_log.info("ClusterGraph: Loaded " + _x.length + " nodes and " + _edgeTarget.length + " edges of " + regions.size() + " regions (" + built + " built) in " + (System.currentTimeMillis() - time) + " ms.");
+	}
+	
+	/**
+	 * Finds the path over the graph, then refines it over the cells.
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @return List<Location> : the nodes changing the direction of the path, the target included, or null if no path was found
+	 */
+	public List<Location> findPath(int gox, int goy, short goz, int gtx, int gty, short gtz)
+	{
+		final int origin = getCluster(gox, goy);
+		final int target = getCluster(gtx, gty);
+		
+		final NodeBuffer buffer = getBuffer();
+		try
+		{
+			// link origin to the nodes of its cluster, with estimated costs checked once the path is found
+			final int[] originCosts = new int[_clusterStart[origin + 1] - _clusterStart[origin]];
+			for (int i = 0; i < originCosts.length; i++)
+			{
+				final int node = _clusterStart[origin] + i;
+				originCosts[i] = getDistance(gox, goy, _x[node], _y[node]);
+			}
+			
+			// link the nodes of target cluster to target, the same way
+			final int[] targetCosts = new int[_clusterStart[target + 1] - _clusterStart[target]];
+			for (int i = 0; i < targetCosts.length; i++)
+			{
+				final int node = _clusterStart[target] + i;
+				targetCosts[i] = getDistance(_x[node], _y[node], gtx, gty);
+			}
+			
+			for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++)
+			{
+				// find path over the graph
+				final int[] nodes = new GraphSearch(gtx, gty).search(origin, originCosts, target, targetCosts);
+				if (nodes == null)
+					return null;
+				
+				// refine path over the cells, first node can't be reached from origin : search again without it
+				final List<Location> path = new ArrayList<>();
+				if (!addPath(buffer, gox, goy, goz, _x[nodes[0]], _y[nodes[0]], _z[nodes[0]], path))
+				{
+					originCosts[nodes[0] - _clusterStart[origin]] = -1;
+					continue;
+				}
+				
+				// nodes are linked by paths found when building the graph
+				for (int i = 1; i < nodes.length; i++)
+				{
+					if (!addPath(buffer, _x[nodes[i - 1]], _y[nodes[i - 1]], _z[nodes[i - 1]], _x[nodes[i]], _y[nodes[i]], _z[nodes[i]], path))
+						return null;
+				}
+				
+				// target can't be reached from last node : search again without it
+				final int last = nodes[nodes.length - 1];
+				if (!addPath(buffer, _x[last], _y[last], _z[last], gtx, gty, gtz, path))
+				{
+					targetCosts[last - _clusterStart[target]] = -1;
+					continue;
+				}
+				
+				return path;
+			}
+			
+			return null;
+		}
+		finally
+		{
+			releaseBuffer(buffer);
+		}
+	}
+	
+	/**
+	 * @param ax : geo X of first cell
+	 * @param ay : geo Y of first cell
+	 * @param bx : geo X of second cell
+	 * @param by : geo Y of second cell
+	 * @return int : length of straight path between cells, in weights of movement
+	 */
+	private static final int getDistance(int ax, int ay, int bx, int by)
+	{
+		final int dx = Math.abs(ax - bx);
+		final int dy = Math.abs(ay - by);
+		return Math.min(dx, dy) * Config.DIAGONAL_WEIGHT + Math.abs(dx - dy) * Config.BASE_WEIGHT;
+	}
+	
+	/**
+	 * @return List<String> : size of the graph
+	 */
+	public List<String> getStat()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("Clusters: nodes=" + String.valueOf(_x.length) + " edges=" + String.valueOf(_edgeTarget.length) + " buffers=" + String.valueOf(_buffers.size()));
+		return list;
+	}
+	
+	/**
+	 * @param x : geo X coord
+	 * @param y : geo Y coord
+	 * @return int : index of the cluster of the cell
+	 */
+	private static final int getCluster(int x, int y)
+	{
+		return (x / CLUSTER_CELLS) * CLUSTERS_Y + (y / CLUSTER_CELLS);
+	}
+	
+	/**
+	 * @param rx : region X
+	 * @param ry : region Y
+	 * @return boolean : True if the region has geodata
+	 */
+	private static final boolean hasRegion(int rx, int ry)
+	{
+		if (rx < L2World.TILE_X_MIN || rx > L2World.TILE_X_MAX || ry < L2World.TILE_Y_MIN || ry > L2World.TILE_Y_MAX)
+			return false;
+		
+		return GeoData.getInstance().hasGeoPos((rx - L2World.TILE_X_MIN) * GeoStructure.REGION_CELLS_X, (ry - L2World.TILE_Y_MIN) * GeoStructure.REGION_CELLS_Y);
+	}
+	
+	/**
+	 * Returns a node buffer, which isn't used by any other thread.
+	 * @return NodeBuffer : buffer
+	 */
+	private final NodeBuffer getBuffer()
+	{
+		NodeBuffer buffer = _buffers.poll();
+		if (buffer == null)
+			buffer = _bufferFactory.apply(BUFFER_SIZE);
+		
+		buffer.lock();
+		return buffer;
+	}
+	
+	private final void releaseBuffer(NodeBuffer buffer)
+	{
+		buffer.free();
+		_buffers.add(buffer);
+	}
+	
+	/**
+	 * Finds path over the cells and returns its length.
+	 * @param buffer : the buffer used to find the path
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @return int : length of the path, in weights of movement, -1 if no path was found
+	 */
+	private static final int getCost(NodeBuffer buffer, int gox, int goy, short goz, int gtx, int gty, short gtz)
+	{
+		final int target = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
+		if (target < 0)
+			return -1;
+		
+		int cost = 0;
+		for (int node = target, parent = buffer.getParent(node); parent >= 0; node = parent, parent = buffer.getParent(node))
+		{
+			if (buffer.getGeoX(node) != buffer.getGeoX(parent) && buffer.getGeoY(node) != buffer.getGeoY(parent))
+				cost += Config.DIAGONAL_WEIGHT;
+			else
+				cost += Config.BASE_WEIGHT;
+		}
+		return cost;
+	}
+	
+	/**
+	 * Finds path over the cells and adds its nodes changing the direction of the path, the target included.
+	 * @param buffer : the buffer used to find the path
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @param path : the path, to which nodes are added
+	 * @return boolean : False if no path was found
+	 */
+	private static final boolean addPath(NodeBuffer buffer, int gox, int goy, short goz, int gtx, int gty, short gtz, List<Location> path)
+	{
+		final int target = buffer.findPath(gox, goy, goz, gtx, gty, gtz);
+		if (target < 0)
+			return false;
+		
+		final int first = path.size();
+		
+		// set direction X/Y
+		int dx = 0;
+		int dy = 0;
+		
+		for (int node = target, parent = buffer.getParent(node); parent >= 0; node = parent, parent = buffer.getParent(node))
+		{
+			// get parent <> node direction X/Y
+			final int nx = buffer.getGeoX(parent) - buffer.getGeoX(node);
+			final int ny = buffer.getGeoY(parent) - buffer.getGeoY(node);
+			
+			// direction has changed?
+			if (dx != nx || dy != ny)
+			{
+				path.add(buffer.getLoc(node));
+				
+				dx = nx;
+				dy = ny;
+			}
+		}
+		
+		// nodes were added from the target to the origin
+		Collections.reverse(path.subList(first, path.size()));
+		return true;
+	}
+	
+	/**
+	 * Reads the graph of the region from its file, or builds and saves it.
+	 * @param rx : region X
+	 * @param ry : region Y
+	 * @return Region : the graph of the region
+	 */
+	private final Region loadRegion(int rx, int ry)
+	{
+		final File file = new File(Config.GEODATA_PATH + String.format(FILENAME, rx, ry));
+		final long signature = getSignature(rx, ry);
+		
+		Region region = readRegion(file, signature, rx, ry);
+		if (region != null)
+			return region;
+		
+		region = buildRegion(rx, ry);
+		writeRegion(file, signature, region);
+		return region;
+	}
+	
+	/**
+	 * The graph of a region depends on geodata of the region and of its neighbors, and on pathfinding settings.
+	 * @param rx : region X
+	 * @param ry : region Y
+	 * @return long : the signature of all things the graph of the region depends on
+	 */
+	private static final long getSignature(int rx, int ry)
+	{
+		long signature = VERSION;
+		signature = signature * 31 + CLUSTER_CELLS;
+		signature = signature * 31 + Config.GEODATA_FORMAT.ordinal();
+		signature = signature * 31 + Config.BASE_WEIGHT;
+		signature = signature * 31 + Config.DIAGONAL_WEIGHT;
+		signature = signature * 31 + Config.OBSTACLE_MULTIPLIER;
+		signature = signature * 31 + Config.HEURISTIC_WEIGHT;
+		signature = signature * 31 + Config.MAX_ITERATIONS;
+		
+		final int[][] regions =
+		{
+			{
+				rx,
+				ry
+			},
+			{
+				rx - 1,
+				ry
+			},
+			{
+				rx + 1,
+				ry
+			},
+			{
+				rx,
+				ry - 1
+			},
+			{
+				rx,
+				ry + 1
+			}
+		};
+		final String filename = Config.GEODATA_MAPPED && Config.GEODATA_FORMAT == GeoFormat.L2D ? GeoDriverMapped.FILENAME : Config.GEODATA_FORMAT.getFilename();
+		for (int[] region : regions)
+		{
+			if (!hasRegion(region[0], region[1]))
+			{
+				signature = signature * 31 - 1;
+				continue;
+			}
+			
+			final File file = new File(Config.GEODATA_PATH + String.format(filename, region[0], region[1]));
+			signature = signature * 31 + file.length();
+			signature = signature * 31 + file.lastModified();
+		}
+		return signature;
+	}
+	
+	/**
+	 * Builds the graph of the region : finds entrances on borders of each cluster, then paths between them.
+	 * @param rx : region X
+	 * @param ry : region Y
+	 * @return Region : the graph of the region
+	 */
+	private final Region buildRegion(int rx, int ry)
+	{
+		final Region region = new Region(rx, ry);
+		region._built = true;
+		
+		final NodeBuffer buffer = getBuffer();
+		try
+		{
+			for (int ix = 0; ix < REGION_CLUSTERS_X; ix++)
+			{
+				for (int iy = 0; iy < REGION_CLUSTERS_Y; iy++)
+				{
+					final int x = (rx - L2World.TILE_X_MIN) * GeoStructure.REGION_CELLS_X + ix * CLUSTER_CELLS;
+					final int y = (ry - L2World.TILE_Y_MIN) * GeoStructure.REGION_CELLS_Y + iy * CLUSTER_CELLS;
+					final int first = region._nodes;
+					
+					// nodes of each border
+					if (x > 0)
+						for (int[] entrance : getEntrances(x - 1, y, true))
+							region.addNode(x, entrance[0], entrance[2], WEST, entrance[1]);
+					
+					if (x + CLUSTER_CELLS < GeoStructure.GEO_CELLS_X)
+						for (int[] entrance : getEntrances(x + CLUSTER_CELLS - 1, y, true))
+							region.addNode(x + CLUSTER_CELLS - 1, entrance[0], entrance[1], EAST, entrance[2]);
+					
+					if (y > 0)
+						for (int[] entrance : getEntrances(x, y - 1, false))
+							region.addNode(entrance[0], y, entrance[2], NORTH, entrance[1]);
+					
+					if (y + CLUSTER_CELLS < GeoStructure.GEO_CELLS_Y)
+						for (int[] entrance : getEntrances(x, y + CLUSTER_CELLS - 1, false))
+							region.addNode(entrance[0], y + CLUSTER_CELLS - 1, entrance[1], SOUTH, entrance[2]);
+					
+					region._counts[ix * REGION_CLUSTERS_Y + iy] = region._nodes - first;
+					
+					// edges between nodes of the cluster
+					for (int a = first; a < region._nodes; a++)
+					{
+						int edges = 0;
+						for (int b = first; b < region._nodes; b++)
+						{
+							if (a == b)
+								continue;
+							
+							final int cost = getCost(buffer, region.getX(a), region.getY(a), region.getZ(a), region.getX(b), region.getY(b), region.getZ(b));
+							if (cost < 0)
+								continue;
+							
+							region.addEdge(b - first, Math.min(cost, Character.MAX_VALUE));
+							edges++;
+						}
+						region._edgeCounts[a] = edges;
+					}
+				}
+			}
+		}
+		finally
+		{
+			releaseBuffer(buffer);
+		}
+		
+		return region;
+	}
+	
+	/**
+	 * Finds entrances of a border between two clusters. Each entrance is a run of cells, which can be passed both ways. A short entrance gets one node in its middle, a long one gets two.
+	 * @param x : geo X of the first cell of the west or north cluster
+	 * @param y : geo Y of the first cell of the west or north cluster
+	 * @param vertical : True for a border between west and east clusters, False for a border between north and south clusters
+	 * @return List<int[]> : the entrances : geo Y (vertical border) or geo X (horizontal border) of the cells, height of the west or north cell, height of the east or south cell
+	 */
+	private static final List<int[]> getEntrances(int x, int y, boolean vertical)
+	{
+		final int dx = vertical ? 1 : 0;
+		final int dy = vertical ? 0 : 1;
+		final byte forward = vertical ? GeoStructure.CELL_FLAG_E : GeoStructure.CELL_FLAG_S;
+		final byte backward = vertical ? GeoStructure.CELL_FLAG_W : GeoStructure.CELL_FLAG_N;
+		
+		final List<int[]> result = new ArrayList<>();
+		
+		// open runs of passable cells, each one for a layer
+		List<List<int[]>> runs = new ArrayList<>();
+		for (int i = 0; i <= CLUSTER_CELLS; i++)
+		{
+			final List<List<int[]>> next = new ArrayList<>();
+			if (i < CLUSTER_CELLS)
+			{
+				final int ax = x + (vertical ? 0 : i);
+				final int ay = y + (vertical ? i : 0);
+				final int bx = ax + dx;
+				final int by = ay + dy;
+				
+				for (short az : GeoData.getInstance().getHeights(ax, ay))
+				{
+					// check movement forward
+					if ((GeoData.getInstance().getNsweNearest(ax, ay, az) & forward) == 0)
+						continue;
+					
+					final short bz = GeoData.getInstance().getHeightNearest(bx, by, az);
+					if (bz > az + GeoStructure.CELL_SIZE)
+						continue;
+					
+					// check movement backward
+					if ((GeoData.getInstance().getNsweNearest(bx, by, bz) & backward) == 0)
+						continue;
+					
+					if (GeoData.getInstance().getHeightNearest(ax, ay, bz) != az || az > bz + GeoStructure.CELL_SIZE)
+						continue;
+					
+					// continue the run of nearby cell with similar height, or start new run
+					List<int[]> run = null;
+					for (List<int[]> open : runs)
+					{
+						if (Math.abs(open.get(open.size() - 1)[1] - az) <= GeoStructure.CELL_SIZE)
+						{
+							run = open;
+							break;
+						}
+					}
+					
+					if (run != null)
+						runs.remove(run);
+					else
+						run = new ArrayList<>();
+					
+					run.add(new int[]
+					{
+						vertical ? ay : ax,
+						az,
+						bz
+					});
+					next.add(run);
+				}
+			}
+			
+			// runs, which didn't continue, are entrances
+			for (List<int[]> run : runs)
+			{
+				if (run.size() < LONG_ENTRANCE)
+					result.add(run.get(run.size() / 2));
+				else
+				{
+					result.add(run.get(run.size() / 4));
+					result.add(run.get(run.size() * 3 / 4));
+				}
+			}
+			
+			runs = next;
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * @param file : the file of the region
+	 * @param signature : the signature the file must have
+	 * @param rx : region X
+	 * @param ry : region Y
+	 * @return Region : the graph of the region, or null if the file is missing, outdated or broken
+	 */
+	private static final Region readRegion(File file, long signature, int rx, int ry)
+	{
+		if (!file.isFile())
+			return null;
+		
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readLong() != signature)
+				return null;
+			
+			final Region region = new Region(rx, ry);
+			for (int i = 0; i < region._counts.length; i++)
+			{
+				region._counts[i] = in.readShort();
+				for (int node = 0; node < region._counts[i]; node++)
+				{
+					region.addNode(in.readInt(), in.readInt(), in.readShort(), in.readByte(), in.readShort());
+					
+					final int edges = in.readShort();
+					for (int edge = 0; edge < edges; edge++)
+						region.addEdge(in.readShort(), in.readChar());
+					region._edgeCounts[region._nodes - 1] = edges;
+				}
+			}
+			return region;
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "ClusterGraph: Could not read " + file.getName() + ", the region is built again: " + e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Writes the graph of the region. The file is written aside, then renamed, so a broken write never leaves a partial file.
+	 * @param file : the file of the region
+	 * @param signature : the signature of the graph
+	 * @param region : the graph of the region
+	 */
+	private static final void writeRegion(File file, long signature, Region region)
+	{
+		final File temp = new File(file.getPath() + ".tmp");
+		try
+		{
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp))))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(signature);
+				
+				int node = 0;
+				int edge = 0;
+				for (int count : region._counts)
+				{
+					out.writeShort(count);
+					for (int i = 0; i < count; i++, node++)
+					{
+						out.writeInt(region.getX(node));
+						out.writeInt(region.getY(node));
+						out.writeShort(region.getZ(node));
+						out.writeByte(region.getExit(node));
+						out.writeShort(region.getExitZ(node));
+						
+						out.writeShort(region._edgeCounts[node]);
+						for (int j = 0; j < region._edgeCounts[node]; j++, edge++)
+						{
+							out.writeShort(region._edges[edge * 2]);
+							out.writeChar(region._edges[edge * 2 + 1]);
+						}
+					}
+				}
+			}
+			
+			if (!temp.renameTo(file))
+			{
+				file.delete();
+				if (!temp.renameTo(file))
+					throw new IOException("couldn't rename " + temp);
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "ClusterGraph: Could not write " + file.getName() + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Puts the graphs of all regions together, and links nodes on both sides of each entrance.
+	 * @param regions : graphs of regions
+	 */
+	private final void merge(List<Region> regions)
+	{
+		// first node of each cluster
+		int nodes = 0;
+		for (Region region : regions)
+		{
+			for (int i = 0; i < region._counts.length; i++)
+				_clusterStart[region.getCluster(i) + 1] = region._counts[i];
+			nodes += region._nodes;
+		}
+		for (int i = 0; i < CLUSTERS_X * CLUSTERS_Y; i++)
+			_clusterStart[i + 1] += _clusterStart[i];
+		
+		_x = new int[nodes];
+		_y = new int[nodes];
+		_z = new short[nodes];
+		_exit = new int[nodes];
+		_edgeStart = new int[nodes + 1];
+		
+		// nodes and count of their edges
+		final byte[] exits = new byte[nodes];
+		final short[] exitZ = new short[nodes];
+		for (Region region : regions)
+		{
+			int node = 0;
+			for (int i = 0; i < region._counts.length; i++)
+			{
+				for (int index = _clusterStart[region.getCluster(i)]; index < _clusterStart[region.getCluster(i) + 1]; index++, node++)
+				{
+					_x[index] = region.getX(node);
+					_y[index] = region.getY(node);
+					_z[index] = region.getZ(node);
+					exits[index] = region.getExit(node);
+					exitZ[index] = region.getExitZ(node);
+					_edgeStart[index + 1] = region._edgeCounts[node];
+				}
+			}
+		}
+		for (int i = 0; i < nodes; i++)
+			_edgeStart[i + 1] += _edgeStart[i];
+		
+		// edges
+		_edgeTarget = new short[_edgeStart[nodes]];
+		_edgeCost = new char[_edgeStart[nodes]];
+		for (Region region : regions)
+		{
+			int node = 0;
+			int edge = 0;
+			for (int i = 0; i < region._counts.length; i++)
+			{
+				for (int index = _clusterStart[region.getCluster(i)]; index < _clusterStart[region.getCluster(i) + 1]; index++, node++)
+				{
+					for (int e = _edgeStart[index]; e < _edgeStart[index + 1]; e++, edge++)
+					{
+						_edgeTarget[e] = (short) region._edges[edge * 2];
+						_edgeCost[e] = (char) region._edges[edge * 2 + 1];
+					}
+				}
+			}
+		}
+		
+		// link each node to the node on the other side of its entrance
+		for (int node = 0; node < nodes; node++)
+		{
+			final int x = _x[node] + (exits[node] == WEST ? -1 : exits[node] == EAST ? 1 : 0);
+			final int y = _y[node] + (exits[node] == NORTH ? -1 : exits[node] == SOUTH ? 1 : 0);
+			
+			_exit[node] = -1;
+			if (x < 0 || x >= GeoStructure.GEO_CELLS_X || y < 0 || y >= GeoStructure.GEO_CELLS_Y)
+				continue;
+			
+			final int cluster = getCluster(x, y);
+			for (int other = _clusterStart[cluster]; other < _clusterStart[cluster + 1]; other++)
+			{
+				if (_x[other] == x && _y[other] == y && _z[other] == exitZ[node] && exitZ[other] == _z[node] && (exits[other] ^ exits[node]) == 1)
+				{
+					_exit[node] = other;
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Graph of a region, as built or read from its file.
+	 */
+	private static final class Region
+	{
+		// clusters of the region, X then Y
+		final int[] _counts = new int[REGION_CLUSTERS_X * REGION_CLUSTERS_Y];
+		final int _firstCluster;
+		
+		// nodes : x, y, z, exit direction and exit height
+		int[] _data = new int[4 * 1024];
+		int[] _edgeCounts = new int[1024];
+		int _nodes = 0;
+		
+		// edges : target index in the cluster, cost
+		int[] _edges = new int[2 * 8192];
+		int _edgeCount = 0;
+		
+		boolean _built = false;
+		
+		Region(int rx, int ry)
+		{
+			_firstCluster = ClusterGraph.getCluster((rx - L2World.TILE_X_MIN) * GeoStructure.REGION_CELLS_X, (ry - L2World.TILE_Y_MIN) * GeoStructure.REGION_CELLS_Y);
+		}
+		
+		final void addNode(int x, int y, int z, int exit, int exitZ)
+		{
+			if (_nodes == _edgeCounts.length)
+			{
+				_data = Arrays.copyOf(_data, _data.length * 2);
+				_edgeCounts = Arrays.copyOf(_edgeCounts, _edgeCounts.length * 2);
+			}
+			
+			_data[_nodes * 4] = x;
+			_data[_nodes * 4 + 1] = y;
+			_data[_nodes * 4 + 2] = z;
+			_data[_nodes * 4 + 3] = exit << 16 | (exitZ & 0xFFFF);
+			_nodes++;
+		}
+		
+		final void addEdge(int target, int cost)
+		{
+			if (_edgeCount * 2 == _edges.length)
+				_edges = Arrays.copyOf(_edges, _edges.length * 2);
+			
+			_edges[_edgeCount * 2] = target;
+			_edges[_edgeCount * 2 + 1] = cost;
+			_edgeCount++;
+		}
+		
+		final int getX(int node)
+		{
+			return _data[node * 4];
+		}
+		
+		final int getY(int node)
+		{
+			return _data[node * 4 + 1];
+		}
+		
+		final short getZ(int node)
+		{
+			return (short) _data[node * 4 + 2];
+		}
+		
+		final byte getExit(int node)
+		{
+			return (byte) (_data[node * 4 + 3] >> 16);
+		}
+		
+		final short getExitZ(int node)
+		{
+			return (short) _data[node * 4 + 3];
+		}
+		
+		/**
+		 * @param index : index of the cluster in the region
+		 * @return int : index of the cluster in the world
+		 */
+		final int getCluster(int index)
+		{
+			return _firstCluster + (index / REGION_CLUSTERS_Y) * CLUSTERS_Y + index % REGION_CLUSTERS_Y;
+		}
+	}
+	
+	/**
+	 * A* search over the graph. Only reached nodes are kept, as the graph is far larger.
+	 */
+	private final class GraphSearch
+	{
+		private final int _gtx;
+		private final int _gty;
+		
+		// search nodes : graph node (-1 for target), parent search node, cost from origin
+		private final Map<Integer, Integer> _indexes = new HashMap<>();
+		private int[] _nodes = new int[256];
+		private int[] _parents = new int[256];
+		private int[] _costs = new int[256];
+		private int _size = 0;
+		
+		// open search nodes, cost and heuristic in high bits, index in low bits
+		private final PriorityQueue<Long> _open = new PriorityQueue<>();
+		
+		GraphSearch(int gtx, int gty)
+		{
+			_gtx = gtx;
+			_gty = gty;
+		}
+		
+		/**
+		 * @param origin : origin cluster
+		 * @param originCosts : cost from origin to each node of its cluster, -1 if not reachable
+		 * @param target : target cluster
+		 * @param targetCosts : cost from each node of target cluster to target, -1 if not reachable
+		 * @return int[] : graph nodes of the path, or null if no path was found
+		 */
+		final int[] search(int origin, int[] originCosts, int target, int[] targetCosts)
+		{
+			for (int i = 0; i < originCosts.length; i++)
+			{
+				if (originCosts[i] >= 0)
+					open(_clusterStart[origin] + i, -1, originCosts[i]);
+			}
+			
+			int count = 0;
+			while (!_open.isEmpty() && ++count < Config.MAX_ITERATIONS)
+			{
+				final long entry = _open.poll();
+				final int index = (int) entry;
+				final int node = _nodes[index];
+				
+				// node was reached again with lower cost, this entry is outdated
+				if ((int) (entry >>> 32) != _costs[index] + getCostH(node))
+					continue;
+				
+				// reached target?
+				if (node < 0)
+					return getPath(index);
+				
+				final int cost = _costs[index];
+				
+				// the other side of the entrance
+				if (_exit[node] >= 0)
+					open(_exit[node], index, cost + Config.BASE_WEIGHT);
+				
+				// nodes of the cluster
+				final int cluster = getCluster(_x[node], _y[node]);
+				for (int edge = _edgeStart[node]; edge < _edgeStart[node + 1]; edge++)
+					open(_clusterStart[cluster] + _edgeTarget[edge], index, cost + _edgeCost[edge]);
+				
+				// target
+				if (cluster == target && targetCosts[node - _clusterStart[target]] >= 0)
+					open(-1, index, cost + targetCosts[node - _clusterStart[target]]);
+			}
+			
+			return null;
+		}
+		
+		/**
+		 * Opens the node, when it is reached for the first time or with lower cost.
+		 * @param node : graph node, -1 for target
+		 * @param parent : parent search node
+		 * @param cost : cost from origin
+		 */
+		private final void open(int node, int parent, int cost)
+		{
+			Integer index = _indexes.get(node);
+			if (index == null)
+			{
+				if (_size == _nodes.length)
+				{
+					_nodes = Arrays.copyOf(_nodes, _size * 2);
+					_parents = Arrays.copyOf(_parents, _size * 2);
+					_costs = Arrays.copyOf(_costs, _size * 2);
+				}
+				
+				index = _size++;
+				_indexes.put(node, index);
+				_nodes[index] = node;
+			}
+			else if (cost >= _costs[index])
+				return;
+			
+			_parents[index] = parent;
+			_costs[index] = cost;
+			_open.add((long) (cost + getCostH(node)) << 32 | index);
+		}
+		
+		/**
+		 * @param node : graph node, -1 for target
+		 * @return int : estimated cost from node to target, never higher than the real cost
+		 */
+		private final int getCostH(int node)
+		{
+			if (node < 0)
+				return 0;
+			
+			final int dX = _x[node] - _gtx;
+			final int dY = _y[node] - _gty;
+			return (int) (Math.sqrt(dX * dX + dY * dY) * Config.BASE_WEIGHT);
+		}
+		
+		/**
+		 * @param index : the search node of the target
+		 * @return int[] : graph nodes from origin to target
+		 */
+		private final int[] getPath(int index)
+		{
+			int length = 0;
+			for (int i = _parents[index]; i >= 0; i = _parents[i])
+				length++;
+			
+			final int[] path = new int[length];
+			for (int i = _parents[index]; i >= 0; i = _parents[i])
+				path[--length] = _nodes[i];
+			
+			return path;
+		}
+	}
+}
\ No newline at end of file
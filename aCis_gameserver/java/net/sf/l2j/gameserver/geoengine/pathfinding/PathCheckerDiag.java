@@ -14,6 +14,7 @@
  */
 package net.sf.l2j.gameserver.geoengine.pathfinding;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -31,8 +32,13 @@ import net.sf.l2j.gameserver.model.actor.L2Character;
  */
 public class PathCheckerDiag extends PathFinding
 {
+	// cached results of checks
+	protected final CheckCache _cache;
+	
 	public PathCheckerDiag()
 	{
+		_cache = Config.CHECK_CACHE_SIZE > 0 ? new CheckCache(Config.CHECK_CACHE_SIZE, Config.CHECK_CACHE_TIME) : null;
+		
 		_log.log(Level.INFO, "PathCheckerDiag: Prepared.");
 	}
 	
@@ -70,7 +76,19 @@ public class PathCheckerDiag extends PathFinding
 			return goz == gtz;
 		
 		// perform geodata check
-		return checkSee(gox, goy, goz, oheight, gtx, gty, gtz, theight);
+		if (_cache == null)
+			return checkSee(gox, goy, goz, oheight, gtx, gty, gtz, theight);
+		
+		// use cached result of geodata check
+		final long origin = CheckCache.getKey(gox, goy, goz, oheight);
+		final long target = CheckCache.getKey(gtx, gty, gtz, theight);
+		Boolean result = _cache.get(origin, target);
+		if (result == null)
+		{
+			result = checkSee(gox, goy, goz, oheight, gtx, gty, gtz, theight);
+			_cache.put(origin, target, result);
+		}
+		return result;
 	}
 	
 	@Override
@@ -101,8 +119,23 @@ public class PathCheckerDiag extends PathFinding
 			return true;
 		
 		// perform geodata check
-		GeoLocation loc = checkMove(gox, goy, goz, gtx, gty, gtz);
-		return loc.getGeoX() == gtx && loc.getGeoY() == gty;
+		if (_cache == null)
+		{
+			GeoLocation loc = checkMove(gox, goy, goz, gtx, gty, gtz);
+			return loc.getGeoX() == gtx && loc.getGeoY() == gty;
+		}
+		
+		// use cached result of geodata check
+		final long origin = CheckCache.getKey(gox, goy, goz, CheckCache.MOVE);
+		final long target = CheckCache.getKey(gtx, gty, gtz, CheckCache.MOVE);
+		Boolean result = _cache.get(origin, target);
+		if (result == null)
+		{
+			GeoLocation loc = checkMove(gox, goy, goz, gtx, gty, gtz);
+			result = loc.getGeoX() == gtx && loc.getGeoY() == gty;
+			_cache.put(origin, target, result);
+		}
+		return result;
 	}
 	
 	@Override
@@ -138,7 +171,12 @@ public class PathCheckerDiag extends PathFinding
 	@Override
 	public List<String> getStat()
 	{
-		return null;
+		if (_cache == null)
+			return null;
+		
+		List<String> list = new ArrayList<>();
+		list.add(_cache.toString());
+		return list;
 	}
 	
 	/**
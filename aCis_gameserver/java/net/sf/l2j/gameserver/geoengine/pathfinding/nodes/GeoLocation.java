@@ -30,6 +30,12 @@ public class GeoLocation extends Location
 		_nswe = GeoData.getInstance().getNsweNearest(x, y, z);
 	}
 	
+	public GeoLocation(int x, int y, short z, byte nswe)
+	{
+		super(x, y, z);
+		_nswe = nswe;
+	}
+	
 	public void set(int x, int y, short z)
 	{
 		super.setXYZ(x, y, GeoData.getInstance().getHeightNearest(x, y, z));
@@ -15,24 +15,21 @@
 package net.sf.l2j.gameserver.geoengine.pathfinding.nodes;
 
 /**
+ * Node of a {@link NodeBuffer}, as shown by the debug path.
  * @author Hasha
  */
 public class Node
 {
 	// node coords and nswe flag
-	private GeoLocation _loc;
+	private final GeoLocation _loc;
 	
-	// node parent (for reverse path construction)
-	private Node _parent;
-	// node child (for moving over nodes during iteration)
-	private Node _child;
+	// node cost, negative for nodes of the path
+	private final double _cost;
 	
-	// node G cost (movement cost = parent movement cost + current movement cost)
-	private double _cost = -1000;
-	
-	public void setLoc(int x, int y, int z)
+	public Node(GeoLocation loc, double cost)
 	{
-		_loc = new GeoLocation(x, y, z);
+		_loc = loc;
+		_cost = cost;
 	}
 	
 	public GeoLocation getLoc()
@@ -40,44 +37,8 @@ public class Node
 		return _loc;
 	}
 	
-	public void setParent(Node parent)
-	{
-		_parent = parent;
-	}
-	
-	public Node getParent()
-	{
-		return _parent;
-	}
-	
-	public void setChild(Node child)
-	{
-		_child = child;
-	}
-	
-	public Node getChild()
-	{
-		return _child;
-	}
-	
-	public void setCost(double cost)
-	{
-		_cost = cost;
-	}
-	
 	public double getCost()
 	{
 		return _cost;
 	}
-	
-	public void free()
-	{
-		// reset node location
-		_loc = null;
-		
-		// reset node parent, child and cost
-		_parent = null;
-		_child = null;
-		_cost = -1000;
-	}
 }
\ No newline at end of file
@@ -0,0 +1,408 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.geoengine.pathfinding.nodes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.gameserver.geoengine.GeoData;
+import net.sf.l2j.gameserver.geoengine.geodata.GeoStructure;
+
+/**
+ * Buffer of pathfinding nodes, searching the path with A* algorithm.<br>
+ * <br>
+ * Nodes are indexes of flat arrays holding their data, nothing is allocated by a search. Node data are valid for the search which has set them, so the buffer doesn't need to be cleared between searches. Open nodes are kept in a binary heap, ordered by cost, then by order of addition.
+ * @author DS, Hasha; Credits to Diamond
+ */
+public abstract class NodeBuffer
+{
+	private final ReentrantLock _lock = new ReentrantLock();
+	private final int _size;
+	
+	// nswe flag of a node without obstacle
+	private final byte _nsweAll;
+	
+	// node data, node index is (x - _cx) * _size + (y - _cy)
+	private final int[] _search;
+	private final short[] _z;
+	private final byte[] _nswe;
+	private final int[] _parent;
+	private final double[] _cost;
+	private final int[] _order;
+	
+	// open nodes
+	private final int[] _heap;
+	private int _heapSize = 0;
+	
+	// current search, count of added nodes
+	private int _currentSearch = 0;
+	private int _added = 0;
+	
+	// center coordinates
+	private int _cx = 0;
+	private int _cy = 0;
+	
+	// target coordinates
+	private int _gtx = 0;
+	private int _gty = 0;
+	private short _gtz = 0;
+	
+	// pathfinding statistics
+	private long _timeStamp = 0;
+	private long _lastElapsedTime = 0;
+	
+	protected int _current = -1;
+	
+	/**
+	 * Constructor of NodeBuffer.
+	 * @param size : one dimension size of buffer
+	 * @param nsweAll : nswe flag of a node, which can be left to all directions
+	 */
+	protected NodeBuffer(int size, byte nsweAll)
+	{
+		// set size
+		_size = size;
+		_nsweAll = nsweAll;
+		
+		// initialize buffer
+		_search = new int[size * size];
+		_z = new short[size * size];
+		_nswe = new byte[size * size];
+		_parent = new int[size * size];
+		_cost = new double[size * size];
+		_order = new int[size * size];
+		_heap = new int[size * size];
+	}
+	
+	/**
+	 * Find path consisting of Nodes. Starts at origin coordinates, ends in target coordinates.
+	 * @param gox : origin point x
+	 * @param goy : origin point y
+	 * @param goz : origin point z
+	 * @param gtx : target point x
+	 * @param gty : target point y
+	 * @param gtz : target point z
+	 * @return int : target node, -1 if no path was found
+	 */
+	public final int findPath(int gox, int goy, short goz, int gtx, int gty, short gtz)
+	{
+		// load timestamp
+		_timeStamp = System.currentTimeMillis();
+		
+		// start new search, node data of previous searches become invalid
+		if (++_currentSearch == Integer.MAX_VALUE)
+		{
+			Arrays.fill(_search, 0);
+			_currentSearch = 1;
+		}
+		_heapSize = 0;
+		_added = 0;
+		
+		// set coordinates (middle of the line (gox,goy) - (gtx,gty), will be in the center of the buffer)
+		_cx = gox + (gtx - gox - _size) / 2;
+		_cy = goy + (gty - goy - _size) / 2;
+		
+		_gtx = gtx;
+		_gty = gty;
+		_gtz = gtz;
+		
+		_current = getNode(gox, goy, goz);
+		_parent[_current] = -1;
+		_cost[_current] = getCostH(gox, goy, goz);
+		
+		int count = 0;
+		do
+		{
+			// reached target?
+			if (getGeoX(_current) == _gtx && getGeoY(_current) == _gty && Math.abs(_z[_current] - _gtz) < 8)
+				return _current;
+			
+			// expand current node
+			expand();
+			
+			// move to the cheapest open node
+			_current = poll();
+		}
+		while (_current >= 0 && ++count < Config.MAX_ITERATIONS);
+		
+		return -1;
+	}
+	
+	/**
+	 * Creates list of Nodes to show debug path.
+	 * @param target : target node, as returned by {@link #findPath(int, int, short, int, int, short)}
+	 * @return List<Node> : nodes
+	 */
+	public final List<Node> debugPath(int target)
+	{
+		List<Node> result = new ArrayList<>();
+		
+		for (int node = target; _parent[node] >= 0; node = _parent[node])
+		{
+			_cost[node] = -_cost[node];
+			result.add(new Node(getLoc(node), _cost[node]));
+		}
+		
+		for (int node = 0; node < _search.length; node++)
+		{
+			if (_search[node] != _currentSearch || _cost[node] <= 0)
+				continue;
+			
+			result.add(new Node(getLoc(node), _cost[node]));
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Locks the buffer for the current thread, waiting for it if needed.
+	 */
+	public final void lock()
+	{
+		_lock.lock();
+	}
+	
+	/**
+	 * Locks the buffer for the current thread, if no other thread holds it.
+	 * @return boolean : True if the buffer has been locked.
+	 */
+	public final boolean tryLock()
+	{
+		return _lock.tryLock();
+	}
+	
+	public final void free()
+	{
+		_current = -1;
+		
+		_lock.unlock();
+		_lastElapsedTime = System.currentTimeMillis() - _timeStamp;
+	}
+	
+	public final long getElapsedTime()
+	{
+		return _lastElapsedTime;
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return int : node geo X coord
+	 */
+	public final int getGeoX(int node)
+	{
+		return _cx + node / _size;
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return int : node geo Y coord
+	 */
+	public final int getGeoY(int node)
+	{
+		return _cy + node % _size;
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return short : node geo Z coord
+	 */
+	public final short getZ(int node)
+	{
+		return _z[node];
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return byte : node nswe flag
+	 */
+	public final byte getNSWE(int node)
+	{
+		return _nswe[node];
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return int : parent node index, -1 for the origin
+	 */
+	public final int getParent(int node)
+	{
+		return _parent[node];
+	}
+	
+	/**
+	 * @param node : node index
+	 * @return GeoLocation : new location of the node
+	 */
+	public final GeoLocation getLoc(int node)
+	{
+		return new GeoLocation(getGeoX(node), getGeoY(node), _z[node], _nswe[node]);
+	}
+	
+	/**
+	 * Check _current node and add its neighbors to the buffer.
+	 */
+	protected abstract void expand();
+	
+	/**
+	 * Add node given by coordinates to the buffer.
+	 * @param x : geo X coord
+	 * @param y : geo Y coord
+	 * @param z : geo Z coord
+	 * @param weight : weight of movement to new node
+	 * @return int : added node, or node already added before, -1 if node can't be added
+	 */
+	protected final int addNode(int x, int y, short z, int weight)
+	{
+		// get node to be expanded
+		final int node = getNode(x, y, z);
+		if (node < 0)
+			return -1;
+		
+		// Z distance between nearby cells is higher than cell size, record as geodata bug
+		if (_z[node] > (z + GeoStructure.CELL_SIZE))
+		{
+			GeoData.getInstance().addGeoBug(getLoc(node), getClass().getSimpleName() + ": Check Z coords.");
+			return -1;
+		}
+		
+		// node was already expanded, return
+		if (_cost[node] >= 0)
+			return node;
+		
+		_parent[node] = _current;
+		if (_nswe[node] != _nsweAll)
+			_cost[node] = getCostH(x, y, _z[node]) + weight * Config.OBSTACLE_MULTIPLIER;
+		else
+			_cost[node] = getCostH(x, y, _z[node]) + weight;
+		
+		_order[node] = _added++;
+		push(node);
+		
+		return node;
+	}
+	
+	/**
+	 * Returns node, if it exists in buffer. Node data are set when the node is first used by the search.
+	 * @param x : node X coord
+	 * @param y : node Y coord
+	 * @param z : node Z coord
+	 * @return int : node, -1 if out of buffer
+	 */
+	private final int getNode(int x, int y, short z)
+	{
+		// check node X out of coordinates
+		final int ix = x - _cx;
+		if (ix < 0 || ix >= _size)
+			return -1;
+		
+		// check node Y out of coordinates
+		final int iy = y - _cy;
+		if (iy < 0 || iy >= _size)
+			return -1;
+		
+		// get node
+		final int node = ix * _size + iy;
+		
+		// check and update
+		if (_search[node] != _currentSearch)
+		{
+			_search[node] = _currentSearch;
+			_z[node] = GeoData.getInstance().getHeightNearest(x, y, z);
+			_nswe[node] = GeoData.getInstance().getNsweNearest(x, y, z);
+			_cost[node] = -1000;
+		}
+		
+		// return node
+		return node;
+	}
+	
+	/**
+	 * Adds the node to open nodes.
+	 * @param node : node index
+	 */
+	private final void push(int node)
+	{
+		int i = _heapSize++;
+		while (i > 0)
+		{
+			final int parent = (i - 1) >> 1;
+			if (!isLower(node, _heap[parent]))
+				break;
+			
+			_heap[i] = _heap[parent];
+			i = parent;
+		}
+		_heap[i] = node;
+	}
+	
+	/**
+	 * Removes the cheapest node from open nodes.
+	 * @return int : node index, -1 if there are no open nodes
+	 */
+	private final int poll()
+	{
+		if (_heapSize == 0)
+			return -1;
+		
+		final int result = _heap[0];
+		final int last = _heap[--_heapSize];
+		
+		int i = 0;
+		int child;
+		while ((child = 2 * i + 1) < _heapSize)
+		{
+			if (child + 1 < _heapSize && isLower(_heap[child + 1], _heap[child]))
+				child++;
+			
+			if (!isLower(_heap[child], last))
+				break;
+			
+			_heap[i] = _heap[child];
+			i = child;
+		}
+		_heap[i] = last;
+		
+		return result;
+	}
+	
+	/**
+	 * @param a : node index
+	 * @param b : node index
+	 * @return boolean : True when node a is opened before node b, the cheapest first, then the first added
+	 */
+	private final boolean isLower(int a, int b)
+	{
+		return _cost[a] < _cost[b] || (_cost[a] == _cost[b] && _order[a] < _order[b]);
+	}
+	
+	/**
+	 * @param x : node X coord
+	 * @param y : node Y coord
+	 * @param i : node Z coord
+	 * @return double : node cost
+	 */
+	private final double getCostH(int x, int y, int i)
+	{
+		final int dX = x - _gtx;
+		final int dY = y - _gty;
+		final int dZ = (i - _gtz) / GeoStructure.CELL_SIZE;
+		
+		// return (Math.abs(dX) + Math.abs(dY) + Math.abs(dZ)) * Config.HEURISTIC_WEIGHT; // Manhattan distance
+		return Math.sqrt(dX * dX + dY * dY + dZ * dZ) * Config.HEURISTIC_WEIGHT; // Direct distance
+	}
+}
\ No newline at end of file
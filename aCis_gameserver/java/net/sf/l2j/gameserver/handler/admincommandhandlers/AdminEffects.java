@@ -175,7 +175,7 @@ public class AdminEffects implements IAdminCommandHandler
 		}
 		else if (command.startsWith("admin_para_all"))
 		{
-			for (L2PcInstance player : activeChar.getKnownList().getKnownType(L2PcInstance.class))
+			for (L2PcInstance player : activeChar.getKnownList().getKnownPlayers())
 			{
 				if (!player.isGM())
 				{
@@ -187,7 +187,7 @@ public class AdminEffects implements IAdminCommandHandler
 		}
 		else if (command.startsWith("admin_unpara_all"))
 		{
-			for (L2PcInstance player : activeChar.getKnownList().getKnownType(L2PcInstance.class))
+			for (L2PcInstance player : activeChar.getKnownList().getKnownPlayers())
 			{
 				player.stopAbnormalEffect(0x0800);
 				player.setIsParalyzed(false);
@@ -82,7 +82,7 @@ public class AdminHeal implements IAdminCommandHandler
 				try
 				{
 					int radius = Integer.parseInt(player);
-					for (L2Character character : activeChar.getKnownList().getKnownType(L2Character.class))
+					for (L2Character character : activeChar.getKnownList().getKnownCharacters())
 					{
 						character.setCurrentHpMp(character.getMaxHp(), character.getMaxMp());
 						if (character instanceof L2PcInstance)
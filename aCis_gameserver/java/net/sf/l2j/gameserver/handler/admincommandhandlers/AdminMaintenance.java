@@ -15,13 +15,19 @@
 package net.sf.l2j.gameserver.handler.admincommandhandlers;
 
 import net.sf.l2j.Config;
+import net.sf.l2j.L2DatabaseFactory;
 import net.sf.l2j.gameserver.LoginServerThread;
 import net.sf.l2j.gameserver.Shutdown;
 import net.sf.l2j.gameserver.handler.IAdminCommandHandler;
 import net.sf.l2j.gameserver.model.L2World;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
+import net.sf.l2j.gameserver.model.actor.stat.CharStat;
+import net.sf.l2j.gameserver.network.L2GameClient;
 import net.sf.l2j.gameserver.network.serverpackets.NpcHtmlMessage;
 import net.sf.l2j.gameserver.taskmanager.GameTimeTaskManager;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
+import net.sf.l2j.gameserver.taskmanager.QuestStatesUpdateTaskManager;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager;
 import net.sf.l2j.loginserver.network.gameserverpackets.ServerStatus;
 
 public class AdminMaintenance implements IAdminCommandHandler
@@ -29,6 +35,7 @@ public class AdminMaintenance implements IAdminCommandHandler
 	private static final String[] ADMIN_COMMANDS =
 	{
 		"admin_server",
+		"admin_server_stats",
 		
 		"admin_server_shutdown",
 		"admin_server_restart",
@@ -44,6 +51,8 @@ public class AdminMaintenance implements IAdminCommandHandler
 	{
 		if (command.equals("admin_server"))
 			sendHtmlForm(activeChar);
+		else if (command.equals("admin_server_stats"))
+			sendStats(activeChar);
 		else if (command.startsWith("admin_server_shutdown"))
 		{
 			try
@@ -117,6 +126,40 @@ public class AdminMaintenance implements IAdminCommandHandler
 		activeChar.sendPacket(adminReply);
 	}
 	
+	private static void sendStats(L2PcInstance activeChar)
+	{
+		// packet workers, time clients wait for them
+		int clients = 0;
+		long latency = 0;
+		long maxLatency = 0;
+		for (L2PcInstance player : L2World.getInstance().getAllPlayers().values())
+		{
+			final L2GameClient client = player.getClient();
+			if (client == null || client.isDetached())
+				continue;
+			
+			clients++;
+			latency += client.getStats().getAverageTurnLatency();
+			maxLatency = Math.max(maxLatency, client.getStats().maxTurnLatency);
+		}
+		activeChar.sendMessage("Packet workers: clients=" + clients + " average latency=" + (clients == 0 ? 0 : latency / clients) + " us max latency=" + maxLatency + " us");
+		
+		sendStats(activeChar, TimingWheelTaskManager.getInstance().getStats());
+		sendStats(activeChar, ItemsUpdateTaskManager.getInstance().getStats());
+		sendStats(activeChar, QuestStatesUpdateTaskManager.getInstance().getStats());
+		sendStats(activeChar, L2DatabaseFactory.getInstance().getStats());
+		
+		activeChar.sendMessage("Stat cache:");
+		for (String line : CharStat.getStatCacheInfo())
+			activeChar.sendMessage(line);
+	}
+	
+	private static void sendStats(L2PcInstance activeChar, String stats)
+	{
+		for (String line : stats.split("\r\n"))
+			activeChar.sendMessage(line);
+	}
+	
 	@Override
 	public String[] getAdminCommandList()
 	{
@@ -16,10 +16,12 @@ package net.sf.l2j.gameserver.handler.admincommandhandlers;
 
 import java.util.List;
 
+import net.sf.l2j.Config;
 import net.sf.l2j.gameserver.geoengine.PathFinding;
 import net.sf.l2j.gameserver.handler.IAdminCommandHandler;
 import net.sf.l2j.gameserver.model.Location;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
+import net.sf.l2j.gameserver.taskmanager.PathFindingTaskManager;
 
 public class AdminPathNode implements IAdminCommandHandler
 {
@@ -40,6 +42,10 @@ public class AdminPathNode implements IAdminCommandHandler
 			else
 				for (String msg : info)
 					activeChar.sendMessage(msg);
+			
+			if (Config.PATHFIND_ASYNC)
+				for (String msg : PathFindingTaskManager.getInstance().getStat())
+					activeChar.sendMessage(msg);
 		}
 		else if (command.equals("admin_find_path"))
 		{
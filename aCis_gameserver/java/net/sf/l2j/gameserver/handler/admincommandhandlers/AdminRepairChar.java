@@ -23,6 +23,7 @@ import java.util.logging.Logger;
 import net.sf.l2j.L2DatabaseFactory;
 import net.sf.l2j.gameserver.handler.IAdminCommandHandler;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 
 public class AdminRepairChar implements IAdminCommandHandler
 {
@@ -53,6 +54,9 @@ public class AdminRepairChar implements IAdminCommandHandler
 		if (parts.length != 2)
 			return;
 		
+		// Pending item changes must be written first.
+		ItemsUpdateTaskManager.getInstance().flush();
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE characters SET x=-84318, y=244579, z=-3730 WHERE char_name=?");
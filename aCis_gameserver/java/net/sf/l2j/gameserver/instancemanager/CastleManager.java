@@ -33,6 +33,7 @@ import net.sf.l2j.gameserver.model.L2Object;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.model.entity.Castle;
 import net.sf.l2j.gameserver.model.item.instance.ItemInstance;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 
 public class CastleManager
 {
@@ -307,6 +308,8 @@ public class CastleManager
 		}
 		
 		// offline player actions ; remove all circlets / crowns
+		ItemsUpdateTaskManager.getInstance().flush();
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement("DELETE FROM items WHERE owner_id = ? AND item_id IN (?, 6841)");
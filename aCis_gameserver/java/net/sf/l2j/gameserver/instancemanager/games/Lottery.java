@@ -28,6 +28,7 @@ import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.model.item.instance.ItemInstance;
 import net.sf.l2j.gameserver.network.SystemMessageId;
 import net.sf.l2j.gameserver.network.serverpackets.SystemMessage;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.util.Broadcast;
 import net.sf.l2j.util.Rnd;
 
@@ -291,6 +292,9 @@ public class Lottery
 			int count3 = 0;
 			int count4 = 0;
 			
+			// Pending item changes must be written first.
+			ItemsUpdateTaskManager.getInstance().flush();
+			
 			try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 			{
 				PreparedStatement statement = con.prepareStatement(SELECT_LOTTERY_ITEM);
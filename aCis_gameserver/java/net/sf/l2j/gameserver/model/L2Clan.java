@@ -17,7 +17,6 @@ package net.sf.l2j.gameserver.model;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -760,25 +759,31 @@ public class L2Clan
 	
 	public void updateClanInDB()
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		// Values are taken now, so the lane writes them as they are at call time.
+		final int leaderId = _leader.getObjectId();
+		final int allyId = _allyId;
+		final String allyName = _allyName;
+		final int score = _reputationScore;
+		final long allyPenaltyExpiryTime = _allyPenaltyExpiryTime;
+		final int allyPenaltyType = _allyPenaltyType;
+		final long charPenaltyExpiryTime = _charPenaltyExpiryTime;
+		final long dissolvingExpiryTime = _dissolvingExpiryTime;
+		
+		L2DatabaseFactory.getInstance().execute("L2Clan.updateClanInDB", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET leader_id=?,ally_id=?,ally_name=?,reputation_score=?,ally_penalty_expiry_time=?,ally_penalty_type=?,char_penalty_expiry_time=?,dissolving_expiry_time=? WHERE clan_id=?");
-			statement.setInt(1, _leader.getObjectId());
-			statement.setInt(2, _allyId);
-			statement.setString(3, _allyName);
-			statement.setInt(4, _reputationScore);
-			statement.setLong(5, _allyPenaltyExpiryTime);
-			statement.setInt(6, _allyPenaltyType);
-			statement.setLong(7, _charPenaltyExpiryTime);
-			statement.setLong(8, _dissolvingExpiryTime);
+			statement.setInt(1, leaderId);
+			statement.setInt(2, allyId);
+			statement.setString(3, allyName);
+			statement.setInt(4, score);
+			statement.setLong(5, allyPenaltyExpiryTime);
+			statement.setInt(6, allyPenaltyType);
+			statement.setLong(7, charPenaltyExpiryTime);
+			statement.setLong(8, dissolvingExpiryTime);
 			statement.setInt(9, _clanId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.warning("error while saving new clan leader to db " + e);
-		}
+		});
 	}
 	
 	public void store()
@@ -813,19 +818,16 @@ public class L2Clan
 		if (notice.length() > MAX_NOTICE_LENGTH)
 			notice = notice.substring(0, MAX_NOTICE_LENGTH - 1);
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final String text = notice;
+		L2DatabaseFactory.getInstance().execute("L2Clan.storeNotice", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET enabled=?,notice=? WHERE clan_id=?");
 			statement.setString(1, (enabled) ? "true" : "false");
-			statement.setString(2, notice);
+			statement.setString(2, text);
 			statement.setInt(3, _clanId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.WARNING, "L2Clan : could not store clan notice: " + e.getMessage(), e);
-		}
+		});
 		
 		_notice = notice;
 		_noticeEnabled = enabled;
@@ -876,18 +878,15 @@ public class L2Clan
 			if (intro.length() > MAX_INTRODUCTION_LENGTH)
 				intro = intro.substring(0, MAX_INTRODUCTION_LENGTH - 1);
 			
-			try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+			final String text = intro;
+			L2DatabaseFactory.getInstance().execute("L2Clan.setIntroduction", _clanId, con ->
 			{
 				PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET introduction=? WHERE clan_id=?");
-				statement.setString(1, intro);
+				statement.setString(1, text);
 				statement.setInt(2, _clanId);
 				statement.execute();
 				statement.close();
-			}
-			catch (Exception e)
-			{
-				_log.log(Level.WARNING, "L2Clan : could not store clan introduction: " + e.getMessage(), e);
-			}
+			});
 		}
 		
 		_introduction = intro;
@@ -962,13 +961,12 @@ public class L2Clan
 		if (newSkill == null)
 			return;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		// Replace oldSkill by newSkill or Add the newSkill
+		final L2Skill oldSkill = _skills.put(newSkill.getId(), newSkill);
+		
+		L2DatabaseFactory.getInstance().execute("L2Clan.addNewSkill", _clanId, con ->
 		{
 			PreparedStatement statement;
-			
-			// Replace oldSkill by newSkill or Add the newSkill
-			final L2Skill oldSkill = _skills.put(newSkill.getId(), newSkill);
-			
 			if (oldSkill != null)
 			{
 				statement = con.prepareStatement("UPDATE clan_skills SET skill_level=? WHERE skill_id=? AND clan_id=?");
@@ -988,12 +986,7 @@ public class L2Clan
 				statement.execute();
 				statement.close();
 			}
-		}
-		catch (Exception e)
-		{
-			_log.warning("Error could not store char skills: " + e);
-			return;
-		}
+		});
 		
 		final PledgeSkillListAdd pledgeListAdd = new PledgeSkillListAdd(newSkill.getId(), newSkill.getLevel());
 		final PledgeSkillList pledgeList = new PledgeSkillList(this);
@@ -1378,20 +1371,20 @@ public class L2Clan
 	
 	public void updateSubPledgeInDB(int pledgeType)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final SubPledge subPledge = getSubPledge(pledgeType);
+		final int leaderId = subPledge.getLeaderId();
+		final String name = subPledge.getName();
+		
+		L2DatabaseFactory.getInstance().execute("L2Clan.updateSubPledgeInDB", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_subpledges SET leader_id=?, name=? WHERE clan_id=? AND sub_pledge_id=?");
-			statement.setInt(1, getSubPledge(pledgeType).getLeaderId());
-			statement.setString(2, getSubPledge(pledgeType).getName());
+			statement.setInt(1, leaderId);
+			statement.setString(2, name);
 			statement.setInt(3, _clanId);
 			statement.setInt(4, pledgeType);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.SEVERE, "Error updating subpledge: " + e.getMessage(), e);
-		}
+		});
 	}
 	
 	private void restoreRankPrivs()
@@ -1440,7 +1433,7 @@ public class L2Clan
 		{
 			_privs.get(rank).setPrivs(privs);
 			
-			try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+			L2DatabaseFactory.getInstance().execute("L2Clan.setRankPrivs", _clanId, con ->
 			{
 				PreparedStatement statement = con.prepareStatement("INSERT INTO clan_privs (clan_id,rank,privs) VALUES (?,?,?) ON DUPLICATE KEY UPDATE privs = ?");
 				statement.setInt(1, _clanId);
@@ -1449,11 +1442,7 @@ public class L2Clan
 				statement.setInt(4, privs);
 				statement.execute();
 				statement.close();
-			}
-			catch (Exception e)
-			{
-				_log.warning("Could not store clan privs for rank: " + e);
-			}
+			});
 			
 			for (L2PcInstance member : getOnlineMembers())
 			{
@@ -1466,7 +1455,7 @@ public class L2Clan
 		{
 			_privs.put(rank, new RankPrivs(rank, privs));
 			
-			try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+			L2DatabaseFactory.getInstance().execute("L2Clan.setRankPrivs", _clanId, con ->
 			{
 				PreparedStatement statement = con.prepareStatement("INSERT INTO clan_privs (clan_id,rank,privs) VALUES (?,?,?)");
 				statement.setInt(1, _clanId);
@@ -1474,11 +1463,7 @@ public class L2Clan
 				statement.setInt(3, privs);
 				statement.execute();
 				statement.close();
-			}
-			catch (Exception e)
-			{
-				_log.warning("Could not create new rank and store clan privs for rank: " + e);
-			}
+			});
 		}
 	}
 	
@@ -1580,18 +1565,15 @@ public class L2Clan
 			member.sendPacket(infoRefresh);
 		
 		// Save the amount on the database.
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final int score = _reputationScore;
+		L2DatabaseFactory.getInstance().execute("L2Clan.setReputationScore", _clanId, con ->
 		{
 			final PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET reputation_score=? WHERE clan_id=?");
-			statement.setInt(1, _reputationScore);
+			statement.setInt(1, score);
 			statement.setInt(2, _clanId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.WARNING, "Exception on updateClanScoreInDb(): " + e.getMessage(), e);
-		}
+		});
 	}
 	
 	public int getReputationScore()
@@ -1618,18 +1600,14 @@ public class L2Clan
 	{
 		_auctionBiddedAt = id;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("L2Clan.setAuctionBiddedAt", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET auction_bid_at=? WHERE clan_id=?");
 			statement.setInt(1, id);
 			statement.setInt(2, _clanId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.warning("Could not store auction for clan: " + e);
-		}
+		});
 	}
 	
 	/**
@@ -2049,18 +2027,14 @@ public class L2Clan
 	
 	public void changeLevel(int level)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("L2Clan.changeLevel", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET clan_level = ? WHERE clan_id = ?");
 			statement.setInt(1, level);
 			statement.setInt(2, _clanId);
 			statement.execute();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.WARNING, "Could not increase clan level:" + e.getMessage(), e);
-		}
+		});
 		
 		setLevel(level);
 		
@@ -2090,18 +2064,14 @@ public class L2Clan
 		
 		_crestId = crestId;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("L2Clan.changeClanCrest", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET crest_id = ? WHERE clan_id = ?");
 			statement.setInt(1, crestId);
 			statement.setInt(2, _clanId);
 			statement.executeUpdate();
 			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.WARNING, "Could not update crest for clan " + _name + " [" + _clanId + "] : " + e.getMessage(), e);
-		}
+		});
 		
 		for (L2PcInstance member : getOnlineMembers())
 			member.broadcastUserInfo();
@@ -2114,29 +2084,20 @@ public class L2Clan
 	 */
 	public void changeAllyCrest(int crestId, boolean onlyThisClan)
 	{
-		String sqlStatement = "UPDATE clan_data SET ally_crest_id = ? WHERE clan_id = ?";
-		int allyId = _clanId;
-		if (!onlyThisClan)
-		{
-			if (crestId == 0)
-				CrestCache.getInstance().removeCrest(CrestType.ALLY, _allyCrestId);
-			
-			sqlStatement = "UPDATE clan_data SET ally_crest_id = ? WHERE ally_id = ?";
-			allyId = _allyId;
-		}
+		if (!onlyThisClan && crestId == 0)
+			CrestCache.getInstance().removeCrest(CrestType.ALLY, _allyCrestId);
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final String sqlStatement = (onlyThisClan) ? "UPDATE clan_data SET ally_crest_id = ? WHERE clan_id = ?" : "UPDATE clan_data SET ally_crest_id = ? WHERE ally_id = ?";
+		final int allyId = (onlyThisClan) ? _clanId : _allyId;
+		
+		L2DatabaseFactory.getInstance().execute("L2Clan.changeAllyCrest", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement(sqlStatement);
 			statement.setInt(1, crestId);
 			statement.setInt(2, allyId);
 			statement.executeUpdate();
 			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.WARNING, "Could not update ally crest for ally/clan id " + allyId + " : " + e.getMessage(), e);
-		}
+		});
 		
 		if (onlyThisClan)
 		{
@@ -2169,18 +2130,14 @@ public class L2Clan
 		
 		_crestLargeId = crestId;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("L2Clan.changeLargeCrest", _clanId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE clan_data SET crest_large_id = ? WHERE clan_id = ?");
 			statement.setInt(1, crestId);
 			statement.setInt(2, _clanId);
 			statement.executeUpdate();
 			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.WARNING, "Could not update large crest for clan " + _name + " [" + _clanId + "] : " + e.getMessage(), e);
-		}
+		});
 		
 		for (L2PcInstance member : getOnlineMembers())
 			member.broadcastUserInfo();
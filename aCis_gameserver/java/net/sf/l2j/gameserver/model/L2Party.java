@@ -401,7 +401,7 @@ public class L2Party
 		if (player.getFusionSkill() != null)
 			player.abortCast();
 		
-		for (L2Character character : player.getKnownList().getKnownType(L2Character.class))
+		for (L2Character character : player.getKnownList().getKnownCharacters())
 			if (character.getFusionSkill() != null && character.getFusionSkill().getTarget() == player)
 				character.abortCast();
 		
@@ -1446,7 +1446,7 @@ public abstract class L2Skill implements IChanceSkillTrigger
 				final boolean srcInArena = activeChar.isInArena();
 				List<L2Character> targetList = new ArrayList<>();
 				
-				for (L2Character obj : target.getKnownList().getKnownType(L2Character.class))
+				for (L2Character obj : target.getKnownList().getKnownCharacters())
 				{
 					if (obj == null || obj == target || obj == activeChar)
 						continue;
@@ -1499,7 +1499,7 @@ public abstract class L2Skill implements IChanceSkillTrigger
 				else
 					origin = activeChar;
 				
-				for (L2Character obj : activeChar.getKnownList().getKnownType(L2Character.class))
+				for (L2Character obj : activeChar.getKnownList().getKnownCharacters())
 				{
 					if (!(obj instanceof L2Attackable || obj instanceof L2Playable))
 						continue;
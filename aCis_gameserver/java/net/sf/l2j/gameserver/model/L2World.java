@@ -18,9 +18,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 import net.sf.l2j.gameserver.datatables.CharNameTable;
+import net.sf.l2j.gameserver.model.actor.knownlist.ObjectKnownList;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.model.actor.instance.L2PetInstance;
 
@@ -48,6 +50,12 @@ public final class L2World
 	private static final int REGION_X_OFFSET = Math.abs(WORLD_X_MIN / REGION_SIZE);
 	private static final int REGION_Y_OFFSET = Math.abs(WORLD_Y_MIN / REGION_SIZE);
 	
+	// Cells, splitting each region for radius queries
+	public static final int CELL_SIZE = 512;
+	static final int REGION_CELLS = REGION_SIZE / CELL_SIZE;
+	private static final int CELLS_X = (REGIONS_X + 1) * REGION_CELLS;
+	private static final int CELLS_Y = (REGIONS_Y + 1) * REGION_CELLS;
+	
 	private final Map<Integer, L2PcInstance> _allPlayers;
 	private final Map<Integer, L2Object> _allObjects;
 	private final Map<Integer, L2PetInstance> _petsInstance;
@@ -248,24 +256,17 @@ public final class L2World
 		if (!newRegion.isActive())
 			return;
 		
-		final boolean objectHasKnownlist = (object.getKnownList() != null);
-		
-		// tell the player about the surroundings
-		// Go through the visible objects contained in the circular area
-		for (L2Object visible : getVisibleObjects(object, 2000))
+		// tell the object about the surroundings, and the surroundings about the object
+		if (object.getKnownList() != null)
+			object.getKnownList().updateKnownObjects();
+		else
 		{
-			// Add the object in L2ObjectHashSet(L2Object) _knownObjects of the visible L2Character according to conditions :
-			// - L2Character is visible
-			// - object is not already known
-			// - object is in the watch distance
-			// If L2Object is a L2PcInstance, add L2Object in L2ObjectHashSet(L2PcInstance) _knownPlayer of the visible L2Character
-			if (visible.getKnownList() != null)
-				visible.getKnownList().addKnownObject(object);
-			
-			// Add the visible L2Object in L2ObjectHashSet(L2Object) _knownObjects of the object according to conditions
-			// If visible L2Object is a L2PcInstance, add visible L2Object in L2ObjectHashSet(L2PcInstance) _knownPlayer of the object
-			if (objectHasKnownlist)
-				object.getKnownList().addKnownObject(visible);
+			// objects without known list can still be known by others
+			forEachVisibleObject(object, ObjectKnownList.PLAYER_DISTANCE_TO_WATCH, visible ->
+			{
+				if (visible.getKnownList() != null)
+					visible.getKnownList().addKnownObject(object);
+			});
 		}
 	}
 	
@@ -357,46 +358,76 @@ public final class L2World
 	/**
 	 * <B><U> Concept</U> :</B><BR>
 	 * <BR>
-	 * All visible object are identified in <B>_visibleObjects</B> of their current L2WorldRegion <BR>
-	 * All surrounding L2WorldRegion are identified in <B>_surroundingRegions</B> of the selected L2WorldRegion in order to scan a large area around a L2Object
+	 * All visible object are identified in <B>_visibleObjects</B> of their current L2WorldRegion, and sorted by type in the L2WorldCell matching their position.<BR>
+	 * Only cells overlapping the circular area are scanned.
 	 * @param object L2object that determine the center of the circular area
 	 * @param radius Radius of the circular area
-	 * @return all visible objects of the L2WorldRegions in the circular area (radius) centered on the object.
+	 * @return all visible objects in the circular area (radius) centered on the object.
 	 */
 	public static List<L2Object> getVisibleObjects(L2Object object, int radius)
+	{
+		final List<L2Object> result = new ArrayList<>();
+		forEachVisibleObject(object, radius, result::add);
+		return result;
+	}
+	
+	/**
+	 * Feed the action with all visible objects in the circular area (radius) centered on the object, without building any list.
+	 * @param object L2object that determine the center of the circular area
+	 * @param radius Radius of the circular area
+	 * @param action The action to run on each object found.
+	 */
+	public static void forEachVisibleObject(L2Object object, int radius, Consumer<? super L2Object> action)
+	{
+		forEachVisibleObject(object, null, radius, action);
+	}
+	
+	/**
+	 * Feed the action with all visible objects of the given type in the circular area (radius) centered on the object. Players, NPCs and items have their own buckets, so such queries don't even look at other objects.
+	 * @param <A> The type of objects to retrieve.
+	 * @param object L2object that determine the center of the circular area
+	 * @param type The class of objects to retrieve, or null for all objects.
+	 * @param radius Radius of the circular area
+	 * @param action The action to run on each object found.
+	 */
+	public static <A> void forEachVisibleObject(L2Object object, Class<A> type, int radius, Consumer<? super A> action)
 	{
 		if (object == null || !object.isVisible())
-			return new ArrayList<>();
+			return;
 		
-		int x = object.getX();
-		int y = object.getY();
-		int sqRadius = radius * radius;
+		getInstance().forEachObject(object.getX(), object.getY(), radius, type, object, action);
+	}
+	
+	private <A> void forEachObject(int x, int y, int radius, Class<A> type, L2Object exclude, Consumer<? super A> action)
+	{
+		final long sqRadius = (long) radius * radius;
 		
-		// Create an FastList in order to contain all visible L2Object
-		List<L2Object> result = new ArrayList<>();
+		final int minX = Math.max(0, (x - radius - WORLD_X_MIN) / CELL_SIZE);
+		final int maxX = Math.min(CELLS_X - 1, (x + radius - WORLD_X_MIN) / CELL_SIZE);
+		final int minY = Math.max(0, (y - radius - WORLD_Y_MIN) / CELL_SIZE);
+		final int maxY = Math.min(CELLS_Y - 1, (y + radius - WORLD_Y_MIN) / CELL_SIZE);
 		
-		// Go through the FastList of region
-		for (L2WorldRegion regi : object.getWorldRegion().getSurroundingRegions())
+		for (int i = minX; i <= maxX; i++)
 		{
-			// Go through visible objects of the selected region
-			for (L2Object _object : regi.getVisibleObjects().values())
+			// Distance between the center and the nearest column of the cell, 0 if the center stands inside.
+			final int cellX = WORLD_X_MIN + i * CELL_SIZE;
+			final long dx = Math.max(0, Math.max(cellX - x, x - (cellX + CELL_SIZE)));
+			
+			for (int j = minY; j <= maxY; j++)
 			{
-				if (_object == null || _object.equals(object))
-					continue; // skip our own character
-					
-				int x1 = _object.getX();
-				int y1 = _object.getY();
+				final L2WorldCell cell = _worldRegions[i / REGION_CELLS][j / REGION_CELLS].getCell(i % REGION_CELLS, j % REGION_CELLS);
+				if (cell == null)
+					continue;
 				
-				double dx = x1 - x;
-				double dy = y1 - y;
+				// Skip corner cells which don't overlap the circle.
+				final int cellY = WORLD_Y_MIN + j * CELL_SIZE;
+				final long dy = Math.max(0, Math.max(cellY - y, y - (cellY + CELL_SIZE)));
+				if (dx * dx + dy * dy >= sqRadius)
+					continue;
 				
-				// If the visible object is inside the circular area add the object to the FastList result
-				if (dx * dx + dy * dy < sqRadius)
-					result.add(_object);
+				cell.forEach(type, exclude, x, y, sqRadius, action);
 			}
 		}
-		
-		return result;
 	}
 	
 	/**
@@ -0,0 +1,140 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.model;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import net.sf.l2j.gameserver.model.actor.L2Npc;
+import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
+import net.sf.l2j.gameserver.model.item.instance.ItemInstance;
+
+/**
+ * A square cell of {@link L2World#CELL_SIZE} units inside a {@link L2WorldRegion}.<br>
+ * <br>
+ * Visible objects are sorted by type into players, NPCs, items and others buckets, so radius queries only walk the cells overlapping the circle and, for a typed query, only the matching bucket.
+ */
+public final class L2WorldCell
+{
+	private final Set<L2Object> _players = ConcurrentHashMap.newKeySet();
+	private final Set<L2Object> _npcs = ConcurrentHashMap.newKeySet();
+	private final Set<L2Object> _items = ConcurrentHashMap.newKeySet();
+	private final Set<L2Object> _others = ConcurrentHashMap.newKeySet();
+	
+	private final L2WorldRegion _region;
+	private final int _x, _y;
+	
+	public L2WorldCell(L2WorldRegion region, int x, int y)
+	{
+		_region = region;
+		_x = x;
+		_y = y;
+	}
+	
+	public L2WorldRegion getRegion()
+	{
+		return _region;
+	}
+	
+	/**
+	 * @return the world X coordinate of this cell's lower bound.
+	 */
+	public int getX()
+	{
+		return _x;
+	}
+	
+	/**
+	 * @return the world Y coordinate of this cell's lower bound.
+	 */
+	public int getY()
+	{
+		return _y;
+	}
+	
+	void add(L2Object object)
+	{
+		getBucket(object).add(object);
+	}
+	
+	void remove(L2Object object)
+	{
+		getBucket(object).remove(object);
+	}
+	
+	/**
+	 * Feed the consumer with objects of this cell standing strictly inside the circle (x, y, sqRadius), the given object excepted.
+	 * @param type : The wanted type, or null for all objects.
+	 * @param exclude : The object to skip, usually the center of the query.
+	 * @param x : The X coordinate of the center.
+	 * @param y : The Y coordinate of the center.
+	 * @param sqRadius : The squared radius.
+	 * @param action : The consumer to feed.
+	 */
+	@SuppressWarnings("unchecked")
+	<A> void forEach(Class<A> type, L2Object exclude, int x, int y, long sqRadius, Consumer<? super A> action)
+	{
+		if (type == null || type == L2Object.class)
+		{
+			forEach(_players, null, exclude, x, y, sqRadius, (Consumer<Object>) action);
+			forEach(_npcs, null, exclude, x, y, sqRadius, (Consumer<Object>) action);
+			forEach(_items, null, exclude, x, y, sqRadius, (Consumer<Object>) action);
+			forEach(_others, null, exclude, x, y, sqRadius, (Consumer<Object>) action);
+		}
+		else if (L2PcInstance.class.isAssignableFrom(type))
+			forEach(_players, type, exclude, x, y, sqRadius, action);
+		else if (L2Npc.class.isAssignableFrom(type))
+			forEach(_npcs, type, exclude, x, y, sqRadius, action);
+		else if (ItemInstance.class.isAssignableFrom(type))
+			forEach(_items, type, exclude, x, y, sqRadius, action);
+		else
+		{
+			forEach(_players, type, exclude, x, y, sqRadius, action);
+			forEach(_npcs, type, exclude, x, y, sqRadius, action);
+			forEach(_items, type, exclude, x, y, sqRadius, action);
+			forEach(_others, type, exclude, x, y, sqRadius, action);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <A> void forEach(Set<L2Object> bucket, Class<A> type, L2Object exclude, int x, int y, long sqRadius, Consumer<? super A> action)
+	{
+		for (L2Object object : bucket)
+		{
+			if (object == exclude || (type != null && !type.isInstance(object)))
+				continue;
+			
+			final long dx = object.getX() - x;
+			final long dy = object.getY() - y;
+			if (dx * dx + dy * dy < sqRadius)
+				action.accept((A) object);
+		}
+	}
+	
+	private Set<L2Object> getBucket(L2Object object)
+	{
+		if (object instanceof L2PcInstance)
+			return _players;
+		
+		if (object instanceof L2Npc)
+			return _npcs;
+		
+		if (object instanceof ItemInstance)
+			return _items;
+		
+		return _others;
+	}
+}
\ No newline at end of file
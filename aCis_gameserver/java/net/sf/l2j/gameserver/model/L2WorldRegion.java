@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import net.sf.l2j.Config;
 import net.sf.l2j.gameserver.ThreadPoolManager;
@@ -29,6 +30,7 @@ import net.sf.l2j.gameserver.model.actor.L2Character;
 import net.sf.l2j.gameserver.model.actor.L2Npc;
 import net.sf.l2j.gameserver.model.actor.L2Playable;
 import net.sf.l2j.gameserver.model.actor.L2Vehicle;
+import net.sf.l2j.gameserver.model.actor.position.ObjectPosition;
 import net.sf.l2j.gameserver.model.zone.L2ZoneType;
 import net.sf.l2j.gameserver.model.zone.type.L2DerbyTrackZone;
 import net.sf.l2j.gameserver.model.zone.type.L2PeaceZone;
@@ -39,6 +41,9 @@ public final class L2WorldRegion
 	private final Map<Integer, L2Object> _visibleObjects = new ConcurrentHashMap<>();
 	private final Map<Integer, L2Playable> _allPlayable = new ConcurrentHashMap<>();
 	
+	// Cells are created on first use, most of the world being empty.
+	private final AtomicReferenceArray<L2WorldCell> _cells = new AtomicReferenceArray<>(L2World.REGION_CELLS * L2World.REGION_CELLS);
+	
 	private final List<L2WorldRegion> _surroundingRegions = new ArrayList<>();
 	private final List<L2ZoneType> _zones = new ArrayList<>();
 	
@@ -328,6 +333,7 @@ public final class L2WorldRegion
 		assert object.getWorldRegion() == this;
 		
 		_visibleObjects.put(object.getObjectId(), object);
+		addToCell(object);
 		
 		if (object instanceof L2Playable)
 		{
@@ -354,6 +360,7 @@ public final class L2WorldRegion
 		assert object.getWorldRegion() == this || object.getWorldRegion() == null;
 		
 		_visibleObjects.remove(object.getObjectId());
+		removeFromCell(object);
 		
 		if (object instanceof L2Playable)
 		{
@@ -364,6 +371,89 @@ public final class L2WorldRegion
 		}
 	}
 	
+	/**
+	 * @param cellX The cell X index, from 0 to {@link L2World#REGION_CELLS} excluded.
+	 * @param cellY The cell Y index, from 0 to {@link L2World#REGION_CELLS} excluded.
+	 * @return the L2WorldCell of this region at given indexes, or null if no object ever stood in it.
+	 */
+	public L2WorldCell getCell(int cellX, int cellY)
+	{
+		return _cells.get(cellX * L2World.REGION_CELLS + cellY);
+	}
+	
+	/**
+	 * @param x The world X coordinate.
+	 * @param y The world Y coordinate.
+	 * @return the L2WorldCell of this region containing given coordinates, created if needed.
+	 */
+	private L2WorldCell getOrCreateCell(int x, int y)
+	{
+		final int cellX = Math.min(Math.max((x - L2World.WORLD_X_MIN) / L2World.CELL_SIZE - _tileX * L2World.REGION_CELLS, 0), L2World.REGION_CELLS - 1);
+		final int cellY = Math.min(Math.max((y - L2World.WORLD_Y_MIN) / L2World.CELL_SIZE - _tileY * L2World.REGION_CELLS, 0), L2World.REGION_CELLS - 1);
+		final int index = cellX * L2World.REGION_CELLS + cellY;
+		
+		L2WorldCell cell = _cells.get(index);
+		if (cell == null)
+		{
+			cell = new L2WorldCell(this, L2World.WORLD_X_MIN + (_tileX * L2World.REGION_CELLS + cellX) * L2World.CELL_SIZE, L2World.WORLD_Y_MIN + (_tileY * L2World.REGION_CELLS + cellY) * L2World.CELL_SIZE);
+			if (!_cells.compareAndSet(index, null, cell))
+				cell = _cells.get(index);
+		}
+		return cell;
+	}
+	
+	private void addToCell(L2Object object)
+	{
+		final ObjectPosition position = object.getPosition();
+		synchronized (position)
+		{
+			final L2WorldCell oldCell = position.getWorldCell();
+			if (oldCell != null)
+				oldCell.remove(object);
+			
+			final L2WorldCell cell = getOrCreateCell(object.getX(), object.getY());
+			cell.add(object);
+			position.setWorldCell(cell);
+		}
+	}
+	
+	private void removeFromCell(L2Object object)
+	{
+		final ObjectPosition position = object.getPosition();
+		synchronized (position)
+		{
+			final L2WorldCell cell = position.getWorldCell();
+			if (cell == null || cell.getRegion() != this)
+				return;
+			
+			cell.remove(object);
+			position.setWorldCell(null);
+		}
+	}
+	
+	/**
+	 * Move the L2Object to the L2WorldCell matching its current position, if it changed. The L2Object must have stayed in this L2WorldRegion.
+	 * @param object
+	 */
+	public void updateCell(L2Object object)
+	{
+		final ObjectPosition position = object.getPosition();
+		synchronized (position)
+		{
+			final L2WorldCell oldCell = position.getWorldCell();
+			if (oldCell == null || oldCell.getRegion() != this)
+				return;
+			
+			final L2WorldCell cell = getOrCreateCell(object.getX(), object.getY());
+			if (cell == oldCell)
+				return;
+			
+			oldCell.remove(object);
+			cell.add(object);
+			position.setWorldCell(cell);
+		}
+	}
+	
 	public void addSurroundingRegion(L2WorldRegion region)
 	{
 		_surroundingRegions.add(region);
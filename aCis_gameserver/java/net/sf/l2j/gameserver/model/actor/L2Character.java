@@ -116,6 +116,8 @@ import net.sf.l2j.gameserver.skills.funcs.FuncPAtkSpeed;
 import net.sf.l2j.gameserver.skills.funcs.FuncPDefMod;
 import net.sf.l2j.gameserver.taskmanager.AttackStanceTaskManager;
 import net.sf.l2j.gameserver.taskmanager.MovementTaskManager;
+import net.sf.l2j.gameserver.taskmanager.PathFindingTaskManager;
+import net.sf.l2j.gameserver.taskmanager.PathFindingTaskManager.PathRequest;
 import net.sf.l2j.gameserver.templates.skills.L2EffectFlag;
 import net.sf.l2j.gameserver.templates.skills.L2EffectType;
 import net.sf.l2j.gameserver.templates.skills.L2SkillType;
@@ -953,7 +955,7 @@ public abstract class L2Character extends L2Object
 		boolean hitted = doAttackHitSimple(attack, target, 100, sAtk);
 		double attackpercent = 85;
 		
-		for (L2Character obj : getKnownList().getKnownType(L2Character.class))
+		for (L2Character obj : getKnownList().getKnownCharacters())
 		{
 			if (obj == target || obj.isAlikeDead())
 				continue;
@@ -1928,7 +1930,7 @@ public abstract class L2Character extends L2Object
 			((L2Summon) this).broadcastStatusUpdate();
 		else if (this instanceof L2Npc)
 		{
-			for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+			for (L2PcInstance player : getKnownList().getKnownPlayers())
 			{
 				if (getRunSpeed() == 0)
 					player.sendPacket(new ServerObjectInfo((L2Npc) this, player));
@@ -2053,6 +2055,8 @@ public abstract class L2Character extends L2Object
 	protected final void setTemplate(CharTemplate template)
 	{
 		_template = template;
+		
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -2912,6 +2916,9 @@ public abstract class L2Character extends L2Object
 	/** Movement data of this L2Character */
 	protected MoveData _move;
 	
+	/** Path searched for the current move, by PathFindingTaskManager */
+	private volatile PathRequest _pathRequest;
+	
 	/** Orientation of the L2Character */
 	private int _heading;
 	
@@ -2948,6 +2955,8 @@ public abstract class L2Character extends L2Object
 			
 			// Add the Func to the calculator corresponding to the state
 			_calculators[stat].addFunc(f);
+			
+			getStat().invalidateStatCache();
 		}
 	}
 	
@@ -2994,6 +3003,8 @@ public abstract class L2Character extends L2Object
 				i++;
 			}
 			
+			getStat().invalidateStatCache();
+			
 			if (owner instanceof L2Effect)
 			{
 				if (!((L2Effect) owner).preventExitUpdate)
@@ -3059,7 +3070,7 @@ public abstract class L2Character extends L2Object
 		{
 			if (broadcastFull)
 			{
-				for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+				for (L2PcInstance player : getKnownList().getKnownPlayers())
 				{
 					if (getRunSpeed() == 0)
 						player.sendPacket(new ServerObjectInfo((L2Npc) this, player));
@@ -3405,6 +3416,7 @@ public abstract class L2Character extends L2Object
 	{
 		// Delete movement data of the L2Character
 		_move = null;
+		_pathRequest = null;
 		
 		// Set the current position (x,y,z), its current L2WorldRegion if necessary and its heading
 		// All data are contained in a L2CharPosition object
@@ -3519,6 +3531,10 @@ public abstract class L2Character extends L2Object
 	 */
 	protected void moveToLocation(int x, int y, int z, int offset)
 	{
+		// path searched for previous move, kept only when this move waits for a path
+		final PathRequest request = _pathRequest;
+		_pathRequest = null;
+		
 		// get movement speed of character
 		float speed = getStat().getMoveSpeed();
 		if (speed <= 0 || isMovementDisabled())
@@ -3603,6 +3619,9 @@ public abstract class L2Character extends L2Object
 		newMd.onGeodataPathIndex = -1;
 		newMd.disregardingGeodata = false;
 		
+		// path is being searched by PathFindingTaskManager
+		boolean pathPending = false;
+		
 		// flying chars not checked - even canSeeTarget doesn't work yet
 		// swimming also not checked unless in siege zone - but distance is limited
 		// npc walkers not checked
@@ -3674,8 +3693,25 @@ public abstract class L2Character extends L2Object
 				// Path calculation -- overrides previous movement check
 				if ((this instanceof L2Playable && !isInVehicle) || isMinion() || isInCombat())
 				{
-					newMd.geoPath = PathFinding.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, this instanceof L2Playable);
-					if (newMd.geoPath == null || newMd.geoPath.size() < 2)
+					if (Config.PATHFIND_ASYNC && !(this instanceof L2Playable))
+					{
+						// Use the path searched for this move, when it can be joined from current position. Otherwise search it, and go straight to the obstacle meanwhile.
+						if (request != null && request.isUsable(curX, curY, curZ, gtx, gty))
+							newMd.geoPath = request.getPath();
+						else
+						{
+							_pathRequest = PathFindingTaskManager.getInstance().request(this, curX, curY, curZ, originalX, originalY, originalZ, gtx, gty);
+							pathPending = true;
+						}
+					}
+					else
+						newMd.geoPath = PathFinding.getInstance().findPath(curX, curY, curZ, originalX, originalY, originalZ, this instanceof L2Playable);
+					
+					if (pathPending)
+					{
+						// Keep the movement given by the movement check, until the path is found.
+					}
+					else if (newMd.geoPath == null || newMd.geoPath.size() < 2)
 					{
 						// No path found
 						// Even though there's no path found (remember geonodes aren't perfect), the mob is attacking and right now we set it so that the mob will go after target anyway, is dz is small enough.
@@ -3734,6 +3770,10 @@ public abstract class L2Character extends L2Object
 			// If no distance to go through, the movement is canceled
 			if (distance < 1 && (Config.GEODATA == 2 || this instanceof L2Playable || this instanceof L2RiftInvaderInstance || isAfraid()))
 			{
+				// Wait for the path instead.
+				if (pathPending)
+					return;
+				
 				if (this instanceof L2Summon)
 					((L2Summon) this).setFollowStatus(false);
 				
@@ -3767,6 +3807,41 @@ public abstract class L2Character extends L2Object
 		MovementTaskManager.getInstance().add(this);
 	}
 	
+	/**
+	 * Resumes the move, once its path was searched by {@link PathFindingTaskManager}. Nothing is done when the character was given another move meanwhile.
+	 * @param request : the path request of the move
+	 */
+	public void onPathFound(PathRequest request)
+	{
+		if (request != _pathRequest || isDead() || isMovementDisabled())
+			return;
+		
+		moveToLocation(request.getX(), request.getY(), request.getZ(), 0);
+		
+		// Send a Server->Client packet MoveToLocation to all known players
+		if (isMoving())
+			broadcastPacket(new MoveToLocation(this));
+	}
+	
+	/**
+	 * Ends the wait for a path {@link PathFindingTaskManager} couldn't search in time, without searching it here. Nothing is done when the character was given another move meanwhile.
+	 * <ul>
+	 * <li>The character goes straight to the obstacle : the move is kept, and the AI gives another one once arrived.</li>
+	 * <li>The character waits in place : the move is given up, as when no path is found.</li>
+	 * </ul>
+	 * @param request : the path request of the move
+	 */
+	public void onPathExpired(PathRequest request)
+	{
+		if (request != _pathRequest)
+			return;
+		
+		_pathRequest = null;
+		
+		if (!isMoving())
+			getAI().notifyEvent(CtrlEvent.EVT_ARRIVED);
+	}
+	
 	public boolean moveToNextRoutePoint()
 	{
 		// character is not on geodata path, return
@@ -373,7 +373,7 @@ public class L2Npc extends L2Character
 	public void updateAbnormalEffect()
 	{
 		// Send NpcInfo with state of abnormal effect to all L2PcInstance in the _KnownPlayers of the L2Npc
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 		{
 			if (getRunSpeed() == 0)
 				player.sendPacket(new ServerObjectInfo(this, player));
@@ -162,7 +162,7 @@ public abstract class L2Summon extends L2Playable
 	@Override
 	public void updateAbnormalEffect()
 	{
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 			player.sendPacket(new SummonInfo(this, player, 1));
 	}
 	
@@ -836,7 +836,7 @@ public abstract class L2Summon extends L2Playable
 	
 	public void broadcastNpcInfo(int val)
 	{
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 		{
 			if (player == getOwner())
 				continue;
@@ -866,7 +866,7 @@ public abstract class L2Summon extends L2Playable
 	@Override
 	public void broadcastRelationsChanges()
 	{
-		for (L2PcInstance player : getOwner().getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getOwner().getKnownList().getKnownPlayers())
 			player.sendPacket(new RelationChanged(this, getOwner().getRelation(player), isAutoAttackable(player)));
 	}
 	
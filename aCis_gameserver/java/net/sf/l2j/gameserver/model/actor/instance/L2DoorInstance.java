@@ -449,7 +449,7 @@ public class L2DoorInstance extends L2Character
 	@Override
 	public void broadcastStatusUpdate()
 	{
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 			player.sendPacket(new DoorStatusUpdate(this, player));
 	}
 	
@@ -454,6 +454,12 @@ public final class L2PcInstance extends L2Playable
 	
 	private final Map<Integer, RecipeList> _dwarvenRecipeBook = new HashMap<>();
 	private final Map<Integer, RecipeList> _commonRecipeBook = new HashMap<>();
+	private boolean _recipeBookChanged;
+	
+	// Last stored data, used to skip unchanged sections on store.
+	private Object[] _storedCharBase;
+	private List<Object[]> _storedEffects;
+	private int _storedEffectsClassIndex;
 	
 	private boolean _waitTypeSitting;
 	
@@ -1030,6 +1036,7 @@ public final class L2PcInstance extends L2Playable
 	public void registerCommonRecipeList(RecipeList recipe)
 	{
 		_commonRecipeBook.put(recipe.getId(), recipe);
+		_recipeBookChanged = true;
 	}
 	
 	/**
@@ -1039,6 +1046,7 @@ public final class L2PcInstance extends L2Playable
 	public void registerDwarvenRecipeList(RecipeList recipe)
 	{
 		_dwarvenRecipeBook.put(recipe.getId(), recipe);
+		_recipeBookChanged = true;
 	}
 	
 	/**
@@ -1069,6 +1077,8 @@ public final class L2PcInstance extends L2Playable
 		else
 			_log.warning("Attempted to remove unknown RecipeList: " + recipeId);
 		
+		_recipeBookChanged = true;
+		
 		for (L2ShortCut sc : getAllShortCuts())
 		{
 			if (sc != null && sc.getId() == recipeId && sc.getType() == L2ShortCut.TYPE_RECIPE)
@@ -3384,7 +3394,7 @@ public final class L2PcInstance extends L2Playable
 	
 	public final void broadcastCharInfo()
 	{
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 		{
 			player.sendPacket(new CharInfo(this));
 			
@@ -4051,7 +4061,7 @@ public final class L2PcInstance extends L2Playable
 		if (_fusionSkill != null)
 			abortCast();
 		
-		for (L2Character character : getKnownList().getKnownType(L2Character.class))
+		for (L2Character character : getKnownList().getKnownCharacters())
 			if (character.getFusionSkill() != null && character.getFusionSkill().getTarget() == this)
 				character.abortCast();
 		
@@ -5432,6 +5442,9 @@ public final class L2PcInstance extends L2Playable
 	 */
 	public static L2PcInstance restore(int objectId)
 	{
+		// Background writes of that character (quests, mails...) must be written first.
+		L2DatabaseFactory.getInstance().await(objectId);
+		
 		L2PcInstance player = null;
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
@@ -5692,6 +5705,10 @@ public final class L2PcInstance extends L2Playable
 			}
 			rset.close();
 			statement.close();
+			
+			// Mark as stored once all were read, so a failed restore is written back on next store.
+			for (SubClass subClass : player.getSubClasses().values())
+				subClass.setStoredInDb(true);
 		}
 		catch (Exception e)
 		{
@@ -5728,41 +5745,42 @@ public final class L2PcInstance extends L2Playable
 	}
 	
 	/**
-	 * Store recipe book data for this L2PcInstance, if not on an active sub-class.
+	 * Store recipe book data for this L2PcInstance, if not on an active sub-class and if it changed since last store.
+	 * @param con : The connection to use.
 	 */
-	private void storeRecipeBook()
+	private void storeRecipeBook(Connection con)
 	{
 		// If the player is on a sub-class don't even attempt to store a recipe book.
-		if (isSubClassActive())
+		if (isSubClassActive() || !_recipeBookChanged)
 			return;
 		
-		if (getCommonRecipeBook().isEmpty() && getDwarvenRecipeBook().isEmpty())
-			return;
-		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		try
 		{
 			PreparedStatement statement = con.prepareStatement("DELETE FROM character_recipebook WHERE char_id=?");
 			statement.setInt(1, getObjectId());
 			statement.execute();
 			statement.close();
 			
+			statement = con.prepareStatement("INSERT INTO character_recipebook (char_id, id, type) values(?,?,?)");
 			for (RecipeList recipe : getCommonRecipeBook())
 			{
-				statement = con.prepareStatement("INSERT INTO character_recipebook (char_id, id, type) values(?,?,0)");
 				statement.setInt(1, getObjectId());
 				statement.setInt(2, recipe.getId());
-				statement.execute();
-				statement.close();
+				statement.setInt(3, 0);
+				statement.addBatch();
 			}
 			
 			for (RecipeList recipe : getDwarvenRecipeBook())
 			{
-				statement = con.prepareStatement("INSERT INTO character_recipebook (char_id, id, type) values(?,?,1)");
 				statement.setInt(1, getObjectId());
 				statement.setInt(2, recipe.getId());
-				statement.execute();
-				statement.close();
+				statement.setInt(3, 1);
+				statement.addBatch();
 			}
+			statement.executeBatch();
+			statement.close();
+			
+			_recipeBookChanged = false;
 		}
 		catch (Exception e)
 		{
@@ -5792,6 +5810,9 @@ public final class L2PcInstance extends L2Playable
 			
 			rset.close();
 			statement.close();
+			
+			// Restored book is the stored one.
+			_recipeBookChanged = false;
 		}
 		catch (Exception e)
 		{
@@ -5809,10 +5830,23 @@ public final class L2PcInstance extends L2Playable
 		if (isInsideRadius(getClientX(), getClientY(), 1000, true))
 			setXYZ(getClientX(), getClientY(), getClientZ());
 		
-		storeCharBase();
-		storeCharSub();
-		storeEffect(storeActiveEffects);
-		storeRecipeBook();
+		// Each section is written only if it changed since last store, using the same connection.
+		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		{
+			storeCharBase(con);
+			storeCharSub(con);
+			storeEffect(con, storeActiveEffects);
+			storeRecipeBook(con);
+		}
+		catch (Exception e)
+		{
+			_log.warning("Could not store data of " + getName() + ": " + e);
+		}
+		
+		// Write pending quest changes.
+		for (QuestState qs : _quests)
+			qs.storeChangedVars();
+		
 		SevenSigns.getInstance().saveSevenSignsData(getObjectId());
 	}
 	
@@ -5824,6 +5858,22 @@ public final class L2PcInstance extends L2Playable
 	private void storeCharBase()
 	{
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		{
+			storeCharBase(con);
+		}
+		catch (Exception e)
+		{
+			_log.warning("Could not store char base data: " + e);
+		}
+	}
+	
+	/**
+	 * Update the characters table row, if any of its values changed since last store.
+	 * @param con : The connection to use.
+	 */
+	private void storeCharBase(Connection con)
+	{
+		try
 		{
 			// Get the exp, level, and sp of base class to store in base table
 			int currentClassIndex = getClassIndex();
@@ -5833,66 +5883,76 @@ public final class L2PcInstance extends L2Playable
 			int sp = getStat().getSp();
 			_classIndex = currentClassIndex;
 			
-			PreparedStatement statement = con.prepareStatement(UPDATE_CHARACTER);
-			
-			statement.setInt(1, level);
-			statement.setInt(2, getMaxHp());
-			statement.setDouble(3, getCurrentHp());
-			statement.setInt(4, getMaxCp());
-			statement.setDouble(5, getCurrentCp());
-			statement.setInt(6, getMaxMp());
-			statement.setDouble(7, getCurrentMp());
-			statement.setInt(8, getAppearance().getFace());
-			statement.setInt(9, getAppearance().getHairStyle());
-			statement.setInt(10, getAppearance().getHairColor());
-			statement.setInt(11, getAppearance().getSex() ? 1 : 0);
-			statement.setInt(12, getHeading());
-			statement.setInt(13, _observerMode ? _savedLocation.getX() : getX());
-			statement.setInt(14, _observerMode ? _savedLocation.getY() : getY());
-			statement.setInt(15, _observerMode ? _savedLocation.getZ() : getZ());
-			statement.setLong(16, exp);
-			statement.setLong(17, getExpBeforeDeath());
-			statement.setInt(18, sp);
-			statement.setInt(19, getKarma());
-			statement.setInt(20, getPvpKills());
-			statement.setInt(21, getPkKills());
-			statement.setInt(22, getRecomHave());
-			statement.setInt(23, getRecomLeft());
-			statement.setInt(24, getClanId());
-			statement.setInt(25, getRace().ordinal());
-			statement.setInt(26, getClassId().getId());
-			statement.setLong(27, getDeleteTimer());
-			statement.setString(28, getTitle());
-			statement.setInt(29, getAccessLevel().getLevel());
-			statement.setInt(30, isOnlineInt());
-			statement.setInt(31, isIn7sDungeon() ? 1 : 0);
-			statement.setInt(32, getClanPrivileges());
-			statement.setInt(33, wantsPeace() ? 1 : 0);
-			statement.setInt(34, getBaseClass());
-			
 			long totalOnlineTime = _onlineTime;
 			if (_onlineBeginTime > 0)
 				totalOnlineTime += (System.currentTimeMillis() - _onlineBeginTime) / 1000;
 			
-			statement.setLong(35, totalOnlineTime);
-			statement.setInt(36, getPunishLevel().value());
-			statement.setLong(37, getPunishTimer());
-			statement.setInt(38, isNoble() ? 1 : 0);
-			statement.setLong(39, getPowerGrade());
-			statement.setInt(40, getPledgeType());
-			statement.setLong(41, getLastRecomUpdate());
-			statement.setInt(42, getLvlJoinedAcademy());
-			statement.setLong(43, getApprentice());
-			statement.setLong(44, getSponsor());
-			statement.setInt(45, getAllianceWithVarkaKetra());
-			statement.setLong(46, getClanJoinExpiryTime());
-			statement.setLong(47, getClanCreateExpiryTime());
-			statement.setString(48, getName());
-			statement.setLong(49, getDeathPenaltyBuffLevel());
-			statement.setInt(50, getObjectId());
+			final Object[] values =
+			{
+				level,
+				getMaxHp(),
+				getCurrentHp(),
+				getMaxCp(),
+				getCurrentCp(),
+				getMaxMp(),
+				getCurrentMp(),
+				getAppearance().getFace(),
+				getAppearance().getHairStyle(),
+				getAppearance().getHairColor(),
+				getAppearance().getSex() ? 1 : 0,
+				getHeading(),
+				_observerMode ? _savedLocation.getX() : getX(),
+				_observerMode ? _savedLocation.getY() : getY(),
+				_observerMode ? _savedLocation.getZ() : getZ(),
+				exp,
+				getExpBeforeDeath(),
+				sp,
+				getKarma(),
+				getPvpKills(),
+				getPkKills(),
+				getRecomHave(),
+				getRecomLeft(),
+				getClanId(),
+				getRace().ordinal(),
+				getClassId().getId(),
+				getDeleteTimer(),
+				getTitle(),
+				getAccessLevel().getLevel(),
+				isOnlineInt(),
+				isIn7sDungeon() ? 1 : 0,
+				getClanPrivileges(),
+				wantsPeace() ? 1 : 0,
+				getBaseClass(),
+				totalOnlineTime,
+				getPunishLevel().value(),
+				getPunishTimer(),
+				isNoble() ? 1 : 0,
+				getPowerGrade(),
+				getPledgeType(),
+				getLastRecomUpdate(),
+				getLvlJoinedAcademy(),
+				getApprentice(),
+				getSponsor(),
+				getAllianceWithVarkaKetra(),
+				getClanJoinExpiryTime(),
+				getClanCreateExpiryTime(),
+				getName(),
+				getDeathPenaltyBuffLevel(),
+				getObjectId()
+			};
+			
+			// Nothing changed, online time included.
+			if (Arrays.equals(values, _storedCharBase))
+				return;
+			
+			PreparedStatement statement = con.prepareStatement(UPDATE_CHARACTER);
+			for (int i = 0; i < values.length; i++)
+				statement.setObject(i + 1, values[i]);
 			
 			statement.execute();
 			statement.close();
+			
+			_storedCharBase = values;
 		}
 		catch (Exception e)
 		{
@@ -5900,130 +5960,168 @@ public final class L2PcInstance extends L2Playable
 		}
 	}
 	
-	private void storeCharSub()
+	/**
+	 * Update the sub-classes which changed since last store.
+	 * @param con : The connection to use.
+	 */
+	private void storeCharSub(Connection con)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		if (getTotalSubClasses() == 0)
+			return;
+		
+		final List<SubClass> subClasses = new ArrayList<>();
+		for (SubClass subClass : getSubClasses().values())
 		{
-			PreparedStatement statement = con.prepareStatement(UPDATE_CHAR_SUBCLASS);
+			if (!subClass.isStoredInDb())
+				subClasses.add(subClass);
+		}
+		
+		if (subClasses.isEmpty())
+			return;
+		
+		try
+		{
+			// Mark as stored before reading the values : a change made meanwhile marks it again, and is written on next store.
+			for (SubClass subClass : subClasses)
+				subClass.setStoredInDb(true);
 			
-			if (getTotalSubClasses() > 0)
+			PreparedStatement statement = con.prepareStatement(UPDATE_CHAR_SUBCLASS);
+			for (SubClass subClass : subClasses)
 			{
-				for (SubClass subClass : getSubClasses().values())
-				{
-					statement.setLong(1, subClass.getExp());
-					statement.setInt(2, subClass.getSp());
-					statement.setInt(3, subClass.getLevel());
-					statement.setInt(4, subClass.getClassId());
-					statement.setInt(5, getObjectId());
-					statement.setInt(6, subClass.getClassIndex());
-					
-					statement.execute();
-				}
+				statement.setLong(1, subClass.getExp());
+				statement.setInt(2, subClass.getSp());
+				statement.setInt(3, subClass.getLevel());
+				statement.setInt(4, subClass.getClassId());
+				statement.setInt(5, getObjectId());
+				statement.setInt(6, subClass.getClassIndex());
+				statement.addBatch();
 			}
+			statement.executeBatch();
 			statement.close();
 		}
 		catch (Exception e)
 		{
+			// Nothing is known to be written : store them again next time.
+			for (SubClass subClass : subClasses)
+				subClass.setStoredInDb(false);
+			
 			_log.warning("Could not store sub class data for " + getName() + ": " + e);
 		}
 	}
 	
-	private void storeEffect(boolean storeEffects)
+	/**
+	 * Store the effects and the skill reuse delays, if they changed since last store.
+	 * @param con : The connection to use.
+	 * @param storeEffects : If false, only reuse delays are stored.
+	 */
+	private void storeEffect(Connection con, boolean storeEffects)
 	{
 		if (!Config.STORE_SKILL_COOLTIME)
 			return;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final List<Object[]> effects = new ArrayList<>();
+		final List<Integer> storedSkills = new ArrayList<>();
+		
+		// Store all effect data along with calulated remaining reuse delays for matching skills. 'restore_type'= 0.
+		if (storeEffects)
 		{
-			// Delete all current stored effects for char to avoid dupe
-			PreparedStatement statement = con.prepareStatement(DELETE_SKILL_SAVE);
-			
-			statement.setInt(1, getObjectId());
-			statement.setInt(2, getClassIndex());
-			statement.execute();
-			statement.close();
-			
-			int buff_index = 0;
-			
-			final List<Integer> storedSkills = new ArrayList<>();
-			
-			// Store all effect data along with calulated remaining reuse delays for matching skills. 'restore_type'= 0.
-			statement = con.prepareStatement(ADD_SKILL_SAVE);
-			
-			if (storeEffects)
+			for (L2Effect effect : getAllEffects())
 			{
-				for (L2Effect effect : getAllEffects())
+				if (effect == null)
+					continue;
+				
+				switch (effect.getEffectType())
 				{
-					if (effect == null)
-						continue;
-					
-					switch (effect.getEffectType())
-					{
-						case HEAL_OVER_TIME:
-						case COMBAT_POINT_HEAL_OVER_TIME:
-							continue;
-					}
-					
-					L2Skill skill = effect.getSkill();
-					if (storedSkills.contains(skill.getReuseHashCode()))
+					case HEAL_OVER_TIME:
+					case COMBAT_POINT_HEAL_OVER_TIME:
 						continue;
+				}
+				
+				L2Skill skill = effect.getSkill();
+				if (storedSkills.contains(skill.getReuseHashCode()))
+					continue;
+				
+				storedSkills.add(skill.getReuseHashCode());
+				
+				if (!effect.isHerbEffect() && effect.getInUse() && !skill.isToggle())
+				{
+					final TimeStamp t = _reuseTimeStamps.get(skill.getReuseHashCode());
+					final boolean reuse = t != null && t.hasNotPassed();
 					
-					storedSkills.add(skill.getReuseHashCode());
-					
-					if (!effect.isHerbEffect() && effect.getInUse() && !skill.isToggle())
+					effects.add(new Object[]
 					{
-						statement.setInt(1, getObjectId());
-						statement.setInt(2, skill.getId());
-						statement.setInt(3, skill.getLevel());
-						statement.setInt(4, effect.getCount());
-						statement.setInt(5, effect.getTime());
-						
-						if (_reuseTimeStamps.containsKey(skill.getReuseHashCode()))
-						{
-							TimeStamp t = _reuseTimeStamps.get(skill.getReuseHashCode());
-							statement.setLong(6, t.hasNotPassed() ? t.getReuse() : 0);
-							statement.setDouble(7, t.hasNotPassed() ? t.getStamp() : 0);
-						}
-						else
-						{
-							statement.setLong(6, 0);
-							statement.setDouble(7, 0);
-						}
-						
-						statement.setInt(8, 0);
-						statement.setInt(9, getClassIndex());
-						statement.setInt(10, ++buff_index);
-						statement.execute();
-					}
+						skill.getId(),
+						skill.getLevel(),
+						effect.getCount(),
+						effect.getTime(),
+						reuse ? t.getReuse() : 0L,
+						reuse ? t.getStamp() : 0L,
+						0
+					});
 				}
 			}
+		}
+		
+		// Store the reuse delays of remaining skills which lost effect but still under reuse delay. 'restore_type' 1.
+		for (Map.Entry<Integer, TimeStamp> timestampEntry : _reuseTimeStamps.entrySet())
+		{
+			final int hash = timestampEntry.getKey();
+			if (storedSkills.contains(hash))
+				continue;
 			
-			// Store the reuse delays of remaining skills which lost effect but still under reuse delay. 'restore_type' 1.
-			for (Map.Entry<Integer, TimeStamp> timestampEntry : _reuseTimeStamps.entrySet())
+			TimeStamp t = timestampEntry.getValue();
+			if (t != null && t.hasNotPassed())
 			{
-				final int hash = timestampEntry.getKey();
-				if (storedSkills.contains(hash))
-					continue;
+				storedSkills.add(hash);
 				
-				TimeStamp t = timestampEntry.getValue();
-				if (t != null && t.hasNotPassed())
+				effects.add(new Object[]
 				{
-					storedSkills.add(hash);
-					
-					statement.setInt(1, getObjectId());
-					statement.setInt(2, t.getSkillId());
-					statement.setInt(3, t.getSkillLvl());
-					statement.setInt(4, -1);
-					statement.setInt(5, -1);
-					statement.setLong(6, t.getReuse());
-					statement.setDouble(7, t.getStamp());
-					statement.setInt(8, 1);
-					statement.setInt(9, getClassIndex());
-					statement.setInt(10, ++buff_index);
-					statement.execute();
-				}
+					t.getSkillId(),
+					t.getSkillLvl(),
+					-1,
+					-1,
+					t.getReuse(),
+					t.getStamp(),
+					1
+				});
 			}
+		}
+		
+		// Same rows are already stored for this class index.
+		if (_storedEffects != null && _storedEffectsClassIndex == getClassIndex() && Arrays.deepEquals(effects.toArray(), _storedEffects.toArray()))
+			return;
+		
+		try
+		{
+			// Delete all current stored effects for char to avoid dupe
+			PreparedStatement statement = con.prepareStatement(DELETE_SKILL_SAVE);
+			statement.setInt(1, getObjectId());
+			statement.setInt(2, getClassIndex());
+			statement.execute();
+			statement.close();
+			
+			statement = con.prepareStatement(ADD_SKILL_SAVE);
+			
+			int buff_index = 0;
+			for (Object[] effect : effects)
+			{
+				statement.setInt(1, getObjectId());
+				statement.setInt(2, (int) effect[0]);
+				statement.setInt(3, (int) effect[1]);
+				statement.setInt(4, (int) effect[2]);
+				statement.setInt(5, (int) effect[3]);
+				statement.setLong(6, (long) effect[4]);
+				statement.setDouble(7, (long) effect[5]);
+				statement.setInt(8, (int) effect[6]);
+				statement.setInt(9, getClassIndex());
+				statement.setInt(10, ++buff_index);
+				statement.addBatch();
+			}
+			statement.executeBatch();
 			statement.close();
+			
+			_storedEffects = effects;
+			_storedEffectsClassIndex = getClassIndex();
 		}
 		catch (Exception e)
 		{
@@ -6296,6 +6394,10 @@ public final class L2PcInstance extends L2Playable
 			statement.setInt(2, getClassIndex());
 			statement.executeUpdate();
 			statement.close();
+			
+			// Nothing is stored anymore for this class index.
+			_storedEffects = new ArrayList<>();
+			_storedEffectsClassIndex = getClassIndex();
 		}
 		catch (Exception e)
 		{
@@ -6524,6 +6626,8 @@ public final class L2PcInstance extends L2Playable
 		
 		if (_hennaDEX > 5)
 			_hennaDEX = 5;
+		
+		getStat().invalidateStatCache();
 	}
 	
 	/**
@@ -8262,6 +8366,7 @@ public final class L2PcInstance extends L2Playable
 			}
 			
 			// Commit after database INSERT incase exception is thrown.
+			newClass.setStoredInDb(true);
 			getSubClasses().put(newClass.getClassIndex(), newClass);
 			
 			ClassId subTemplate = ClassId.values()[classId];
@@ -8333,6 +8438,9 @@ public final class L2PcInstance extends L2Playable
 				statement.execute();
 				statement.close();
 				
+				if (_storedEffectsClassIndex == classIndex)
+					_storedEffects = null;
+				
 				// Remove all skill info stored for this sub-class.
 				statement = con.prepareStatement(DELETE_CHAR_SKILLS);
 				statement.setInt(1, getObjectId());
@@ -8437,7 +8545,7 @@ public final class L2PcInstance extends L2Playable
 			abortCast();
 			
 			// Stop casting for any player that may be casting a force buff on this l2pcinstance.
-			for (L2Character character : getKnownList().getKnownType(L2Character.class))
+			for (L2Character character : getKnownList().getKnownCharacters())
 				if (character.getFusionSkill() != null && character.getFusionSkill().getTarget() == this)
 					character.abortCast();
 			
@@ -9042,7 +9150,7 @@ public final class L2PcInstance extends L2Playable
 			stopAllTimers();
 			
 			// Cancel the cast of eventual fusion skill users on this target.
-			for (L2Character character : getKnownList().getKnownType(L2Character.class))
+			for (L2Character character : getKnownList().getKnownCharacters())
 				if (character.getFusionSkill() != null && character.getFusionSkill().getTarget() == this)
 					character.abortCast();
 			
@@ -10597,7 +10705,7 @@ public final class L2PcInstance extends L2Playable
 	@Override
 	public void broadcastRelationsChanges()
 	{
-		for (L2PcInstance player : getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : getKnownList().getKnownPlayers())
 		{
 			player.sendPacket(new RelationChanged(this, getRelation(player), isAutoAttackable(player)));
 			if (getPet() != null)
@@ -10608,8 +10716,9 @@ public final class L2PcInstance extends L2Playable
 	@Override
 	public void sendInfo(L2PcInstance activeChar)
 	{
-		if (isInBoat())
-			getPosition().setWorldPosition(getBoat().getPosition().getWorldPosition());
+		// Follow the boat through setXYZ, so the world region and cell are updated too.
+		if (isInBoat() && isVisible())
+			getPosition().setXYZ(getBoat().getX(), getBoat().getY(), getBoat().getZ());
 		
 		if (getPoly().isMorphed())
 			activeChar.sendPacket(new AbstractNpcInfo.PcMorphInfo(this, getPoly().getNpcTemplate()));
@@ -163,7 +163,7 @@ public class L2SummonInstance extends L2Summon
 			return false;
 		
 		// Send aggro of mobs to summoner.
-		for (L2Attackable mob : getKnownList().getKnownType(L2Attackable.class))
+		for (L2Attackable mob : getKnownList().getKnownAttackables())
 		{
 			if (mob.isDead())
 				continue;
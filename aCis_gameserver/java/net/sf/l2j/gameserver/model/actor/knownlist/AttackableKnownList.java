@@ -20,7 +20,6 @@ import net.sf.l2j.gameserver.model.actor.L2Attackable;
 import net.sf.l2j.gameserver.model.actor.L2Character;
 import net.sf.l2j.gameserver.model.actor.L2Playable;
 import net.sf.l2j.gameserver.model.actor.instance.L2NpcInstance;
-import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 
 public class AttackableKnownList extends NpcKnownList
 {
@@ -43,7 +42,7 @@ public class AttackableKnownList extends NpcKnownList
 			attackable.getAggroList().remove(object);
 		
 		// check AI for players and set AI to idle
-		if (attackable.hasAI() && getKnownType(L2PcInstance.class).isEmpty())
+		if (attackable.hasAI() && getKnownPlayers().isEmpty())
 			attackable.getAI().setIntention(CtrlIntention.IDLE, null);
 		
 		return true;
@@ -63,4 +62,13 @@ public class AttackableKnownList extends NpcKnownList
 		
 		return Math.max(300, Math.max(attackable.getAggroRange(), attackable.getClanRange()));
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		// get attackable
+		final L2Attackable attackable = (L2Attackable) _activeObject;
+		
+		return Math.max(super.getDistanceToScan(), Math.max(attackable.getAggroRange(), attackable.getClanRange()));
+	}
 }
\ No newline at end of file
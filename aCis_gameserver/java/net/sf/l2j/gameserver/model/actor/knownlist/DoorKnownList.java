@@ -49,4 +49,10 @@ public class DoorKnownList extends CharKnownList
 		
 		return 3000;
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		return 600;
+	}
 }
\ No newline at end of file
@@ -67,7 +67,7 @@ public class FriendlyMobKnownList extends AttackableKnownList
 				monster.setTarget(null);
 		}
 		
-		if (monster.isVisible() && getKnownType(L2PcInstance.class).isEmpty())
+		if (monster.isVisible() && getKnownPlayers().isEmpty())
 		{
 			monster.clearAggroList();
 			if (monster.hasAI())
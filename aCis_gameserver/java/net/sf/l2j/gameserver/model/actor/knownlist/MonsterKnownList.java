@@ -66,7 +66,7 @@ public class MonsterKnownList extends AttackableKnownList
 			monster.getAI().notifyEvent(CtrlEvent.EVT_FORGET_OBJECT, object);
 		
 		// clear agro list
-		if (monster.isVisible() && getKnownType(L2PcInstance.class).isEmpty())
+		if (monster.isVisible() && getKnownPlayers().isEmpty())
 			monster.clearAggroList();
 		
 		return true;
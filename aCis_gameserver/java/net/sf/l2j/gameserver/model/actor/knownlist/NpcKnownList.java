@@ -54,4 +54,14 @@ public class NpcKnownList extends CharKnownList
 		// distance to watch + 50%
 		return (int) Math.round(1.5 * getDistanceToWatchObject(object));
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		// known list owner if L2FestivalGuide, use extended range
+		if (_activeObject instanceof L2FestivalGuideInstance)
+			return 4000;
+		
+		return 1500;
+	}
 }
\ No newline at end of file
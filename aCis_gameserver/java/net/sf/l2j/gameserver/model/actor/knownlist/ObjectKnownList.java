@@ -19,19 +19,39 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import net.sf.l2j.gameserver.model.L2Object;
+import net.sf.l2j.gameserver.model.L2World;
+import net.sf.l2j.gameserver.model.actor.L2Attackable;
+import net.sf.l2j.gameserver.model.actor.L2Character;
+import net.sf.l2j.gameserver.model.actor.L2Npc;
+import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.util.Util;
 
 public class ObjectKnownList
 {
+	// The highest distance a player watches an object from, vehicles excepted.
+	public static final int PLAYER_DISTANCE_TO_WATCH = 3600;
+	
 	protected final L2Object _activeObject;
 	protected final Map<Integer, L2Object> _knownObjects;
 	
+	// Typed views of _knownObjects, kept up to date on add and remove.
+	private final Map<Integer, L2Character> _knownCharacters;
+	private final Map<Integer, L2PcInstance> _knownPlayers;
+	private final Map<Integer, L2Npc> _knownNpcs;
+	private final Map<Integer, L2Attackable> _knownAttackables;
+	
 	public ObjectKnownList(L2Object activeObject)
 	{
 		_activeObject = activeObject;
 		_knownObjects = new ConcurrentHashMap<>();
+		
+		_knownCharacters = new ConcurrentHashMap<>();
+		_knownPlayers = new ConcurrentHashMap<>();
+		_knownNpcs = new ConcurrentHashMap<>();
+		_knownAttackables = new ConcurrentHashMap<>();
 	}
 	
 	/**
@@ -51,7 +71,28 @@ public class ObjectKnownList
 			return false;
 		
 		// add object to known list and check if object already existed there
-		return _knownObjects.put(object.getObjectId(), object) == null;
+		final Integer objectId = object.getObjectId();
+		synchronized (_knownObjects)
+		{
+			if (_knownObjects.put(objectId, object) != null)
+				return false;
+			
+			if (object instanceof L2Character)
+			{
+				_knownCharacters.put(objectId, (L2Character) object);
+				
+				if (object instanceof L2PcInstance)
+					_knownPlayers.put(objectId, (L2PcInstance) object);
+				else if (object instanceof L2Npc)
+				{
+					_knownNpcs.put(objectId, (L2Npc) object);
+					
+					if (object instanceof L2Attackable)
+						_knownAttackables.put(objectId, (L2Attackable) object);
+				}
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -67,7 +108,21 @@ public class ObjectKnownList
 			return false;
 		
 		// remove object from known list and check if object existed in there
-		return _knownObjects.remove(object.getObjectId()) != null;
+		final Integer objectId = object.getObjectId();
+		synchronized (_knownObjects)
+		{
+			if (_knownObjects.remove(objectId) == null)
+				return false;
+			
+			if (object instanceof L2Character)
+			{
+				_knownCharacters.remove(objectId);
+				_knownPlayers.remove(objectId);
+				_knownNpcs.remove(objectId);
+				_knownAttackables.remove(objectId);
+			}
+		}
+		return true;
 	}
 	
 	/**
@@ -84,12 +139,55 @@ public class ObjectKnownList
 		}
 	}
 	
+	/**
+	 * Update the known list from the surroundings, and surrounding known lists with the active object. Called when the active object spawns or crosses a {@link net.sf.l2j.gameserver.model.L2WorldCell} border, so idle objects don't have to be swept.
+	 * <ul>
+	 * <li>Forget objects beyond distance to forget, and make known objects forget the active object on the same rule.</li>
+	 * <li>Add objects inside distance to scan, and add the active object to their known lists.</li>
+	 * <li>Players watch from farther, so they are scanned once more with distance to scan players.</li>
+	 * </ul>
+	 */
+	public final void updateKnownObjects()
+	{
+		for (L2Object object : _knownObjects.values())
+		{
+			final ObjectKnownList knownList = object.getKnownList();
+			if (knownList != null && knownList.knowsObject(_activeObject) && !Util.checkIfInShortRadius(knownList.getDistanceToForgetObject(_activeObject), object, _activeObject, true))
+				knownList.removeKnownObject(_activeObject);
+		}
+		forgetObjects();
+		
+		final int radius = getDistanceToScan();
+		if (radius > 0)
+			L2World.forEachVisibleObject(_activeObject, radius, this::addKnownObjectBothWays);
+		
+		final int playerRadius = getDistanceToScanPlayers();
+		if (playerRadius > radius)
+			L2World.forEachVisibleObject(_activeObject, L2PcInstance.class, playerRadius, this::addKnownObjectBothWays);
+	}
+	
+	private void addKnownObjectBothWays(L2Object object)
+	{
+		addKnownObject(object);
+		
+		if (object.getKnownList() != null)
+			object.getKnownList().addKnownObject(_activeObject);
+	}
+	
 	/**
 	 * Remove all objects from known list.
 	 */
 	public void removeAllKnownObjects()
 	{
-		_knownObjects.clear();
+		synchronized (_knownObjects)
+		{
+			_knownObjects.clear();
+			
+			_knownCharacters.clear();
+			_knownPlayers.clear();
+			_knownNpcs.clear();
+			_knownAttackables.clear();
+		}
 	}
 	
 	/**
@@ -116,25 +214,55 @@ public class ObjectKnownList
 		return _knownObjects.values();
 	}
 	
+	/**
+	 * Return the known characters, without copy.
+	 * @return Collection<L2Character> : The known list of {@link L2Character}.
+	 */
+	public final Collection<L2Character> getKnownCharacters()
+	{
+		return _knownCharacters.values();
+	}
+	
+	/**
+	 * Return the known players, without copy.
+	 * @return Collection<L2PcInstance> : The known list of {@link L2PcInstance}.
+	 */
+	public final Collection<L2PcInstance> getKnownPlayers()
+	{
+		return _knownPlayers.values();
+	}
+	
+	/**
+	 * Return the known NPCs, without copy.
+	 * @return Collection<L2Npc> : The known list of {@link L2Npc}.
+	 */
+	public final Collection<L2Npc> getKnownNpcs()
+	{
+		return _knownNpcs.values();
+	}
+	
+	/**
+	 * Return the known attackables, without copy.
+	 * @return Collection<L2Attackable> : The known list of {@link L2Attackable}.
+	 */
+	public final Collection<L2Attackable> getKnownAttackables()
+	{
+		return _knownAttackables.values();
+	}
+	
 	/**
 	 * Return the known list of given object type.
 	 * @param <A> : Object type must be instance of {@link L2Object}.
 	 * @param type : Class specifying object type.
 	 * @return List<A> : Known list of given object type.
 	 */
-	@SuppressWarnings("unchecked")
 	public final <A> List<A> getKnownType(Class<A> type)
 	{
 		// create result list
-		List<A> result = new ArrayList<>();
+		final List<A> result = new ArrayList<>();
 		
-		// for all objects in known list
-		for (L2Object obj : _knownObjects.values())
-		{
-			// object type is correct, add to the list
-			if (type.isAssignableFrom(obj.getClass()))
-				result.add((A) obj);
-		}
+		// add all objects of given type to the list
+		forEachKnown(type, result::add);
 		
 		// return result
 		return result;
@@ -147,24 +275,71 @@ public class ObjectKnownList
 	 * @param radius : Radius to in which object must be located.
 	 * @return List<A> : Known list of given object type.
 	 */
-	@SuppressWarnings("unchecked")
 	public final <A> List<A> getKnownTypeInRadius(Class<A> type, int radius)
 	{
 		// create result list
-		List<A> result = new ArrayList<>();
+		final List<A> result = new ArrayList<>();
 		
-		// for all objects in known list
-		for (L2Object obj : _knownObjects.values())
-		{
-			// object type is correct and object in given radius, add to the list
-			if (type.isAssignableFrom(obj.getClass()) && Util.checkIfInRange(radius, _activeObject, obj, true))
-				result.add((A) obj);
-		}
+		// add all objects of given type in given radius to the list
+		forEachKnown(type, radius, result::add);
 		
 		// return result
 		return result;
 	}
 	
+	/**
+	 * Run the action on each known object of given type, without building any list.
+	 * @param <A> : Object type must be instance of {@link L2Object}.
+	 * @param type : Class specifying object type.
+	 * @param action : The action to run.
+	 */
+	public final <A> void forEachKnown(Class<A> type, Consumer<? super A> action)
+	{
+		forEachKnown(type, -1, action);
+	}
+	
+	/**
+	 * Run the action on each known object of given type within specified radius, without building any list.
+	 * @param <A> : Object type must be instance of {@link L2Object}.
+	 * @param type : Class specifying object type.
+	 * @param radius : Radius to in which object must be located, or -1 for no range check.
+	 * @param action : The action to run.
+	 */
+	@SuppressWarnings("unchecked")
+	public final <A> void forEachKnown(Class<A> type, int radius, Consumer<? super A> action)
+	{
+		// typed views hold objects of their own type, no check is needed for these types
+		final boolean checkType = type != L2Object.class && type != L2Character.class && type != L2PcInstance.class && type != L2Npc.class && type != L2Attackable.class;
+		
+		for (L2Object obj : getKnownView(type).values())
+		{
+			// object type is correct and object in given radius, run the action
+			if ((!checkType || type.isInstance(obj)) && (radius < 0 || Util.checkIfInRange(radius, _activeObject, obj, true)))
+				action.accept((A) obj);
+		}
+	}
+	
+	/**
+	 * @param type : Class specifying object type.
+	 * @return Map : The smallest view of _knownObjects containing all objects of given type.
+	 */
+	private Map<Integer, ? extends L2Object> getKnownView(Class<?> type)
+	{
+		if (type == L2PcInstance.class)
+			return _knownPlayers;
+		
+		if (L2Attackable.class.isAssignableFrom(type))
+			return _knownAttackables;
+		
+		if (L2Npc.class.isAssignableFrom(type))
+			return _knownNpcs;
+		
+		if (L2Character.class.isAssignableFrom(type))
+			return _knownCharacters;
+		
+		return _knownObjects;
+	}
+	
 	/**
 	 * Returns the distance to watch object, aka distance to add object to known list.<br>
 	 * <b>Is overridden by children in most cases.</b>
@@ -186,4 +361,23 @@ public class ObjectKnownList
 	{
 		return 0;
 	}
+	
+	/**
+	 * Returns the distance to scan once the active object moved, aka the highest distance to watch objects from the active object, or the active object from them.<br>
+	 * <b>Is overridden by children in most cases.</b>
+	 * @return int : Distance.
+	 */
+	public int getDistanceToScan()
+	{
+		return 0;
+	}
+	
+	/**
+	 * Returns the distance to scan for players once the active object moved, aka the highest distance a player watches the active object from.
+	 * @return int : Distance.
+	 */
+	public int getDistanceToScanPlayers()
+	{
+		return PLAYER_DISTANCE_TO_WATCH;
+	}
 }
\ No newline at end of file
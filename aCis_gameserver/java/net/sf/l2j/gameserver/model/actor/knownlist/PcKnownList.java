@@ -88,7 +88,7 @@ public class PcKnownList extends PlayableKnownList
 		if (object instanceof L2Vehicle)
 			return 8000;
 		
-		return Math.max(1800, 3600 - (_knownObjects.size() * 20));
+		return Math.max(1800, PLAYER_DISTANCE_TO_WATCH - (_knownObjects.size() * 20));
 	}
 	
 	@Override
@@ -130,4 +130,11 @@ public class PcKnownList extends PlayableKnownList
 			}
 		}
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		// players are part of the scan, no need of a second one
+		return PLAYER_DISTANCE_TO_WATCH;
+	}
 }
\ No newline at end of file
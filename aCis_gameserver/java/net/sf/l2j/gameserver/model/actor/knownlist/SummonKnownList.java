@@ -42,4 +42,10 @@ public class SummonKnownList extends PlayableKnownList
 		
 		return 3000;
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		return 1500;
+	}
 }
\ No newline at end of file
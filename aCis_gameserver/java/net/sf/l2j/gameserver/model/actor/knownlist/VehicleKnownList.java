@@ -42,4 +42,16 @@ public class VehicleKnownList extends CharKnownList
 		
 		return object.getKnownList().getDistanceToForgetObject(_activeObject);
 	}
+	
+	@Override
+	public int getDistanceToScan()
+	{
+		return 0;
+	}
+	
+	@Override
+	public int getDistanceToScanPlayers()
+	{
+		return 8000;
+	}
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import java.util.logging.Logger;
 
 import net.sf.l2j.gameserver.model.L2Object;
 import net.sf.l2j.gameserver.model.L2World;
+import net.sf.l2j.gameserver.model.L2WorldCell;
 import net.sf.l2j.gameserver.model.L2WorldRegion;
 import net.sf.l2j.gameserver.model.Location;
 import net.sf.l2j.gameserver.model.actor.L2Character;
@@ -29,6 +30,7 @@ public class ObjectPosition
 	private final L2Object _activeObject;
 	private Location _worldPosition;
 	private L2WorldRegion _worldRegion; // Object localization : Used for items/chars that are seen in the world
+	private L2WorldCell _worldCell; // Finer localization inside _worldRegion, handled by L2WorldRegion
 	
 	public ObjectPosition(L2Object activeObject)
 	{
@@ -45,18 +47,27 @@ public class ObjectPosition
 	public final void setXYZ(int x, int y, int z)
 	{
 		assert getWorldRegion() != null;
+		final L2WorldCell oldCell = _worldCell;
 		setWorldPosition(x, y, z);
 		
 		try
 		{
-			if (L2World.getInstance().getRegion(getWorldPosition()) != getWorldRegion())
+			final L2WorldRegion region = L2World.getInstance().getRegion(getWorldPosition());
+			if (region != getWorldRegion())
 				updateWorldRegion();
+			else if (_worldCell != null)
+				region.updateCell(getActiveObject());
 		}
 		catch (Exception e)
 		{
 			_log.warning("Object Id at bad coords: (x: " + getX() + ", y: " + getY() + ", z: " + getZ() + ").");
 			badCoords();
+			return;
 		}
+		
+		// Crossing a cell border is the only time a L2Character needs to refresh its known list.
+		if (oldCell != null && _worldCell != null && oldCell != _worldCell && getActiveObject() instanceof L2Character)
+			getActiveObject().getKnownList().updateKnownObjects();
 	}
 	
 	/**
@@ -178,4 +189,14 @@ public class ObjectPosition
 		
 		_worldRegion = value;
 	}
+	
+	public final L2WorldCell getWorldCell()
+	{
+		return _worldCell;
+	}
+	
+	public final void setWorldCell(L2WorldCell value)
+	{
+		_worldCell = value;
+	}
 }
\ No newline at end of file
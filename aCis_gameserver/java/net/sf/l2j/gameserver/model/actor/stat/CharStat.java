@@ -14,21 +14,44 @@
  */
 package net.sf.l2j.gameserver.model.actor.stat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 import net.sf.l2j.Config;
 import net.sf.l2j.gameserver.model.L2Skill;
 import net.sf.l2j.gameserver.model.actor.L2Character;
 import net.sf.l2j.gameserver.skills.Calculator;
 import net.sf.l2j.gameserver.skills.Env;
 import net.sf.l2j.gameserver.skills.Stats;
+import net.sf.l2j.gameserver.skills.basefuncs.Func;
 
 public class CharStat
 {
+	// Cache hits and misses, per Stats entry.
+	private static final LongAdder[] _cacheHits = new LongAdder[Stats.NUM_STATS];
+	private static final LongAdder[] _cacheMisses = new LongAdder[Stats.NUM_STATS];
+	
+	static
+	{
+		for (int i = 0; i < Stats.NUM_STATS; i++)
+		{
+			_cacheHits[i] = new LongAdder();
+			_cacheMisses[i] = new LongAdder();
+		}
+	}
+	
 	private final L2Character _activeChar;
 	
 	private long _exp = 0;
 	private int _sp = 0;
 	private byte _level = 1;
 	
+	// Target and skill independent values, valid as long as their version is the current one.
+	private final CachedStat[] _cachedStats = new CachedStat[Stats.NUM_STATS];
+	private final AtomicInteger _cacheVersion = new AtomicInteger();
+	
 	public CharStat(L2Character activeChar)
 	{
 		_activeChar = activeChar;
@@ -59,10 +82,34 @@ public class CharStat
 		
 		final int id = stat.ordinal();
 		
+		// The version is read before the calculator ; a concurrent invalidation makes the stored value stale at once.
+		final int version = _cacheVersion.get();
+		
 		final Calculator c = _activeChar.getCalculators()[id];
 		if (c == null || c.size() == 0)
 			return init;
 		
+		// Target and skill independent calculation : use the cached value if still valid.
+		if (target == null && skill == null && c.isCacheable())
+		{
+			final CachedStat cached = _cachedStats[id];
+			if (cached != null && cached._version == version && Double.compare(cached._init, init) == 0)
+			{
+				_cacheHits[id].increment();
+				return cached._value;
+			}
+			
+			_cacheMisses[id].increment();
+			
+			final double value = calc(stat, c, init, null, null);
+			_cachedStats[id] = new CachedStat(version, init, value);
+			return value;
+		}
+		return calc(stat, c, init, target, skill);
+	}
+	
+	private double calc(Stats stat, Calculator c, double init, L2Character target, L2Skill skill)
+	{
 		// Create and init an Env object to pass parameters to the Calculator
 		final Env env = new Env();
 		env.setCharacter(_activeChar);
@@ -560,10 +607,52 @@ public class CharStat
 	public void setLevel(byte value)
 	{
 		_level = value;
+		
+		invalidateStatCache();
+	}
+	
+	/**
+	 * Drop all cached stat values. Must be called after any change of a value read by a cacheable {@link Func} : the calculators content, the level, the template, the equipped items or the hennas.
+	 */
+	public final void invalidateStatCache()
+	{
+		_cacheVersion.incrementAndGet();
+	}
+	
+	/**
+	 * @return List<String> : The stat cache hits and misses of all characters, for each Stats entry which has been requested at least once.
+	 */
+	public static final List<String> getStatCacheInfo()
+	{
+		final List<String> info = new ArrayList<>();
+		for (Stats stat : Stats.values())
+		{
+			final long hits = _cacheHits[stat.ordinal()].sum();
+			final long misses = _cacheMisses[stat.ordinal()].sum();
+			if (hits + misses == 0)
+				continue;
+			
+			info.add(stat + ": " + hits + " hits, " + misses + " misses (" + (hits * 100 / (hits + misses)) + "%)");
+		}
+		return info;
 	}
 	
 	public L2Character getActiveChar()
 	{
 		return _activeChar;
 	}
+	
+	private static final class CachedStat
+	{
+		final int _version;
+		final double _init;
+		final double _value;
+		
+		CachedStat(int version, double init, double value)
+		{
+			_version = version;
+			_init = init;
+			_value = value;
+		}
+	}
 }
\ No newline at end of file
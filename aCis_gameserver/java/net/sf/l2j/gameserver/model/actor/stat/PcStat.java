@@ -239,7 +239,10 @@ public class PcStat extends PlayableStat
 			value = Experience.MAX_LEVEL - 1;
 		
 		if (getActiveChar().isSubClassActive())
+		{
 			getActiveChar().getSubClasses().get(getActiveChar().getClassIndex()).setLevel(value);
+			invalidateStatCache();
+		}
 		else
 			super.setLevel(value);
 	}
@@ -27,6 +27,8 @@ public final class SubClass
 	private byte _level = 40;
 	private int _classIndex = 1;
 	
+	private volatile boolean _storedInDb = true; // if DB data is up-to-date.
+	
 	public SubClass(int classId, long exp, int sp, byte level, int classIndex)
 	{
 		_class = PlayerClass.values()[classId];
@@ -82,6 +84,7 @@ public final class SubClass
 	public void setClassId(int classId)
 	{
 		_class = PlayerClass.values()[classId];
+		_storedInDb = false;
 	}
 	
 	public void setExp(long expValue)
@@ -90,11 +93,13 @@ public final class SubClass
 			expValue = Experience.LEVEL[Experience.MAX_LEVEL];
 		
 		_exp = expValue;
+		_storedInDb = false;
 	}
 	
 	public void setSp(int spValue)
 	{
 		_sp = spValue;
+		_storedInDb = false;
 	}
 	
 	public void setClassIndex(int classIndex)
@@ -110,5 +115,19 @@ public final class SubClass
 			levelValue = 40;
 		
 		_level = levelValue;
+		_storedInDb = false;
+	}
+	
+	/**
+	 * @return true if exp, sp, level and class are the ones stored in database.
+	 */
+	public boolean isStoredInDb()
+	{
+		return _storedInDb;
+	}
+	
+	public void setStoredInDb(boolean storedInDb)
+	{
+		_storedInDb = storedInDb;
 	}
 }
\ No newline at end of file
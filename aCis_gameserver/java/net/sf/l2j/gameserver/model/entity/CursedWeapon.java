@@ -39,6 +39,7 @@ import net.sf.l2j.gameserver.network.serverpackets.Earthquake;
 import net.sf.l2j.gameserver.network.serverpackets.ExRedSky;
 import net.sf.l2j.gameserver.network.serverpackets.SystemMessage;
 import net.sf.l2j.gameserver.network.serverpackets.UserInfo;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.util.Broadcast;
 import net.sf.l2j.util.Rnd;
 
@@ -135,6 +136,9 @@ public class CursedWeapon
 			{
 				_log.info(_name + " being removed offline.");
 				
+				// Pending item changes must be written first.
+				ItemsUpdateTaskManager.getInstance().flush();
+				
 				try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 				{
 					// Delete the item
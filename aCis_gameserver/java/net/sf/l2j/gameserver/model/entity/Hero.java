@@ -52,6 +52,7 @@ import net.sf.l2j.gameserver.network.serverpackets.NpcHtmlMessage;
 import net.sf.l2j.gameserver.network.serverpackets.PledgeShowInfoUpdate;
 import net.sf.l2j.gameserver.network.serverpackets.SocialAction;
 import net.sf.l2j.gameserver.network.serverpackets.SystemMessage;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.templates.StatsSet;
 import net.sf.l2j.util.StringUtil;
 
@@ -859,20 +860,17 @@ public class Hero
 	
 	public void setDiaryData(int charId, int action, int param)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		final long time = System.currentTimeMillis();
+		L2DatabaseFactory.getInstance().execute("Hero.setDiaryData", charId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement(UPDATE_DIARIES);
 			statement.setInt(1, charId);
-			statement.setLong(2, System.currentTimeMillis());
+			statement.setLong(2, time);
 			statement.setInt(3, action);
 			statement.setInt(4, param);
 			statement.execute();
 			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.SEVERE, "Hero: SQL exception while saving DiaryData.", e);
-		}
+		});
 	}
 	
 	/**
@@ -891,25 +889,25 @@ public class Hero
 	 */
 	public void saveHeroMessage(int charId)
 	{
-		if (_heroMessage.get(charId) == null)
+		final String message = _heroMessage.get(charId);
+		if (message == null)
 			return;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("Hero.saveHeroMessage", charId, con ->
 		{
 			PreparedStatement statement = con.prepareStatement("UPDATE heroes SET message=? WHERE char_id=?;");
-			statement.setString(1, _heroMessage.get(charId));
+			statement.setString(1, message);
 			statement.setInt(2, charId);
 			statement.execute();
 			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.SEVERE, "Hero: SQL exception while saving HeroMessage.", e);
-		}
+		});
 	}
 	
 	private static void deleteItemsInDb()
 	{
+		// Pending item changes must be written first.
+		ItemsUpdateTaskManager.getInstance().flush();
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement(DELETE_ITEMS);
@@ -57,6 +57,7 @@ import net.sf.l2j.gameserver.network.serverpackets.NpcHtmlMessage;
 import net.sf.l2j.gameserver.network.serverpackets.SpawnItem;
 import net.sf.l2j.gameserver.skills.basefuncs.Func;
 import net.sf.l2j.gameserver.taskmanager.ItemsOnGroundTaskManager;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 
 /**
  * This class manages items.
@@ -111,6 +112,17 @@ public final class ItemInstance extends L2Object
 	
 	private boolean _destroyProtected;
 	
+	public static final String INSERT_ITEM = "INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+	public static final String UPDATE_ITEM = "UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?";
+	public static final String DELETE_ITEM = "DELETE FROM items WHERE object_id=?";
+	public static final String DELETE_AUGMENTATION = "DELETE FROM augmentations WHERE item_id = ?";
+	
+	// Database operations, see addToBatch.
+	public static final int DB_NONE = 0;
+	public static final int DB_INSERT = 1;
+	public static final int DB_UPDATE = 2;
+	public static final int DB_DELETE = 3;
+	
 	public static final int UNCHANGED = 0;
 	public static final int ADDED = 1;
 	public static final int MODIFIED = 2;
@@ -647,6 +659,22 @@ public final class ItemInstance extends L2Object
 		
 		_enchantLevel = enchantLevel;
 		_storedInDb = false;
+		
+		// Enchant of an equipped item is part of its owner stats.
+		if (isEquipped())
+		{
+			final L2Object owner = L2World.getInstance().findObject(getOwnerId());
+			if (owner instanceof L2PcInstance)
+			{
+				if (_loc == ItemLocation.PET_EQUIP)
+				{
+					if (((L2PcInstance) owner).getPet() != null)
+						((L2PcInstance) owner).getPet().getStat().invalidateStatCache();
+				}
+				else
+					((L2PcInstance) owner).getStat().invalidateStatCache();
+			}
+		}
 	}
 	
 	/**
@@ -677,7 +705,7 @@ public final class ItemInstance extends L2Object
 			return false;
 		
 		_augmentation = augmentation;
-		updateItemAttributes(null);
+		L2DatabaseFactory.getInstance().execute("ItemInstance.setAugmentation", getOwnerId(), con -> updateItemAttributes(con, augmentation));
 		return true;
 	}
 	
@@ -691,17 +719,13 @@ public final class ItemInstance extends L2Object
 		
 		_augmentation = null;
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		L2DatabaseFactory.getInstance().execute("ItemInstance.removeAugmentation", getOwnerId(), con ->
 		{
-			PreparedStatement statement = con.prepareStatement("DELETE FROM augmentations WHERE item_id = ?");
+			PreparedStatement statement = con.prepareStatement(DELETE_AUGMENTATION);
 			statement.setInt(1, getObjectId());
 			statement.executeUpdate();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.SEVERE, "Could not remove augmentation for item: " + this + " from DB: ", e);
-		}
+		});
 	}
 	
 	private void restoreAttributes()
@@ -728,39 +752,53 @@ public final class ItemInstance extends L2Object
 		}
 	}
 	
-	private void updateItemAttributes(Connection pooledCon)
+	/**
+	 * Stores the augmentation, on a connection of its own.
+	 */
+	public void updateItemAttributes()
 	{
-		try (Connection con = pooledCon == null ? L2DatabaseFactory.getInstance().getConnection() : pooledCon)
+		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
-			PreparedStatement statement = con.prepareStatement("REPLACE INTO augmentations VALUES(?,?,?,?)");
-			statement.setInt(1, getObjectId());
-			if (_augmentation == null)
+			updateItemAttributes(con, _augmentation);
+		}
+		catch (SQLException e)
+		{
+			_log.log(Level.SEVERE, "Could not update attributes for item: " + this + " from DB: ", e);
+		}
+	}
+	
+	/**
+	 * Stores the augmentation, on a connection owned by the caller.
+	 * @param con : The connection to use, left open.
+	 * @param augmentation : The augmentation to store, null for none.
+	 * @throws SQLException
+	 */
+	private void updateItemAttributes(Connection con, L2Augmentation augmentation) throws SQLException
+	{
+		PreparedStatement statement = con.prepareStatement("REPLACE INTO augmentations VALUES(?,?,?,?)");
+		statement.setInt(1, getObjectId());
+		if (augmentation == null)
+		{
+			statement.setInt(2, -1);
+			statement.setInt(3, -1);
+			statement.setInt(4, -1);
+		}
+		else
+		{
+			statement.setInt(2, augmentation.getAttributes());
+			if (augmentation.getSkill() == null)
 			{
-				statement.setInt(2, -1);
-				statement.setInt(3, -1);
-				statement.setInt(4, -1);
+				statement.setInt(3, 0);
+				statement.setInt(4, 0);
 			}
 			else
 			{
-				statement.setInt(2, _augmentation.getAttributes());
-				if (_augmentation.getSkill() == null)
-				{
-					statement.setInt(3, 0);
-					statement.setInt(4, 0);
-				}
-				else
-				{
-					statement.setInt(3, _augmentation.getSkill().getId());
-					statement.setInt(4, _augmentation.getSkill().getLevel());
-				}
+				statement.setInt(3, augmentation.getSkill().getId());
+				statement.setInt(4, augmentation.getSkill().getLevel());
 			}
-			statement.executeUpdate();
-			statement.close();
-		}
-		catch (SQLException e)
-		{
-			_log.log(Level.SEVERE, "Could not update attributes for item: " + this + " from DB: ", e);
 		}
+		statement.executeUpdate();
+		statement.close();
 	}
 	
 	/**
@@ -826,6 +864,18 @@ public final class ItemInstance extends L2Object
 	 * </UL>
 	 */
 	public void updateDatabase()
+	{
+		// Write-behind is enabled : the item is written by the next batch.
+		if (ItemsUpdateTaskManager.getInstance().add(this))
+			return;
+		
+		updateDatabaseNow();
+	}
+	
+	/**
+	 * Same as {@link #updateDatabase()}, but the item is written at once, on the current thread.
+	 */
+	public void updateDatabaseNow()
 	{
 		_dbLock.lock();
 		
@@ -833,14 +883,14 @@ public final class ItemInstance extends L2Object
 		{
 			if (_existsInDb)
 			{
-				if (_ownerId == 0 || _loc == ItemLocation.VOID || (getCount() == 0 && _loc != ItemLocation.LEASE))
+				if (isRemovedFromDb())
 					removeFromDb();
 				else
 					updateInDb();
 			}
 			else
 			{
-				if (_ownerId == 0 || _loc == ItemLocation.VOID || (getCount() == 0 && _loc != ItemLocation.LEASE))
+				if (isRemovedFromDb())
 					return;
 				
 				insertIntoDb();
@@ -852,6 +902,95 @@ public final class ItemInstance extends L2Object
 		}
 	}
 	
+	/**
+	 * Add the database operation needed by this item to the matching batch of {@link ItemsUpdateTaskManager}, and consider it as done.
+	 * @param insert : The batch of {@link #INSERT_ITEM}.
+	 * @param update : The batch of {@link #UPDATE_ITEM}.
+	 * @param delete : The batch of {@link #DELETE_ITEM}.
+	 * @return the operation added to a batch, or DB_NONE if the database is already up-to-date.
+	 * @throws SQLException
+	 */
+	public int addToBatch(PreparedStatement insert, PreparedStatement update, PreparedStatement delete) throws SQLException
+	{
+		_dbLock.lock();
+		
+		try
+		{
+			if (_existsInDb)
+			{
+				if (isRemovedFromDb())
+				{
+					delete.setInt(1, getObjectId());
+					delete.addBatch();
+					_existsInDb = false;
+					_storedInDb = false;
+					return DB_DELETE;
+				}
+				
+				if (_storedInDb)
+					return DB_NONE;
+				
+				setUpdateParameters(update);
+				update.addBatch();
+				_storedInDb = true;
+				return DB_UPDATE;
+			}
+			
+			if (isRemovedFromDb())
+				return DB_NONE;
+			
+			setInsertParameters(insert);
+			insert.addBatch();
+			_existsInDb = true;
+			_storedInDb = true;
+			return DB_INSERT;
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * Give back the item the database state it had before {@link #addToBatch}, the batch having failed.
+	 * @param operation : The operation returned by addToBatch.
+	 */
+	public void cancelBatch(int operation)
+	{
+		_dbLock.lock();
+		
+		try
+		{
+			switch (operation)
+			{
+				case DB_INSERT:
+					_existsInDb = false;
+					_storedInDb = false;
+					break;
+				
+				case DB_UPDATE:
+					_storedInDb = false;
+					break;
+				
+				case DB_DELETE:
+					_existsInDb = true;
+					break;
+			}
+		}
+		finally
+		{
+			_dbLock.unlock();
+		}
+	}
+	
+	/**
+	 * @return true if the item must not exist in database : it has no owner, no location or a null quantity.
+	 */
+	private boolean isRemovedFromDb()
+	{
+		return _ownerId == 0 || _loc == ItemLocation.VOID || (getCount() == 0 && _loc != ItemLocation.LEASE);
+	}
+	
 	/**
 	 * @param ownerId : objectID of the owner.
 	 * @param rs : the ResultSet of the item.
@@ -1030,17 +1169,8 @@ public final class ItemInstance extends L2Object
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
-			PreparedStatement statement = con.prepareStatement("UPDATE items SET owner_id=?,count=?,loc=?,loc_data=?,enchant_level=?,custom_type1=?,custom_type2=?,mana_left=?,time=? WHERE object_id = ?");
-			statement.setInt(1, _ownerId);
-			statement.setInt(2, getCount());
-			statement.setString(3, _loc.name());
-			statement.setInt(4, _locData);
-			statement.setInt(5, getEnchantLevel());
-			statement.setInt(6, getCustomType1());
-			statement.setInt(7, getCustomType2());
-			statement.setInt(8, _mana);
-			statement.setLong(9, getTime());
-			statement.setInt(10, getObjectId());
+			PreparedStatement statement = con.prepareStatement(UPDATE_ITEM);
+			setUpdateParameters(statement);
 			statement.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
@@ -1052,6 +1182,20 @@ public final class ItemInstance extends L2Object
 		}
 	}
 	
+	private void setUpdateParameters(PreparedStatement statement) throws SQLException
+	{
+		statement.setInt(1, _ownerId);
+		statement.setInt(2, getCount());
+		statement.setString(3, _loc.name());
+		statement.setInt(4, _locData);
+		statement.setInt(5, getEnchantLevel());
+		statement.setInt(6, getCustomType1());
+		statement.setInt(7, getCustomType2());
+		statement.setInt(8, _mana);
+		statement.setLong(9, getTime());
+		statement.setInt(10, getObjectId());
+	}
+	
 	/**
 	 * Insert the item in database
 	 */
@@ -1061,26 +1205,15 @@ public final class ItemInstance extends L2Object
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
-			PreparedStatement statement = con.prepareStatement("INSERT INTO items (owner_id,item_id,count,loc,loc_data,enchant_level,object_id,custom_type1,custom_type2,mana_left,time) VALUES (?,?,?,?,?,?,?,?,?,?,?)");
-			statement.setInt(1, _ownerId);
-			statement.setInt(2, _itemId);
-			statement.setInt(3, getCount());
-			statement.setString(4, _loc.name());
-			statement.setInt(5, _locData);
-			statement.setInt(6, getEnchantLevel());
-			statement.setInt(7, getObjectId());
-			statement.setInt(8, _type1);
-			statement.setInt(9, _type2);
-			statement.setInt(10, _mana);
-			statement.setLong(11, getTime());
-			
+			PreparedStatement statement = con.prepareStatement(INSERT_ITEM);
+			setInsertParameters(statement);
 			statement.executeUpdate();
 			_existsInDb = true;
 			_storedInDb = true;
 			statement.close();
 			
 			if (_augmentation != null)
-				updateItemAttributes(con);
+				updateItemAttributes(con, _augmentation);
 		}
 		catch (Exception e)
 		{
@@ -1088,6 +1221,21 @@ public final class ItemInstance extends L2Object
 		}
 	}
 	
+	private void setInsertParameters(PreparedStatement statement) throws SQLException
+	{
+		statement.setInt(1, _ownerId);
+		statement.setInt(2, _itemId);
+		statement.setInt(3, getCount());
+		statement.setString(4, _loc.name());
+		statement.setInt(5, _locData);
+		statement.setInt(6, getEnchantLevel());
+		statement.setInt(7, getObjectId());
+		statement.setInt(8, _type1);
+		statement.setInt(9, _type2);
+		statement.setInt(10, _mana);
+		statement.setLong(11, getTime());
+	}
+	
 	/**
 	 * Delete item from database
 	 */
@@ -1097,14 +1245,14 @@ public final class ItemInstance extends L2Object
 		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
-			PreparedStatement statement = con.prepareStatement("DELETE FROM items WHERE object_id=?");
+			PreparedStatement statement = con.prepareStatement(DELETE_ITEM);
 			statement.setInt(1, getObjectId());
 			statement.executeUpdate();
 			_existsInDb = false;
 			_storedInDb = false;
 			statement.close();
 			
-			statement = con.prepareStatement("DELETE FROM augmentations WHERE item_id = ?");
+			statement = con.prepareStatement(DELETE_AUGMENTATION);
 			statement.setInt(1, getObjectId());
 			statement.executeUpdate();
 			statement.close();
@@ -36,6 +36,7 @@ import net.sf.l2j.gameserver.model.item.type.EtcItemType;
 import net.sf.l2j.gameserver.model.item.type.WeaponType;
 import net.sf.l2j.gameserver.model.itemcontainer.listeners.OnEquipListener;
 import net.sf.l2j.gameserver.model.itemcontainer.listeners.StatsListener;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 
 /**
  * This class manages inventory
@@ -439,6 +440,10 @@ public abstract class Inventory extends ItemContainer
 				}
 				item.updateDatabase();
 			}
+			
+			// Equipped items are read by some stat formulas.
+			if (getOwner() != null)
+				getOwner().getStat().invalidateStatCache();
 		}
 		return old;
 	}
@@ -936,6 +941,9 @@ public abstract class Inventory extends ItemContainer
 	@Override
 	public void restore()
 	{
+		// Pending item changes must be written first.
+		ItemsUpdateTaskManager.getInstance().flush();
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement = con.prepareStatement("SELECT object_id, item_id, count, enchant_level, loc, loc_data, custom_type1, custom_type2, mana_left, time FROM items WHERE owner_id=? AND (loc=? OR loc=?) ORDER BY loc_data");
@@ -14,9 +14,9 @@
  */
 package net.sf.l2j.gameserver.model.quest;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -39,6 +39,7 @@ import net.sf.l2j.gameserver.network.serverpackets.TutorialCloseHtml;
 import net.sf.l2j.gameserver.network.serverpackets.TutorialEnableClientEvent;
 import net.sf.l2j.gameserver.network.serverpackets.TutorialShowHtml;
 import net.sf.l2j.gameserver.network.serverpackets.TutorialShowQuestionMark;
+import net.sf.l2j.gameserver.taskmanager.QuestStatesUpdateTaskManager;
 import net.sf.l2j.util.Rnd;
 
 /**
@@ -72,6 +73,9 @@ public final class QuestState
 	private byte _state;
 	private final Map<String, String> _vars = new HashMap<>();
 	
+	// Variables changed since last write ; a null value stands for a removed variable.
+	private final Map<String, String> _changedVars = new LinkedHashMap<>();
+	
 	/**
 	 * Constructor of the QuestState : save the quest in the list of quests of the player.<BR/>
 	 * <BR/>
@@ -199,23 +203,19 @@ public final class QuestState
 				takeItems(itemId, -1);
 		}
 		
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		// Pending changes are written before the quest rows are removed.
+		storeChangedVars();
+		
+		final int objectId = _player.getObjectId();
+		final String name = _quest.getName();
+		L2DatabaseFactory.getInstance().execute("QuestState.exitQuest", objectId, con ->
 		{
-			PreparedStatement statement;
-			if (repeatable)
-				statement = con.prepareStatement(QUEST_DELETE);
-			else
-				statement = con.prepareStatement(QUEST_COMPLETE);
-			
-			statement.setInt(1, _player.getObjectId());
-			statement.setString(2, _quest.getName());
+			PreparedStatement statement = con.prepareStatement((repeatable) ? QUEST_DELETE : QUEST_COMPLETE);
+			statement.setInt(1, objectId);
+			statement.setString(2, name);
 			statement.executeUpdate();
 			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.WARNING, "could not delete char quest:", e);
-		}
+		});
 	}
 	
 	/**
@@ -415,47 +415,77 @@ public final class QuestState
 	}
 	
 	/**
-	 * Set in the database the quest for the player.
+	 * Set in the database the quest for the player. The change is written by the next flush of {@link QuestStatesUpdateTaskManager}.
 	 * @param var : String designating the name of the variable for the quest
 	 * @param value : String designating the value of the variable for the quest
 	 */
 	private void setQuestVarInDb(String var, String value)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		synchronized (_changedVars)
 		{
-			PreparedStatement statement = con.prepareStatement(QUEST_SET_VAR);
-			statement.setInt(1, _player.getObjectId());
-			statement.setString(2, _quest.getName());
-			statement.setString(3, var);
-			statement.setString(4, value);
-			statement.executeUpdate();
-			statement.close();
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.WARNING, "could not insert char quest:", e);
+			_changedVars.put(var, value);
 		}
+		
+		if (!QuestStatesUpdateTaskManager.getInstance().add(this))
+			storeChangedVars();
 	}
 	
 	/**
-	 * Delete a variable of player's quest from the database.
+	 * Delete a variable of player's quest from the database. The change is written by the next flush of {@link QuestStatesUpdateTaskManager}.
 	 * @param var : String designating the variable characterizing the quest
 	 */
 	private void removeQuestVarInDb(String var)
 	{
-		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
-		{
-			PreparedStatement statement = con.prepareStatement(QUEST_DEL_VAR);
-			statement.setInt(1, _player.getObjectId());
-			statement.setString(2, _quest.getName());
-			statement.setString(3, var);
-			statement.executeUpdate();
-			statement.close();
-		}
-		catch (Exception e)
+		setQuestVarInDb(var, null);
+	}
+	
+	/**
+	 * Writes the variables changed since last write, on the database lane of the player : set variables in one batch, removed ones in another.
+	 * @return boolean : True if there was something to write.
+	 */
+	public boolean storeChangedVars()
+	{
+		final int objectId = _player.getObjectId();
+		final String name = _quest.getName();
+		
+		// The job is given under the lock, so jobs are run in the order variables were taken.
+		synchronized (_changedVars)
 		{
-			_log.log(Level.WARNING, "could not delete char quest:", e);
+			if (_changedVars.isEmpty())
+				return false;
+			
+			final Map<String, String> vars = new LinkedHashMap<>(_changedVars);
+			_changedVars.clear();
+			
+			L2DatabaseFactory.getInstance().execute("QuestState.storeChangedVars", objectId, con ->
+			{
+				PreparedStatement set = con.prepareStatement(QUEST_SET_VAR);
+				PreparedStatement del = con.prepareStatement(QUEST_DEL_VAR);
+				for (Map.Entry<String, String> entry : vars.entrySet())
+				{
+					if (entry.getValue() == null)
+					{
+						del.setInt(1, objectId);
+						del.setString(2, name);
+						del.setString(3, entry.getKey());
+						del.addBatch();
+					}
+					else
+					{
+						set.setInt(1, objectId);
+						set.setString(2, name);
+						set.setString(3, entry.getKey());
+						set.setString(4, entry.getValue());
+						set.addBatch();
+					}
+				}
+				set.executeBatch();
+				del.executeBatch();
+				set.close();
+				del.close();
+			});
 		}
+		return true;
 	}
 	
 	/**
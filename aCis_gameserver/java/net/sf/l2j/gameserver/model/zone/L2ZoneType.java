@@ -269,7 +269,10 @@ public abstract class L2ZoneType
 		for (L2Character character : _characterList)
 		{
 			if (character != null && character instanceof L2PcInstance)
+			{
+				packet.prepareBroadcast();
 				character.sendPacket(packet);
+			}
 		}
 	}
 	
@@ -38,7 +38,7 @@ public class L2WaterZone extends L2ZoneType
 			((L2PcInstance) character).broadcastUserInfo();
 		else if (character instanceof L2Npc)
 		{
-			for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+			for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 			{
 				if (character.getRunSpeed() == 0)
 					player.sendPacket(new ServerObjectInfo((L2Npc) character, player));
@@ -58,7 +58,7 @@ public class L2WaterZone extends L2ZoneType
 			((L2PcInstance) character).broadcastUserInfo();
 		else if (character instanceof L2Npc)
 		{
-			for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+			for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 			{
 				if (character.getRunSpeed() == 0)
 					player.sendPacket(new ServerObjectInfo((L2Npc) character, player));
@@ -30,6 +30,12 @@ public class ClientStats
 	public int totalQueueOverflows = 0;
 	public int totalUnderflowExceptions = 0;
 	
+	// Packet queue depth and latency, the latency being the time (in microseconds) a client waits for a packet worker
+	public volatile int queueSize = 0;
+	public int totalTurns = 0;
+	public long totalTurnLatency = 0;
+	public long maxTurnLatency = 0;
+	
 	private final int[] _packetsInSecond;
 	private long _packetCountStartTick = 0;
 	private int _head;
@@ -120,6 +126,28 @@ public class ClientStats
 		return true;
 	}
 	
+	/**
+	 * Counts a queue execution turn.
+	 * @param latency - time (in nanoseconds) elapsed between the client submission and the start of the turn
+	 */
+	protected final void countTurn(long latency)
+	{
+		latency /= 1000;
+		
+		totalTurns++;
+		totalTurnLatency += latency;
+		if (latency > maxTurnLatency)
+			maxTurnLatency = latency;
+	}
+	
+	/**
+	 * @return the average time (in microseconds) a client waited for a packet worker.
+	 */
+	public final long getAverageTurnLatency()
+	{
+		return (totalTurns == 0) ? 0 : totalTurnLatency / totalTurns;
+	}
+	
 	/**
 	 * Counts queue overflows.
 	 * @return true if threshold is reached.
@@ -14,48 +14,67 @@
  */
 package net.sf.l2j.gameserver.network;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
 /**
+ * The game XOR cipher. Each byte is XORed with the key and the previous encrypted byte.<br>
+ * Data is processed 16 bytes at a time, straight from the packet buffer (heap or direct) : the 16 bytes key is held as two little-endian longs, each matching one 8 bytes word.
  * @author KenM
  */
 public class GameCrypt
 {
-	private final byte[] _inKey = new byte[16];
-	private final byte[] _outKey = new byte[16];
+	// Every byte of a long set to 0x01, used to spread a byte over a whole word
+	private static final long BYTE_SPREAD = 0x0101010101010101L;
+	
+	private long _inKey0;
+	private long _inKey1;
+	private long _outKey0;
+	private long _outKey1;
 	private boolean _isEnabled;
 	
 	public void setKey(byte[] key)
 	{
-		System.arraycopy(key, 0, _inKey, 0, 16);
-		System.arraycopy(key, 0, _outKey, 0, 16);
+		final ByteBuffer buf = ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN);
+		
+		_inKey0 = _outKey0 = buf.getLong(0);
+		_inKey1 = _outKey1 = buf.getLong(8);
 	}
 	
-	public void decrypt(byte[] raw, final int offset, final int size)
+	public void decrypt(ByteBuffer buf, final int offset, final int size)
 	{
 		if (!_isEnabled)
 			return;
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++)
+		final boolean swap = buf.order() != ByteOrder.LITTLE_ENDIAN;
+		
+		// the previous encrypted byte
+		long temp = 0;
+		
+		// 16 bytes (one whole key) per iteration
+		int i = 0;
+		for (; i + 16 <= size; i += 16)
 		{
-			int temp2 = raw[offset + i] & 0xFF;
-			raw[offset + i] = (byte) (temp2 ^ _inKey[i & 15] ^ temp);
-			temp = temp2;
+			final long raw0 = getLong(buf, offset + i, swap);
+			final long raw1 = getLong(buf, offset + i + 8, swap);
+			
+			putLong(buf, offset + i, raw0 ^ _inKey0 ^ (raw0 << 8 | temp), swap);
+			putLong(buf, offset + i + 8, raw1 ^ _inKey1 ^ (raw1 << 8 | raw0 >>> 56), swap);
+			
+			temp = raw1 >>> 56;
 		}
 		
-		int old = _inKey[8] & 0xff;
-		old |= _inKey[9] << 8 & 0xff00;
-		old |= _inKey[10] << 0x10 & 0xff0000;
-		old |= _inKey[11] << 0x18 & 0xff000000;
-		
-		old += size;
+		for (; i < size; i++)
+		{
+			final int raw = buf.get(offset + i) & 0xFF;
+			buf.put(offset + i, (byte) (raw ^ getKeyByte(_inKey0, _inKey1, i) ^ temp));
+			temp = raw;
+		}
 		
-		_inKey[8] = (byte) (old & 0xff);
-		_inKey[9] = (byte) (old >> 0x08 & 0xff);
-		_inKey[10] = (byte) (old >> 0x10 & 0xff);
-		_inKey[11] = (byte) (old >> 0x18 & 0xff);
+		_inKey1 = addToCounter(_inKey1, size);
 	}
 	
-	public void encrypt(byte[] raw, final int offset, final int size)
+	public void encrypt(ByteBuffer buf, final int offset, final int size)
 	{
 		if (!_isEnabled)
 		{
@@ -63,24 +82,70 @@ public class GameCrypt
 			return;
 		}
 		
-		int temp = 0;
-		for (int i = 0; i < size; i++)
+		final boolean swap = buf.order() != ByteOrder.LITTLE_ENDIAN;
+		
+		// the previous encrypted byte
+		long temp = 0;
+		
+		// 16 bytes (one whole key) per iteration
+		int i = 0;
+		for (; i + 16 <= size; i += 16)
 		{
-			int temp2 = raw[offset + i] & 0xFF;
-			temp = temp2 ^ _outKey[i & 15] ^ temp;
-			raw[offset + i] = (byte) temp;
+			// each encrypted byte is the XOR of all previous (data ^ key) bytes : compute the prefix XOR of each word, then chain the previous byte.
+			final long data0 = prefixXor(getLong(buf, offset + i, swap) ^ _outKey0) ^ temp * BYTE_SPREAD;
+			final long data1 = prefixXor(getLong(buf, offset + i + 8, swap) ^ _outKey1) ^ (data0 >>> 56) * BYTE_SPREAD;
+			
+			putLong(buf, offset + i, data0, swap);
+			putLong(buf, offset + i + 8, data1, swap);
+			
+			temp = data1 >>> 56;
 		}
 		
-		int old = _outKey[8] & 0xff;
-		old |= _outKey[9] << 8 & 0xff00;
-		old |= _outKey[10] << 0x10 & 0xff0000;
-		old |= _outKey[11] << 0x18 & 0xff000000;
-		
-		old += size;
+		for (; i < size; i++)
+		{
+			temp = (buf.get(offset + i) & 0xFF) ^ getKeyByte(_outKey0, _outKey1, i) ^ temp;
+			buf.put(offset + i, (byte) temp);
+		}
 		
-		_outKey[8] = (byte) (old & 0xff);
-		_outKey[9] = (byte) (old >> 0x08 & 0xff);
-		_outKey[10] = (byte) (old >> 0x10 & 0xff);
-		_outKey[11] = (byte) (old >> 0x18 & 0xff);
+		_outKey1 = addToCounter(_outKey1, size);
+	}
+	
+	/**
+	 * @param value : a little-endian word.
+	 * @return the word where each byte is the XOR of itself and all lower bytes.
+	 */
+	private static long prefixXor(long value)
+	{
+		value ^= value << 8;
+		value ^= value << 16;
+		value ^= value << 32;
+		return value;
+	}
+	
+	private static long getLong(ByteBuffer buf, int index, boolean swap)
+	{
+		final long value = buf.getLong(index);
+		return (swap) ? Long.reverseBytes(value) : value;
+	}
+	
+	private static void putLong(ByteBuffer buf, int index, long value, boolean swap)
+	{
+		buf.putLong(index, (swap) ? Long.reverseBytes(value) : value);
+	}
+	
+	private static int getKeyByte(long key0, long key1, int index)
+	{
+		return (int) (((index & 8) == 0 ? key0 : key1) >>> ((index & 7) << 3)) & 0xFF;
+	}
+	
+	/**
+	 * The key bytes 8 to 11 hold a little-endian counter, increased by the size of each processed packet.
+	 * @param key1 : the second half of the key.
+	 * @param size : the packet size.
+	 * @return the second half of the key, with the counter updated.
+	 */
+	private static long addToCounter(long key1, int size)
+	{
+		return (key1 & 0xFFFFFFFF00000000L) | (((int) key1 + size) & 0xFFFFFFFFL);
 	}
 }
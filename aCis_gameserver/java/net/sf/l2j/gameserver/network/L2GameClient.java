@@ -19,10 +19,12 @@ import java.nio.ByteBuffer;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -44,6 +46,7 @@ import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.network.serverpackets.ActionFailed;
 import net.sf.l2j.gameserver.network.serverpackets.L2GameServerPacket;
 import net.sf.l2j.gameserver.network.serverpackets.ServerClose;
+import net.sf.l2j.gameserver.taskmanager.ItemsUpdateTaskManager;
 import net.sf.l2j.gameserver.util.FloodProtectors;
 
 /**
@@ -86,8 +89,13 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	
 	private boolean _isDetached = false;
 	
-	private final ArrayBlockingQueue<ReceivablePacket<L2GameClient>> _packetQueue;
-	private final ReentrantLock _queueLock = new ReentrantLock();
+	// Lock-free packet queue, bounded to CLIENT_PACKET_QUEUE_SIZE through _packetQueueSize
+	private final ConcurrentLinkedQueue<ReceivablePacket<L2GameClient>> _packetQueue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger _packetQueueSize = new AtomicInteger();
+	
+	// Set while this client is submitted to a packet pool, so it is never queued twice
+	private final AtomicBoolean _scheduled = new AtomicBoolean();
+	private volatile long _scheduleTime;
 	
 	public L2GameClient(MMOConnection<L2GameClient> con)
 	{
@@ -96,7 +104,6 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		_connectionStartTime = System.currentTimeMillis();
 		_crypt = new GameCrypt();
 		_stats = new ClientStats();
-		_packetQueue = new ArrayBlockingQueue<>(Config.CLIENT_PACKET_QUEUE_SIZE);
 		
 		_autoSaveInDB = ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(new AutoSaveTask(), 300000L, 900000L);
 	}
@@ -118,7 +125,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		if (_state != pState)
 		{
 			_state = pState;
-			_packetQueue.clear();
+			clearPacketQueue();
 		}
 	}
 	
@@ -135,14 +142,14 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 	@Override
 	public boolean decrypt(ByteBuffer buf, int size)
 	{
-		_crypt.decrypt(buf.array(), buf.position(), size);
+		_crypt.decrypt(buf, buf.position(), size);
 		return true;
 	}
 	
 	@Override
 	public boolean encrypt(final ByteBuffer buf, final int size)
 	{
-		_crypt.encrypt(buf.array(), buf.position(), size);
+		_crypt.encrypt(buf, buf.position(), size);
 		buf.position(buf.position() + size);
 		return true;
 	}
@@ -298,6 +305,10 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 		
 		CharNameTable.getInstance().removeName(objid);
 		
+		// Pending item changes and background writes must be written first.
+		ItemsUpdateTaskManager.getInstance().flush();
+		L2DatabaseFactory.getInstance().await(objid);
+		
 		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
 		{
 			PreparedStatement statement;
@@ -637,7 +648,7 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return true;
 		
 		// flood protection
-		if (getStats().countPacket(_packetQueue.size()))
+		if (getStats().countPacket(_packetQueueSize.get()))
 		{
 			sendPacket(ActionFailed.STATIC_PACKET);
 			return true;
@@ -697,8 +708,10 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
-		if (!_packetQueue.offer(packet))
+		if (_packetQueueSize.incrementAndGet() > Config.CLIENT_PACKET_QUEUE_SIZE)
 		{
+			_packetQueueSize.decrementAndGet();
+			
 			if (getStats().countQueueOverflow())
 			{
 				_log.severe("Client " + toString() + " - Disconnected, too many queue overflows.");
@@ -710,55 +723,66 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 			return;
 		}
 		
-		if (_queueLock.isLocked()) // already processing
+		_packetQueue.offer(packet);
+		getStats().queueSize = _packetQueueSize.get();
+		
+		if (_state == GameClientState.CONNECTED && getStats().processedPackets > 3)
+		{
+			if (Config.PACKET_HANDLER_DEBUG)
+				_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
+			closeNow();
+			return;
+		}
+		
+		schedule();
+	}
+	
+	/**
+	 * Submit this client to the packet pool matching its state, unless it is already submitted.
+	 */
+	private void schedule()
+	{
+		if (!_scheduled.compareAndSet(false, true))
 			return;
 		
+		_scheduleTime = System.nanoTime();
+		
 		try
 		{
 			if (_state == GameClientState.CONNECTED)
-			{
-				if (getStats().processedPackets > 3)
-				{
-					if (Config.PACKET_HANDLER_DEBUG)
-						_log.severe("Client " + toString() + " - Disconnected, too many packets in non-authed state.");
-					closeNow();
-					return;
-				}
-				
 				ThreadPoolManager.getInstance().executeIOPacket(this);
-			}
 			else
 				ThreadPoolManager.getInstance().executePacket(this);
 		}
 		catch (RejectedExecutionException e)
 		{
+			_scheduled.set(false);
+			
 			// if the server is shutdown we ignore
 			if (!ThreadPoolManager.getInstance().isShutdown())
-			{
-				_log.severe("Failed executing: " + packet.getClass().getSimpleName() + " for Client: " + toString());
-			}
+				_log.severe("Failed executing packets for Client: " + toString());
 		}
 	}
 	
+	/**
+	 * Run one turn : up to CLIENT_PACKET_QUEUE_MAX_BURST_SIZE packets are executed, then the client is submitted again behind the other clients if packets are still queued.
+	 */
 	@Override
 	public void run()
 	{
-		if (!_queueLock.tryLock())
-			return;
+		getStats().countTurn(System.nanoTime() - _scheduleTime);
 		
 		try
 		{
 			int count = 0;
 			ReceivablePacket<L2GameClient> packet;
-			while (true)
+			while ((packet = _packetQueue.poll()) != null)
 			{
-				packet = _packetQueue.poll();
-				if (packet == null) // queue is empty
-					return;
+				getStats().queueSize = _packetQueueSize.decrementAndGet();
 				
 				if (_isDetached) // clear queue immediately after detach
 				{
-					_packetQueue.clear();
+					clearPacketQueue();
 					return;
 				}
 				
@@ -773,13 +797,25 @@ public final class L2GameClient extends MMOClient<MMOConnection<L2GameClient>> i
 				
 				count++;
 				if (getStats().countBurst(count))
-					return;
+					break;
 			}
 		}
 		finally
 		{
-			_queueLock.unlock();
+			_scheduled.set(false);
 		}
+		
+		// Packets queued meanwhile, or left over by the burst limit.
+		if (!_packetQueue.isEmpty())
+			schedule();
+	}
+	
+	private void clearPacketQueue()
+	{
+		while (_packetQueue.poll() != null)
+			_packetQueueSize.decrementAndGet();
+		
+		getStats().queueSize = _packetQueueSize.get();
 	}
 	
 	private boolean cancelCleanup()
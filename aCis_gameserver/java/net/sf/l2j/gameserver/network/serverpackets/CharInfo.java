@@ -49,6 +49,12 @@ public class CharInfo extends L2GameServerPacket
 		_walkSpd = (int) (_activeChar.getWalkSpeed() / _moveMultiplier);
 	}
 	
+	@Override
+	protected boolean isViewerDependent()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
@@ -14,6 +14,8 @@
  */
 package net.sf.l2j.gameserver.network.serverpackets;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.logging.Logger;
 
 import net.sf.l2j.Config;
@@ -27,6 +29,9 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient>
 {
 	protected static final Logger _log = Logger.getLogger(L2GameServerPacket.class.getName());
 	
+	// Scratch buffer used to serialize broadcasted packets, one per broadcasting thread
+	private static final ThreadLocal<ByteBuffer> BROADCAST_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN));
+	
 	@Override
 	protected void write()
 	{
@@ -39,7 +44,7 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient>
 		}
 		catch (Throwable t)
 		{
-			_log.severe("Client: " + getClient().toString() + " - Failed writing: " + getType());
+			_log.severe("Client: " + getClient() + " - Failed writing: " + getType());
 			t.printStackTrace();
 		}
 	}
@@ -48,6 +53,23 @@ public abstract class L2GameServerPacket extends SendablePacket<L2GameClient>
 	{
 	}
 	
+	/**
+	 * Serialize this packet once, so every recipient of a broadcast only copies and encrypts the same content. Does nothing on viewer dependent packets, which are still written for each recipient.
+	 */
+	public final void prepareBroadcast()
+	{
+		if (!isViewerDependent())
+			serialize(BROADCAST_BUFFER.get());
+	}
+	
+	/**
+	 * @return true if the content of this packet depends on the client receiving it (the content is built using getClient()).
+	 */
+	protected boolean isViewerDependent()
+	{
+		return false;
+	}
+	
 	protected abstract void writeImpl();
 	
 	public String getType()
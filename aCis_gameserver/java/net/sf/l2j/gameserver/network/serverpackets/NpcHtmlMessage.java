@@ -66,6 +66,12 @@ public final class NpcHtmlMessage extends L2GameServerPacket
 		}
 	}
 	
+	@Override
+	protected boolean isViewerDependent()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
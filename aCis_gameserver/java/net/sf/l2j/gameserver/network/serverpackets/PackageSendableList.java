@@ -31,6 +31,12 @@ public class PackageSendableList extends L2GameServerPacket
 		_playerObjId = playerObjId;
 	}
 	
+	@Override
+	protected boolean isViewerDependent()
+	{
+		return true;
+	}
+	
 	@Override
 	protected void writeImpl()
 	{
@@ -36,6 +36,12 @@ public class PartyMatchList extends L2GameServerPacket
 		_rooms = new ArrayList<>();
 	}
 	
+	@Override
+	protected boolean isViewerDependent()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
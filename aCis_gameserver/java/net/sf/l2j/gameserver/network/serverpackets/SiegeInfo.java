@@ -49,6 +49,12 @@ public class SiegeInfo extends L2GameServerPacket
 		_castle = castle;
 	}
 	
+	@Override
+	protected boolean isViewerDependent()
+	{
+		return true;
+	}
+	
 	@Override
 	protected final void writeImpl()
 	{
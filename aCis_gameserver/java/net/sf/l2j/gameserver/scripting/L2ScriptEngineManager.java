@@ -21,7 +21,9 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.LineNumberReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -35,6 +37,8 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import javax.script.SimpleScriptContext;
 
+import net.sf.l2j.Config;
+
 /**
  * Caches script engines and provides funcionality for executing and managing scripts.<BR>
  * @author KenM
@@ -130,16 +134,35 @@ public final class L2ScriptEngineManager
 		
 		if (list.isFile())
 		{
-			LineNumberReader lnr = new LineNumberReader(new InputStreamReader(new FileInputStream(list)));
-			String line;
+			final List<String> lines = Files.readAllLines(list.toPath(), Charset.defaultCharset());
 			
-			while ((line = lnr.readLine()) != null)
+			// Java scripts listed one by one are run from the bundle, compiled ahead.
+			ScriptBundle bundle = null;
+			if (Config.SCRIPT_BUNDLE)
 			{
-				String[] parts = line.trim().split("#");
+				final List<File> scripts = new ArrayList<>();
+				for (String line : lines)
+				{
+					final String entry = getListEntry(line);
+					if (entry != null && !entry.endsWith("/*") && entry.endsWith(".java"))
+					{
+						file = new File(SCRIPT_FOLDER, entry);
+						if (file.isFile())
+						{
+							scripts.add(file);
+						}
+					}
+				}
+				bundle = new ScriptBundle(scripts);
+			}
+			
+			for (int i = 0; i < lines.size(); i++)
+			{
+				String line = getListEntry(lines.get(i));
 				
-				if (parts.length > 0 && !parts[0].startsWith("#") && parts[0].length() > 0)
+				if (line != null)
 				{
-					line = parts[0];
+					final String entry = line;
 					
 					if (line.endsWith("/**"))
 					{
@@ -152,11 +175,11 @@ public final class L2ScriptEngineManager
 					
 					file = new File(SCRIPT_FOLDER, line);
 					
-					if (file.isDirectory() && parts[0].endsWith("/**"))
+					if (file.isDirectory() && entry.endsWith("/**"))
 					{
 						this.executeAllScriptsInDirectory(file, true, 32);
 					}
-					else if (file.isDirectory() && parts[0].endsWith("/*"))
+					else if (file.isDirectory() && entry.endsWith("/*"))
 					{
 						this.executeAllScriptsInDirectory(file);
 					}
@@ -164,7 +187,14 @@ public final class L2ScriptEngineManager
 					{
 						try
 						{
-							this.executeScript(file);
+							if (bundle != null && bundle.contains(file))
+							{
+								this.executeScript(bundle, file);
+							}
+							else
+							{
+								this.executeScript(file);
+							}
 						}
 						catch (ScriptException e)
 						{
@@ -173,11 +203,10 @@ public final class L2ScriptEngineManager
 					}
 					else
 					{
-						_log.warning("Failed loading: (" + file.getCanonicalPath() + ") @ " + list.getName() + ":" + lnr.getLineNumber() + " - Reason: doesnt exists or is not a file.");
+						_log.warning("Failed loading: (" + file.getCanonicalPath() + ") @ " + list.getName() + ":" + (i + 1) + " - Reason: doesnt exists or is not a file.");
 					}
 				}
 			}
-			lnr.close();
 		}
 		else
 		{
@@ -185,6 +214,21 @@ public final class L2ScriptEngineManager
 		}
 	}
 	
+	/**
+	 * @param line : A line of the scripts list.
+	 * @return String : The script or folder listed by the line, or null if there is none.
+	 */
+	private static String getListEntry(String line)
+	{
+		String[] parts = line.trim().split("#");
+		
+		if (parts.length > 0 && !parts[0].startsWith("#") && parts[0].length() > 0)
+		{
+			return parts[0];
+		}
+		return null;
+	}
+	
 	public void executeAllScriptsInDirectory(File dir)
 	{
 		this.executeAllScriptsInDirectory(dir, false, 0);
@@ -281,20 +325,7 @@ public final class L2ScriptEngineManager
 	{
 		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file)));
 		
-		if (VERBOSE_LOADING)
-		{
-			_log.info("Loading Script: " + file.getAbsolutePath());
-		}
-		
-		if (PURGE_ERROR_LOG)
-		{
-			String name = file.getAbsolutePath() + ".error.log";
-			File errorLog = new File(name);
-			if (errorLog.isFile())
-			{
-				errorLog.delete();
-			}
-		}
+		prepareScript(file);
 		
 		ScriptContext context = new SimpleScriptContext();
 		context.setAttribute("mainClass", getClassForFile(file).replace('/', '.').replace('\\', '.'), ScriptContext.ENGINE_SCOPE);
@@ -314,6 +345,45 @@ public final class L2ScriptEngineManager
 		}
 	}
 	
+	/**
+	 * Runs a script compiled ahead in the bundle.
+	 * @param bundle : The bundle holding the script.
+	 * @param file : The script file.
+	 * @throws ScriptException : The script couldn't be run.
+	 */
+	private void executeScript(ScriptBundle bundle, File file) throws ScriptException
+	{
+		prepareScript(file);
+		
+		setCurrentLoadingScript(file);
+		try
+		{
+			bundle.execute(file);
+		}
+		finally
+		{
+			setCurrentLoadingScript(null);
+		}
+	}
+	
+	private void prepareScript(File file)
+	{
+		if (VERBOSE_LOADING)
+		{
+			_log.info("Loading Script: " + file.getAbsolutePath());
+		}
+		
+		if (PURGE_ERROR_LOG)
+		{
+			String name = file.getAbsolutePath() + ".error.log";
+			File errorLog = new File(name);
+			if (errorLog.isFile())
+			{
+				errorLog.delete();
+			}
+		}
+	}
+	
 	public static String getClassForFile(File script)
 	{
 		String path = script.getAbsolutePath();
@@ -0,0 +1,433 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.scripting;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import javax.script.ScriptException;
+
+import net.sf.l2j.Config;
+
+import com.l2jserver.script.java.JavaCompiler;
+import com.l2jserver.script.java.MemoryClassLoader;
+
+/**
+ * Compiled java scripts, kept in {@link #BUNDLE_FILE} between boots.<br>
+ * <br>
+ * Each script is compiled alone, as done by the java script engine. The bundle records its classes, and the CRC32 of the sources these classes come from. On next boots, a script whose sources are the same is run from the bundle without being compiled. Changed scripts are compiled again in parallel, then the bundle is written back.<br>
+ * <br>
+ * A change of the server classpath compiles all scripts again. A script which doesn't compile isn't bundled : it is run by the script engine, which reports the error.<br>
+ * <br>
+ * As with the script engine, each script is run by its own class loader.
+ */
+public final class ScriptBundle
+{
+	private static final Logger _log = Logger.getLogger(ScriptBundle.class.getName());
+	
+	public static final File BUNDLE_FILE = new File("./data/scripts.jar");
+	
+	private static final String INDEX_ENTRY = "META-INF/scripts.idx";
+	
+	private final String _classPath = L2ScriptEngineManager.SCRIPT_FOLDER.getAbsolutePath();
+	
+	// Scripts by main class name, and the bytes of all their classes.
+	private final Map<String, Unit> _units = new LinkedHashMap<>();
+	private final Map<String, byte[]> _classes = new ConcurrentHashMap<>();
+	
+	// CRC32 of sources, by class name.
+	private final Map<String, Long> _checksums = new ConcurrentHashMap<>();
+	
+	/**
+	 * Loads the bundle, and compiles the scripts missing from it or changed since.
+	 * @param scripts : The java scripts to bundle.
+	 */
+	public ScriptBundle(List<File> scripts)
+	{
+		final long time = System.currentTimeMillis();
+		
+		final Map<String, Unit> bundled = read();
+		
+		final List<File> stale = new ArrayList<>();
+		for (File script : scripts)
+		{
+			final Unit unit = bundled.get(getMainClass(script));
+			if (unit == null)
+				stale.add(script);
+			else
+				_units.put(unit._mainClass, unit);
+		}
+		
+		if (!stale.isEmpty())
+		{
+			compile(stale);
+			write();
+		}
+		
+		_log.info("ScriptBundle: " + (scripts.size() - stale.size()) + " scripts up to date, " + stale.size() + " compiled (" + (scripts.size() - _units.size()) + " failed), in " + (System.currentTimeMillis() - time) + " ms.");
+	}
+	
+	/**
+	 * @param script : The script file.
+	 * @return boolean : True if the script is bundled, and can be run by {@link #execute(File)}.
+	 */
+	public boolean contains(File script)
+	{
+		return _units.containsKey(getMainClass(script));
+	}
+	
+	/**
+	 * Runs the main method of a bundled script, as done by the script engine.
+	 * @param script : The script file.
+	 * @throws ScriptException : The script couldn't be run.
+	 */
+	public void execute(File script) throws ScriptException
+	{
+		final Unit unit = _units.get(getMainClass(script));
+		
+		final Map<String, byte[]> classes = new HashMap<>();
+		for (String name : unit._classes)
+			classes.put(name, _classes.get(name));
+		
+		try
+		{
+			// The loader isn't closed, as script classes may be loaded later.
+			final Class<?> mainClass = new MemoryClassLoader(classes, _classPath, ClassLoader.getSystemClassLoader()).load(unit._mainClass);
+			
+			final Method main = mainClass.getMethod("main", String[].class);
+			if (!Modifier.isStatic(main.getModifiers()))
+				throw new ScriptException("no main method in " + unit._mainClass);
+			
+			if (!Modifier.isPublic(mainClass.getModifiers()))
+				main.setAccessible(true);
+			
+			main.invoke(null, (Object) new String[0]);
+		}
+		catch (ScriptException e)
+		{
+			throw e;
+		}
+		catch (Exception e)
+		{
+			throw new ScriptException(e);
+		}
+	}
+	
+	/**
+	 * Reads the bundle, keeping the scripts which are still up to date.
+	 * @return Map : The up to date scripts, by main class name.
+	 */
+	private Map<String, Unit> read()
+	{
+		final Map<String, Unit> units = new HashMap<>();
+		if (!BUNDLE_FILE.isFile())
+			return units;
+		
+		try (JarFile jar = new JarFile(BUNDLE_FILE))
+		{
+			final JarEntry index = jar.getJarEntry(INDEX_ENTRY);
+			if (index == null)
+				return units;
+			
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(jar.getInputStream(index), StandardCharsets.UTF_8)))
+			{
+				// The server classes changed, all scripts are compiled again.
+				if (!getClassPathSignature().equals(reader.readLine()))
+					return units;
+				
+				Unit unit = null;
+				boolean upToDate = false;
+				
+				String line;
+				while ((line = reader.readLine()) != null)
+				{
+					final String[] parts = line.split(" ");
+					switch (parts[0])
+					{
+						case "script":
+							if (unit != null && upToDate)
+								units.put(unit._mainClass, unit);
+							
+							unit = new Unit(parts[1]);
+							upToDate = true;
+							break;
+						
+						case "source":
+							unit._sources.add(parts[1]);
+							if (upToDate && getChecksum(parts[1]) != Long.parseLong(parts[2], 16))
+								upToDate = false;
+							break;
+						
+						case "class":
+							unit._classes.add(parts[1]);
+							break;
+					}
+				}
+				
+				if (unit != null && upToDate)
+					units.put(unit._mainClass, unit);
+			}
+			
+			// Load the classes of up to date scripts.
+			for (Unit unit : units.values())
+			{
+				for (String name : unit._classes)
+				{
+					if (_classes.containsKey(name))
+						continue;
+					
+					final JarEntry entry = jar.getJarEntry(name.replace('.', '/') + ".class");
+					if (entry == null)
+						throw new IOException("missing class " + name);
+					
+					try (InputStream is = jar.getInputStream(entry))
+					{
+						_classes.put(name, readFully(is, (int) entry.getSize()));
+					}
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "ScriptBundle: couldn't read " + BUNDLE_FILE + ", all scripts are compiled: " + e.getMessage(), e);
+			
+			units.clear();
+			_classes.clear();
+		}
+		return units;
+	}
+	
+	/**
+	 * Compiles the scripts in parallel, each one alone.
+	 * @param scripts : The scripts to compile.
+	 */
+	private void compile(List<File> scripts)
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(scripts.size(), Config.STARTUP_THREADS));
+		try
+		{
+			final List<Future<Unit>> futures = new ArrayList<>(scripts.size());
+			for (File script : scripts)
+				futures.add(executor.submit(() -> compile(script)));
+			
+			for (Future<Unit> future : futures)
+			{
+				final Unit unit = future.get();
+				if (unit != null)
+					_units.put(unit._mainClass, unit);
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "ScriptBundle: error while compiling scripts: " + e.getMessage(), e);
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+	
+	/**
+	 * Compiles a script, as done by the script engine : the scripts it uses are compiled with it, from the scripts folder.
+	 * @param script : The script to compile.
+	 * @return Unit : The compiled script, or null if it can't be bundled.
+	 * @throws IOException : The script couldn't be read.
+	 */
+	private Unit compile(File script) throws IOException
+	{
+		final String source = new String(Files.readAllBytes(script.toPath()), Charset.defaultCharset());
+		
+		final Map<String, byte[]> classes = new JavaCompiler().compile(script.getName(), source, new StringWriter(), _classPath, _classPath);
+		if (classes == null)
+			return null;
+		
+		final Unit unit = new Unit(getMainClass(script));
+		for (Map.Entry<String, byte[]> entry : classes.entrySet())
+		{
+			final String name = entry.getKey();
+			unit._classes.add(name);
+			_classes.put(name, entry.getValue());
+			
+			// Nested classes come from the source of their top level class.
+			final int index = name.indexOf('$');
+			final String sourceName = (index < 0) ? name : name.substring(0, index);
+			if (!unit._sources.contains(sourceName))
+			{
+				// A class out of its own source file can't be followed.
+				if (getChecksum(sourceName) < 0)
+					return null;
+				
+				unit._sources.add(sourceName);
+			}
+		}
+		return unit;
+	}
+	
+	/**
+	 * Writes the bundle aside, then renames it, so a broken write never leaves a partial bundle.
+	 */
+	private void write()
+	{
+		final File temp = new File(BUNDLE_FILE.getPath() + ".tmp");
+		try
+		{
+			try (JarOutputStream jar = new JarOutputStream(new FileOutputStream(temp)))
+			{
+				jar.putNextEntry(new JarEntry(INDEX_ENTRY));
+				
+				final StringBuilder sb = new StringBuilder(1 << 16);
+				sb.append(getClassPathSignature()).append('\n');
+				for (Unit unit : _units.values())
+				{
+					sb.append("script ").append(unit._mainClass).append('\n');
+					for (String name : unit._sources)
+						sb.append("source ").append(name).append(' ').append(Long.toHexString(getChecksum(name))).append('\n');
+					for (String name : unit._classes)
+						sb.append("class ").append(name).append('\n');
+				}
+				jar.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+				jar.closeEntry();
+				
+				final Set<String> written = new HashSet<>();
+				for (Unit unit : _units.values())
+				{
+					for (String name : unit._classes)
+					{
+						if (!written.add(name))
+							continue;
+						
+						jar.putNextEntry(new JarEntry(name.replace('.', '/') + ".class"));
+						jar.write(_classes.get(name));
+						jar.closeEntry();
+					}
+				}
+			}
+			
+			if (!temp.renameTo(BUNDLE_FILE))
+			{
+				BUNDLE_FILE.delete();
+				if (!temp.renameTo(BUNDLE_FILE))
+					throw new IOException("couldn't rename " + temp);
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "ScriptBundle: couldn't write " + BUNDLE_FILE + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * @param name : The name of a top level class.
+	 * @return long : The CRC32 of its source file in the scripts folder, or -1 if it doesn't exist.
+	 */
+	private long getChecksum(String name)
+	{
+		return _checksums.computeIfAbsent(name, k ->
+		{
+			final File file = new File(L2ScriptEngineManager.SCRIPT_FOLDER, k.replace('.', '/') + ".java");
+			if (!file.isFile())
+				return -1L;
+			
+			try
+			{
+				final CRC32 crc = new CRC32();
+				crc.update(Files.readAllBytes(file.toPath()));
+				return crc.getValue();
+			}
+			catch (IOException e)
+			{
+				return -1L;
+			}
+		});
+	}
+	
+	private static String getMainClass(File script)
+	{
+		return L2ScriptEngineManager.getClassForFile(script).replace('/', '.').replace('\\', '.');
+	}
+	
+	/**
+	 * @return String : The entries of the server classpath, with the size and date of its files. Folders only count by their path.
+	 */
+	private static String getClassPathSignature()
+	{
+		final StringBuilder sb = new StringBuilder("classpath");
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator))
+		{
+			final File file = new File(path);
+			sb.append(' ').append(file.getAbsolutePath());
+			if (file.isFile())
+				sb.append(':').append(file.length()).append(':').append(file.lastModified());
+		}
+		return sb.toString();
+	}
+	
+	private static byte[] readFully(InputStream is, int size) throws IOException
+	{
+		final byte[] bytes = new byte[size];
+		int read = 0;
+		while (read < size)
+		{
+			final int count = is.read(bytes, read, size - read);
+			if (count < 0)
+				throw new IOException("unexpected end of entry");
+			
+			read += count;
+		}
+		return bytes;
+	}
+	
+	/**
+	 * A script, with the classes compiled for it and the sources they come from.
+	 */
+	private static final class Unit
+	{
+		private final String _mainClass;
+		private final List<String> _sources = new ArrayList<>();
+		private final List<String> _classes = new ArrayList<>();
+		
+		protected Unit(String mainClass)
+		{
+			_mainClass = mainClass;
+		}
+	}
+}
\ No newline at end of file
@@ -18,6 +18,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.l2j.gameserver.skills.basefuncs.Func;
+import net.sf.l2j.gameserver.skills.basefuncs.FuncAdd;
+import net.sf.l2j.gameserver.skills.basefuncs.FuncSub;
+import net.sf.l2j.gameserver.skills.basefuncs.LambdaConst;
 
 /**
  * A calculator is created to manage and dynamically calculate the effect of a character property (ex : MAX_HP, REGENERATE_HP_RATE...). In fact, each calculator is a table of Func object in which each Func represents a mathematic function : <BR>
@@ -29,6 +32,8 @@ import net.sf.l2j.gameserver.skills.basefuncs.Func;
  * <BR>
  * Method addFunc and removeFunc permit to add and remove a Func object from a Calculator.<BR>
  * <BR>
+ * Each time the Func table changes, consecutive unconditional adds and subs using a constant are folded into a single add. Muls and divs are kept apart, as folding them would change the rounding of stat values. Only the folded table is run by calc, conditional and variable Funcs being kept as they are.<BR>
+ * <BR>
  */
 public final class Calculator
 {
@@ -38,14 +43,24 @@ public final class Calculator
 	/** Table of Func object */
 	private Func[] _functions;
 	
+	/** Table of Func object, with constant Funcs folded */
+	private Func[] _compiled;
+	
+	/** True if all Funcs are cacheable */
+	private boolean _cacheable;
+	
 	public Calculator()
 	{
 		_functions = _emptyFuncs;
+		_compiled = _emptyFuncs;
+		_cacheable = true;
 	}
 	
 	public Calculator(Calculator c)
 	{
 		_functions = c._functions;
+		_compiled = c._compiled;
+		_cacheable = c._cacheable;
 	}
 	
 	/**
@@ -56,6 +71,15 @@ public final class Calculator
 		return _functions.length;
 	}
 	
+	/**
+	 * @return true if the result only depends on the initial value and the character, which allows {@link net.sf.l2j.gameserver.model.actor.stat.CharStat} to cache it.
+	 * @see Func#isCacheable()
+	 */
+	public boolean isCacheable()
+	{
+		return _cacheable;
+	}
+	
 	/**
 	 * Add a Func to the Calculator.
 	 * @param f
@@ -76,7 +100,7 @@ public final class Calculator
 		for (; i < funcs.length; i++)
 			tmp[i + 1] = funcs[i];
 		
-		_functions = tmp;
+		setFunctions(tmp);
 	}
 	
 	/**
@@ -99,10 +123,7 @@ public final class Calculator
 		for (i++; i < funcs.length; i++)
 			tmp[i - 1] = funcs[i];
 		
-		if (tmp.length == 0)
-			_functions = _emptyFuncs;
-		else
-			_functions = tmp;
+		setFunctions((tmp.length == 0) ? _emptyFuncs : tmp);
 	}
 	
 	/**
@@ -131,7 +152,78 @@ public final class Calculator
 	 */
 	public void calc(Env env)
 	{
-		for (Func func : _functions)
+		for (Func func : _compiled)
 			func.calc(env);
 	}
+	
+	private void setFunctions(Func[] funcs)
+	{
+		boolean cacheable = true;
+		for (Func func : funcs)
+			cacheable &= func.isCacheable();
+		
+		_cacheable = cacheable;
+		_compiled = compile(funcs);
+		_functions = funcs;
+	}
+	
+	/**
+	 * Fold each run of consecutive constant adds and subs into a single add.
+	 * @param funcs : The Funcs, sorted by order.
+	 * @return the Func table to run.
+	 */
+	private static Func[] compile(Func[] funcs)
+	{
+		final List<Func> compiled = new ArrayList<>(funcs.length);
+		
+		int start = 0;
+		while (start < funcs.length)
+		{
+			final Func first = funcs[start];
+			
+			// Find the end of the run.
+			int end = start + 1;
+			if (isFoldable(first))
+			{
+				while (end < funcs.length && isFoldable(funcs[end]))
+					end++;
+			}
+			
+			// A single Func is kept as it is.
+			if (end - start == 1)
+			{
+				compiled.add(first);
+				start = end;
+				continue;
+			}
+			
+			double value = 0;
+			for (int i = start; i < end; i++)
+			{
+				final double v = ((LambdaConst) funcs[i]._lambda).getValue();
+				if (funcs[i] instanceof FuncSub)
+					value -= v;
+				else
+					value += v;
+			}
+			
+			compiled.add(new FuncAdd(first.stat, first.order, null, new LambdaConst(value)));
+			
+			start = end;
+		}
+		return (compiled.size() == funcs.length) ? funcs : compiled.toArray(new Func[compiled.size()]);
+	}
+	
+	/**
+	 * @param func : The Func to test.
+	 * @return true if the Func is an unconditional add or sub of a constant, which can be folded.
+	 */
+	private static boolean isFoldable(Func func)
+	{
+		if (func.cond != null || !(func._lambda instanceof LambdaConst))
+			return false;
+		
+		final Class<?> type = func.getClass();
+		return type == FuncAdd.class || type == FuncSub.class;
+	}
 }
\ No newline at end of file
@@ -72,7 +72,6 @@ import net.sf.l2j.gameserver.templates.StatsSet;
 import net.sf.l2j.gameserver.templates.skills.L2SkillType;
 import net.sf.l2j.gameserver.xmlfactory.XMLDocumentFactory;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
@@ -84,40 +83,32 @@ abstract class DocumentBase
 	static Logger _log = Logger.getLogger(DocumentBase.class.getName());
 	
 	private final File _file;
+	private final String _elementName;
 	protected Map<String, String[]> _tables;
 	
-	DocumentBase(File pFile)
+	DocumentBase(File pFile, String elementName)
 	{
 		_file = pFile;
+		_elementName = elementName;
 		_tables = new HashMap<>();
 	}
 	
-	public Document parse()
+	/**
+	 * Streams the file, each template element being parsed alone. The whole document is never kept in memory.
+	 */
+	public void parse()
 	{
-		Document doc;
 		try
 		{
-			doc = XMLDocumentFactory.getInstance().loadDocument(_file);
-		}
-		catch (Exception e)
-		{
-			_log.log(Level.SEVERE, "Error loading file " + _file, e);
-			return null;
-		}
-		
-		try
-		{
-			parseDocument(doc);
+			XMLDocumentFactory.getInstance().streamDocument(_file, _elementName, this::parseElement);
 		}
 		catch (Exception e)
 		{
 			_log.log(Level.SEVERE, "Error in file " + _file, e);
-			return null;
 		}
-		return doc;
 	}
 	
-	protected abstract void parseDocument(Document doc);
+	protected abstract void parseElement(Node n);
 	
 	protected abstract StatsSet getStatsSet();
 	
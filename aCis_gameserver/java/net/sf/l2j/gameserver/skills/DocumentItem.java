@@ -25,7 +25,6 @@ import net.sf.l2j.gameserver.model.item.kind.Item;
 import net.sf.l2j.gameserver.skills.conditions.Condition;
 import net.sf.l2j.gameserver.templates.StatsSet;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 
 /**
@@ -48,7 +47,7 @@ public final class DocumentItem extends DocumentBase
 	
 	public DocumentItem(File file)
 	{
-		super(file);
+		super(file, "item");
 	}
 	
 	@Override
@@ -70,31 +69,18 @@ public final class DocumentItem extends DocumentBase
 	}
 	
 	@Override
-	protected void parseDocument(Document doc)
+	protected void parseElement(Node n)
 	{
-		for (Node n = doc.getFirstChild(); n != null; n = n.getNextSibling())
+		try
 		{
-			if ("list".equalsIgnoreCase(n.getNodeName()))
-			{
-				
-				for (Node d = n.getFirstChild(); d != null; d = d.getNextSibling())
-				{
-					if ("item".equalsIgnoreCase(d.getNodeName()))
-					{
-						try
-						{
-							_currentItem = new NewItem();
-							parseItem(d);
-							_itemsInFile.add(_currentItem.item);
-							resetTable();
-						}
-						catch (Exception e)
-						{
-							_log.log(Level.WARNING, "Cannot create item " + _currentItem.id, e);
-						}
-					}
-				}
-			}
+			_currentItem = new NewItem();
+			parseItem(n);
+			_itemsInFile.add(_currentItem.item);
+			resetTable();
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "Cannot create item " + _currentItem.id, e);
 		}
 	}
 	
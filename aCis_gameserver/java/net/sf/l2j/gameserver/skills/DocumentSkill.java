@@ -24,7 +24,6 @@ import net.sf.l2j.gameserver.skills.conditions.Condition;
 import net.sf.l2j.gameserver.templates.StatsSet;
 import net.sf.l2j.gameserver.templates.skills.L2SkillType;
 
-import org.w3c.dom.Document;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
@@ -50,7 +49,7 @@ public final class DocumentSkill extends DocumentBase
 	
 	public DocumentSkill(File file)
 	{
-		super(file);
+		super(file, "skill");
 	}
 	
 	private void setCurrentSkill(Skill skill)
@@ -98,30 +97,12 @@ public final class DocumentSkill extends DocumentBase
 	}
 	
 	@Override
-	protected void parseDocument(Document doc)
+	protected void parseElement(Node n)
 	{
-		for (Node n = doc.getFirstChild(); n != null; n = n.getNextSibling())
-		{
-			if ("list".equalsIgnoreCase(n.getNodeName()))
-			{
-				for (Node d = n.getFirstChild(); d != null; d = d.getNextSibling())
-				{
-					if ("skill".equalsIgnoreCase(d.getNodeName()))
-					{
-						setCurrentSkill(new Skill());
-						parseSkill(d);
-						_skillsInFile.addAll(_currentSkill.skills);
-						resetTable();
-					}
-				}
-			}
-			else if ("skill".equalsIgnoreCase(n.getNodeName()))
-			{
-				setCurrentSkill(new Skill());
-				parseSkill(n);
-				_skillsInFile.addAll(_currentSkill.skills);
-			}
-		}
+		setCurrentSkill(new Skill());
+		parseSkill(n);
+		_skillsInFile.addAll(_currentSkill.skills);
+		resetTable();
 	}
 	
 	protected void parseSkill(Node n)
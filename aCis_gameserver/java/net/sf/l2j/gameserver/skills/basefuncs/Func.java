@@ -80,6 +80,16 @@ public abstract class Func
 		cond = pCond;
 	}
 	
+	/**
+	 * A cacheable Func result only depends on the calculated value and on the character base stats, level, template, equipped items and hennas, which all invalidate the character stat cache when modified.<br>
+	 * Funcs using a condition or a variable lambda (random, target level...) aren't cacheable.
+	 * @return true if the result of this Func can be cached.
+	 */
+	public boolean isCacheable()
+	{
+		return cond == null && (_lambda == null || _lambda instanceof LambdaConst);
+	}
+	
 	/**
 	 * Run the mathematics function of the Func.
 	 * @param env
@@ -28,6 +28,11 @@ public final class LambdaConst extends Lambda
 		_value = value;
 	}
 	
+	public double getValue()
+	{
+		return _value;
+	}
+	
 	@Override
 	public double calc(Env env)
 	{
@@ -14,27 +14,26 @@
  */
 package net.sf.l2j.gameserver.taskmanager;
 
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.model.actor.L2Character;
 import net.sf.l2j.gameserver.model.actor.L2Playable;
 import net.sf.l2j.gameserver.model.actor.L2Summon;
 import net.sf.l2j.gameserver.model.actor.instance.L2CubicInstance;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.network.serverpackets.AutoAttackStop;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager.Timeout;
 
 /**
  * Turns off attack stance of {@link L2Character} after PERIOD ms.
  * @author Luca Baldi, Hasha
  */
-public final class AttackStanceTaskManager implements Runnable
+public final class AttackStanceTaskManager
 {
 	private static final long ATTACK_STANCE_PERIOD = 15000; // 15 seconds
 	
-	private final Map<L2Character, Long> _characters = new ConcurrentHashMap<>();
+	private final Map<L2Character, Timeout> _characters = new ConcurrentHashMap<>();
 	
 	public final static AttackStanceTaskManager getInstance()
 	{
@@ -43,8 +42,6 @@ public final class AttackStanceTaskManager implements Runnable
 	
 	protected AttackStanceTaskManager()
 	{
-		// Run task each second.
-		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
 	}
 	
 	/**
@@ -60,7 +57,10 @@ public final class AttackStanceTaskManager implements Runnable
 					cubic.doAction();
 		}
 		
-		_characters.put(character, System.currentTimeMillis() + ATTACK_STANCE_PERIOD);
+		// Schedule the end of attack stance, replacing a former one.
+		final Timeout timeout = _characters.put(character, TimingWheelTaskManager.getInstance().schedule(() -> stopAttackStance(character), ATTACK_STANCE_PERIOD));
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -72,7 +72,9 @@ public final class AttackStanceTaskManager implements Runnable
 		if (character instanceof L2Summon)
 			character = character.getActingPlayer();
 		
-		_characters.remove(character);
+		final Timeout timeout = _characters.remove(character);
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -88,40 +90,26 @@ public final class AttackStanceTaskManager implements Runnable
 		return _characters.containsKey(character);
 	}
 	
-	@Override
-	public final void run()
+	/**
+	 * Turns off attack stance of {@link L2Character}, once its timeout expired.
+	 * @param character : {@link L2Character} to be updated.
+	 */
+	private final void stopAttackStance(L2Character character)
 	{
-		// List is empty, skip.
-		if (_characters.isEmpty())
+		// Remove task, unless it was already replaced or cancelled.
+		final Timeout timeout = _characters.get(character);
+		if (timeout == null || !timeout.isExpired() || !_characters.remove(character, timeout))
 			return;
 		
-		// Get current time.
-		final long time = System.currentTimeMillis();
+		// Stop character attack stance animation.
+		character.broadcastPacket(new AutoAttackStop(character.getObjectId()));
 		
-		// Loop all characters.
-		for (Iterator<Map.Entry<L2Character, Long>> iterator = _characters.entrySet().iterator(); iterator.hasNext();)
-		{
-			// Get entry of current iteration.
-			Map.Entry<L2Character, Long> entry = iterator.next();
-			
-			// Time hasn't passed yet, skip.
-			if (time < entry.getValue())
-				continue;
-			
-			// Get character.
-			final L2Character character = entry.getKey();
-			
-			// Stop character attack stance animation.
-			character.broadcastPacket(new AutoAttackStop(character.getObjectId()));
-			
-			// Stop pet attack stance animation.
-			if (character instanceof L2PcInstance && ((L2PcInstance) character).getPet() != null)
-				((L2PcInstance) character).getPet().broadcastPacket(new AutoAttackStop(((L2PcInstance) character).getPet().getObjectId()));
-			
-			// Inform character AI and remove task.
-			character.getAI().setAutoAttacking(false);
-			iterator.remove();
-		}
+		// Stop pet attack stance animation.
+		if (character instanceof L2PcInstance && ((L2PcInstance) character).getPet() != null)
+			((L2PcInstance) character).getPet().broadcastPacket(new AutoAttackStop(((L2PcInstance) character).getPet().getObjectId()));
+		
+		// Inform character AI.
+		character.getAI().setAutoAttacking(false);
 	}
 	
 	private static class SingletonHolder
@@ -14,21 +14,20 @@
  */
 package net.sf.l2j.gameserver.taskmanager;
 
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.model.actor.L2Attackable;
 import net.sf.l2j.gameserver.model.actor.L2Character;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager.Timeout;
 
 /**
  * Destroys {@link L2Character} corpse after specified time.
  * @author Hasha
  */
-public final class DecayTaskManager implements Runnable
+public final class DecayTaskManager
 {
-	private final Map<L2Character, Long> _characters = new ConcurrentHashMap<>();
+	private final Map<L2Character, Timeout> _characters = new ConcurrentHashMap<>();
 	
 	public static final DecayTaskManager getInstance()
 	{
@@ -37,8 +36,6 @@ public final class DecayTaskManager implements Runnable
 	
 	protected DecayTaskManager()
 	{
-		// Run task each second.
-		ThreadPoolManager.getInstance().scheduleAiAtFixedRate(this, 1000, 1000);
 	}
 	
 	/**
@@ -58,7 +55,10 @@ public final class DecayTaskManager implements Runnable
 				interval *= 2;
 		}
 		
-		_characters.put(character, System.currentTimeMillis() + interval * 1000);
+		// Schedule the decay, replacing a former one.
+		final Timeout timeout = _characters.put(character, TimingWheelTaskManager.getInstance().schedule(() -> decay(character), interval * 1000L));
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -67,7 +67,9 @@ public final class DecayTaskManager implements Runnable
 	 */
 	public final void cancel(L2Character actor)
 	{
-		_characters.remove(actor);
+		final Timeout timeout = _characters.remove(actor);
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -78,8 +80,8 @@ public final class DecayTaskManager implements Runnable
 	public final boolean isCorpseActionAllowed(L2Attackable monster)
 	{
 		// get time and verify, if corpse exists
-		Long time = _characters.get(monster);
-		if (time == null)
+		final Timeout timeout = _characters.get(monster);
+		if (timeout == null)
 			return false;
 		
 		// get corpse action interval, is half of corpse decay
@@ -90,33 +92,22 @@ public final class DecayTaskManager implements Runnable
 			corpseTime *= 2;
 		
 		// check last corpse action time
-		return System.currentTimeMillis() < time - corpseTime;
+		return System.currentTimeMillis() < timeout.getDeadline() - corpseTime;
 	}
 	
-	@Override
-	public final void run()
+	/**
+	 * Decays {@link L2Character}, once its timeout expired.
+	 * @param character : {@link L2Character} to decay.
+	 */
+	private final void decay(L2Character character)
 	{
-		// List is empty, skip.
-		if (_characters.isEmpty())
+		// Remove task, unless it was already replaced or cancelled.
+		final Timeout timeout = _characters.get(character);
+		if (timeout == null || !timeout.isExpired() || !_characters.remove(character, timeout))
 			return;
 		
-		// Get current time.
-		final long time = System.currentTimeMillis();
-		
-		// Loop all characters.
-		for (Iterator<Map.Entry<L2Character, Long>> iterator = _characters.entrySet().iterator(); iterator.hasNext();)
-		{
-			// Get entry of current iteration.
-			Map.Entry<L2Character, Long> entry = iterator.next();
-			
-			// Time hasn't passed yet, skip.
-			if (time < entry.getValue())
-				continue;
-			
-			// Decay character and remove task.
-			entry.getKey().onDecay();
-			iterator.remove();
-		}
+		// Decay character.
+		character.onDecay();
 	}
 	
 	private static final class SingletonHolder
@@ -18,7 +18,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,19 +25,19 @@ import java.util.logging.Logger;
 
 import net.sf.l2j.Config;
 import net.sf.l2j.L2DatabaseFactory;
-import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.instancemanager.CursedWeaponsManager;
 import net.sf.l2j.gameserver.model.L2World;
 import net.sf.l2j.gameserver.model.L2WorldRegion;
 import net.sf.l2j.gameserver.model.actor.L2Character;
 import net.sf.l2j.gameserver.model.actor.L2Playable;
 import net.sf.l2j.gameserver.model.item.instance.ItemInstance;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager.Timeout;
 
 /**
  * Destroys item on ground after specified time. When server is about to shutdown/restart, saves all dropped items in to SQL. Loads them during server start.
  * @author Hasha
  */
-public final class ItemsOnGroundTaskManager implements Runnable
+public final class ItemsOnGroundTaskManager
 {
 	private static final Logger _log = Logger.getLogger(ItemsOnGroundTaskManager.class.getName());
 	
@@ -47,6 +46,7 @@ public final class ItemsOnGroundTaskManager implements Runnable
 	private static final String SAVE_ITEMS = "INSERT INTO items_on_ground(object_id,item_id,count,enchant_level,x,y,z,time) VALUES(?,?,?,?,?,?,?,?)";
 	
 	private final Map<ItemInstance, Long> _items = new ConcurrentHashMap<>();
+	private final Map<ItemInstance, Timeout> _timeouts = new ConcurrentHashMap<>();
 	
 	public static final ItemsOnGroundTaskManager getInstance()
 	{
@@ -55,9 +55,6 @@ public final class ItemsOnGroundTaskManager implements Runnable
 	
 	public ItemsOnGroundTaskManager()
 	{
-		// Run task each 5 seconds.
-		ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, 5000, 5000);
-		
 		// Item saving is disabled, return.
 		if (!Config.SAVE_DROPPED_ITEM)
 			return;
@@ -100,7 +97,10 @@ public final class ItemsOnGroundTaskManager implements Runnable
 				if (interval == 0)
 					_items.put(item, (long) 0);
 				else
+				{
 					_items.put(item, time + interval);
+					_timeouts.put(item, TimingWheelTaskManager.getInstance().schedule(() -> destroy(item), interval));
+				}
 			}
 			result.close();
 			
@@ -153,9 +153,19 @@ public final class ItemsOnGroundTaskManager implements Runnable
 		if (actor instanceof L2Playable)
 			dropTime *= Config.PLAYER_DROPPED_ITEM_MULTIPLIER;
 		
-		// If drop time exists, set real drop time.
+		// If drop time exists, schedule the destruction and set real drop time.
+		Timeout timeout = null;
 		if (dropTime != 0)
+		{
+			timeout = _timeouts.put(item, TimingWheelTaskManager.getInstance().schedule(() -> destroy(item), dropTime));
 			dropTime += System.currentTimeMillis();
+		}
+		else
+			timeout = _timeouts.remove(item);
+		
+		// Cancel former destruction.
+		if (timeout != null)
+			timeout.cancel();
 		
 		// Put item to drop list.
 		_items.put(item, dropTime);
@@ -168,41 +178,27 @@ public final class ItemsOnGroundTaskManager implements Runnable
 	public final void remove(ItemInstance item)
 	{
 		_items.remove(item);
+		
+		final Timeout timeout = _timeouts.remove(item);
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
-	@Override
-	public final void run()
+	/**
+	 * Destroys {@link ItemInstance}, once its timeout expired.
+	 * @param item : {@link ItemInstance} to be destroyed.
+	 */
+	private final void destroy(ItemInstance item)
 	{
-		// List is empty, skip.
-		if (_items.isEmpty())
+		// Task was already replaced or removed, skip.
+		final Timeout timeout = _timeouts.get(item);
+		if (timeout == null || !timeout.isExpired() || !_timeouts.remove(item, timeout))
 			return;
 		
-		// Get current time.
-		final long time = System.currentTimeMillis();
-		
-		// Loop all items.
-		for (Iterator<Map.Entry<ItemInstance, Long>> iterator = _items.entrySet().iterator(); iterator.hasNext();)
-		{
-			// Get next entry.
-			Map.Entry<ItemInstance, Long> entry = iterator.next();
-			
-			// Get and validate destroy time.
-			final long destroyTime = entry.getValue();
-			
-			// Item can't be destroyed, skip.
-			if (destroyTime == 0)
-				continue;
-			
-			// Time hasn't passed yet, skip.
-			if (time < destroyTime)
-				continue;
-			
-			// Destroy item and remove from task.
-			final ItemInstance item = entry.getKey();
-			L2World.getInstance().removeVisibleObject(item, item.getWorldRegion());
-			L2World.getInstance().removeObject(item);
-			iterator.remove();
-		}
+		// Destroy item and remove from task.
+		_items.remove(item);
+		L2World.getInstance().removeVisibleObject(item, item.getWorldRegion());
+		L2World.getInstance().removeObject(item);
 	}
 	
 	public final void save()
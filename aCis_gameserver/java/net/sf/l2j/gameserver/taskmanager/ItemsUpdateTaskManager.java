@@ -0,0 +1,239 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.taskmanager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.L2DatabaseFactory;
+import net.sf.l2j.gameserver.ThreadPoolManager;
+import net.sf.l2j.gameserver.model.item.instance.ItemInstance;
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Write-behind of {@link ItemInstance#updateDatabase()}.<br>
+ * <br>
+ * Changed items are queued by object id, so several changes of the same item are written once. The queue is written each {@link Config#ITEMS_WRITE_DELAY} ms, or as soon as it holds {@link Config#ITEMS_WRITE_QUEUE_SIZE} items, using one batch per statement, all in one transaction. Items are added to the batches in the order of their first change.<br>
+ * <br>
+ * Code reading or writing the items table directly must {@link #flush()} first. The queue is flushed on shutdown, then items are written at once, as when the write delay is 0.
+ */
+public final class ItemsUpdateTaskManager implements Runnable
+{
+	private static final Logger _log = Logger.getLogger(ItemsUpdateTaskManager.class.getName());
+	
+	private final Map<Integer, ItemInstance> _items = new LinkedHashMap<>();
+	private boolean _enabled;
+	private boolean _flushRequested;
+	
+	// Statistics.
+	private volatile long _writtenItems;
+	private volatile long _flushes;
+	private volatile long _lastFlushTime;
+	private volatile long _maxFlushTime;
+	private volatile long _failedFlushes;
+	
+	public static final ItemsUpdateTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	protected ItemsUpdateTaskManager()
+	{
+		_enabled = Config.ITEMS_WRITE_DELAY > 0;
+		
+		// Run task each write delay.
+		if (_enabled)
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, Config.ITEMS_WRITE_DELAY, Config.ITEMS_WRITE_DELAY);
+	}
+	
+	/**
+	 * Queues the item, to be written by the next flush.
+	 * @param item : The changed item.
+	 * @return boolean : False if the write-behind is disabled, the item must then be written at once.
+	 */
+	public final boolean add(ItemInstance item)
+	{
+		synchronized (_items)
+		{
+			if (!_enabled)
+				return false;
+			
+			_items.putIfAbsent(item.getObjectId(), item);
+			
+			// Queue is full, write it without waiting the delay.
+			if (_items.size() < Config.ITEMS_WRITE_QUEUE_SIZE || _flushRequested)
+				return true;
+			
+			_flushRequested = true;
+		}
+		
+		ThreadPoolManager.getInstance().executeTask(this);
+		return true;
+	}
+	
+	@Override
+	public final void run()
+	{
+		flush();
+	}
+	
+	/**
+	 * Writes all queued items, and returns once they are in database.
+	 */
+	public final synchronized void flush()
+	{
+		final List<ItemInstance> items;
+		synchronized (_items)
+		{
+			_flushRequested = false;
+			
+			if (_items.isEmpty())
+				return;
+			
+			items = new ArrayList<>(_items.values());
+			_items.clear();
+		}
+		
+		final long time = System.currentTimeMillis();
+		
+		final List<ItemInstance> batched = new ArrayList<>(items.size());
+		final int[] operations = new int[items.size()];
+		boolean committed = false;
+		
+		try (Connection con = L2DatabaseFactory.getInstance().getConnection())
+		{
+			final PreparedStatement insert = con.prepareStatement(ItemInstance.INSERT_ITEM);
+			final PreparedStatement update = con.prepareStatement(ItemInstance.UPDATE_ITEM);
+			final PreparedStatement delete = con.prepareStatement(ItemInstance.DELETE_ITEM);
+			final PreparedStatement deleteAugmentation = con.prepareStatement(ItemInstance.DELETE_AUGMENTATION);
+			
+			for (ItemInstance item : items)
+			{
+				final int operation = item.addToBatch(insert, update, delete);
+				if (operation == ItemInstance.DB_NONE)
+					continue;
+				
+				if (operation == ItemInstance.DB_DELETE)
+				{
+					deleteAugmentation.setInt(1, item.getObjectId());
+					deleteAugmentation.addBatch();
+				}
+				
+				operations[batched.size()] = operation;
+				batched.add(item);
+			}
+			
+			// The batches are written as one transaction : a failed batch leaves no item written, so all items can be written again.
+			con.setAutoCommit(false);
+			try
+			{
+				insert.executeBatch();
+				update.executeBatch();
+				delete.executeBatch();
+				deleteAugmentation.executeBatch();
+				
+				con.commit();
+				committed = true;
+				
+				_writtenItems += batched.size();
+			}
+			finally
+			{
+				if (!committed)
+					con.rollback();
+				
+				con.setAutoCommit(true);
+				
+				insert.close();
+				update.close();
+				delete.close();
+				deleteAugmentation.close();
+			}
+			
+			// Augmentations of new items are stored once the item exists.
+			for (int i = 0; i < batched.size(); i++)
+			{
+				if (operations[i] == ItemInstance.DB_INSERT && batched.get(i).getAugmentation() != null)
+					batched.get(i).updateItemAttributes();
+			}
+		}
+		catch (Exception e)
+		{
+			_failedFlushes++;
+			
+			// Items are in database, they mustn't be written again.
+			if (committed)
+				_log.log(Level.WARNING, "ItemsUpdateTaskManager: error after writing " + batched.size() + " items: " + e.getMessage(), e);
+			else
+			{
+				_log.log(Level.WARNING, "ItemsUpdateTaskManager: couldn't write " + batched.size() + " items by batch, writing them one by one: " + e.getMessage(), e);
+				
+				// Nothing was written : give back each item its former state, and write it alone, the usual way.
+				for (int i = 0; i < batched.size(); i++)
+				{
+					final ItemInstance item = batched.get(i);
+					item.cancelBatch(operations[i]);
+					item.updateDatabaseNow();
+				}
+			}
+		}
+		
+		final long flushTime = System.currentTimeMillis() - time;
+		_lastFlushTime = flushTime;
+		if (flushTime > _maxFlushTime)
+			_maxFlushTime = flushTime;
+		_flushes++;
+	}
+	
+	/**
+	 * Writes all queued items, and disables the write-behind : later changes are written at once.
+	 */
+	public final void shutdown()
+	{
+		synchronized (_items)
+		{
+			_enabled = false;
+		}
+		flush();
+	}
+	
+	/**
+	 * @return String : Queue depth, written items and flush latency.
+	 */
+	public final String getStats()
+	{
+		final int size;
+		synchronized (_items)
+		{
+			size = _items.size();
+		}
+		
+		final StringBuilder sb = new StringBuilder(200);
+		StringUtil.append(sb, "Items write-behind:\r\n" + "Queued items: ", String.valueOf(size), "\r\n" + "Written items: ", String.valueOf(_writtenItems), " in ", String.valueOf(_flushes), " flushes (", String.valueOf(_failedFlushes), " failed)\r\n" + "Flush time: ", String.valueOf(_lastFlushTime), " ms (max: ", String.valueOf(_maxFlushTime), " ms)\r\n");
+		return sb.toString();
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final ItemsUpdateTaskManager _instance = new ItemsUpdateTaskManager();
+	}
+}
\ No newline at end of file
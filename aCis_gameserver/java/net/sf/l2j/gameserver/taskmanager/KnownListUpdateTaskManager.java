@@ -21,20 +21,17 @@ import net.sf.l2j.gameserver.model.L2World;
 import net.sf.l2j.gameserver.model.L2WorldRegion;
 import net.sf.l2j.gameserver.model.actor.L2Attackable;
 import net.sf.l2j.gameserver.model.actor.L2Character;
-import net.sf.l2j.gameserver.model.actor.L2Playable;
-import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 
 /**
  * Periodically updates known list of all existing {@link L2Character}.<br>
- * Special scope is used for {@link L2WorldRegion} without {@link L2PcInstance} inside.
+ * Known lists are updated by movement, when a {@link L2Character} crosses a {@link net.sf.l2j.gameserver.model.L2WorldCell} border (see {@link net.sf.l2j.gameserver.model.actor.knownlist.ObjectKnownList#updateKnownObjects()}). This task is only a safety net, sweeping the whole world once each FULL_UPDATE ticks.
  * @author Hasha
  */
 public final class KnownListUpdateTaskManager implements Runnable
 {
-	// Update for NPCs is performed each FULL_UPDATE tick interval.
+	// Sweep is performed each FULL_UPDATE tick interval.
 	private static final int FULL_UPDATE = 10;
 	
-	private boolean _flagForgetAdd = true;
 	private int _timer = FULL_UPDATE;
 	
 	public static final KnownListUpdateTaskManager getInstance()
@@ -54,21 +51,18 @@ public final class KnownListUpdateTaskManager implements Runnable
 		if (--_timer == 0)
 			_timer = FULL_UPDATE;
 		
-		// When iteration timer is 1, 2, perform forget and add for NPCs.
-		final boolean fullUpdate = _timer < 3;
+		// When iteration timer is 1, 2, perform forget and add, otherwise leave it to movement.
+		if (_timer > 2)
+			return;
 		
-		// Swap forget/add flag for this iteration.
-		_flagForgetAdd = !_flagForgetAdd;
+		// One iteration performs object forget, the other performs object add.
+		final boolean forget = _timer == 2;
 		
 		// Go through all world regions.
 		for (L2WorldRegion regions[] : L2World.getInstance().getAllWorldRegions())
 		{
 			for (L2WorldRegion region : regions)
 			{
-				// Skip inactive regions unless full update (knownlist can be still updated regardless AI active or detached).
-				if (!region.isActive() && !fullUpdate)
-					continue;
-				
 				// Go through all visible objects.
 				for (L2Object object : region.getVisibleObjects().values())
 				{
@@ -76,32 +70,22 @@ public final class KnownListUpdateTaskManager implements Runnable
 					if (!(object instanceof L2Character) || !object.isVisible())
 						continue;
 					
-					final boolean isPlayable = object instanceof L2Playable;
-					final boolean isAttackable = object instanceof L2Attackable;
-					
-					// When one of these conditions below is passed performs forget objects (which are beyond forget distance) or add objects from surrounding regions (which are closer than detect distance)
-					// 1) object is non-attackable and non-playable (NPCs) -> each FULL_UPDATE_TIMER iterations
-					// 2) object is playable (players, summons, pets) -> each iteration
-					// 3) object is attackable (monsters, raids, etc) -> each iteration
-					if (fullUpdate || isPlayable || isAttackable)
+					if (forget)
+						object.getKnownList().forgetObjects();
+					else
 					{
-						// One iteration performs object forget.
-						if (_flagForgetAdd)
-							object.getKnownList().forgetObjects();
-						// The other iteration performs object add.
-						else
+						final boolean isAttackable = object instanceof L2Attackable;
+						
+						for (L2WorldRegion surroundingRegion : region.getSurroundingRegions())
 						{
-							for (L2WorldRegion surroundingRegion : region.getSurroundingRegions())
+							// Object is a monster and surrounding region does not contain playable, skip.
+							if (isAttackable && !surroundingRegion.isActive())
+								continue;
+							
+							for (L2Object o : surroundingRegion.getVisibleObjects().values())
 							{
-								// Object is a monster and surrounding region does not contain playable, skip.
-								if (isAttackable && !surroundingRegion.isActive())
-									continue;
-								
-								for (L2Object o : surroundingRegion.getVisibleObjects().values())
-								{
-									if (o != object)
-										object.getKnownList().addKnownObject(o);
-								}
+								if (o != object)
+									object.getKnownList().addKnownObject(o);
 							}
 						}
 					}
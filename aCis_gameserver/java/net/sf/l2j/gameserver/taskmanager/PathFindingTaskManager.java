@@ -0,0 +1,236 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.taskmanager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.gameserver.ThreadPoolManager;
+import net.sf.l2j.gameserver.geoengine.PathFinding;
+import net.sf.l2j.gameserver.model.Location;
+import net.sf.l2j.gameserver.model.actor.L2Character;
+
+/**
+ * Searches paths of moving {@link L2Character}s on the pathfinding thread pool, so the threads giving moves don't wait for them.<br>
+ * <br>
+ * A character has at most one pending request : a request to the same target cell joins it, a request to another target replaces it.<br>
+ * <br>
+ * Once the path is searched, {@link L2Character#onPathFound(PathRequest)} resumes the move on the AI thread pool. A request not searched before its deadline is dropped, and {@link L2Character#onPathExpired(PathRequest)} ends the wait of the character instead.
+ */
+public final class PathFindingTaskManager
+{
+	protected static final Logger _log = Logger.getLogger(PathFindingTaskManager.class.getName());
+	
+	private final Map<Integer, PathRequest> _requests = new ConcurrentHashMap<>();
+	
+	// statistics
+	private final LongAdder _requested = new LongAdder();
+	private final LongAdder _joined = new LongAdder();
+	private final LongAdder _replaced = new LongAdder();
+	private final LongAdder _expired = new LongAdder();
+	private final LongAdder _found = new LongAdder();
+	private final LongAdder _failed = new LongAdder();
+	
+	public static final PathFindingTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	protected PathFindingTaskManager()
+	{
+	}
+	
+	/**
+	 * Requests the path of the character, or joins its pending request to the same target cell.
+	 * @param character : the moving character
+	 * @param ox : origin x
+	 * @param oy : origin y
+	 * @param oz : origin z
+	 * @param tx : target x
+	 * @param ty : target y
+	 * @param tz : target z
+	 * @param gtx : target geo x
+	 * @param gty : target geo y
+	 * @return PathRequest : the pending request
+	 */
+	public final PathRequest request(L2Character character, int ox, int oy, int oz, int tx, int ty, int tz, int gtx, int gty)
+	{
+		_requested.increment();
+		
+		// The pending request is checked and replaced at once, so two requests of the character can't both be submitted.
+		final PathRequest request = new PathRequest(character, ox, oy, oz, tx, ty, tz, gtx, gty);
+		final PathRequest pending = _requests.compute(character.getObjectId(), (objectId, current) ->
+		{
+			if (current == null)
+				return request;
+			
+			if (current._gtx == gtx && current._gty == gty)
+				return current;
+			
+			_replaced.increment();
+			return request;
+		});
+		
+		if (pending != request)
+		{
+			_joined.increment();
+			return pending;
+		}
+		
+		ThreadPoolManager.getInstance().executePathfinding(request);
+		return request;
+	}
+	
+	/**
+	 * @return List<String> : statistics of requests
+	 */
+	public final List<String> getStat()
+	{
+		final List<String> list = new ArrayList<>();
+		list.add("Async pathfind: requests=" + String.valueOf(_requested.sum()) + " joined=" + String.valueOf(_joined.sum()) + " replaced=" + String.valueOf(_replaced.sum()) + " pending=" + String.valueOf(_requests.size()));
+		list.add("Async pathfind: found=" + String.valueOf(_found.sum()) + " failed=" + String.valueOf(_failed.sum()) + " expired=" + String.valueOf(_expired.sum()));
+		return list;
+	}
+	
+	/**
+	 * Path search of a character, run on the pathfinding thread pool.
+	 */
+	public final class PathRequest implements Runnable
+	{
+		private final L2Character _character;
+		private final int _ox;
+		private final int _oy;
+		private final int _oz;
+		private final int _tx;
+		private final int _ty;
+		private final int _tz;
+		private final int _gtx;
+		private final int _gty;
+		private final long _deadline;
+		
+		private volatile boolean _done = false;
+		private volatile List<Location> _path;
+		
+		protected PathRequest(L2Character character, int ox, int oy, int oz, int tx, int ty, int tz, int gtx, int gty)
+		{
+			_character = character;
+			_ox = ox;
+			_oy = oy;
+			_oz = oz;
+			_tx = tx;
+			_ty = ty;
+			_tz = tz;
+			_gtx = gtx;
+			_gty = gty;
+			_deadline = System.currentTimeMillis() + Config.PATHFIND_TIMEOUT;
+		}
+		
+		@Override
+		public final void run()
+		{
+			final Integer objectId = _character.getObjectId();
+			
+			// replaced by a newer request of the character
+			if (_requests.get(objectId) != this)
+				return;
+			
+			// waited too long, the character keeps its straight movement or gives up the move
+			if (System.currentTimeMillis() > _deadline)
+			{
+				if (_requests.remove(objectId, this))
+				{
+					_expired.increment();
+					ThreadPoolManager.getInstance().executeAi(() -> _character.onPathExpired(this));
+				}
+				return;
+			}
+			
+			try
+			{
+				_path = PathFinding.getInstance().findPath(_ox, _oy, _oz, _tx, _ty, _tz, false);
+			}
+			catch (Exception e)
+			{
+				_log.log(Level.WARNING, "PathFindingTaskManager: Couldn't find path of " + _character.getName() + ": " + e.getMessage(), e);
+			}
+			_done = true;
+			
+			if (_path == null || _path.size() < 2)
+				_failed.increment();
+			else
+				_found.increment();
+			
+			// replaced while searched
+			if (!_requests.remove(objectId, this))
+				return;
+			
+			ThreadPoolManager.getInstance().executeAi(() -> _character.onPathFound(this));
+		}
+		
+		/**
+		 * @param x : current x of the character
+		 * @param y : current y of the character
+		 * @param z : current z of the character
+		 * @param gtx : target geo x
+		 * @param gty : target geo y
+		 * @return boolean : True when the path was searched to given target cell, and the character can go to its first node
+		 */
+		public final boolean isUsable(int x, int y, int z, int gtx, int gty)
+		{
+			if (!_done || _gtx != gtx || _gty != gty)
+				return false;
+			
+			final List<Location> path = _path;
+			if (path == null || path.size() < 2)
+				return true;
+			
+			return PathFinding.getInstance().canMoveToTarget(x, y, z, path.get(0).getX(), path.get(0).getY(), path.get(0).getZ());
+		}
+		
+		/**
+		 * @return List<Location> : the found path, null if no path was found
+		 */
+		public final List<Location> getPath()
+		{
+			return _path;
+		}
+		
+		public final int getX()
+		{
+			return _tx;
+		}
+		
+		public final int getY()
+		{
+			return _ty;
+		}
+		
+		public final int getZ()
+		{
+			return _tz;
+		}
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final PathFindingTaskManager _instance = new PathFindingTaskManager();
+	}
+}
\ No newline at end of file
@@ -14,20 +14,22 @@
  */
 package net.sf.l2j.gameserver.taskmanager;
 
-import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager.Timeout;
 
 /**
  * Updates and clears PvP flag of {@link L2PcInstance} after specified time.
  * @author Tryskell, Hasha
  */
-public final class PvpFlagTaskManager implements Runnable
+public final class PvpFlagTaskManager
 {
-	private final Map<L2PcInstance, Long> _players = new ConcurrentHashMap<>();
+	// PvP flag blinks during the last 5 seconds.
+	private static final long BLINK_PERIOD = 5000;
+	
+	private final Map<L2PcInstance, Timeout> _players = new ConcurrentHashMap<>();
 	
 	public static final PvpFlagTaskManager getInstance()
 	{
@@ -36,8 +38,6 @@ public final class PvpFlagTaskManager implements Runnable
 	
 	protected PvpFlagTaskManager()
 	{
-		// Run task each second.
-		ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, 1000, 1000);
 	}
 	
 	/**
@@ -47,7 +47,15 @@ public final class PvpFlagTaskManager implements Runnable
 	 */
 	public final void add(L2PcInstance player, long time)
 	{
-		_players.put(player, System.currentTimeMillis() + time);
+		// Time is renewed, keep PvP flag.
+		if (player.getPvpFlag() == 2)
+			player.updatePvPFlag(1);
+		
+		// Schedule the blinking PvP flag, replacing a former task.
+		final long endTime = System.currentTimeMillis() + time;
+		final Timeout timeout = _players.put(player, TimingWheelTaskManager.getInstance().schedule(() -> update(player, endTime), time - BLINK_PERIOD));
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -56,40 +64,40 @@ public final class PvpFlagTaskManager implements Runnable
 	 */
 	public final void remove(L2PcInstance player)
 	{
-		_players.remove(player);
+		final Timeout timeout = _players.remove(player);
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
-	@Override
-	public final void run()
+	/**
+	 * Updates PvP flag of {@link L2PcInstance}, once its timeout expired : first to blinking, then cleared.
+	 * @param player : {@link L2PcInstance} to be updated.
+	 * @param endTime : Time in ms, when the PvP flag is removed.
+	 */
+	private final void update(L2PcInstance player, long endTime)
 	{
-		// List is empty, skip.
-		if (_players.isEmpty())
+		// Task was already replaced or removed, skip.
+		final Timeout timeout = _players.get(player);
+		if (timeout == null || !timeout.isExpired())
 			return;
 		
-		// Get current time.
-		final long currentTime = System.currentTimeMillis();
+		// Get time left and check.
+		final long timeLeft = endTime - System.currentTimeMillis();
 		
-		// Loop all players.
-		for (Iterator<Map.Entry<L2PcInstance, Long>> iterator = _players.entrySet().iterator(); iterator.hasNext();)
+		// Time is running out, clear PvP flag and remove from list.
+		if (timeLeft <= 0)
+		{
+			if (_players.remove(player, timeout))
+				player.updatePvPFlag(0);
+		}
+		// Time almost runned out, update to blinking PvP flag and schedule the clear.
+		else
 		{
-			// Get entry of current iteration.
-			Map.Entry<L2PcInstance, Long> entry = iterator.next();
-			
-			// Get time left and check.
-			final long timeLeft = entry.getValue();
-			
-			// Time is running out, clear PvP flag and remove from list.
-			if (currentTime > timeLeft)
-			{
-				entry.getKey().updatePvPFlag(0);
-				iterator.remove();
-			}
-			// Time almost runned out, update to blinking PvP flag.
-			else if (currentTime > (timeLeft - 5000))
-				entry.getKey().updatePvPFlag(2);
-			// Time didn't run out, keep PvP flag.
+			final Timeout next = TimingWheelTaskManager.getInstance().schedule(() -> update(player, endTime), timeLeft);
+			if (_players.replace(player, timeout, next))
+				player.updatePvPFlag(2);
 			else
-				entry.getKey().updatePvPFlag(1);
+				next.cancel();
 		}
 	}
 	
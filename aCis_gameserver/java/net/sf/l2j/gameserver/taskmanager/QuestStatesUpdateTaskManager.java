@@ -0,0 +1,112 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.taskmanager;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.sf.l2j.Config;
+import net.sf.l2j.gameserver.ThreadPoolManager;
+import net.sf.l2j.gameserver.model.quest.QuestState;
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Write-behind of quest variables.<br>
+ * <br>
+ * A {@link QuestState} keeps its changed variables, and registers here on its first change. Each {@link Config#QUESTS_WRITE_DELAY} ms, registered quest states write their changes, one batch per quest state, on the database lane of the player. Changes are also written on character store (logout, autosave) and on quest exit.
+ */
+public final class QuestStatesUpdateTaskManager implements Runnable
+{
+	private final Set<QuestState> _questStates = ConcurrentHashMap.newKeySet();
+	private volatile boolean _enabled;
+	
+	// Statistics.
+	private volatile long _flushes;
+	private volatile long _writtenQuestStates;
+	private volatile long _lastFlushTime;
+	
+	public static final QuestStatesUpdateTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	protected QuestStatesUpdateTaskManager()
+	{
+		_enabled = Config.QUESTS_WRITE_DELAY > 0;
+		
+		// Run task each write delay.
+		if (_enabled)
+			ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, Config.QUESTS_WRITE_DELAY, Config.QUESTS_WRITE_DELAY);
+	}
+	
+	/**
+	 * Registers the quest state, to be written by the next flush.
+	 * @param qs : The changed quest state.
+	 * @return boolean : False if the write-behind is disabled, the quest state must then be written at once.
+	 */
+	public final boolean add(QuestState qs)
+	{
+		if (!_enabled)
+			return false;
+		
+		_questStates.add(qs);
+		return true;
+	}
+	
+	@Override
+	public final void run()
+	{
+		final long time = System.currentTimeMillis();
+		
+		int count = 0;
+		for (Iterator<QuestState> it = _questStates.iterator(); it.hasNext();)
+		{
+			final QuestState qs = it.next();
+			it.remove();
+			
+			if (qs.storeChangedVars())
+				count++;
+		}
+		
+		_writtenQuestStates += count;
+		_lastFlushTime = System.currentTimeMillis() - time;
+		_flushes++;
+	}
+	
+	/**
+	 * Writes all changed quest states, and disables the write-behind : later changes are written at once.
+	 */
+	public final void shutdown()
+	{
+		_enabled = false;
+		run();
+	}
+	
+	/**
+	 * @return String : Pending and written quest states.
+	 */
+	public final String getStats()
+	{
+		final StringBuilder sb = new StringBuilder(200);
+		StringUtil.append(sb, "Quests write-behind:\r\n" + "Changed quest states: ", String.valueOf(_questStates.size()), "\r\n" + "Written quest states: ", String.valueOf(_writtenQuestStates), " in ", String.valueOf(_flushes), " flushes\r\n" + "Flush time: ", String.valueOf(_lastFlushTime), " ms\r\n");
+		return sb.toString();
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final QuestStatesUpdateTaskManager _instance = new QuestStatesUpdateTaskManager();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,360 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.taskmanager;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.sf.l2j.gameserver.ThreadPoolManager;
+import net.sf.l2j.util.StringUtil;
+
+/**
+ * Hierarchical timing wheel, shared by trackers which used to sweep their whole map each second ({@link DecayTaskManager}, {@link AttackStanceTaskManager}, {@link PvpFlagTaskManager}, {@link WaterTaskManager}, {@link ItemsOnGroundTaskManager}).<br>
+ * <br>
+ * Four wheels of 256 buckets cover 100ms, 25.6s, 1.8h and 19.4 days per bucket. A {@link Timeout} is put in the lowest wheel able to hold its deadline, and falls to lower wheels when its bucket is reached. Schedule, cancel and expire are O(1), whatever the amount of pending timeouts.<br>
+ * <br>
+ * Buckets are only handled by the wheel task ; other threads queue their timeouts and cancellations, which are applied on next tick. Expired tasks are run on the wheel thread, so they must stay short.
+ */
+public final class TimingWheelTaskManager implements Runnable
+{
+	private static final Logger _log = Logger.getLogger(TimingWheelTaskManager.class.getName());
+	
+	private static final int TICK = 100; // 100 ms
+	
+	private static final int WHEEL_BITS = 8;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+	
+	private final Bucket[][] _wheels = new Bucket[LEVELS][WHEEL_SIZE];
+	
+	private final Queue<Timeout> _pendingTimeouts = new ConcurrentLinkedQueue<>();
+	private final Queue<Timeout> _cancelledTimeouts = new ConcurrentLinkedQueue<>();
+	
+	private final long _startTime;
+	private long _tick;
+	
+	// Statistics.
+	private final AtomicInteger _count = new AtomicInteger();
+	private volatile long _lastLag;
+	private volatile long _maxLag;
+	private volatile long _expired;
+	
+	public static final TimingWheelTaskManager getInstance()
+	{
+		return SingletonHolder._instance;
+	}
+	
+	protected TimingWheelTaskManager()
+	{
+		for (Bucket[] wheel : _wheels)
+		{
+			for (int i = 0; i < WHEEL_SIZE; i++)
+				wheel[i] = new Bucket();
+		}
+		
+		_startTime = System.currentTimeMillis();
+		
+		// Run task each tick.
+		ThreadPoolManager.getInstance().scheduleGeneralAtFixedRate(this, TICK, TICK);
+	}
+	
+	/**
+	 * Schedules the task to be run once, after given delay.
+	 * @param task : The task to run.
+	 * @param delay : Delay in ms.
+	 * @return Timeout : The handle of the scheduled task, used to cancel it.
+	 */
+	public final Timeout schedule(Runnable task, long delay)
+	{
+		final Timeout timeout = new Timeout(task, System.currentTimeMillis() + Math.max(0, delay));
+		
+		_count.incrementAndGet();
+		_pendingTimeouts.add(timeout);
+		
+		return timeout;
+	}
+	
+	@Override
+	public final void run()
+	{
+		// Get current time and the last tick to reach.
+		final long time = System.currentTimeMillis();
+		final long tick = (time - _startTime) / TICK;
+		
+		// Lag is the time elapsed since the next tick was due.
+		final long lag = Math.max(0, time - (_startTime + (_tick + 1) * TICK));
+		_lastLag = lag;
+		if (lag > _maxLag)
+			_maxLag = lag;
+		
+		// Apply cancellations and new timeouts.
+		removeCancelled();
+		
+		Timeout timeout;
+		while ((timeout = _pendingTimeouts.poll()) != null)
+		{
+			// Cancelled before being placed, skip.
+			if (timeout.isCancelled())
+				continue;
+			
+			// Never expire on a tick already processed, nor too far to fit in the wheels.
+			timeout._deadlineTick = Math.min(_tick + MAX_DELTA, Math.max(_tick + 1, (timeout._deadline - _startTime + TICK - 1) / TICK));
+			place(timeout);
+		}
+		
+		// Process all ticks which are due.
+		while (_tick < tick)
+		{
+			_tick++;
+			
+			// Higher wheels first, since their timeouts may fall in a lower wheel bucket reached at this same tick.
+			for (int level = LEVELS - 1; level > 0; level--)
+			{
+				if ((_tick & ((1L << (WHEEL_BITS * level)) - 1)) == 0)
+					cascade(_wheels[level][(int) (_tick >> (WHEEL_BITS * level)) & WHEEL_MASK]);
+			}
+			
+			expire(_wheels[0][(int) _tick & WHEEL_MASK]);
+			
+			// Expired tasks may have cancelled timeouts of the next buckets.
+			removeCancelled();
+		}
+	}
+	
+	/**
+	 * Puts the timeout in the lowest wheel able to hold it. Timeout deadline must be the current tick or later.
+	 * @param timeout : The timeout to place.
+	 */
+	private void place(Timeout timeout)
+	{
+		final long delta = timeout._deadlineTick - _tick;
+		
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1))))
+			level++;
+		
+		_wheels[level][(int) (timeout._deadlineTick >> (WHEEL_BITS * level)) & WHEEL_MASK].add(timeout);
+	}
+	
+	private void cascade(Bucket bucket)
+	{
+		Timeout timeout = bucket.clear();
+		while (timeout != null)
+		{
+			final Timeout next = timeout._next;
+			timeout._next = null;
+			timeout._prev = null;
+			
+			place(timeout);
+			
+			timeout = next;
+		}
+	}
+	
+	private void expire(Bucket bucket)
+	{
+		Timeout timeout = bucket.clear();
+		while (timeout != null)
+		{
+			final Timeout next = timeout._next;
+			timeout._next = null;
+			timeout._prev = null;
+			
+			if (timeout._state.compareAndSet(Timeout.PENDING, Timeout.EXPIRED))
+			{
+				_count.decrementAndGet();
+				_expired++;
+				
+				try
+				{
+					timeout._task.run();
+				}
+				catch (Exception e)
+				{
+					_log.log(Level.WARNING, "TimingWheelTaskManager: error while running " + timeout._task + ": " + e.getMessage(), e);
+				}
+			}
+			
+			timeout = next;
+		}
+	}
+	
+	private void removeCancelled()
+	{
+		Timeout timeout;
+		while ((timeout = _cancelledTimeouts.poll()) != null)
+		{
+			// Not placed yet, or already out of its bucket.
+			if (timeout._bucket != null)
+				timeout._bucket.remove(timeout);
+		}
+	}
+	
+	/**
+	 * @return String : Tick lag and bucket occupancy of each wheel.
+	 */
+	public final String getStats()
+	{
+		final StringBuilder sb = new StringBuilder(300);
+		StringUtil.append(sb, "Timing Wheel:\r\n" + "Pending timeouts: ", String.valueOf(_count.get()), "\r\n" + "Expired timeouts: ", String.valueOf(_expired), "\r\n" + "Tick lag: ", String.valueOf(_lastLag), " ms (max: ", String.valueOf(_maxLag), " ms)\r\n");
+		
+		for (int level = 0; level < LEVELS; level++)
+		{
+			int buckets = 0;
+			int timeouts = 0;
+			int largest = 0;
+			for (Bucket bucket : _wheels[level])
+			{
+				final int size = bucket._size;
+				if (size == 0)
+					continue;
+				
+				buckets++;
+				timeouts += size;
+				largest = Math.max(largest, size);
+			}
+			StringUtil.append(sb, "Wheel ", String.valueOf(level), ": ", String.valueOf(buckets), "/", String.valueOf(WHEEL_SIZE), " buckets used, ", String.valueOf(timeouts), " timeouts, largest bucket ", String.valueOf(largest), "\r\n");
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * Handle of a task scheduled in the {@link TimingWheelTaskManager}.
+	 */
+	public static final class Timeout
+	{
+		private static final int PENDING = 0;
+		private static final int CANCELLED = 1;
+		private static final int EXPIRED = 2;
+		
+		private final Runnable _task;
+		private final long _deadline;
+		private final AtomicInteger _state = new AtomicInteger(PENDING);
+		
+		// Handled by the wheel task only.
+		private long _deadlineTick;
+		private Bucket _bucket;
+		private Timeout _prev;
+		private Timeout _next;
+		
+		private Timeout(Runnable task, long deadline)
+		{
+			_task = task;
+			_deadline = deadline;
+		}
+		
+		/**
+		 * @return long : The time in ms, when the task is run.
+		 */
+		public final long getDeadline()
+		{
+			return _deadline;
+		}
+		
+		/**
+		 * Cancels the timeout, which task won't be run.
+		 * @return boolean : True, when the timeout was pending and is now cancelled.
+		 */
+		public final boolean cancel()
+		{
+			if (!_state.compareAndSet(PENDING, CANCELLED))
+				return false;
+			
+			final TimingWheelTaskManager wheel = getInstance();
+			wheel._count.decrementAndGet();
+			wheel._cancelledTimeouts.add(this);
+			return true;
+		}
+		
+		public final boolean isCancelled()
+		{
+			return _state.get() == CANCELLED;
+		}
+		
+		public final boolean isExpired()
+		{
+			return _state.get() == EXPIRED;
+		}
+	}
+	
+	/**
+	 * Doubly linked list of {@link Timeout}, handled by the wheel task only.
+	 */
+	private static final class Bucket
+	{
+		private Timeout _head;
+		private Timeout _tail;
+		private volatile int _size;
+		
+		private void add(Timeout timeout)
+		{
+			timeout._bucket = this;
+			
+			if (_tail == null)
+				_head = timeout;
+			else
+			{
+				_tail._next = timeout;
+				timeout._prev = _tail;
+			}
+			_tail = timeout;
+			_size++;
+		}
+		
+		private void remove(Timeout timeout)
+		{
+			if (timeout._prev == null)
+				_head = timeout._next;
+			else
+				timeout._prev._next = timeout._next;
+			
+			if (timeout._next == null)
+				_tail = timeout._prev;
+			else
+				timeout._next._prev = timeout._prev;
+			
+			timeout._bucket = null;
+			timeout._prev = null;
+			timeout._next = null;
+			_size--;
+		}
+		
+		/**
+		 * Empties the bucket.
+		 * @return Timeout : The head of the former timeout list.
+		 */
+		private Timeout clear()
+		{
+			final Timeout head = _head;
+			for (Timeout timeout = head; timeout != null; timeout = timeout._next)
+				timeout._bucket = null;
+			
+			_head = null;
+			_tail = null;
+			_size = 0;
+			return head;
+		}
+	}
+	
+	private static class SingletonHolder
+	{
+		protected static final TimingWheelTaskManager _instance = new TimingWheelTaskManager();
+	}
+}
\ No newline at end of file
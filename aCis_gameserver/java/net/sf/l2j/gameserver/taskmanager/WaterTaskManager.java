@@ -17,18 +17,21 @@ package net.sf.l2j.gameserver.taskmanager;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
-import net.sf.l2j.gameserver.ThreadPoolManager;
 import net.sf.l2j.gameserver.model.actor.instance.L2PcInstance;
 import net.sf.l2j.gameserver.network.SystemMessageId;
 import net.sf.l2j.gameserver.network.serverpackets.SystemMessage;
+import net.sf.l2j.gameserver.taskmanager.TimingWheelTaskManager.Timeout;
 
 /**
  * Updates {@link L2PcInstance} drown timer and reduces {@link L2PcInstance} HP, when drowning.
  * @author Tryskell, Hasha
  */
-public final class WaterTaskManager implements Runnable
+public final class WaterTaskManager
 {
-	private final Map<L2PcInstance, Long> _players = new ConcurrentHashMap<>();
+	// Drowning damage is applied each second.
+	private static final long DROWN_PERIOD = 1000;
+	
+	private final Map<L2PcInstance, Timeout> _players = new ConcurrentHashMap<>();
 	
 	public static final WaterTaskManager getInstance()
 	{
@@ -37,8 +40,6 @@ public final class WaterTaskManager implements Runnable
 	
 	protected WaterTaskManager()
 	{
-		// Run task each second.
-		ThreadPoolManager.getInstance().scheduleEffectAtFixedRate(this, 1000, 1000);
 	}
 	
 	/**
@@ -48,7 +49,9 @@ public final class WaterTaskManager implements Runnable
 	 */
 	public final void add(L2PcInstance player, long time)
 	{
-		_players.put(player, System.currentTimeMillis() + time);
+		final Timeout timeout = _players.put(player, TimingWheelTaskManager.getInstance().schedule(() -> drown(player), time));
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
 	/**
@@ -57,34 +60,34 @@ public final class WaterTaskManager implements Runnable
 	 */
 	public final void remove(L2PcInstance player)
 	{
-		_players.remove(player);
+		final Timeout timeout = _players.remove(player);
+		if (timeout != null)
+			timeout.cancel();
 	}
 	
-	@Override
-	public final void run()
+	/**
+	 * Reduces HP of {@link L2PcInstance}, once its timeout expired, and schedules next damage.
+	 * @param player : {@link L2PcInstance} drowning.
+	 */
+	private final void drown(L2PcInstance player)
 	{
-		// List is empty, skip.
-		if (_players.isEmpty())
+		// Task was already replaced or removed, skip.
+		final Timeout timeout = _players.get(player);
+		if (timeout == null || !timeout.isExpired())
 			return;
 		
-		// Get current time.
-		final long time = System.currentTimeMillis();
-		
-		// Loop all players.
-		for (Map.Entry<L2PcInstance, Long> entry : _players.entrySet())
+		// Schedule next damage, unless player was removed meanwhile.
+		final Timeout next = TimingWheelTaskManager.getInstance().schedule(() -> drown(player), DROWN_PERIOD);
+		if (!_players.replace(player, timeout, next))
 		{
-			// Time has not passed yet, skip.
-			if (time < entry.getValue())
-				continue;
-			
-			// Get player.
-			final L2PcInstance player = entry.getKey();
-			
-			// Reduce 1% of HP per second.
-			final double hp = player.getMaxHp() / 100.0;
-			player.reduceCurrentHp(hp, player, false, false, null);
-			player.sendPacket(SystemMessage.getSystemMessage(SystemMessageId.DROWN_DAMAGE_S1).addNumber((int) hp));
+			next.cancel();
+			return;
 		}
+		
+		// Reduce 1% of HP per second.
+		final double hp = player.getMaxHp() / 100.0;
+		player.reduceCurrentHp(hp, player, false, false, null);
+		player.sendPacket(SystemMessage.getSystemMessage(SystemMessageId.DROWN_DAMAGE_S1).addNumber((int) hp));
 	}
 	
 	private static class SingletonHolder
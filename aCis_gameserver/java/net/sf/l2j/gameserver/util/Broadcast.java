@@ -25,6 +25,9 @@ import net.sf.l2j.gameserver.network.clientpackets.Say2;
 import net.sf.l2j.gameserver.network.serverpackets.CreatureSay;
 import net.sf.l2j.gameserver.network.serverpackets.L2GameServerPacket;
 
+/**
+ * Broadcast helpers. Packets sent to several players are serialized once (see {@link L2GameServerPacket#prepareBroadcast()}), the first time a recipient is found.
+ */
 public final class Broadcast
 {
 	/**
@@ -41,11 +44,12 @@ public final class Broadcast
 	 */
 	public static void toPlayersTargettingMyself(L2Character character, L2GameServerPacket mov)
 	{
-		for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 		{
 			if (player.getTarget() != character)
 				continue;
 			
+			mov.prepareBroadcast();
 			player.sendPacket(mov);
 		}
 	}
@@ -64,8 +68,11 @@ public final class Broadcast
 	 */
 	public static void toKnownPlayers(L2Character character, L2GameServerPacket mov)
 	{
-		for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : character.getKnownList().getKnownPlayers())
+		{
+			mov.prepareBroadcast();
 			player.sendPacket(mov);
+		}
 	}
 	
 	/**
@@ -86,10 +93,13 @@ public final class Broadcast
 		if (radius < 0)
 			radius = 1500;
 		
-		for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 		{
 			if (character.isInsideRadius(player, radius, false, false))
+			{
+				mov.prepareBroadcast();
 				player.sendPacket(mov);
+			}
 		}
 	}
 	
@@ -106,7 +116,10 @@ public final class Broadcast
 	public static void toSelfAndKnownPlayers(L2Character character, L2GameServerPacket mov)
 	{
 		if (character instanceof L2PcInstance)
+		{
+			mov.prepareBroadcast();
 			character.sendPacket(mov);
+		}
 		
 		toKnownPlayers(character, mov);
 	}
@@ -117,12 +130,18 @@ public final class Broadcast
 			radius = 600;
 		
 		if (character instanceof L2PcInstance)
+		{
+			mov.prepareBroadcast();
 			character.sendPacket(mov);
+		}
 		
-		for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 		{
 			if (character.isInsideRadius(player, radius, false, false))
+			{
+				mov.prepareBroadcast();
 				player.sendPacket(mov);
+			}
 		}
 	}
 	
@@ -132,12 +151,18 @@ public final class Broadcast
 			radiusSq = 360000;
 		
 		if (character instanceof L2PcInstance)
+		{
+			mov.prepareBroadcast();
 			character.sendPacket(mov);
+		}
 		
-		for (L2PcInstance player : character.getKnownList().getKnownType(L2PcInstance.class))
+		for (L2PcInstance player : character.getKnownList().getKnownPlayers())
 		{
 			if (character.getDistanceSq(player) <= radiusSq)
+			{
+				mov.prepareBroadcast();
 				player.sendPacket(mov);
+			}
 		}
 	}
 	
@@ -156,7 +181,10 @@ public final class Broadcast
 		for (L2PcInstance player : L2World.getInstance().getAllPlayers().values())
 		{
 			if (player.isOnline())
+			{
+				mov.prepareBroadcast();
 				player.sendPacket(mov);
+			}
 		}
 	}
 	
@@ -172,7 +200,10 @@ public final class Broadcast
 			if (playable instanceof L2PcInstance)
 			{
 				for (L2GameServerPacket packet : packets)
+				{
+					packet.prepareBroadcast();
 					playable.sendPacket(packet);
+				}
 			}
 		}
 	}
@@ -190,7 +221,10 @@ public final class Broadcast
 			for (L2PcInstance player : temp.getKnownTypeInside(L2PcInstance.class))
 			{
 				for (L2GameServerPacket packet : packets)
+				{
+					packet.prepareBroadcast();
 					player.sendPacket(packet);
+				}
 			}
 		}
 	}
@@ -3,17 +3,35 @@
  */
 package net.sf.l2j.gameserver.xmlfactory;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
+import net.sf.l2j.Config;
+
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
 
 /**
  * @author Forsaiken
@@ -25,19 +43,47 @@ public final class XMLDocumentFactory
 		return SingletonHolder._instance;
 	}
 	
-	private final DocumentBuilder _builder;
+	private final DocumentBuilderFactory _factory;
 	private final Transformer _transformer;
+	private final XMLInputFactory _inputFactory;
+	
+	// A DocumentBuilder can't be used by several threads at once, which happens while data is loaded on startup.
+	private final ThreadLocal<DocumentBuilder> _builder = new ThreadLocal<DocumentBuilder>()
+	{
+		@Override
+		protected DocumentBuilder initialValue()
+		{
+			try
+			{
+				synchronized (_factory)
+				{
+					return _factory.newDocumentBuilder();
+				}
+			}
+			catch (Exception e)
+			{
+				throw new IllegalStateException("Failed creating a DocumentBuilder", e);
+			}
+		}
+	};
 	
 	protected XMLDocumentFactory() throws Exception
 	{
 		try
 		{
-			final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setValidating(false);
-			factory.setIgnoringComments(true);
+			_factory = DocumentBuilderFactory.newInstance();
+			_factory.setValidating(false);
+			_factory.setIgnoringComments(true);
+			
+			// Check the configuration once.
+			_factory.newDocumentBuilder();
 			
-			_builder = factory.newDocumentBuilder();
 			_transformer = TransformerFactory.newInstance().newTransformer();
+			
+			// Same behavior as the DocumentBuilder : no namespaces, and CDATA sections kept apart.
+			_inputFactory = XMLInputFactory.newInstance();
+			_inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+			_inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
 		}
 		catch (Exception e)
 		{
@@ -55,10 +101,212 @@ public final class XMLDocumentFactory
 		if (!checkFile(file))
 			throw new Exception("File: " + file.getAbsolutePath() + " doesn't exist and/or is not a file.");
 		
-		return _builder.parse(file);
+		final File snapshot = (Config.XML_SNAPSHOTS) ? XMLSnapshot.getSnapshotFile(file) : null;
+		if (snapshot == null)
+			return _builder.get().parse(file);
+		
+		// Use the snapshot as long as the file didn't change, otherwise parse the file and write its snapshot.
+		final byte[] data = Files.readAllBytes(file.toPath());
+		final long checksum = getChecksum(data);
+		
+		final Document doc = XMLSnapshot.read(snapshot, checksum, _builder.get());
+		if (doc != null)
+			return doc;
+		
+		return parseAndSnapshot(file, snapshot, data, checksum);
+	}
+	
+	/**
+	 * Streams the file, rather than loading it whole : each element with given name is built alone and handed to the handler, then dropped. Only one of these elements is in memory at once.<br>
+	 * <br>
+	 * Elements are looked for from the root, but not inside a handled element. Handled elements have no parent, but their content is the same as in {@link #loadDocument(File)}.<br>
+	 * <br>
+	 * The snapshot of the file is streamed the same way. A changed file is loaded whole once, to write its snapshot.
+	 * @param file : The XML file.
+	 * @param name : The name of the elements to handle, case insensitive.
+	 * @param handler : The handler of each element.
+	 * @throws Exception : The file couldn't be read, or the handler failed.
+	 */
+	public final void streamDocument(final File file, final String name, final Consumer<Node> handler) throws Exception
+	{
+		if (!checkFile(file))
+			throw new Exception("File: " + file.getAbsolutePath() + " doesn't exist and/or is not a file.");
+		
+		final File snapshot = (Config.XML_SNAPSHOTS) ? XMLSnapshot.getSnapshotFile(file) : null;
+		if (snapshot == null)
+		{
+			try (InputStream is = new BufferedInputStream(new FileInputStream(file)))
+			{
+				streamElements(is, file.toURI().toString(), name, handler);
+			}
+			return;
+		}
+		
+		final byte[] data = Files.readAllBytes(file.toPath());
+		final long checksum = getChecksum(data);
+		
+		if (!XMLSnapshot.stream(snapshot, checksum, _builder.get(), name, handler))
+			findElements(parseAndSnapshot(file, snapshot, data, checksum), name, handler);
+	}
+	
+	/**
+	 * Checks the elements given by {@link #streamDocument(File, String, Consumer)} are the same as the ones of the parsed document : both the XML stream and the snapshot, if up to date, are checked.<br>
+	 * <br>
+	 * The file is read several times, so it is meant for developer mode only.
+	 * @param file : The XML file.
+	 * @param name : The name of the elements to check, case insensitive.
+	 * @return boolean : True if streamed elements are equal to the parsed ones.
+	 * @throws Exception : The file couldn't be read.
+	 */
+	public final boolean checkStreaming(final File file, final String name) throws Exception
+	{
+		final List<Node> expected = new ArrayList<>();
+		findElements(_builder.get().parse(file), name, expected::add);
+		
+		final List<Node> streamed = new ArrayList<>();
+		try (InputStream is = new BufferedInputStream(new FileInputStream(file)))
+		{
+			streamElements(is, file.toURI().toString(), name, streamed::add);
+		}
+		
+		if (!isEqual(expected, streamed))
+			return false;
+		
+		final File snapshot = (Config.XML_SNAPSHOTS) ? XMLSnapshot.getSnapshotFile(file) : null;
+		if (snapshot == null)
+			return true;
+		
+		final List<Node> restored = new ArrayList<>();
+		if (!XMLSnapshot.stream(snapshot, getChecksum(Files.readAllBytes(file.toPath())), _builder.get(), name, restored::add))
+			return true;
+		
+		return isEqual(expected, restored);
+	}
+	
+	private final Document parseAndSnapshot(final File file, final File snapshot, final byte[] data, final long checksum) throws Exception
+	{
+		final Document doc = _builder.get().parse(new ByteArrayInputStream(data), file.toURI().toString());
+		XMLSnapshot.write(snapshot, checksum, doc);
+		return doc;
 	}
 	
-	public final void writeDocument(final String filePath, final Document doc) throws Exception
+	/**
+	 * Pulls the XML events, and builds the elements with given name only. Text is merged and comments are dropped, as done by the {@link DocumentBuilder}.
+	 * @param is : The XML stream.
+	 * @param systemId : The location of the stream, used by errors.
+	 * @param name : The name of the elements to handle, case insensitive.
+	 * @param handler : The handler of each element.
+	 * @throws XMLStreamException : The XML is malformed.
+	 */
+	private final void streamElements(final InputStream is, final String systemId, final String name, final Consumer<Node> handler) throws XMLStreamException
+	{
+		final XMLStreamReader reader;
+		synchronized (_inputFactory)
+		{
+			reader = _inputFactory.createXMLStreamReader(systemId, is);
+		}
+		
+		try
+		{
+			final Document doc = _builder.get().newDocument();
+			
+			// The handled element being built, and the current node in it.
+			Element element = null;
+			Node parent = null;
+			
+			while (reader.hasNext())
+			{
+				switch (reader.next())
+				{
+					case XMLStreamConstants.START_ELEMENT:
+						if (element == null && !name.equalsIgnoreCase(reader.getLocalName()))
+							break;
+						
+						final Element child = doc.createElement(reader.getLocalName());
+						for (int i = 0; i < reader.getAttributeCount(); i++)
+							child.setAttribute(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+						
+						if (element == null)
+							element = child;
+						else
+							parent.appendChild(child);
+						
+						parent = child;
+						break;
+					
+					case XMLStreamConstants.END_ELEMENT:
+						if (element == null)
+							break;
+						
+						if (parent == element)
+						{
+							handler.accept(element);
+							element = null;
+							parent = null;
+						}
+						else
+							parent = parent.getParentNode();
+						break;
+					
+					case XMLStreamConstants.CHARACTERS:
+					case XMLStreamConstants.SPACE:
+						if (parent == null)
+							break;
+						
+						// A text may come in several events.
+						final Node last = parent.getLastChild();
+						if (last != null && last.getNodeType() == Node.TEXT_NODE)
+							((Text) last).appendData(reader.getText());
+						else
+							parent.appendChild(doc.createTextNode(reader.getText()));
+						break;
+					
+					case XMLStreamConstants.CDATA:
+						if (parent != null)
+							parent.appendChild(doc.createCDATASection(reader.getText()));
+						break;
+					
+					case XMLStreamConstants.PROCESSING_INSTRUCTION:
+						if (parent != null)
+							parent.appendChild(doc.createProcessingInstruction(reader.getPITarget(), reader.getPIData()));
+						break;
+				}
+			}
+		}
+		finally
+		{
+			reader.close();
+		}
+	}
+	
+	private static final void findElements(final Node parent, final String name, final Consumer<Node> handler)
+	{
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			if (node.getNodeType() != Node.ELEMENT_NODE)
+				continue;
+			
+			if (name.equalsIgnoreCase(node.getNodeName()))
+				handler.accept(node);
+			else
+				findElements(node, name, handler);
+		}
+	}
+	
+	private static final boolean isEqual(final List<Node> expected, final List<Node> nodes)
+	{
+		if (expected.size() != nodes.size())
+			return false;
+		
+		for (int i = 0; i < expected.size(); i++)
+		{
+			if (!expected.get(i).isEqualNode(nodes.get(i)))
+				return false;
+		}
+		return true;
+	}
+	
+	public final synchronized void writeDocument(final String filePath, final Document doc) throws Exception
 	{
 		final File file = new File(filePath);
 		
@@ -67,7 +315,14 @@ public final class XMLDocumentFactory
 	
 	public final Document newDocument()
 	{
-		return _builder.newDocument();
+		return _builder.get().newDocument();
+	}
+	
+	private final static long getChecksum(final byte[] data)
+	{
+		final CRC32 crc = new CRC32();
+		crc.update(data);
+		return crc.getValue();
 	}
 	
 	private final static boolean checkFile(final File file)
@@ -0,0 +1,459 @@
+/*
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ * 
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ * 
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.l2j.gameserver.xmlfactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilder;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Binary snapshot of a parsed XML document, written under {@link #SNAPSHOT_FOLDER} for files of {@link #SOURCE_FOLDER}.<br>
+ * <br>
+ * A snapshot holds the CRC32 of its source file : as long as the source is the same, the document is rebuilt from the snapshot, without XML parsing. Snapshots are read whole rather than memory-mapped, so they can be replaced while the server runs. A changed source, or a snapshot of another version, is ignored and written again.<br>
+ * <br>
+ * Layout : magic, version, source checksum, string table (each name and value stored once), then the nodes in document order. Comments and document type aren't kept.
+ */
+public final class XMLSnapshot
+{
+	private static final Logger _log = Logger.getLogger(XMLSnapshot.class.getName());
+	
+	private static final int MAGIC = 0x4C325853; // "L2XS"
+	private static final int VERSION = 1;
+	
+	private static final byte ELEMENT = 1;
+	private static final byte TEXT = 2;
+	private static final byte CDATA = 3;
+	private static final byte PROCESSING_INSTRUCTION = 4;
+	
+	private static final File SOURCE_FOLDER = new File("./data");
+	private static final File SNAPSHOT_FOLDER = new File("./data/snapshots");
+	
+	private XMLSnapshot()
+	{
+	}
+	
+	/**
+	 * @param source : The XML file.
+	 * @return File : The snapshot of the XML file, or null if that file can't have one.
+	 */
+	public static File getSnapshotFile(File source)
+	{
+		try
+		{
+			final String root = SOURCE_FOLDER.getCanonicalPath() + File.separator;
+			final String path = source.getCanonicalPath();
+			if (!path.startsWith(root) || path.startsWith(SNAPSHOT_FOLDER.getCanonicalPath() + File.separator))
+				return null;
+			
+			return new File(SNAPSHOT_FOLDER, path.substring(root.length()) + ".bin");
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+	
+	/**
+	 * Rebuilds the document from its snapshot.
+	 * @param snapshot : The snapshot file.
+	 * @param checksum : The checksum of the source file.
+	 * @param builder : The builder creating the document.
+	 * @return Document : The document, or null if the snapshot is missing, outdated or broken.
+	 */
+	public static Document read(File snapshot, long checksum, DocumentBuilder builder)
+	{
+		if (!snapshot.isFile())
+			return null;
+		
+		try
+		{
+			final ByteBuffer buffer = load(snapshot, checksum);
+			if (buffer == null)
+				return null;
+			
+			final String[] strings = readStrings(buffer);
+			
+			final Document doc = builder.newDocument();
+			readChildren(buffer, strings, doc, doc);
+			return doc;
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "XMLSnapshot: couldn't read " + snapshot + ", the XML file is parsed instead: " + e.getMessage(), e);
+			return null;
+		}
+	}
+	
+	/**
+	 * Streams the snapshot : each element with given name is rebuilt alone and handed to the handler, other nodes are skipped. Elements aren't looked for inside a handled element.<br>
+	 * <br>
+	 * The whole snapshot is checked before the first element is handed, so a broken snapshot is dropped before the handler saw any part of it.
+	 * @param snapshot : The snapshot file.
+	 * @param checksum : The checksum of the source file.
+	 * @param builder : The builder creating the elements.
+	 * @param name : The name of the elements to handle, case insensitive.
+	 * @param handler : The handler of each element.
+	 * @return boolean : False if the snapshot is missing, outdated or broken, nothing is then handled.
+	 * @throws IOException : The snapshot changed while streamed.
+	 */
+	public static boolean stream(File snapshot, long checksum, DocumentBuilder builder, String name, Consumer<Node> handler) throws IOException
+	{
+		if (!snapshot.isFile())
+			return false;
+		
+		final ByteBuffer buffer;
+		final String[] strings;
+		try
+		{
+			buffer = load(snapshot, checksum);
+			if (buffer == null)
+				return false;
+			
+			strings = readStrings(buffer);
+			
+			final int start = buffer.position();
+			checkChildren(buffer, strings.length);
+			if (buffer.hasRemaining())
+				throw new IOException(buffer.remaining() + " bytes left after the nodes");
+			
+			buffer.position(start);
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "XMLSnapshot: couldn't read " + snapshot + ", the XML file is parsed instead: " + e.getMessage(), e);
+			return false;
+		}
+		
+		findChildren(buffer, strings, builder.newDocument(), name, handler);
+		return true;
+	}
+	
+	/**
+	 * Reads the snapshot whole, and checks its header. The file is closed once read, as a mapped file couldn't be replaced nor deleted on some systems.
+	 * @param snapshot : The snapshot file.
+	 * @param checksum : The checksum of the source file.
+	 * @return ByteBuffer : The content following the header, or null if the snapshot is outdated.
+	 * @throws IOException : The snapshot couldn't be read.
+	 */
+	private static ByteBuffer load(File snapshot, long checksum) throws IOException
+	{
+		final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot.toPath()));
+		if (buffer.remaining() < 16 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != checksum)
+			return null;
+		
+		return buffer;
+	}
+	
+	/**
+	 * Writes the snapshot of the document. The file is written aside, then renamed, so a broken write never leaves a partial snapshot.
+	 * @param snapshot : The snapshot file.
+	 * @param checksum : The checksum of the source file.
+	 * @param doc : The parsed document.
+	 */
+	public static void write(File snapshot, long checksum, Document doc)
+	{
+		try
+		{
+			// Nodes first, as the string table is filled while writing them.
+			final Map<String, Integer> strings = new HashMap<>();
+			final ByteArrayOutputStream nodes = new ByteArrayOutputStream(1 << 16);
+			try (DataOutputStream out = new DataOutputStream(nodes))
+			{
+				writeChildren(out, strings, doc);
+			}
+			
+			final String[] table = new String[strings.size()];
+			for (Map.Entry<String, Integer> entry : strings.entrySet())
+				table[entry.getValue()] = entry.getKey();
+			
+			snapshot.getParentFile().mkdirs();
+			
+			final File temp = new File(snapshot.getPath() + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp)))
+			{
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(checksum);
+				out.writeInt(table.length);
+				for (String string : table)
+				{
+					final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+					out.writeInt(bytes.length);
+					out.write(bytes);
+				}
+				nodes.writeTo(out);
+			}
+			
+			if (!temp.renameTo(snapshot))
+			{
+				snapshot.delete();
+				if (!temp.renameTo(snapshot))
+					throw new IOException("couldn't rename " + temp);
+			}
+		}
+		catch (Exception e)
+		{
+			_log.log(Level.WARNING, "XMLSnapshot: couldn't write " + snapshot + ": " + e.getMessage(), e);
+		}
+	}
+	
+	private static void writeChildren(DataOutputStream out, Map<String, Integer> strings, Node parent) throws IOException
+	{
+		int count = 0;
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			if (isKept(node))
+				count++;
+		}
+		out.writeInt(count);
+		
+		for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling())
+		{
+			switch (node.getNodeType())
+			{
+				case Node.ELEMENT_NODE:
+					out.writeByte(ELEMENT);
+					out.writeInt(getIndex(strings, node.getNodeName()));
+					
+					final NamedNodeMap attrs = node.getAttributes();
+					out.writeInt(attrs.getLength());
+					for (int i = 0; i < attrs.getLength(); i++)
+					{
+						final Node attr = attrs.item(i);
+						out.writeInt(getIndex(strings, attr.getNodeName()));
+						out.writeInt(getIndex(strings, attr.getNodeValue()));
+					}
+					
+					writeChildren(out, strings, node);
+					break;
+				
+				case Node.TEXT_NODE:
+					out.writeByte(TEXT);
+					out.writeInt(getIndex(strings, node.getNodeValue()));
+					break;
+				
+				case Node.CDATA_SECTION_NODE:
+					out.writeByte(CDATA);
+					out.writeInt(getIndex(strings, node.getNodeValue()));
+					break;
+				
+				case Node.PROCESSING_INSTRUCTION_NODE:
+					out.writeByte(PROCESSING_INSTRUCTION);
+					out.writeInt(getIndex(strings, node.getNodeName()));
+					out.writeInt(getIndex(strings, node.getNodeValue()));
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the string table. Sizes are checked against the bytes left before anything is allocated, so a broken snapshot can't ask for a huge array.
+	 * @param buffer : The snapshot, positioned on the string table.
+	 * @return String[] : The strings.
+	 * @throws IOException : A size doesn't fit in the snapshot.
+	 */
+	private static String[] readStrings(ByteBuffer buffer) throws IOException
+	{
+		// Each string takes at least its 4 bytes length.
+		final int count = buffer.getInt();
+		if (count < 0 || count > buffer.remaining() / 4)
+			throw new IOException("string count " + count + " doesn't fit in " + buffer.remaining() + " bytes");
+		
+		final String[] strings = new String[count];
+		for (int i = 0; i < strings.length; i++)
+		{
+			final int length = buffer.getInt();
+			if (length < 0 || length > buffer.remaining())
+				throw new IOException("string length " + length + " doesn't fit in " + buffer.remaining() + " bytes");
+			
+			final byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return strings;
+	}
+	
+	private static void readChildren(ByteBuffer buffer, String[] strings, Document doc, Node parent) throws IOException
+	{
+		final int count = buffer.getInt();
+		for (int i = 0; i < count; i++)
+		{
+			final byte type = buffer.get();
+			switch (type)
+			{
+				case ELEMENT:
+					parent.appendChild(readElement(buffer, strings, doc, strings[buffer.getInt()]));
+					break;
+				
+				case TEXT:
+					parent.appendChild(doc.createTextNode(strings[buffer.getInt()]));
+					break;
+				
+				case CDATA:
+					parent.appendChild(doc.createCDATASection(strings[buffer.getInt()]));
+					break;
+				
+				case PROCESSING_INSTRUCTION:
+					parent.appendChild(doc.createProcessingInstruction(strings[buffer.getInt()], strings[buffer.getInt()]));
+					break;
+				
+				default:
+					throw new IOException("unknown node type " + type);
+			}
+		}
+	}
+	
+	private static Element readElement(ByteBuffer buffer, String[] strings, Document doc, String name) throws IOException
+	{
+		final Element element = doc.createElement(name);
+		
+		final int attrs = buffer.getInt();
+		for (int i = 0; i < attrs; i++)
+			element.setAttribute(strings[buffer.getInt()], strings[buffer.getInt()]);
+		
+		readChildren(buffer, strings, doc, element);
+		return element;
+	}
+	
+	private static void findChildren(ByteBuffer buffer, String[] strings, Document doc, String name, Consumer<Node> handler) throws IOException
+	{
+		final int count = buffer.getInt();
+		for (int i = 0; i < count; i++)
+		{
+			final byte type = buffer.get();
+			switch (type)
+			{
+				case ELEMENT:
+					final String elementName = strings[buffer.getInt()];
+					if (name.equalsIgnoreCase(elementName))
+						handler.accept(readElement(buffer, strings, doc, elementName));
+					else
+					{
+						// Skip the attributes, each one being two string indexes.
+						final int attrs = buffer.getInt();
+						buffer.position(buffer.position() + attrs * 8);
+						findChildren(buffer, strings, doc, name, handler);
+					}
+					break;
+				
+				case TEXT:
+				case CDATA:
+					buffer.getInt();
+					break;
+				
+				case PROCESSING_INSTRUCTION:
+					buffer.position(buffer.position() + 8);
+					break;
+				
+				default:
+					throw new IOException("unknown node type " + type);
+			}
+		}
+	}
+	
+	/**
+	 * Walks the nodes without building them, checking each node type and string index.
+	 * @param buffer : The snapshot, positioned on a node count.
+	 * @param strings : The size of the string table.
+	 * @throws IOException : A node is broken.
+	 */
+	private static void checkChildren(ByteBuffer buffer, int strings) throws IOException
+	{
+		final int count = buffer.getInt();
+		if (count < 0)
+			throw new IOException("negative node count " + count);
+		
+		for (int i = 0; i < count; i++)
+		{
+			final byte type = buffer.get();
+			switch (type)
+			{
+				case ELEMENT:
+					checkIndex(buffer, strings);
+					
+					final int attrs = buffer.getInt();
+					if (attrs < 0)
+						throw new IOException("negative attribute count " + attrs);
+					
+					for (int j = 0; j < attrs * 2; j++)
+						checkIndex(buffer, strings);
+					
+					checkChildren(buffer, strings);
+					break;
+				
+				case TEXT:
+				case CDATA:
+					checkIndex(buffer, strings);
+					break;
+				
+				case PROCESSING_INSTRUCTION:
+					checkIndex(buffer, strings);
+					checkIndex(buffer, strings);
+					break;
+				
+				default:
+					throw new IOException("unknown node type " + type);
+			}
+		}
+	}
+	
+	private static void checkIndex(ByteBuffer buffer, int strings) throws IOException
+	{
+		final int index = buffer.getInt();
+		if (index < 0 || index >= strings)
+			throw new IOException("string index " + index + " out of " + strings);
+	}
+	
+	private static boolean isKept(Node node)
+	{
+		switch (node.getNodeType())
+		{
+			case Node.ELEMENT_NODE:
+			case Node.TEXT_NODE:
+			case Node.CDATA_SECTION_NODE:
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				return true;
+		}
+		return false;
+	}
+	
+	private static int getIndex(Map<String, Integer> strings, String string)
+	{
+		Integer index = strings.get(string);
+		if (index == null)
+		{
+			index = strings.size();
+			strings.put(string, index);
+		}
+		return index;
+	}
+}
\ No newline at end of file
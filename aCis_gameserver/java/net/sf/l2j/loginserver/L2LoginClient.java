@@ -14,7 +14,6 @@
  */
 package net.sf.l2j.loginserver;
 
-import java.io.IOException;
 import java.net.InetAddress;
 import java.nio.ByteBuffer;
 import java.security.interfaces.RSAPrivateKey;
@@ -96,22 +95,9 @@ public final class L2LoginClient extends MMOClient<MMOConnection<L2LoginClient>>
 	@Override
 	public boolean decrypt(ByteBuffer buf, int size)
 	{
-		boolean ret = false;
-		try
-		{
-			ret = _loginCrypt.decrypt(buf.array(), buf.position(), size);
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-			super.getConnection().close((SendablePacket<L2LoginClient>) null);
-			return false;
-		}
-		
+		final boolean ret = _loginCrypt.decrypt(buf, buf.position(), size);
 		if (!ret)
 		{
-			byte[] dump = new byte[size];
-			System.arraycopy(buf.array(), buf.position(), dump, 0, size);
 			_log.warning("Wrong checksum from client: " + toString());
 			super.getConnection().close((SendablePacket<L2LoginClient>) null);
 		}
@@ -123,15 +109,8 @@ public final class L2LoginClient extends MMOClient<MMOConnection<L2LoginClient>>
 	public boolean encrypt(ByteBuffer buf, int size)
 	{
 		final int offset = buf.position();
-		try
-		{
-			size = _loginCrypt.encrypt(buf.array(), offset, size);
-		}
-		catch (IOException e)
-		{
-			e.printStackTrace();
-			return false;
-		}
+		
+		size = _loginCrypt.encrypt(buf, offset, size);
 		
 		buf.position(offset + size);
 		return true;
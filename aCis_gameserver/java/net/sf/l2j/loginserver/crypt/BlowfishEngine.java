@@ -15,6 +15,8 @@
 package net.sf.l2j.loginserver.crypt;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * This file is based on the Blowfish Engine that is part of the BouncyCastle JCE Copyright (c) 2000 The Legion Of The Bouncy Castle (http://www.bouncycastle.org) Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the
@@ -1140,6 +1142,56 @@ public class BlowfishEngine
 		return BLOCK_SIZE;
 	}
 	
+	/**
+	 * Process in place the block starting at the given index of the buffer, reading and writing both 32 bits halves as little-endian words.
+	 * @param buf : the buffer holding the block (heap or direct).
+	 * @param index : the absolute index of the block.
+	 */
+	public final void processBlock(ByteBuffer buf, int index)
+	{
+		if (workingKey == null)
+			throw new IllegalStateException("Blowfish not initialised");
+		
+		final boolean swap = buf.order() != ByteOrder.LITTLE_ENDIAN;
+		
+		int xl = buf.getInt(index);
+		int xr = buf.getInt(index + 4);
+		if (swap)
+		{
+			xl = Integer.reverseBytes(xl);
+			xr = Integer.reverseBytes(xr);
+		}
+		
+		if (encrypting)
+		{
+			xl ^= P[0];
+			for (int i = 1; i < ROUNDS; i += 2)
+			{
+				xr ^= func(xl) ^ P[i];
+				xl ^= func(xr) ^ P[i + 1];
+			}
+			xr ^= P[ROUNDS + 1];
+		}
+		else
+		{
+			xl ^= P[ROUNDS + 1];
+			for (int i = ROUNDS; i > 0; i -= 2)
+			{
+				xr ^= func(xl) ^ P[i];
+				xl ^= func(xr) ^ P[i - 1];
+			}
+			xr ^= P[0];
+		}
+		
+		if (swap)
+		{
+			xl = Integer.reverseBytes(xl);
+			xr = Integer.reverseBytes(xr);
+		}
+		buf.putInt(index, xr);
+		buf.putInt(index + 4, xl);
+	}
+	
 	public void reset()
 	{
 	}
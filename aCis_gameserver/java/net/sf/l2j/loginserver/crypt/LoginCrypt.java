@@ -14,7 +14,7 @@
  */
 package net.sf.l2j.loginserver.crypt;
 
-import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import net.sf.l2j.util.Rnd;
 
@@ -53,13 +53,13 @@ public class LoginCrypt
 		_crypt = new NewCrypt(key);
 	}
 	
-	public boolean decrypt(byte[] raw, final int offset, final int size) throws IOException
+	public boolean decrypt(ByteBuffer buf, final int offset, final int size)
 	{
-		_crypt.decrypt(raw, offset, size);
-		return NewCrypt.verifyChecksum(raw, offset, size);
+		_crypt.decrypt(buf, offset, size);
+		return NewCrypt.verifyChecksum(buf, offset, size);
 	}
 	
-	public int encrypt(byte[] raw, final int offset, int size) throws IOException
+	public int encrypt(ByteBuffer buf, final int offset, int size)
 	{
 		// reserve checksum
 		size += 4;
@@ -71,8 +71,8 @@ public class LoginCrypt
 			
 			// padding
 			size += 8 - size % 8;
-			NewCrypt.encXORPass(raw, offset, size, Rnd.nextInt());
-			_staticCrypt.crypt(raw, offset, size);
+			NewCrypt.encXORPass(buf, offset, size, Rnd.nextInt());
+			_staticCrypt.crypt(buf, offset, size);
 			
 			_static = false;
 		}
@@ -80,8 +80,8 @@ public class LoginCrypt
 		{
 			// padding
 			size += 8 - size % 8;
-			NewCrypt.appendChecksum(raw, offset, size);
-			_crypt.crypt(raw, offset, size);
+			NewCrypt.appendChecksum(buf, offset, size);
+			_crypt.crypt(buf, offset, size);
 		}
 		return size;
 	}
@@ -15,6 +15,8 @@
 package net.sf.l2j.loginserver.crypt;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public class NewCrypt
 {
@@ -68,6 +70,66 @@ public class NewCrypt
 		return check == chksum;
 	}
 	
+	/**
+	 * Verify the checksum of a packet, directly from its buffer. The 32 bits words are XORed 8 bytes at a time.
+	 * @param buf : the buffer holding the packet.
+	 * @param offset : the absolute index of the packet.
+	 * @param size : the packet size, checksum included.
+	 * @return true if the last 4 bytes match the checksum of the previous ones.
+	 */
+	public static boolean verifyChecksum(ByteBuffer buf, final int offset, final int size)
+	{
+		// check if size is multiple of 4 and if there is more then only the checksum
+		if ((size & 3) != 0 || size <= 4)
+			return false;
+		
+		final int count = size - 4;
+		return getInt(buf, offset + count) == computeChecksum(buf, offset, count);
+	}
+	
+	/**
+	 * Write the checksum of a packet over its last 4 bytes, directly into its buffer.
+	 * @param buf : the buffer holding the packet.
+	 * @param offset : the absolute index of the packet.
+	 * @param size : the packet size, checksum included.
+	 */
+	public static void appendChecksum(ByteBuffer buf, final int offset, final int size)
+	{
+		final int count = size - 4;
+		putInt(buf, offset + count, computeChecksum(buf, offset, count));
+	}
+	
+	private static int computeChecksum(ByteBuffer buf, final int offset, final int count)
+	{
+		final boolean swap = buf.order() != ByteOrder.LITTLE_ENDIAN;
+		
+		long chksum = 0;
+		int i = 0;
+		for (; i + 8 <= count; i += 8)
+			chksum ^= buf.getLong(offset + i);
+		
+		if (swap)
+			chksum = Long.reverseBytes(chksum);
+		
+		// fold both words of the long, then add the odd remaining word
+		int result = (int) chksum ^ (int) (chksum >>> 32);
+		if (i < count)
+			result ^= getInt(buf, offset + i);
+		
+		return result;
+	}
+	
+	private static int getInt(ByteBuffer buf, int index)
+	{
+		final int value = buf.getInt(index);
+		return (buf.order() == ByteOrder.LITTLE_ENDIAN) ? value : Integer.reverseBytes(value);
+	}
+	
+	private static void putInt(ByteBuffer buf, int index, int value)
+	{
+		buf.putInt(index, (buf.order() == ByteOrder.LITTLE_ENDIAN) ? value : Integer.reverseBytes(value));
+	}
+	
 	public static void appendChecksum(byte[] raw)
 	{
 		NewCrypt.appendChecksum(raw, 0, raw.length);
@@ -152,6 +214,56 @@ public class NewCrypt
 		raw[pos] = (byte) (ecx >> 24 & 0xFF);
 	}
 	
+	/**
+	 * Same as {@link #encXORPass(byte[], int, int, int)}, directly into the packet buffer.
+	 * @param buf : the buffer holding the packet.
+	 * @param offset : the absolute index of the packet.
+	 * @param size : the packet size.
+	 * @param key : the 4 bytes (int) XOR key
+	 */
+	public static void encXORPass(ByteBuffer buf, final int offset, final int size, int key)
+	{
+		final int stop = offset + size - 8;
+		int pos = offset + 4;
+		int edx;
+		int ecx = key; // Initial xor key
+		
+		for (; pos < stop; pos += 4)
+		{
+			edx = getInt(buf, pos);
+			
+			ecx += edx;
+			
+			putInt(buf, pos, edx ^ ecx);
+		}
+		
+		putInt(buf, pos, ecx);
+	}
+	
+	/**
+	 * Decrypt in place, block after block, the content of a buffer.
+	 * @param buf : the buffer holding the data.
+	 * @param offset : the absolute index of the data.
+	 * @param size : the data size. Trailing bytes which don't fill a block are left untouched.
+	 */
+	public void decrypt(ByteBuffer buf, final int offset, final int size)
+	{
+		for (int i = 0; i + 8 <= size; i += 8)
+			_decrypt.processBlock(buf, offset + i);
+	}
+	
+	/**
+	 * Encrypt in place, block after block, the content of a buffer.
+	 * @param buf : the buffer holding the data.
+	 * @param offset : the absolute index of the data.
+	 * @param size : the data size. Trailing bytes which don't fill a block are left untouched.
+	 */
+	public void crypt(ByteBuffer buf, final int offset, final int size)
+	{
+		for (int i = 0; i + 8 <= size; i += 8)
+			_crypt.processBlock(buf, offset + i);
+	}
+	
 	public byte[] decrypt(byte[] raw) throws IOException
 	{
 		byte[] result = new byte[raw.length];